@@ -0,0 +1,63 @@
+package com.example.account.loadgen;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * --key=value 형태의 실행 옵션
+ * - 기본 mix 에는 CREATE 가 없다 (기본 사용자 3명은 준비 단계에서 이미 사용자당 최대 10개를 채우므로 항상 실패)
+ * - 외부 target 에 account.rate-limit 이 켜져 있으면 계좌당 초당 제한을 넘는 요청은 TOO_MANY_REQUESTS 로 집계된다
+ * - target 이 account.async-debit 을 켜고 있으면 --async-debit 으로 USE 의 202 를 성공으로 센다
+ */
+public class LoadConfig {
+    String target = "http://localhost:8080";
+    boolean boot;
+    boolean asyncDebit;
+    double ratePerSecond = 200;
+    int warmupSeconds = 10;
+    int durationSeconds = 60;
+    int users = 3;
+    int accounts = 30;
+    double zipfExponent = 1.0;
+    int maxOutstanding = 10_000;
+    String output = "build/reports/load/results.json";
+    final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+    static LoadConfig parse(String[] args) {
+        LoadConfig config = new LoadConfig();
+        config.mix.put(Operation.USE, 60);
+        config.mix.put(Operation.QUERY, 20);
+        config.mix.put(Operation.CANCEL, 10);
+        config.mix.put(Operation.LIST, 10);
+
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            String value = pair.length > 1 ? pair[1] : "true";
+            switch (pair[0]) {
+                case "target": config.target = value; break;
+                case "boot": config.boot = Boolean.parseBoolean(value); break;
+                case "async-debit": config.asyncDebit = Boolean.parseBoolean(value); break;
+                case "rate": config.ratePerSecond = Double.parseDouble(value); break;
+                case "warmup": config.warmupSeconds = Integer.parseInt(value); break;
+                case "duration": config.durationSeconds = Integer.parseInt(value); break;
+                case "users": config.users = Integer.parseInt(value); break;
+                case "accounts": config.accounts = Integer.parseInt(value); break;
+                case "zipf": config.zipfExponent = Double.parseDouble(value); break;
+                case "max-outstanding": config.maxOutstanding = Integer.parseInt(value); break;
+                case "output": config.output = value; break;
+                case "mix": config.parseMix(value); break;
+                default: throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        return config;
+    }
+
+    // ex) use:60,query:20,cancel:10,list:8,create:2
+    private void parseMix(String value) {
+        mix.clear();
+        for (String entry : value.split(",")) {
+            String[] pair = entry.split(":");
+            mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+    }
+}
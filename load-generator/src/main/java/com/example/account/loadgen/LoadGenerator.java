@@ -0,0 +1,343 @@
+package com.example.account.loadgen;
+
+import com.example.account.AccountApplication;
+import com.example.account.workload.KeyDistribution;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AccountController / TransactionController 대상 부하 생성기
+ * - open model : 응답을 기다리지 않고 포아송 도착 간격으로 요청을 보낸다
+ * - 지연 시간은 "보냈어야 할 시각" 기준 (coordinated omission 보정)
+ * - 계좌 선택은 zipfian, 결과는 연산별 HdrHistogram 백분위 + errorCode 별 건수
+ */
+public class LoadGenerator {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String CLIENT_OVERFLOW = "CLIENT_OVERFLOW";
+    private static final String HTTP_ERROR = "HTTP_";
+    private static final String IO_ERROR = "IO_ERROR";
+    private static final int MAX_RECENT_TRANSACTIONS = 10_000;
+
+    private final LoadConfig config;
+    private final HttpClient client;
+    private final List<String> accountNumbers = new ArrayList<>();
+    private final List<Long> accountOwners = new ArrayList<>();
+    private final ConcurrentLinkedDeque<UsedTransaction> recentTransactions = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recentCount = new AtomicInteger();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Operation[] weightedOperations;
+    private KeyDistribution accountSampler;
+
+    private Map<Operation, Recorder> latencies;
+    private Map<String, LongAdder> outcomes;
+
+    public LoadGenerator(LoadConfig config, ExecutorService executor) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.weightedOperations = toWeighted(config.mix);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        ConfigurableApplicationContext context = null;
+        if (config.boot) {
+            // 키별 요청 제한이 켜져 있으면 hot 계좌 요청이 막혀 처리량 대신 거절을 재게 된다
+            context = SpringApplication.run(AccountApplication.class,
+                "--server.port=0", "--logging.level.root=WARN", "--account.rate-limit.enabled=false",
+                "--account.async-debit.enabled=" + config.asyncDebit);
+            config.target = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        try {
+            LoadGenerator generator = new LoadGenerator(config, executor);
+            generator.prepareAccounts();
+
+            System.out.printf("warmup %ds at %.0f req/s against %s%n",
+                config.warmupSeconds, config.ratePerSecond, config.target);
+            generator.run(config.warmupSeconds);
+
+            System.out.printf("measuring %ds%n", config.durationSeconds);
+            ObjectNode report = generator.run(config.durationSeconds);
+            String json = MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+            System.out.println(json);
+            write(config.output, json);
+        } finally {
+            executor.shutdownNow();
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * 부하 대상 계좌 준비 (사용자당 최대 10개)
+     */
+    void prepareAccounts() throws IOException, InterruptedException {
+        for (int i = 0; i < config.accounts; i++) {
+            long userId = i % config.users + 1;
+            JsonNode body = send(post("/account",
+                "{\"userId\":" + userId + ",\"initialBalance\":1000000000000}"));
+            if (body.hasNonNull("accountNumber")) {
+                accountNumbers.add(body.get("accountNumber").asText());
+                accountOwners.add(userId);
+            }
+        }
+        if (accountNumbers.isEmpty()) {
+            throw new IllegalStateException("No account could be created at " + config.target);
+        }
+        accountSampler = KeyDistribution.zipfian(accountNumbers.size(), config.zipfExponent);
+        System.out.printf("prepared %d accounts%n", accountNumbers.size());
+    }
+
+    ObjectNode run(int seconds) {
+        latencies = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(3));
+        }
+        outcomes = new ConcurrentHashMap<>();
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / config.ratePerSecond;
+        long intended = start;
+        long sent = 0;
+
+        while (intended < end) {
+            long now = System.nanoTime();
+            if (intended > now) {
+                LockSupport.parkNanos(intended - now);
+            }
+            issue(nextOperation(), intended);
+            sent++;
+            // 포아송 도착 : 지수 분포 간격
+            intended += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+        }
+
+        awaitOutstanding();
+        return report(sent, seconds);
+    }
+
+    private void issue(Operation operation, long intendedNanos) {
+        if (outstanding.incrementAndGet() > config.maxOutstanding) {
+            outstanding.decrementAndGet();
+            count(operation, CLIENT_OVERFLOW);
+            return;
+        }
+
+        UsedTransaction cancelTarget = null;
+        HttpRequest request;
+        int accountIndex = accountSampler.next();
+        String accountNumber = accountNumbers.get(accountIndex);
+        long userId = ThreadLocalRandom.current().nextInt(config.users) + 1;
+        switch (operation) {
+            case CREATE:
+                request = post("/account", "{\"userId\":" + userId + ",\"initialBalance\":100000}");
+                break;
+            case LIST:
+                request = get("/account?user_id=" + userId);
+                break;
+            case CANCEL:
+                cancelTarget = pollRecent();
+                if (cancelTarget == null) {
+                    operation = Operation.USE;
+                    request = useRequest(accountIndex);
+                    break;
+                }
+                request = post("/transaction/cancel", "{\"transactionId\":\"" + cancelTarget.transactionId
+                    + "\",\"accountNumber\":\"" + cancelTarget.accountNumber
+                    + "\",\"amount\":" + cancelTarget.amount + "}");
+                break;
+            case QUERY:
+                UsedTransaction queryTarget = recentTransactions.peekLast();
+                request = get("/transaction?transactionId="
+                    + (queryTarget == null ? "unknown" : queryTarget.transactionId));
+                break;
+            default:
+                request = useRequest(accountIndex);
+        }
+
+        Operation issued = operation;
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .handle((response, error) -> {
+                latencies.get(issued).recordValue(
+                    Math.max(0, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos)));
+                count(issued, outcomeOf(issued, accountNumber, response, error));
+                outstanding.decrementAndGet();
+                return null;
+            });
+    }
+
+    private String outcomeOf(Operation operation, String accountNumber,
+                             HttpResponse<String> response, Throwable error) {
+        if (error != null) {
+            return IO_ERROR;
+        }
+        // async-debit 이면 사용 요청은 큐에 접수되고 202 로 응답한다 (에러 응답은 그대로 200 + errorCode)
+        boolean accepted = response.statusCode() == 202 && operation == Operation.USE && config.asyncDebit;
+        if (response.statusCode() != 200 && !accepted) {
+            return HTTP_ERROR + response.statusCode();
+        }
+        try {
+            JsonNode body = MAPPER.readTree(response.body());
+            if (body.hasNonNull("errorCode")) {
+                return body.get("errorCode").asText();
+            }
+            if (operation == Operation.USE && body.hasNonNull("transactionId")) {
+                addRecent(new UsedTransaction(body.get("transactionId").asText(),
+                    accountNumber, body.get("amount").asLong()));
+            }
+            return "OK";
+        } catch (IOException e) {
+            return "INVALID_BODY";
+        }
+    }
+
+    private HttpRequest useRequest(int accountIndex) {
+        long amount = 10 + ThreadLocalRandom.current().nextInt(1000);
+        return post("/transaction/use", "{\"userId\":" + accountOwners.get(accountIndex)
+            + ",\"accountNumber\":\"" + accountNumbers.get(accountIndex) + "\",\"amount\":" + amount + "}");
+    }
+
+    private void addRecent(UsedTransaction transaction) {
+        recentTransactions.addLast(transaction);
+        if (recentCount.incrementAndGet() > MAX_RECENT_TRANSACTIONS && recentTransactions.pollFirst() != null) {
+            recentCount.decrementAndGet();
+        }
+    }
+
+    private UsedTransaction pollRecent() {
+        UsedTransaction transaction = recentTransactions.pollLast();
+        if (transaction != null) {
+            recentCount.decrementAndGet();
+        }
+        return transaction;
+    }
+
+    private Operation nextOperation() {
+        return weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+    }
+
+    private void count(Operation operation, String outcome) {
+        outcomes.computeIfAbsent(operation + ":" + outcome, k -> new LongAdder()).increment();
+    }
+
+    private void awaitOutstanding() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private ObjectNode report(long sent, int seconds) {
+        ObjectNode report = MAPPER.createObjectNode();
+        report.put("target", config.target);
+        report.put("offeredRatePerSecond", config.ratePerSecond);
+        report.put("durationSeconds", seconds);
+        report.put("sent", sent);
+        report.put("zipfExponent", config.zipfExponent);
+
+        ObjectNode operations = report.putObject("operations");
+        for (Map.Entry<Operation, Recorder> entry : latencies.entrySet()) {
+            Histogram histogram = entry.getValue().getIntervalHistogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            ObjectNode node = operations.putObject(entry.getKey().name().toLowerCase());
+            node.put("count", histogram.getTotalCount());
+            node.put("throughputPerSecond", (double) histogram.getTotalCount() / seconds);
+            node.put("p50Micros", histogram.getValueAtPercentile(50));
+            node.put("p90Micros", histogram.getValueAtPercentile(90));
+            node.put("p99Micros", histogram.getValueAtPercentile(99));
+            node.put("p999Micros", histogram.getValueAtPercentile(99.9));
+            node.put("maxMicros", histogram.getMaxValue());
+        }
+
+        ObjectNode outcomeNode = report.putObject("outcomes");
+        new TreeMap<>(outcomes).forEach((key, count) -> outcomeNode.put(key, count.sum()));
+        return report;
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        return MAPPER.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(config.target + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(config.target + path))
+            .timeout(Duration.ofSeconds(30))
+            .GET()
+            .build();
+    }
+
+    private static Operation[] toWeighted(Map<Operation, Integer> mix) {
+        List<Operation> weighted = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+        });
+        return weighted.toArray(new Operation[0]);
+    }
+
+    private static void write(String output, String json) throws IOException {
+        Path path = Paths.get(output);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, json);
+    }
+
+    private static class UsedTransaction {
+        private final String transactionId;
+        private final String accountNumber;
+        private final long amount;
+
+        private UsedTransaction(String transactionId, String accountNumber, long amount) {
+            this.transactionId = transactionId;
+            this.accountNumber = accountNumber;
+            this.amount = amount;
+        }
+    }
+}
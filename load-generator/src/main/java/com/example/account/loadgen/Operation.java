@@ -0,0 +1,9 @@
+package com.example.account.loadgen;
+
+public enum Operation {
+    CREATE,
+    LIST,
+    USE,
+    CANCEL,
+    QUERY
+}
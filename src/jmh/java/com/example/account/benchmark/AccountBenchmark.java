@@ -0,0 +1,58 @@
+package com.example.account.benchmark;
+
+import com.example.account.domain.Account;
+import com.example.account.type.AccountStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account 도메인 메서드 (잔액 차감/취소, 계좌번호 생성)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccountBenchmark {
+    private static final Long AMOUNT = 1L;
+
+    private Account account;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 반복해서 차감해도 잔액이 모자라지 않도록 충분히 크게
+        account = Account.builder()
+            .id(1L)
+            .accountNumber("1000000000")
+            .accountStatus(AccountStatus.IN_USE)
+            .balance(Long.MAX_VALUE / 2)
+            .build();
+        nextId = 1;
+    }
+
+    @Benchmark
+    public Long useBalance() {
+        account.useBalance(AMOUNT);
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public Long cancelBalance() {
+        account.cancelBalance(AMOUNT);
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public String initAccountNumber() {
+        account.setId(nextId++ % 9_999_999_999L + 1);
+        account.initAccountNumber();
+        return account.getAccountNumber();
+    }
+
+    @Benchmark
+    public String initShardedAccountNumber() {
+        account.setId(nextId++ % 2_000_000_000L + 1);
+        account.initAccountNumber(4, 1);
+        return account.getAccountNumber();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.account.benchmark;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.AccountDto;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * entity -> dto -> response 변환 체인
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoMappingBenchmark {
+    private Account account;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        AccountUser user = AccountUser.builder()
+            .id(1L)
+            .name("Pororo")
+            .build();
+        account = Account.builder()
+            .id(1L)
+            .accountUser(user)
+            .accountNumber("1000000000")
+            .accountStatus(AccountStatus.IN_USE)
+            .balance(10000L)
+            .registeredAt(LocalDateTime.now())
+            .build();
+        transaction = Transaction.builder()
+            .id(1L)
+            .account(account)
+            .transactionType(TransactionType.USE)
+            .transactionResultType(TransactionResultType.S)
+            .transactionId("c2033bb6d82a4250aecf8e27c49b63f6")
+            .amount(1000L)
+            .balanceSnapshot(9000L)
+            .transactedAt(LocalDateTime.now())
+            .build();
+    }
+
+    @Benchmark
+    public AccountDto accountDto() {
+        return AccountDto.fromEntity(account);
+    }
+
+    @Benchmark
+    public TransactionDto transactionDto() {
+        return TransactionDto.fromEntity(transaction);
+    }
+
+    @Benchmark
+    public UseBalance.Response useBalanceResponse() {
+        return UseBalance.Response.from(TransactionDto.fromEntity(transaction));
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.account.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.account.exception.AccountException;
+import com.example.account.workload.KeyDistribution;
+import com.example.account.service.LockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.slf4j.LoggerFactory;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * embedded redis 위에서 LockService.lock/unlock 경합 측정
+ * - ./gradlew lockBenchmark -Pbench.threads=64 -Pbench.distribution=zipfian -Pbench.criticalMicros=500
+ * - 처리량, 락 획득 실패율, 대기 시간 백분위를 출력하고 JSON 으로 남긴다
+ */
+public class LockContentionBenchmark {
+    public static void main(String[] args) throws Exception {
+        int port = Integer.getInteger("bench.redisPort", 6380);
+        int threads = Integer.getInteger("bench.threads", 32);
+        int accounts = Integer.getInteger("bench.accounts", 100);
+        String distributionName = System.getProperty("bench.distribution", "uniform");
+        double zipfExponent = Double.parseDouble(System.getProperty("bench.zipfExponent", "1.0"));
+        long criticalMicros = Long.getLong("bench.criticalMicros", 100);
+        // application.yml 의 account.lock.* 기본값과 같게
+        long waitMs = Long.getLong("bench.waitMs", 1000);
+        long leaseMs = Long.getLong("bench.leaseMs", 5000);
+        int warmupSeconds = Integer.getInteger("bench.warmupSeconds", 5);
+        int durationSeconds = Integer.getInteger("bench.durationSeconds", 30);
+        String output = System.getProperty("bench.output", "build/reports/lock-benchmark/results.json");
+
+        ((Logger) LoggerFactory.getLogger("com.example.account")).setLevel(Level.WARN);
+        ((Logger) LoggerFactory.getLogger("org.redisson")).setLevel(Level.WARN);
+
+        KeyDistribution distribution = KeyDistribution.of(distributionName, accounts, zipfExponent);
+        String[] accountNumbers = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountNumbers[i] = String.format("%010d", 1_000_000_000L + i);
+        }
+
+        RedisServer redisServer = new RedisServer(port);
+        redisServer.start();
+        Config config = new Config();
+        config.useSingleServer()
+            .setAddress("redis://127.0.0.1:" + port)
+            .setConnectionPoolSize(Math.max(64, threads * 2))
+            .setConnectionMinimumIdleSize(Math.min(threads, 32));
+        RedissonClient redissonClient = Redisson.create(config);
+
+        try {
+            LockService lockService = new LockService(redissonClient, new SimpleMeterRegistry());
+            lockService.setWaitMs(waitMs);
+            lockService.setLeaseMs(leaseMs);
+            Worker.Stats warmup = run(lockService, distribution, accountNumbers,
+                threads, criticalMicros, warmupSeconds);
+            System.out.printf("warmup: %d ops%n", warmup.acquired.sum());
+
+            Worker.Stats stats = run(lockService, distribution, accountNumbers,
+                threads, criticalMicros, durationSeconds);
+            String json = toJson(stats, threads, accounts, distributionName,
+                zipfExponent, criticalMicros, durationSeconds);
+            System.out.println(json);
+            write(output, json);
+        } finally {
+            redissonClient.shutdown();
+            redisServer.stop();
+        }
+    }
+
+    private static Worker.Stats run(
+        LockService lockService, KeyDistribution distribution, String[] accountNumbers,
+        int threads, long criticalMicros, int seconds
+    ) throws InterruptedException {
+        Worker.Stats stats = new Worker.Stats();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(new Worker(lockService, distribution, accountNumbers,
+                TimeUnit.MICROSECONDS.toNanos(criticalMicros), deadline, stats, done), "lock-bench-" + i);
+            workers.add(thread);
+            thread.start();
+        }
+        done.await();
+        return stats;
+    }
+
+    private static String toJson(Worker.Stats stats, int threads, int accounts, String distribution,
+                                 double zipfExponent, long criticalMicros, int seconds) {
+        Histogram wait = stats.waitMicros.getIntervalHistogram();
+        long acquired = stats.acquired.sum();
+        long failed = stats.failed.sum();
+        long attempts = acquired + failed;
+        return String.format(Locale.ROOT,
+            "{\"threads\":%d,\"accounts\":%d,\"distribution\":\"%s\",\"zipfExponent\":%.2f,"
+                + "\"criticalMicros\":%d,\"durationSeconds\":%d,"
+                + "\"throughputOpsPerSec\":%.1f,\"attempts\":%d,\"failures\":%d,\"failureRate\":%.5f,"
+                + "\"waitMicros\":{\"p50\":%d,\"p90\":%d,\"p99\":%d,\"p999\":%d,\"max\":%d}}",
+            threads, accounts, distribution, zipfExponent, criticalMicros, seconds,
+            (double) acquired / seconds, attempts, failed,
+            attempts == 0 ? 0.0 : (double) failed / attempts,
+            wait.getValueAtPercentile(50), wait.getValueAtPercentile(90),
+            wait.getValueAtPercentile(99), wait.getValueAtPercentile(99.9), wait.getMaxValue());
+    }
+
+    private static void write(String output, String json) throws IOException {
+        Path path = Paths.get(output);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class Worker implements Runnable {
+        private final LockService lockService;
+        private final KeyDistribution distribution;
+        private final String[] accountNumbers;
+        private final long criticalNanos;
+        private final long deadline;
+        private final Stats stats;
+        private final CountDownLatch done;
+
+        private Worker(LockService lockService, KeyDistribution distribution, String[] accountNumbers,
+                       long criticalNanos, long deadline, Stats stats, CountDownLatch done) {
+            this.lockService = lockService;
+            this.distribution = distribution;
+            this.accountNumbers = accountNumbers;
+            this.criticalNanos = criticalNanos;
+            this.deadline = deadline;
+            this.stats = stats;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (System.nanoTime() < deadline) {
+                    String accountNumber = accountNumbers[distribution.next()];
+                    long start = System.nanoTime();
+                    try {
+                        lockService.lock(accountNumber);
+                    } catch (AccountException e) {
+                        stats.failed.increment();
+                        stats.waitMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                        continue;
+                    }
+                    stats.waitMicros.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                    stats.acquired.increment();
+                    try {
+                        busyWait(criticalNanos);
+                    } finally {
+                        lockService.unlock(accountNumber);
+                    }
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        // 임계 구역(DB 작업)을 흉내. 1ms 미만은 spin 으로 정확하게
+        private static void busyWait(long nanos) {
+            if (nanos >= TimeUnit.MILLISECONDS.toNanos(1)) {
+                LockSupport.parkNanos(nanos);
+                return;
+            }
+            long end = System.nanoTime() + nanos;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+        }
+
+        private static class Stats {
+            private final LongAdder acquired = new LongAdder();
+            private final LongAdder failed = new LongAdder();
+            private final Recorder waitMicros = new Recorder(3);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.account.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 거래 id 생성 비용
+ * - uuidReplace 는 TransactionService.saveAndGetTransaction 과 같은 방식
+ * - 나머지는 비교용 대안
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionIdBenchmark {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Benchmark
+    @Threads(4)
+    public String uuidReplace() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String uuidHex() {
+        UUID uuid = UUID.randomUUID();
+        return toHex(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String threadLocalRandomHex() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return toHex(random.nextLong(), random.nextLong());
+    }
+
+    private static String toHex(long high, long low) {
+        char[] chars = new char[32];
+        for (int i = 0; i < 16; i++) {
+            chars[15 - i] = HEX[(int) (high & 0xF)];
+            chars[31 - i] = HEX[(int) (low & 0xF)];
+            high >>>= 4;
+            low >>>= 4;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.account.benchmark;
+
+import com.example.account.AccountApplication;
+import com.example.account.dto.TransactionDto;
+import com.example.account.service.AccountService;
+import com.example.account.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * in-memory H2 위에서 TransactionService.useBalance 한 건 (조건부 update + 잔액 select + insert + commit)
+ * - 락/컨트롤러를 거치지 않는 서비스 단독 비용
+ * - outbox, 조회 필터, 사전 검증, 일자별 집계처럼 거래마다 붙는 부가 처리는 꺼서 차감 경로만 잰다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransactionServiceBenchmark {
+    private static final Long USER_ID = 1L;
+    private static final Long AMOUNT = 10L;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private String accountNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(AccountApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+            "--spring.jpa.properties.hibernate.generate_statistics=false",
+            "--account.tracing.enabled=false",
+            "--account.outbox.enabled=false",
+            "--account.lookup-filter.enabled=false",
+            "--account.prevalidation.enabled=false",
+            "--account.aggregate.enabled=false",
+            "--logging.level.root=WARN"
+        );
+
+        transactionService = context.getBean(TransactionService.class);
+        accountNumber = context.getBean(AccountService.class)
+            .createAccount(USER_ID, Long.MAX_VALUE / 2)
+            .getAccountNumber();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionDto useBalance() {
+        return transactionService.useBalance(USER_ID, accountNumber, AMOUNT);
+    }
+}
@@ -2,4 +2,9 @@ package com.example.account.aop;
 
 public interface AccountLockIdInterface {
     String getAccountNumber();
+
+    // 사용자별 요청 제한에 사용 (사용자 정보가 없는 요청은 null)
+    default Long getUserId() {
+        return null;
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.account.aop;
+
+import java.lang.annotation.*;
+
+/**
+ * 샤드 라우팅 기준이 되는 파라미터에 표시
+ * - ShardRoutingAspect 가 해당 값으로 사용할 데이터소스를 결정한다.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ShardKey {
+    ShardKeyType value() default ShardKeyType.ACCOUNT_NUMBER;
+}
@@ -0,0 +1,7 @@
+package com.example.account.aop;
+
+public enum ShardKeyType {
+    ACCOUNT_NUMBER,
+    USER_ID,
+    TRANSACTION_ID
+}
@@ -0,0 +1,47 @@
+package com.example.account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 계좌번호 consistent hash 라우팅 설정 (여러 노드 중 계좌마다 소유 노드 하나)
+ * - node-id, advertise-url 을 비우면 http://127.0.0.1:{server.port} 를 둘 다로 쓴다 (로컬 여러 인스턴스 테스트용)
+ * - handoff-ms 는 heartbeat 주기 + 요청 최대 처리 시간 이상이어야 한다
+ * - 멤버 유효 시각은 기록한 노드의 시계 기준이라 노드마다 링이 바뀌는 시각이 max-clock-skew-ms 까지 어긋날 수 있다
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "account.affinity")
+public class AffinityProperties {
+    private boolean enabled = false;
+
+    private String nodeId = "";
+    private String advertiseUrl = "";
+
+    private int virtualNodes = 160;
+
+    // 멤버 등록 갱신 + 링 재계산 주기, 갱신이 member-ttl-ms 동안 없으면 링에서 빠진다
+    private long heartbeatIntervalMs = 500;
+    private long memberTtlMs = 3000;
+
+    // 들어올 때/나갈 때 다른 노드가 모두 읽을 시간을 두고 링에 반영
+    private long joinDelayMs = 1000;
+    private long leaveDelayMs = 1000;
+
+    // 소유 노드가 바뀐 계좌는 이전 노드의 요청이 끝날 때까지 기다렸다가 로컬 락으로 처리
+    private long handoffMs = 2000;
+    private long maxHandoffWaitMs = 1000;
+
+    // 이전 소유 노드가 아직 링을 바꾸지 않았을 수 있으므로 handoff 를 이만큼 더 기다린다
+    private long maxClockSkewMs = 500;
+
+    private long forwardConnectTimeoutMs = 200;
+    private long forwardReadTimeoutMs = 3000;
+    private List<String> forwardPaths = new ArrayList<>(
+        Arrays.asList("/transaction/use", "/transaction/cancel"));
+}
@@ -0,0 +1,31 @@
+package com.example.account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 비동기 잔액 사용 (/transaction/use 가 202 로 바로 응답) 설정
+ * - queue : local (단일 노드, 파티션별 append log) 또는 redis (파티션별 redis stream)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "account.async-debit")
+public class AsyncDebitProperties {
+    private boolean enabled = false;
+
+    private String queue = "local";
+
+    // 계좌번호 해시로 파티션을 나누고, 파티션마다 소비 스레드 하나가 순서대로 반영
+    private int partitions = 8;
+    private int batchSize = 100;
+    private long pollTimeoutMs = 500;
+    private long retryBackoffMs = 200;
+    // 일시적인 장애가 아닌 예외로 이만큼 실패한 요청은 dead letter 로 옮기고 다음 요청으로 넘어간다
+    private int maxAttempts = 10;
+
+    private String logDir = "./data/debit-queue";
+    // local 큐 파일 앞쪽에 ack 된 줄이 이만큼 쌓이면 남은 요청만 새 파일로 옮긴다
+    private int compactAckedLines = 10_000;
+    private String streamKeyPrefix = "DEBITQ";
+}
@@ -0,0 +1,24 @@
+package com.example.account.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AppCDS 클래스 목록 생성용 학습 실행 (./gradlew cdsArchive)
+ * - 기동이 끝나면 바로 종료해서 기동 중에 로딩된 클래스만 목록에 남긴다
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "account.cds.training", havingValue = "true")
+public class CdsTrainingConfig implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("CDS training run finished, exiting");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 메모리 잔액 엔진 설정 (hot 계좌 전용)
+ * - 같은 계좌를 여러 노드에 설정하면 redis 계좌 락을 먼저 잡은 노드만 소유한다
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "account.hot-accounts")
+public class HotAccountProperties {
+    private boolean enabled = false;
+
+    private List<String> accountNumbers = new ArrayList<>();
+
+    // write-behind 주기와 한 번에 DB 에 쓰는 최대 거래 수
+    private long flushIntervalMs = 50;
+    private int maxBatchSize = 1000;
+
+    // 소유하지 못한 계좌 재시도 + 소유 중인 계좌의 락 확인 주기
+    private long claimIntervalMs = 5000;
+
+    // 마지막으로 락을 확인한 뒤 이 시간 동안만 메모리에서 잔액을 바꾼다 (redisson watchdog 30초보다 충분히 짧게)
+    private long ownershipLeaseMs = 10000;
+
+    private String redoLogDir = "./data/redo";
+    private long redoSegmentBytes = 64L * 1024 * 1024;
+}
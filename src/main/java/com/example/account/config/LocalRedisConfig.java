@@ -1,13 +1,22 @@
 package com.example.account.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import redis.embedded.RedisServer;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
+/**
+ * 로컬 개발용 embedded redis
+ * - account.embedded-redis.enabled=false 면 띄우지 않음 (prod 프로파일)
+ * - lazy-initialization 이어도 redisson 보다 먼저 떠 있어야 하므로 eager
+ */
 @Configuration
+@Lazy(false)
+@ConditionalOnProperty(name = "account.embedded-redis.enabled", havingValue = "true", matchIfMissing = true)
 public class LocalRedisConfig {
 
     @Value("${spring.redis.port}")
@@ -17,7 +26,7 @@ public class LocalRedisConfig {
 
     @PostConstruct
     public void startRedis() {
-        redisServer = new RedisServer();
+        redisServer = new RedisServer(redisPort);
         redisServer.start();
     }
 
@@ -0,0 +1,35 @@
+package com.example.account.config;
+
+import com.example.account.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * 비즈니스 에러도 200 으로 응답하므로 http.server.requests 에 에러코드 태그를 추가
+     */
+    @Bean
+    public WebMvcTagsContributor errorCodeTagsContributor() {
+        return new WebMvcTagsContributor() {
+            @Override
+            public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Throwable exception) {
+                Object errorCode = request.getAttribute(GlobalExceptionHandler.ERROR_CODE_ATTRIBUTE);
+                return Tags.of("errorCode", errorCode == null ? "NONE" : errorCode.toString());
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+                return Tags.empty();
+            }
+        };
+    }
+}
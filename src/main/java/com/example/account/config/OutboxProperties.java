@@ -0,0 +1,26 @@
+package com.example.account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 잔액 변경 이벤트 outbox 설정
+ * - sink : redis (redis stream) 또는 file (로컬 파일에 한 줄씩)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "account.outbox")
+public class OutboxProperties {
+    private boolean enabled = true;
+
+    private String sink = "redis";
+
+    private long relayIntervalMs = 200;
+    private int batchSize = 500;
+
+    private String streamKey = "ACCOUNT_EVENTS";
+    private int streamMaxLength = 1_000_000;
+
+    private String filePath = "./data/outbox/events.log";
+}
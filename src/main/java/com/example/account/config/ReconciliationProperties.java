@@ -0,0 +1,29 @@
+package com.example.account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 야간 잔액 대사 작업 설정
+ * - max-db-connections 는 히카리 풀 크기보다 충분히 작게 (운영 트래픽과 함께 돌아감)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "account.reconciliation")
+public class ReconciliationProperties {
+    private boolean enabled = true;
+
+    private String cron = "0 0 3 * * *";
+
+    // fork-join 병렬도와 동시에 사용하는 DB 커넥션 수
+    private int parallelism = 2;
+    private int maxDbConnections = 2;
+
+    // 한 작업 단위가 맡는 계좌 id 범위와 keyset 페이지 크기
+    private int accountsPerTask = 1000;
+    private int pageSize = 5000;
+
+    private String reportDir = "./data/reconciliation";
+    private int maxReportLines = 100000;
+}
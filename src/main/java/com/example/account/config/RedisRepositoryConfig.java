@@ -2,12 +2,19 @@ package com.example.account.config;
 
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.JsonJacksonCodec;
+import org.redisson.codec.MarshallingCodec;
 import org.redisson.config.Config;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
 @Configuration
+@EnableConfigurationProperties(RedissonProperties.class)
 public class RedisRepositoryConfig {
 
     @Value("${spring.redis.host}")
@@ -16,10 +23,39 @@ public class RedisRepositoryConfig {
     @Value("${spring.redis.port}")
     private int redisPort;
 
-    @Bean
-    public RedissonClient redissonClient() {
+    /**
+     * 연결 생성 비용이 커서 처음 사용할 때 만든다 (주입 지점은 lazy proxy)
+     */
+    @Bean(destroyMethod = "shutdown")
+    @Lazy
+    public RedissonClient redissonClient(RedissonProperties properties) {
         Config config = new Config();
-        config.useSingleServer().setAddress("redis://" + redisHost + ":" + redisPort);
+        config.setNettyThreads(properties.getNettyThreads());
+        config.setThreads(properties.getThreads());
+        config.setCodec(codec(properties.getCodec()));
+        config.setLockWatchdogTimeout(properties.getLockWatchdogTimeoutMs());
+        config.useSingleServer()
+            .setAddress("redis://" + redisHost + ":" + redisPort)
+            .setConnectionPoolSize(properties.getConnectionPoolSize())
+            .setConnectionMinimumIdleSize(properties.getConnectionMinimumIdleSize())
+            .setSubscriptionConnectionPoolSize(properties.getSubscriptionConnectionPoolSize())
+            .setConnectTimeout(properties.getConnectTimeoutMs())
+            .setTimeout(properties.getTimeoutMs())
+            .setIdleConnectionTimeout(properties.getIdleConnectionTimeoutMs())
+            .setRetryAttempts(properties.getRetryAttempts())
+            .setRetryInterval(properties.getRetryIntervalMs())
+            .setPingConnectionInterval(properties.getPingConnectionIntervalMs());
         return Redisson.create(config);
     }
+
+    private Codec codec(String name) {
+        switch (name.toLowerCase()) {
+            case "json":
+                return new JsonJacksonCodec();
+            case "string":
+                return StringCodec.INSTANCE;
+            default:
+                return new MarshallingCodec();
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package com.example.account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * redisson 단일 서버 설정 (기본값은 redisson 기본값과 동일)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "account.redisson")
+public class RedissonProperties {
+    private int connectionPoolSize = 64;
+    private int connectionMinimumIdleSize = 24;
+    private int subscriptionConnectionPoolSize = 50;
+
+    // 0 이면 redisson 기본값 (코어 수 * 2)
+    private int nettyThreads = 32;
+    private int threads = 16;
+
+    // marshalling / json / string
+    private String codec = "marshalling";
+
+    private int connectTimeoutMs = 10000;
+    private int timeoutMs = 3000;
+    private int idleConnectionTimeoutMs = 10000;
+    private int retryAttempts = 3;
+    private int retryIntervalMs = 1500;
+    private int pingConnectionIntervalMs = 30000;
+    private long lockWatchdogTimeoutMs = 30000;
+}
@@ -0,0 +1,28 @@
+package com.example.account.config;
+
+/**
+ * 현재 스레드에서 사용할 샤드 번호
+ * - 값이 없으면 기본 샤드(0)로 라우팅된다.
+ */
+public final class ShardContextHolder {
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContextHolder() {
+    }
+
+    public static Integer get() {
+        return CURRENT_SHARD.get();
+    }
+
+    public static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(shard);
+        }
+    }
+
+    public static void clear() {
+        CURRENT_SHARD.remove();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.account.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ShardContextHolder 의 샤드 번호로 실제 데이터소스를 선택
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    private final List<HikariDataSource> shards;
+
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = Collections.unmodifiableList(shards);
+    }
+
+    public List<HikariDataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContextHolder.get();
+    }
+
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.account.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * account.sharding.enabled=true 일 때 샤드별 데이터소스를 라우팅 데이터소스로 묶는다.
+ * - 계좌/거래는 계좌번호 기준 샤드에, 사용자 정보는 모든 샤드에 복제되어 있다고 가정
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingDataSourceConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "account.sharding", name = "enabled", havingValue = "true")
+    public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties shardingProperties,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> shards = new ArrayList<>();
+        Map<Object, Object> targets = new HashMap<>();
+
+        for (int i = 0; i < shardingProperties.getShards().size(); i++) {
+            ShardingProperties.Shard shard = shardingProperties.getShards().get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .build();
+            dataSource.setPoolName("shard-" + i);
+            // 빈으로 등록되지 않은 풀이라 hikaricp 메트릭을 직접 연결
+            meterRegistry.ifAvailable(dataSource::setMetricRegistry);
+
+            if (shardingProperties.isInitializeSchema()) {
+                initializeSchema(dataSource);
+            }
+
+            shards.add(dataSource);
+            targets.put(i, dataSource);
+        }
+
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(shards);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(shards.get(0));
+        return routingDataSource;
+    }
+
+    /**
+     * 트랜잭션 시작 시점이 아닌 첫 쿼리 시점에 커넥션을 가져오도록 감싼다.
+     * - 서비스 메서드 안에서 샤드가 정해진 뒤 커넥션이 선택되어야 함
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "account.sharding", name = "enabled", havingValue = "true")
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    private void initializeSchema(DataSource dataSource) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+            new ClassPathResource("db/shard-schema.sql"),
+            new ClassPathResource("data.sql"));
+        DatabasePopulatorUtils.execute(populator, dataSource);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.account.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "account.sharding")
+public class ShardingProperties {
+    private boolean enabled = false;
+
+    // 로컬 검증용: 각 샤드에 스키마와 기본 사용자 데이터를 생성
+    private boolean initializeSchema = false;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    // 거래 취소 가능 기간(1년), 디렉토리는 최소 이 기간 동안 보관해야 다른 샤드 거래 취소를 구분한다
+    public static final Duration MIN_TRANSACTION_DIRECTORY_TTL = Duration.ofDays(366);
+
+    // 거래 ID -> 샤드 디렉토리 보관 기간 (지나면 조회 시 모든 샤드에서 찾아 다시 올린다)
+    private Duration transactionDirectoryTtl = MIN_TRANSACTION_DIRECTORY_TTL;
+
+    public int getShardCount() {
+        return enabled && !shards.isEmpty() ? shards.size() : 1;
+    }
+
+    public Duration getTransactionDirectoryTtl() {
+        return transactionDirectoryTtl.compareTo(MIN_TRANSACTION_DIRECTORY_TTL) < 0
+            ? MIN_TRANSACTION_DIRECTORY_TTL : transactionDirectoryTtl;
+    }
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.account.config;
+
+import com.example.account.trace.SqlStatementInspector;
+import com.example.account.trace.SqlStatistics;
+import com.example.account.trace.SqlTimingDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * SQL 지문 수집과 statement 별 실행 시간 측정
+ * - 모든 커넥션과 statement 가 리플렉션 프록시를 거치므로 진단이 필요한 환경에서만 켠다
+ * - 켜면 dataSource 빈 타입이 HikariDataSource 가 아니게 되므로 hikari 는 unwrap 으로 찾아야 한다
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "account.sql-inspection", name = "enabled", havingValue = "true")
+public class SqlInspectionConfig {
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public SqlStatementInspector sqlStatementInspector(
+        SqlStatistics sqlStatistics,
+        @Value("${account.sql-inspection.sample-rate:0.01}") double sampleRate
+    ) {
+        return new SqlStatementInspector(sqlStatistics, sampleRate);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspectorCustomizer(SqlStatementInspector sqlStatementInspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementInspector);
+    }
+
+    /**
+     * JPA 가 쓰는 dataSource 빈 (기본 hikari 또는 샤딩 시 라우팅 프록시) 을 감싸 statement 별 실행 시간을 잰다
+     */
+    @Bean
+    public static BeanPostProcessor sqlTimingDataSourcePostProcessor(
+        ObjectProvider<SqlStatementInspector> sqlStatementInspector
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource
+                    && !(bean instanceof SqlTimingDataSource)) {
+                    return new SqlTimingDataSource((DataSource) bean, sqlStatementInspector.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.account.controller;
+
+import com.example.account.dto.AffinityOwner;
+import com.example.account.service.AffinityRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 계좌의 소유 노드 조회 (클라이언트가 소유 노드로 바로 보내면 노드 간 전달이 없다)
+ */
+@RestController
+@RequiredArgsConstructor
+public class AffinityController {
+    private final AffinityRouter affinityRouter;
+
+    @GetMapping("/affinity/owner")
+    public AffinityOwner getOwner(@RequestParam("account_number") String accountNumber) {
+        return affinityRouter.ownerOf(accountNumber)
+            .map(owner -> new AffinityOwner(accountNumber, owner.getNodeId(), owner.getUrl()))
+            .orElseGet(() -> new AffinityOwner(accountNumber, null, null));
+    }
+}
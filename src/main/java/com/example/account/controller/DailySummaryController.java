@@ -0,0 +1,37 @@
+package com.example.account.controller;
+
+import com.example.account.dto.DailySummary;
+import com.example.account.service.DailyAggregateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 일자별 사용/취소 합계 조회 (계좌/일자별 집계 테이블만 읽는다)
+ */
+@RestController
+@RequiredArgsConstructor
+public class DailySummaryController {
+    private final DailyAggregateService dailyAggregateService;
+
+    @GetMapping("/summary/account")
+    public List<DailySummary> getAccountSummary(
+        @RequestParam("account_number") String accountNumber,
+        @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return dailyAggregateService.getAccountSummary(accountNumber, from, to);
+    }
+
+    @GetMapping("/summary/user")
+    public List<DailySummary> getUserSummary(
+        @RequestParam("user_id") Long userId,
+        @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return dailyAggregateService.getUserSummary(userId, from, to);
+    }
+}
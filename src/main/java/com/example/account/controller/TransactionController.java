@@ -5,38 +5,49 @@ import com.example.account.dto.CancelBalance;
 import com.example.account.dto.QueryTransactionResponse;
 import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
+import com.example.account.exception.TransactionOutcomeUnknownException;
+import com.example.account.service.AsyncDebitService;
 import com.example.account.service.TransactionService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 
 /**
  * 잔액 관련 컨트롤러
- * 1. 잔액 사용
+ * 1. 잔액 사용 (async-debit 이면 큐에 접수하고 202)
  * 2. 잔액 사용 취소
  * 3. 거래 확인
  */
-@Slf4j
 @RestController
 @RequiredArgsConstructor
 public class TransactionController {
     private final TransactionService transactionService;
+    private final AsyncDebitService asyncDebitService;
 
     @PostMapping("/transaction/use")
     @AccountLock
-    public UseBalance.Response useBalance(
+    public ResponseEntity<UseBalance.Response> useBalance(
         @Valid @RequestBody UseBalance.Request request
     ) {
+        if (asyncDebitService.isEnabled()) {
+            return ResponseEntity.accepted().body(UseBalance.Response.from(
+                asyncDebitService.submit(request.getUserId()
+                    , request.getAccountNumber(), request.getAmount())
+            ));
+        }
+
         try {
-            return UseBalance.Response.from(
+            return ResponseEntity.ok(UseBalance.Response.from(
                 transactionService.useBalance(request.getUserId()
                     , request.getAccountNumber(), request.getAmount())
-            );
+            ));
+        } catch (TransactionOutcomeUnknownException e) {
+            // 잔액은 바뀌었고 기록도 반영되므로 실패 거래를 남기지 않는다
+            throw e;
         } catch (AccountException e) {
-            log.error("Failed to use balance.");
-
+            // 로그는 GlobalExceptionHandler 가 에러코드별로 샘플링해서 남긴다
             transactionService.saveFailedUseTransaction(
                 request.getAccountNumber(),
                 request.getAmount()
@@ -56,9 +67,9 @@ public class TransactionController {
                 transactionService.cancelBalance(request.getTransactionId()
                     , request.getAccountNumber(), request.getAmount())
             );
+        } catch (TransactionOutcomeUnknownException e) {
+            throw e;
         } catch (AccountException e) {
-            log.error("Failed to use balance.");
-
             transactionService.saveFailedCancelTransaction(
                 request.getAccountNumber(),
                 request.getAmount()
@@ -71,7 +82,9 @@ public class TransactionController {
     @GetMapping("/transaction")
     public QueryTransactionResponse findTransaction(
         @RequestParam("transactionId") String transactionId) {
+        // 큐에서 아직 반영되지 않은 사용 요청은 P
         return QueryTransactionResponse.from(
-            transactionService.queryTransaction(transactionId));
+            asyncDebitService.findPending(transactionId)
+                .orElseGet(() -> transactionService.queryTransaction(transactionId)));
     }
 }
@@ -1,6 +1,7 @@
 package com.example.account.domain;
 
 import com.example.account.exception.AccountException;
+import com.example.account.jfr.BalanceMutationEvent;
 import com.example.account.type.AccountStatus;
 import com.example.account.type.ErrorCode;
 import lombok.*;
@@ -48,22 +49,34 @@ public class Account extends BaseEntity{
 
     public void useBalance(Long amount) {
         if (amount > balance) {
-            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+            BalanceMutationEvent.emit(accountNumber, "USE", amount, balance, "AMOUNT_EXCEED_BALANCE");
+            throw AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE);
         }
         balance -= amount;
+        BalanceMutationEvent.emit(accountNumber, "USE", amount, balance, "SUCCESS");
     }
 
     public void cancelBalance(Long amount) {
         if (amount < 0) {
-            throw new AccountException(ErrorCode.INVALID_REQUEST);
+            BalanceMutationEvent.emit(accountNumber, "CANCEL", amount, balance, "INVALID_REQUEST");
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
         }
         balance += amount;
+        BalanceMutationEvent.emit(accountNumber, "CANCEL", amount, balance, "SUCCESS");
     }
 
     public void initAccountNumber() {
-        if (id > 9_999_999_999L) {
-            throw new AccountException(SYSTEM_MAX_ACCOUNT);
+        initAccountNumber(1, 0);
+    }
+
+    /**
+     * 샤딩 시 샤드별 id 가 겹치므로 (id * 샤드 수 + 샤드 번호)로 계좌번호를 만든다.
+     * - 계좌번호 % 샤드 수 로 다시 샤드를 찾을 수 있음
+     */
+    public void initAccountNumber(int shardCount, int shardIndex) {
+        if (id > (9_999_999_999L - shardIndex) / shardCount) {
+            throw AccountException.of(SYSTEM_MAX_ACCOUNT);
         }
-        accountNumber = String.format("%010d", id);
+        accountNumber = String.format("%010d", id * shardCount + shardIndex);
     }
 }
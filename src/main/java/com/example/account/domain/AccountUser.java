@@ -1,7 +1,10 @@
 package com.example.account.domain;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
@@ -12,6 +15,8 @@ import javax.persistence.Id;
 @NoArgsConstructor
 @Builder
 @Entity
+@Cacheable // 거의 변하지 않는 사용자 정보는 2차 캐시에서 조회
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "accountUser")
 public class AccountUser extends BaseEntity{
     @Id
     @GeneratedValue
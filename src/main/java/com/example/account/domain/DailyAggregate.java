@@ -0,0 +1,37 @@
+package com.example.account.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * 계좌/일자별 거래 집계 (대시보드 조회용)
+ * - 거래 기록 후 비동기로 더해지고, 지난 날짜는 backfill 로 거래 테이블에서 다시 계산한다
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+    uniqueConstraints = @UniqueConstraint(
+        name = "uk_daily_aggregate_account_date", columnNames = {"account_number", "aggregate_date"}),
+    indexes = @Index(name = "idx_daily_aggregate_user_date", columnList = "user_id, aggregate_date")
+)
+public class DailyAggregate extends BaseEntity {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String accountNumber;
+    private Long userId;
+    private LocalDate aggregateDate;
+
+    private Long useAmount;
+    private Long useCount;
+    private Long cancelAmount;
+    private Long cancelCount;
+    private Long failedCount;
+}
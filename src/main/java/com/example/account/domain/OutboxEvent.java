@@ -0,0 +1,67 @@
+package com.example.account.domain;
+
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 거래와 같은 DB 트랜잭션에 쓰는 잔액 변경 이벤트 (transactional outbox)
+ * - OutboxRelay 가 id 순으로 읽어 외부로 보낸 뒤 지운다
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+public class OutboxEvent extends BaseEntity {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String accountNumber;
+    private String transactionId;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionResultType transactionResultType;
+
+    private Long amount;
+    private Long balanceSnapshot;
+    private LocalDateTime transactedAt;
+
+    public static OutboxEvent from(Transaction transaction) {
+        return OutboxEvent.builder()
+            .accountNumber(transaction.getAccount().getAccountNumber())
+            .transactionId(transaction.getTransactionId())
+            .transactionType(transaction.getTransactionType())
+            .transactionResultType(transaction.getTransactionResultType())
+            .amount(transaction.getAmount())
+            .balanceSnapshot(transaction.getBalanceSnapshot())
+            .transactedAt(transaction.getTransactedAt())
+            .build();
+    }
+
+    /**
+     * sink 에 보내는 필드 (redis stream entry, 파일 한 줄)
+     */
+    public Map<String, String> toFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("eventId", String.valueOf(id));
+        fields.put("accountNumber", accountNumber);
+        fields.put("transactionId", transactionId);
+        fields.put("transactionType", String.valueOf(transactionType));
+        fields.put("transactionResult", String.valueOf(transactionResultType));
+        fields.put("amount", String.valueOf(amount));
+        fields.put("balanceSnapshot", String.valueOf(balanceSnapshot));
+        fields.put("transactedAt", String.valueOf(transactedAt));
+        return fields;
+    }
+}
@@ -13,6 +13,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_transaction_account_id", columnList = "account_id, id"),
+    // 일자별 집계 backfill, 사용 한도 복구의 기간 조회
+    @Index(name = "idx_transaction_transacted_at", columnList = "transacted_at")
+})
 public class Transaction extends BaseEntity{
     @Id
     @GeneratedValue
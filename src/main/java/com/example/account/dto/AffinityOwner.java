@@ -0,0 +1,17 @@
+package com.example.account.dto;
+
+import lombok.*;
+
+/**
+ * 계좌의 소유 노드 (nodeId 가 null 이면 라우팅을 끈 상태이거나 아직 링을 모르는 상태)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AffinityOwner {
+    private String accountNumber;
+    private String nodeId;
+    private String url;
+}
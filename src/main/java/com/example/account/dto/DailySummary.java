@@ -0,0 +1,45 @@
+package com.example.account.dto;
+
+import com.example.account.domain.DailyAggregate;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailySummary {
+    private LocalDate date;
+    private Long useAmount;
+    private Long useCount;
+    private Long cancelAmount;
+    private Long cancelCount;
+    private Long failedCount;
+
+    public static DailySummary fromEntity(DailyAggregate aggregate) {
+        return DailySummary.builder()
+            .date(aggregate.getAggregateDate())
+            .useAmount(aggregate.getUseAmount())
+            .useCount(aggregate.getUseCount())
+            .cancelAmount(aggregate.getCancelAmount())
+            .cancelCount(aggregate.getCancelCount())
+            .failedCount(aggregate.getFailedCount())
+            .build();
+    }
+
+    /**
+     * DailyAggregateRepository.sumByUserId 의 한 행
+     */
+    public static DailySummary fromRow(Object[] row) {
+        return DailySummary.builder()
+            .date((LocalDate) row[0])
+            .useAmount((Long) row[1])
+            .useCount((Long) row[2])
+            .cancelAmount((Long) row[3])
+            .cancelCount((Long) row[4])
+            .failedCount((Long) row[5])
+            .build();
+    }
+}
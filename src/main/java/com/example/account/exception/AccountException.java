@@ -3,17 +3,44 @@ package com.example.account.exception;
 import com.example.account.type.ErrorCode;
 import lombok.*;
 
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 비즈니스 예외
+ * - 스택트레이스를 만들지 않는다 (에러코드만으로 원인 파악 가능)
+ * - 에러코드별로 미리 만들어 둔 인스턴스를 of() 로 재사용
+ */
 @Getter
-@Setter
-@AllArgsConstructor
-@NoArgsConstructor
 @Builder
 public class AccountException extends RuntimeException {
-    private ErrorCode errorCode;
-    private String errorMessage;
+    private static final Map<ErrorCode, AccountException> CACHED = new EnumMap<>(ErrorCode.class);
+
+    static {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            CACHED.put(errorCode, new AccountException(errorCode));
+        }
+    }
+
+    private final ErrorCode errorCode;
+    private final String errorMessage;
+
+    public AccountException() {
+        this(null, null);
+    }
 
     public AccountException(ErrorCode errorCode) {
+        this(errorCode, errorCode.getDescription());
+    }
+
+    public AccountException(ErrorCode errorCode, String errorMessage) {
+        // suppression, stack trace 비활성화 -> 공유 인스턴스로 써도 상태가 바뀌지 않음
+        super(errorMessage, null, false, false);
         this.errorCode = errorCode;
-        this.errorMessage = errorCode.getDescription();
+        this.errorMessage = errorMessage;
+    }
+
+    public static AccountException of(ErrorCode errorCode) {
+        return CACHED.get(errorCode);
     }
 }
@@ -2,36 +2,112 @@ package com.example.account.exception;
 
 import com.example.account.dto.ErrorResponse;
 import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.servlet.http.HttpServletRequest;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 import static com.example.account.type.ErrorCode.*;
 
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    // http.server.requests 메트릭에 에러코드 태그를 붙이기 위한 request attribute
+    public static final String ERROR_CODE_ATTRIBUTE = "account.errorCode";
+
+    private final ObjectMapper objectMapper;
+    private final long errorLogIntervalMillis;
+
+    // 에러코드별 응답 body 를 미리 직렬화해 둔다
+    private final Map<ErrorCode, byte[]> serializedBodies = new EnumMap<>(ErrorCode.class);
+
+    // 비즈니스 에러 로그는 에러코드별로 interval 당 한 번만 남긴다
+    private final Map<ErrorCode, AtomicLong> lastLoggedAt = new EnumMap<>(ErrorCode.class);
+    private final Map<ErrorCode, LongAdder> suppressedCounts = new EnumMap<>(ErrorCode.class);
+
+    public GlobalExceptionHandler(
+        ObjectMapper objectMapper,
+        @Value("${account.error-log.interval-ms:1000}") long errorLogIntervalMillis
+    ) throws JsonProcessingException {
+        this.objectMapper = objectMapper;
+        this.errorLogIntervalMillis = errorLogIntervalMillis;
+
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            serializedBodies.put(errorCode, objectMapper.writeValueAsBytes(
+                new ErrorResponse(errorCode, errorCode.getDescription())));
+            lastLoggedAt.put(errorCode, new AtomicLong());
+            suppressedCounts.put(errorCode, new LongAdder());
+        }
+    }
 
     @ExceptionHandler(AccountException.class)
-    public ErrorResponse handleAccountException(AccountException e) {
-        log.error("{} is occurred.", e.getErrorCode());
+    public ResponseEntity<byte[]> handleAccountException(AccountException e, HttpServletRequest request) {
+        logSampled(e.getErrorCode());
+        request.setAttribute(ERROR_CODE_ATTRIBUTE, e.getErrorCode());
 
-        return new ErrorResponse(e.getErrorCode(), e.getErrorMessage());
+        return body(e.getErrorCode(), e.getErrorMessage());
     }
 
     @ExceptionHandler(DataIntegrityViolationException.class)
-    public ErrorResponse handleAccountException(DataIntegrityViolationException e) {
+    public ResponseEntity<byte[]> handleAccountException(DataIntegrityViolationException e, HttpServletRequest request) {
         log.error("{} is occurred.", e);
+        request.setAttribute(ERROR_CODE_ATTRIBUTE, INVALID_REQUEST);
 
-        return new ErrorResponse(INVALID_REQUEST, INVALID_REQUEST.getDescription());
+        return body(INVALID_REQUEST, INVALID_REQUEST.getDescription());
     }
 
     @ExceptionHandler(Exception.class)
-    public ErrorResponse handleException(Exception e) {
+    public ResponseEntity<byte[]> handleException(Exception e, HttpServletRequest request) {
         log.error("{} is occurred.", e);
+        request.setAttribute(ERROR_CODE_ATTRIBUTE, INTERNAL_SERVER_ERROR);
+
+        return body(INTERNAL_SERVER_ERROR, INTERNAL_SERVER_ERROR.getDescription());
+    }
+
+    private ResponseEntity<byte[]> body(ErrorCode errorCode, String errorMessage) {
+        byte[] body = errorCode != null && Objects.equals(errorCode.getDescription(), errorMessage)
+            ? serializedBodies.get(errorCode)
+            : serialize(errorCode, errorMessage);
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
+    private byte[] serialize(ErrorCode errorCode, String errorMessage) {
+        try {
+            return objectMapper.writeValueAsBytes(new ErrorResponse(errorCode, errorMessage));
+        } catch (JsonProcessingException e) {
+            return serializedBodies.get(INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private void logSampled(ErrorCode errorCode) {
+        if (errorCode == null) {
+            log.warn("AccountException without error code is occurred.");
+            return;
+        }
 
-        return new ErrorResponse(INTERNAL_SERVER_ERROR
-            , INTERNAL_SERVER_ERROR.getDescription());
+        long now = System.currentTimeMillis();
+        AtomicLong last = lastLoggedAt.get(errorCode);
+        long previous = last.get();
+        if (now - previous >= errorLogIntervalMillis && last.compareAndSet(previous, now)) {
+            log.warn("{} is occurred. (suppressed {} times)",
+                errorCode, suppressedCounts.get(errorCode).sumThenReset());
+        } else {
+            suppressedCounts.get(errorCode).increment();
+        }
     }
 }
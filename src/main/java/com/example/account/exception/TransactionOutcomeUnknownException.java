@@ -0,0 +1,20 @@
+package com.example.account.exception;
+
+import com.example.account.type.ErrorCode;
+import lombok.Getter;
+
+/**
+ * 잔액은 이미 바뀌었지만 redo log 기록을 확인하지 못한 거래
+ * - 실패가 아니므로 F 로 기록하지 않고, 한도 차감도 되돌리지 않는다 (기록은 DB 에 반영된다)
+ * - 클라이언트는 거래 ID 로 결과를 조회한 뒤 재시도 여부를 정한다
+ */
+@Getter
+public class TransactionOutcomeUnknownException extends AccountException {
+    private final String transactionId;
+
+    public TransactionOutcomeUnknownException(String transactionId) {
+        super(ErrorCode.TRANSACTION_OUTCOME_UNKNOWN,
+            ErrorCode.TRANSACTION_OUTCOME_UNKNOWN.getDescription() + " (transactionId: " + transactionId + ")");
+        this.transactionId = transactionId;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.account.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * 잔액 변경 (사용 / 사용 취소)
+ */
+@Name("com.example.account.BalanceMutation")
+@Label("Account Balance Mutation")
+@Category({"Account", "Balance"})
+@StackTrace(false)
+public class BalanceMutationEvent extends Event {
+    @Label("Account Number")
+    private String accountNumber;
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Amount")
+    private long amount;
+
+    @Label("Balance After")
+    private long balanceAfter;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public static void emit(String accountNumber, String operation, long amount,
+                            long balanceAfter, String outcome) {
+        BalanceMutationEvent event = new BalanceMutationEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.accountNumber = accountNumber;
+        event.operation = operation;
+        event.amount = amount;
+        event.balanceAfter = balanceAfter;
+        event.outcome = outcome;
+        event.commit();
+    }
+}
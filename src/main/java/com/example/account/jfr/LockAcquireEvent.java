@@ -0,0 +1,26 @@
+package com.example.account.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * 계좌 락 획득 시도 (이벤트 duration = 락 대기 시간)
+ */
+@Name("com.example.account.LockAcquire")
+@Label("Account Lock Acquire")
+@Category({"Account", "Lock"})
+@StackTrace(false)
+public class LockAcquireEvent extends Event {
+    @Label("Account Number")
+    private String accountNumber;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public void setAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+}
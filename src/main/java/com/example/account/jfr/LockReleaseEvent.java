@@ -0,0 +1,29 @@
+package com.example.account.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * 계좌 락 해제 (락 보유 시간 포함)
+ */
+@Name("com.example.account.LockRelease")
+@Label("Account Lock Release")
+@Category({"Account", "Lock"})
+@StackTrace(false)
+public class LockReleaseEvent extends Event {
+    @Label("Account Number")
+    private String accountNumber;
+
+    @Label("Hold Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long holdTime;
+
+    public static void emit(String accountNumber, long holdNanos) {
+        LockReleaseEvent event = new LockReleaseEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.accountNumber = accountNumber;
+        event.holdTime = holdNanos;
+        event.commit();
+    }
+}
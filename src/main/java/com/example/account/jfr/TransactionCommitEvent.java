@@ -0,0 +1,26 @@
+package com.example.account.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * DB 트랜잭션 커밋 (이벤트 duration = flush + commit 시간)
+ */
+@Name("com.example.account.TransactionCommit")
+@Label("Account DB Transaction Commit")
+@Category({"Account", "Database"})
+@StackTrace(false)
+public class TransactionCommitEvent extends Event {
+    @Label("Statements")
+    private int statements;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public void setStatements(int statements) {
+        this.statements = statements;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+}
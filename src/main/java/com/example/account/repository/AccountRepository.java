@@ -2,9 +2,15 @@ package com.example.account.repository;
 
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
+import com.example.account.type.AccountStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +23,63 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByAccountNumber(String accountNumber);
 
     List<Account> findByAccountUser(AccountUser accountUser);
+
+    /**
+     * 소유주, 계좌 상태, 잔액 검증을 where 절에 넣은 조건부 차감 (JPQL 이라 DB 에 묶이지 않는다)
+     * - 0 이면 검증 실패, 1 이면 차감 후 잔액은 같은 트랜잭션에서 findIdAndBalance 로 읽는다
+     *   (갱신한 값을 돌려받는 문법은 DB 마다 달라 잔액은 SELECT 한 번을 더 쓴다)
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - :amount, a.updatedAt = :now"
+        + " where a.accountNumber = :accountNumber"
+        + " and a.accountUser.id = :userId"
+        + " and a.accountStatus = :accountStatus"
+        + " and a.balance >= :amount")
+    int useBalanceIfAvailable(@Param("userId") Long userId,
+                              @Param("accountNumber") String accountNumber,
+                              @Param("amount") Long amount,
+                              @Param("accountStatus") AccountStatus accountStatus,
+                              @Param("now") LocalDateTime now);
+
+    /**
+     * [id, 잔액] 만 읽는다 (엔티티를 영속성 컨텍스트에 올리지 않는다)
+     * - 조건부 차감 직후에는 갱신한 row 의 락을 이 트랜잭션이 들고 있어 차감 후 잔액이 그대로 보인다
+     */
+    @Query("select a.id, a.balance from Account a where a.accountNumber = :accountNumber")
+    List<Object[]> findIdAndBalance(@Param("accountNumber") String accountNumber);
+
+    /**
+     * 메모리 잔액 엔진의 write-behind 용 (증감분만 더해서 다른 경로의 갱신을 덮어쓰지 않는다)
+     * - 재실행 안전성은 이미 저장된 거래의 증감분을 빼는 것으로 보장 (HotAccountWriter)
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :delta, a.updatedAt = :now where a.id = :id")
+    int addBalance(@Param("id") Long id,
+                   @Param("delta") Long delta,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * id 순 keyset 페이지로 (id, 계좌번호) 조회 (전체 계좌를 나눠서 읽을 때)
+     */
+    @Query("select a.id, a.accountNumber from Account a where a.id > :afterId order by a.id")
+    List<Object[]> findAccountNumbersAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select a.id, a.accountNumber, a.accountUser.id, a.accountStatus from Account a"
+        + " where a.id > :afterId order by a.id")
+    List<Object[]> findIndexEntriesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select a.accountUser.id from Account a where a.accountNumber = :accountNumber")
+    Optional<Long> findOwnerIdByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Query("select max(a.id) from Account a")
+    Long findMaxId();
+
+    /**
+     * 대사용 (id, 계좌번호, 잔액, 수정 시각), id 범위 (afterId, toId] 의 keyset 페이지
+     */
+    @Query("select a.id, a.accountNumber, a.balance, a.updatedAt from Account a"
+        + " where a.id > :afterId and a.id <= :toId order by a.id")
+    List<Object[]> findBalancesBetween(@Param("afterId") Long afterId,
+                                       @Param("toId") Long toId,
+                                       Pageable pageable);
 }
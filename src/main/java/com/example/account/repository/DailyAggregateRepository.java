@@ -0,0 +1,67 @@
+package com.example.account.repository;
+
+import com.example.account.domain.DailyAggregate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DailyAggregateRepository extends JpaRepository<DailyAggregate, Long> {
+    List<DailyAggregate> findByAccountNumberAndAggregateDateBetweenOrderByAggregateDate(
+        String accountNumber, LocalDate from, LocalDate to);
+
+    /**
+     * 사용자의 계좌별 집계를 일자별로 합산
+     * - (일자, 사용 금액, 사용 건수, 취소 금액, 취소 건수, 실패 건수)
+     */
+    @Query("select a.aggregateDate, sum(a.useAmount), sum(a.useCount), sum(a.cancelAmount),"
+        + " sum(a.cancelCount), sum(a.failedCount) from DailyAggregate a"
+        + " where a.userId = :userId and a.aggregateDate between :from and :to"
+        + " group by a.aggregateDate order by a.aggregateDate")
+    List<Object[]> sumByUserId(@Param("userId") Long userId,
+                               @Param("from") LocalDate from,
+                               @Param("to") LocalDate to);
+
+    /**
+     * 기존 행에 증분을 더한다 (행이 없으면 0 반환)
+     */
+    @Modifying
+    @Query("update DailyAggregate a set a.useAmount = a.useAmount + :useAmount,"
+        + " a.useCount = a.useCount + :useCount,"
+        + " a.cancelAmount = a.cancelAmount + :cancelAmount,"
+        + " a.cancelCount = a.cancelCount + :cancelCount,"
+        + " a.failedCount = a.failedCount + :failedCount,"
+        + " a.updatedAt = :now"
+        + " where a.accountNumber = :accountNumber and a.aggregateDate = :aggregateDate")
+    int addDelta(@Param("accountNumber") String accountNumber,
+                 @Param("aggregateDate") LocalDate aggregateDate,
+                 @Param("useAmount") Long useAmount,
+                 @Param("useCount") Long useCount,
+                 @Param("cancelAmount") Long cancelAmount,
+                 @Param("cancelCount") Long cancelCount,
+                 @Param("failedCount") Long failedCount,
+                 @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from DailyAggregate a where a.aggregateDate = :aggregateDate")
+    int deleteByAggregateDate(@Param("aggregateDate") LocalDate aggregateDate);
+
+    /**
+     * 사용 한도 카운터 복구용 keyset 페이지
+     * - (id, 계좌번호, 사용자 id, 일자, 사용 금액, 취소 금액)
+     */
+    @Query("select a.id, a.accountNumber, a.userId, a.aggregateDate, a.useAmount, a.cancelAmount"
+        + " from DailyAggregate a where a.aggregateDate >= :from and a.aggregateDate < :to"
+        + " and a.id > :afterId order by a.id")
+    List<Object[]> findSpendBetween(@Param("from") LocalDate from,
+                                    @Param("to") LocalDate to,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+}
@@ -0,0 +1,18 @@
+package com.example.account.repository;
+
+import com.example.account.domain.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * 남아 있는 이벤트를 id 순으로 (보낸 이벤트는 지우므로 늦게 커밋된 작은 id 도 다음 번에 읽힌다)
+     */
+    @Query("select e from OutboxEvent e order by e.id")
+    List<OutboxEvent> findOldest(Pageable pageable);
+}
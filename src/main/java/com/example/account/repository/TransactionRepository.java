@@ -1,9 +1,16 @@
 package com.example.account.repository;
 
 import com.example.account.domain.Transaction;
+import com.example.account.type.TransactionResultType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +18,53 @@ public interface TransactionRepository
     extends JpaRepository<Transaction, Long> {
 
     Optional<Transaction> findByTransactionId(String transactionId);
+
+    boolean existsByTransactionId(String transactionId);
+
+    @Query("select t.transactionId from Transaction t where t.transactionId in :transactionIds")
+    List<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+
+    @Query("select t.id, t.transactionId from Transaction t where t.id > :afterId order by t.id")
+    List<Object[]> findTransactionIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select max(t.id) from Transaction t")
+    Long findMaxId();
+
+    /**
+     * 대사용 거래 체인, 계좌 id 범위 (fromAccountId, toAccountId] 를 (계좌 id, 거래 id) 순 keyset 페이지로 읽는다
+     * - (계좌 id, 거래 id, 거래 종류, 금액, 스냅샷, 거래 ID)
+     */
+    @Query("select t.account.id, t.id, t.transactionType, t.amount, t.balanceSnapshot, t.transactionId"
+        + " from Transaction t"
+        + " where t.account.id > :fromAccountId and t.account.id <= :toAccountId"
+        + " and (t.account.id > :afterAccountId or (t.account.id = :afterAccountId and t.id > :afterId))"
+        + " and t.id <= :maxId and t.transactionResultType = :resultType"
+        + " order by t.account.id, t.id")
+    List<Object[]> findChainsAfter(@Param("fromAccountId") Long fromAccountId,
+                                   @Param("toAccountId") Long toAccountId,
+                                   @Param("afterAccountId") Long afterAccountId,
+                                   @Param("afterId") Long afterId,
+                                   @Param("maxId") Long maxId,
+                                   @Param("resultType") TransactionResultType resultType,
+                                   Pageable pageable);
+
+    @Query("select t.balanceSnapshot from Transaction t"
+        + " where t.account.id = :accountId and t.transactionResultType = :resultType order by t.id desc")
+    List<Long> findLatestSnapshots(@Param("accountId") Long accountId,
+                                   @Param("resultType") TransactionResultType resultType,
+                                   Pageable pageable);
+
+    /**
+     * 일자별 집계 backfill 용, 기간 안의 거래를 계좌/종류/결과별로 합산
+     * - (계좌번호, 사용자 id, 거래 종류, 거래 결과, 금액 합, 건수)
+     * - idx_transaction_transacted_at 으로 기간 안의 거래만 읽고, 계좌는 PK 로 조인한다
+     *   (사용자 id 는 account 의 FK 컬럼이라 account_user 는 조인하지 않는다)
+     */
+    @Query("select t.account.accountNumber, t.account.accountUser.id, t.transactionType,"
+        + " t.transactionResultType, sum(t.amount), count(t) from Transaction t"
+        + " where t.transactedAt >= :from and t.transactedAt < :to"
+        + " group by t.account.accountNumber, t.account.accountUser.id,"
+        + " t.transactionType, t.transactionResultType")
+    List<Object[]> sumByAccountBetween(@Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,191 @@
+package com.example.account.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 계좌번호(10자리 숫자 -> long) -> (id, 소유자 id, 상태) open addressing 해시 테이블
+ * - 슬롯 하나가 32 byte 인 ByteBuffer 한 개 (heap 또는 off-heap direct buffer), 조회 시 객체 생성 없음
+ * - 쓰기는 한 번에 하나, 읽기는 StampedLock 낙관적 읽기
+ * - 계좌는 삭제되지 않고 해지 상태로만 바뀌므로 tombstone 이 없다
+ */
+public final class AccountIndex {
+    public static final long ABSENT = -1L;
+    public static final int STATUS_IN_USE = 1;
+    public static final int STATUS_UNREGISTERED = 2;
+
+    private static final int SLOT_BYTES = 32;
+    private static final int KEY_OFFSET = 0;
+    private static final int ID_OFFSET = 8;
+    private static final int OWNER_OFFSET = 16;
+    private static final int STATUS_OFFSET = 24;
+    private static final long EMPTY = -1L;
+    private static final double MAX_LOAD = 0.6;
+    private static final int MAX_SLOTS = Integer.MAX_VALUE / SLOT_BYTES;
+    private static final long OWNER_MASK = (1L << 56) - 1;
+
+    private final boolean offHeap;
+    private final StampedLock lock = new StampedLock();
+    private volatile ByteBuffer slots;
+    private volatile int capacity;
+    private int size;
+
+    public AccountIndex(int expectedSize, boolean offHeap) {
+        this.offHeap = offHeap;
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * 10자리 숫자 계좌번호를 long 으로 (숫자가 아니면 ABSENT)
+     */
+    public static long toKey(CharSequence accountNumber) {
+        if (accountNumber == null || accountNumber.length() == 0 || accountNumber.length() > 18) {
+            return ABSENT;
+        }
+        long key = 0;
+        for (int i = 0; i < accountNumber.length(); i++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return ABSENT;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+
+    /**
+     * @return (상태 << 56 | 소유자 id) 로 묶은 값, 없으면 ABSENT
+     */
+    public long lookup(long key) {
+        if (key < 0) {
+            return ABSENT;
+        }
+        long stamp = lock.tryOptimisticRead();
+        long result = find(key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                result = find(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    public static long ownerOf(long packed) {
+        return packed & OWNER_MASK;
+    }
+
+    public static int statusOf(long packed) {
+        return (int) (packed >>> 56);
+    }
+
+    public void put(long key, long id, long ownerId, int status) {
+        long stamp = lock.writeLock();
+        try {
+            if (size + 1 > capacity * MAX_LOAD) {
+                resize();
+            }
+            int slot = slotOf(slots, capacity, key);
+            if (slots.getLong(slot + KEY_OFFSET) == EMPTY) {
+                size++;
+            }
+            write(slots, slot, key, id, ownerId, status);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void updateStatus(long key, int status) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(slots, capacity, key);
+            if (slots.getLong(slot + KEY_OFFSET) == key) {
+                slots.put(slot + STATUS_OFFSET, (byte) status);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long memoryBytes() {
+        return (long) capacity * SLOT_BYTES;
+    }
+
+    private long find(long key) {
+        ByteBuffer buffer = slots;
+        int slot = slotOf(buffer, buffer.capacity() / SLOT_BYTES, key);
+        if (buffer.getLong(slot + KEY_OFFSET) != key) {
+            return ABSENT;
+        }
+        return ((long) buffer.get(slot + STATUS_OFFSET) << 56)
+            | (buffer.getLong(slot + OWNER_OFFSET) & OWNER_MASK);
+    }
+
+    // linear probing, 키가 있는 슬롯이나 첫 빈 슬롯의 byte offset
+    private static int slotOf(ByteBuffer buffer, int capacity, long key) {
+        int mask = capacity - 1;
+        int index = (int) (mix(key) & mask);
+        while (true) {
+            int offset = index * SLOT_BYTES;
+            long existing = buffer.getLong(offset + KEY_OFFSET);
+            if (existing == key || existing == EMPTY) {
+                return offset;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        ByteBuffer old = slots;
+        int oldCapacity = capacity;
+        if (oldCapacity * 2 > MAX_SLOTS) {
+            throw new IllegalStateException("Account index is full");
+        }
+        allocate(oldCapacity * 2);
+        for (int i = 0; i < oldCapacity; i++) {
+            int offset = i * SLOT_BYTES;
+            long key = old.getLong(offset + KEY_OFFSET);
+            if (key != EMPTY) {
+                write(slots, slotOf(slots, capacity, key), key,
+                    old.getLong(offset + ID_OFFSET), old.getLong(offset + OWNER_OFFSET), old.get(offset + STATUS_OFFSET));
+            }
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        ByteBuffer buffer = offHeap
+            ? ByteBuffer.allocateDirect(newCapacity * SLOT_BYTES)
+            : ByteBuffer.allocate(newCapacity * SLOT_BYTES);
+        for (int i = 0; i < newCapacity; i++) {
+            buffer.putLong(i * SLOT_BYTES + KEY_OFFSET, EMPTY);
+        }
+        capacity = newCapacity;
+        slots = buffer;
+    }
+
+    private static void write(ByteBuffer buffer, int offset, long key, long id, long ownerId, int status) {
+        buffer.putLong(offset + ID_OFFSET, id);
+        buffer.putLong(offset + OWNER_OFFSET, ownerId);
+        buffer.put(offset + STATUS_OFFSET, (byte) status);
+        buffer.putLong(offset + KEY_OFFSET, key);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(16, expectedSize) / MAX_LOAD);
+        int capacity = Integer.highestOneBit((int) Math.min(needed, MAX_SLOTS));
+        return capacity < needed ? Math.min(capacity << 1, Integer.highestOneBit(MAX_SLOTS)) : capacity;
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.account.service;
+
+import com.example.account.config.ShardContextHolder;
+import com.example.account.domain.Account;
+import com.example.account.repository.AccountRepository;
+import com.example.account.type.AccountStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 계좌번호 -> (id, 소유자, 상태) 메모리 인덱스
+ * - 기동 시 모든 샤드에서 적재하고 AccountService 의 생성/해지 때 갱신
+ * - 다른 노드에서 만든 계좌는 없을 수 있으므로 "없음"은 확정이 아니다 (있을 때만 믿는다)
+ * - 소유자는 바뀌지 않고 해지는 되돌릴 수 없으므로, 있는 값으로 거절하는 것은 안전
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountIndexService {
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    private final AccountRepository accountRepository;
+    private final ShardRouter shardRouter;
+
+    @Value("${account.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${account.index.expected-accounts:1000000}")
+    private int expectedAccounts;
+
+    @Value("${account.index.off-heap:false}")
+    private boolean offHeap;
+
+    private AccountIndex index;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            index = new AccountIndex(expectedAccounts, offHeap);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (index == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardContextHolder.set(shard);
+            try {
+                long afterId = 0;
+                List<Object[]> rows;
+                do {
+                    rows = accountRepository.findIndexEntriesAfter(afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+                    for (Object[] row : rows) {
+                        afterId = (Long) row[0];
+                        put((Long) row[0], (String) row[1], (Long) row[2], (AccountStatus) row[3]);
+                    }
+                } while (rows.size() == LOAD_PAGE_SIZE);
+            } finally {
+                ShardContextHolder.clear();
+            }
+        }
+        log.info("Account index loaded: {} accounts, {} bytes {} in {} ms", index.size(), index.memoryBytes(),
+            offHeap ? "off-heap" : "on-heap", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * @return AccountIndex.lookup 결과 (상태/소유자 묶음), 모르면 AccountIndex.ABSENT
+     */
+    public long lookup(String accountNumber) {
+        AccountIndex current = index;
+        return current == null ? AccountIndex.ABSENT : current.lookup(AccountIndex.toKey(accountNumber));
+    }
+
+    public boolean contains(String accountNumber) {
+        return lookup(accountNumber) != AccountIndex.ABSENT;
+    }
+
+    /**
+     * 생성/해지는 커밋된 뒤에 반영 (롤백된 변경으로 요청을 거절하지 않도록)
+     */
+    public void onCreated(Account account) {
+        Long id = account.getId();
+        String accountNumber = account.getAccountNumber();
+        Long ownerId = account.getAccountUser().getId();
+        AccountStatus status = account.getAccountStatus();
+        afterCommit(() -> put(id, accountNumber, ownerId, status));
+    }
+
+    public void onUnregistered(String accountNumber) {
+        if (index != null) {
+            afterCommit(() -> index.updateStatus(AccountIndex.toKey(accountNumber), AccountIndex.STATUS_UNREGISTERED));
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void put(Long id, String accountNumber, Long ownerId, AccountStatus status) {
+        long key = AccountIndex.toKey(accountNumber);
+        if (index == null || key == AccountIndex.ABSENT || ownerId == null) {
+            return;
+        }
+        index.put(key, id, ownerId, status == AccountStatus.UNREGISTERED
+            ? AccountIndex.STATUS_UNREGISTERED : AccountIndex.STATUS_IN_USE);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.account.service;
 
+import com.example.account.aop.ShardKey;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.dto.AccountDto;
@@ -18,6 +19,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import static com.example.account.aop.ShardKeyType.USER_ID;
 import static com.example.account.type.AccountStatus.IN_USE;
 import static com.example.account.type.ErrorCode.*;
 
@@ -26,6 +28,10 @@ import static com.example.account.type.ErrorCode.*;
 public class AccountService {
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
+    private final ShardRouter shardRouter;
+    private final LookupFilterService lookupFilterService;
+    private final AccountIndexService accountIndexService;
+    private final HotAccountEngine hotAccountEngine;
 
     /**
      * 사용자가 있는지 조회
@@ -37,7 +43,7 @@ public class AccountService {
      * - enum type import static 처리해서 가독성 좋게
      */
     @Transactional
-    public AccountDto createAccount(Long userId, Long initialBalance) {
+    public AccountDto createAccount(@ShardKey(USER_ID) Long userId, Long initialBalance) {
         AccountUser accountUser = getAccountUser(userId);
 
         validateCreateAccount(accountUser);
@@ -50,7 +56,9 @@ public class AccountService {
                 .registeredAt(LocalDateTime.now())
                 .build()
         );
-        savedAccount.initAccountNumber();
+        savedAccount.initAccountNumber(shardRouter.getShardCount(), shardRouter.currentShard());
+        lookupFilterService.addAccount(savedAccount.getAccountNumber());
+        accountIndexService.onCreated(savedAccount);
 
         return AccountDto.fromEntity(savedAccount);
     }
@@ -60,19 +68,21 @@ public class AccountService {
      */
     private void validateCreateAccount(AccountUser accountUser) {
         if (accountRepository.countByAccountUser(accountUser) >= 10) {
-            throw new AccountException(MAX_ACCOUNT_PER_USER_10);
+            throw AccountException.of(MAX_ACCOUNT_PER_USER_10);
         }
     }
 
     @Transactional
-    public AccountDto deleteAccount(Long userId, String accountNumber) {
+    public AccountDto deleteAccount(Long userId, @ShardKey String accountNumber) {
         AccountUser accountUser = getAccountUser(userId);
         Account account = accountRepository.findByAccountNumber(accountNumber)
-            .orElseThrow(() -> new AccountException(ACCOUNT_NOT_FOUND));
+            .orElseThrow(() -> AccountException.of(ACCOUNT_NOT_FOUND));
 
         validateDeleteAccount(accountUser, account);
+        validateEmptyBalance(account);
 
         account.unRegister();
+        accountIndexService.onUnregistered(accountNumber);
 
         // 없어도 되는 코드인데 테스트 원활하게 하기 위해 코드 생성
         accountRepository.save(account);
@@ -84,26 +94,46 @@ public class AccountService {
     }
 
     private AccountUser getAccountUser(Long userId) {
+        if (lookupFilterService.isMissingUser(userId)) {
+            throw AccountException.of(USER_NOT_FOUND);
+        }
         return accountUserRepository.findById(userId)
-            .orElseThrow(() -> new AccountException(USER_NOT_FOUND));
+            .orElseThrow(() -> {
+                lookupFilterService.recordMissingUser(userId);
+                return AccountException.of(USER_NOT_FOUND);
+            });
     }
 
     private void validateDeleteAccount(AccountUser accountUser, Account account) {
         if (!Objects.equals(accountUser, account.getAccountUser())) {
-            throw new AccountException(USER_ACCOUNT_UNMATCHED);
+            throw AccountException.of(USER_ACCOUNT_UNMATCHED);
         }
 
         if (AccountStatus.UNREGISTERED.equals(account.getAccountStatus())) {
-            throw new AccountException(ACCOUNT_ALREADY_UNREGISTERED);
+            throw AccountException.of(ACCOUNT_ALREADY_UNREGISTERED);
+        }
+
+    }
+
+    /**
+     * hot 계좌는 DB 잔액이 반영 전일 수 있으므로
+     * - 이 노드가 소유 중이면 엔진의 메모리 잔액으로 확인하고 엔진에서도 해지한다
+     * - 다른 노드의 redo 기록이 남아 있으면 해지하지 않는다
+     */
+    private void validateEmptyBalance(Account account) {
+        if (hotAccountEngine.owns(account.getAccountNumber())) {
+            hotAccountEngine.unregister(account.getAccountNumber());
+            return;
         }
+        hotAccountEngine.checkColdPath(account.getAccountNumber());
 
         if (account.getBalance() > 0) {
-            throw new AccountException(BALANCE_NOT_EMPTY);
+            throw AccountException.of(BALANCE_NOT_EMPTY);
         }
     }
 
     @Transactional
-    public List<AccountDto> getAccountsByUserId(Long userId) {
+    public List<AccountDto> getAccountsByUserId(@ShardKey(USER_ID) Long userId) {
         AccountUser accountUser = getAccountUser(userId);
 
         List<Account> accounts = accountRepository.findByAccountUser(accountUser);
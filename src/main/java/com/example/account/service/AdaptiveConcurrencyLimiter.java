@@ -0,0 +1,93 @@
+package com.example.account.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @AccountLock 엔드포인트의 동시 처리 개수 제한 (AIMD, account.admission.enabled)
+ * - 목표 지연시간 안에 끝나면 limit 을 조금씩 늘리고
+ * - 느려지면 limit 을 비율로 줄인다.
+ * - 계좌 락 획득 실패는 한 계좌의 경합일 뿐 노드 과부하가 아니므로 limit 을 바꾸지 않는다
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+    private static final double DECREASE_RATIO = 0.9;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    public AdaptiveConcurrencyLimiter(
+        @Value("${account.admission.enabled:false}") boolean enabled,
+        @Value("${account.admission.min-limit:4}") int minLimit,
+        @Value("${account.admission.max-limit:200}") int maxLimit,
+        @Value("${account.admission.initial-limit:20}") int initialLimit,
+        @Value("${account.admission.target-latency-ms:200}") long targetLatencyMs
+    ) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.limit = initialLimit;
+    }
+
+    public boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long latencyNanos) {
+        if (!enabled) {
+            return;
+        }
+        inFlight.decrementAndGet();
+        if (latencyNanos > targetLatencyNanos) {
+            decrease();
+        } else {
+            increase();
+        }
+    }
+
+    /**
+     * limit 조정 없이 자리만 반납
+     */
+    public void onIgnored() {
+        if (!enabled) {
+            return;
+        }
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(maxLimit, limit + 1.0 / limit);
+    }
+
+    private synchronized void decrease() {
+        limit = Math.max(minLimit, limit * DECREASE_RATIO);
+    }
+}
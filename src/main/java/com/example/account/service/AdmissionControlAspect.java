@@ -0,0 +1,57 @@
+package com.example.account.service;
+
+import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 락을 잡기 전에 요청 제한/동시성 제한을 확인
+ * - LockAopAspect 보다 먼저 실행되어 과부하 시 락 대기와 실패 거래 저장 없이 바로 거절
+ */
+@Aspect
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@Order(1)
+public class AdmissionControlAspect {
+    private final RateLimitService rateLimitService;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Around("@annotation(com.example.account.aop.AccountLock) && args(request)")
+    public Object aroundMethod(
+        ProceedingJoinPoint pjp,
+        AccountLockIdInterface request
+    ) throws Throwable {
+        // 동시성 제한에 막힌 요청이 요청 제한 허용량을 쓰지 않도록 자리부터 잡는다
+        if (!concurrencyLimiter.tryAcquire()) {
+            throw AccountException.of(ErrorCode.TOO_MANY_REQUESTS);
+        }
+        if (!rateLimitService.tryAcquire(request.getUserId(), request.getAccountNumber())) {
+            concurrencyLimiter.onIgnored();
+            throw AccountException.of(ErrorCode.TOO_MANY_REQUESTS);
+        }
+
+        long start = System.nanoTime();
+        boolean lockFailed = false;
+        try {
+            return pjp.proceed();
+        } catch (AccountException e) {
+            // 계좌 하나의 락 경합은 지연시간도 과부하 신호도 아니다
+            lockFailed = e.getErrorCode() == ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+            throw e;
+        } finally {
+            if (lockFailed) {
+                concurrencyLimiter.onIgnored();
+            } else {
+                concurrencyLimiter.onSuccess(System.nanoTime() - start);
+            }
+        }
+    }
+}
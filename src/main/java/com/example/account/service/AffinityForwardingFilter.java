@@ -0,0 +1,195 @@
+package com.example.account.service;
+
+import com.example.account.config.AffinityProperties;
+import com.example.account.dto.ErrorResponse;
+import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 소유 노드가 아닌 노드로 온 잔액 사용/취소 요청을 소유 노드로 넘기고 응답을 그대로 돌려준다
+ * - 넘겨받은 요청은 다시 넘기지 않는다 (링이 잠깐 어긋나도 한 번만 전달)
+ * - 소유 노드를 모르면 그냥 처리 -> LockAopAspect 에서 ACCOUNT_TRANSACTION_LOCK 으로 거절
+ * - 전달에 실패하면 이 노드에서 처리하지 않고 502(연결 거부)/504(그 밖, 소유 노드가 처리했을 수 있음)로 응답
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "account.affinity", name = "enabled", havingValue = "true")
+public class AffinityForwardingFilter extends OncePerRequestFilter {
+    public static final String FORWARDED_BY_HEADER = "X-Account-Forwarded-By";
+    public static final String OWNER_HEADER = "X-Account-Owner";
+
+    private final AffinityRouter affinityRouter;
+    private final AffinityProperties properties;
+    private final ObjectMapper objectMapper;
+    private final RestTemplate restTemplate;
+    private final byte[] unavailableBody;
+
+    public AffinityForwardingFilter(AffinityRouter affinityRouter, AffinityProperties properties,
+                                    ObjectMapper objectMapper, RestTemplateBuilder restTemplateBuilder)
+        throws JsonProcessingException {
+        this.affinityRouter = affinityRouter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.unavailableBody = objectMapper.writeValueAsBytes(new ErrorResponse(
+            ErrorCode.ACCOUNT_OWNER_UNAVAILABLE, ErrorCode.ACCOUNT_OWNER_UNAVAILABLE.getDescription()));
+        this.restTemplate = restTemplateBuilder
+            .setConnectTimeout(Duration.ofMillis(properties.getForwardConnectTimeoutMs()))
+            .setReadTimeout(Duration.ofMillis(properties.getForwardReadTimeoutMs()))
+            // 소유 노드의 4xx/5xx 응답도 그대로 돌려준다
+            .errorHandler(new DefaultResponseErrorHandler() {
+                @Override
+                public boolean hasError(ClientHttpResponse response) {
+                    return false;
+                }
+            })
+            .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+            || !properties.getForwardPaths().contains(request.getRequestURI())
+            || request.getHeader(FORWARDED_BY_HEADER) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        Optional<AffinityMember> owner = affinityRouter.ownerOf(accountNumberOf(body));
+        if (owner.isPresent() && !affinityRouter.isSelf(owner.get())) {
+            forward(owner.get(), request, body, response);
+            return;
+        }
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    private void forward(AffinityMember owner, HttpServletRequest request, byte[] body,
+                            HttpServletResponse response) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        if (request.getContentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, request.getContentType());
+        }
+        headers.set(FORWARDED_BY_HEADER, affinityRouter.localNodeId());
+
+        ResponseEntity<byte[]> forwarded;
+        try {
+            forwarded = restTemplate.exchange(owner.getUrl() + request.getRequestURI(),
+                HttpMethod.POST, new HttpEntity<>(body, headers), byte[].class);
+        } catch (RestClientException e) {
+            // 응답을 못 받았어도 소유 노드가 이미 처리했을 수 있으므로 이 노드에서 다시 처리하지 않는다
+            log.warn("Failed to forward {} to owner {}", request.getRequestURI(), owner.getNodeId());
+            response.setStatus(e.getCause() instanceof ConnectException
+                ? HttpStatus.BAD_GATEWAY.value() : HttpStatus.GATEWAY_TIMEOUT.value());
+            response.setHeader(OWNER_HEADER, owner.getNodeId());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(unavailableBody);
+            return;
+        }
+
+        response.setStatus(forwarded.getStatusCodeValue());
+        response.setHeader(OWNER_HEADER, owner.getNodeId());
+        if (forwarded.getHeaders().getContentType() != null) {
+            response.setContentType(forwarded.getHeaders().getContentType().toString());
+        }
+        if (forwarded.getBody() != null) {
+            response.getOutputStream().write(forwarded.getBody());
+        }
+    }
+
+    private String accountNumberOf(byte[] body) {
+        try {
+            JsonNode tree = objectMapper.readTree(body);
+            JsonNode accountNumber = tree == null ? null : tree.get("accountNumber");
+            return accountNumber == null ? null : accountNumber.asText();
+        } catch (IOException e) {
+            // 잘못된 body 는 이 노드에서 validation 오류로 응답
+            return null;
+        }
+    }
+
+    /**
+     * 이미 읽은 body 를 다시 읽을 수 있게 감싼다
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // body 가 이미 메모리에 있으므로 바로 읽을 수 있다고 알린다
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.account.service;
+
+import lombok.Getter;
+
+/**
+ * 링 멤버 하나 (redis 에는 노드 ID -> "url \t 유효 시작 \t 만료" 로 저장)
+ * - 시각은 epoch millis, 모든 노드가 같은 기록을 보고 같은 시각에 링을 바꾼다
+ */
+@Getter
+public class AffinityMember {
+    private final String nodeId;
+    private final String url;
+    private final long activeFrom;
+    private final long expiresAt;
+
+    public AffinityMember(String nodeId, String url, long activeFrom, long expiresAt) {
+        this.nodeId = nodeId;
+        this.url = url;
+        this.activeFrom = activeFrom;
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isActiveAt(long nowMillis) {
+        return activeFrom <= nowMillis && nowMillis < expiresAt;
+    }
+
+    public AffinityMember withExpiresAt(long expiresAt) {
+        return new AffinityMember(nodeId, url, activeFrom, expiresAt);
+    }
+
+    public String toValue() {
+        return url + "\t" + activeFrom + "\t" + expiresAt;
+    }
+
+    public static AffinityMember fromValue(String nodeId, String value) {
+        String[] fields = value.split("\t");
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("Malformed affinity member : " + nodeId + " " + value);
+        }
+        return new AffinityMember(nodeId, fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+    }
+}
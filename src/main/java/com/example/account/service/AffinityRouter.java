@@ -0,0 +1,298 @@
+package com.example.account.service;
+
+import com.example.account.config.AffinityProperties;
+import com.example.account.config.HotAccountProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMap;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 계좌번호 consistent hash 링으로 계좌마다 소유 노드를 정한다 (account.affinity.enabled)
+ * - 멤버는 redis 맵에 heartbeat 로 등록, 주기마다 읽어서 링을 다시 만든다
+ * - 소유 노드가 아닌 노드로 온 요청은 AffinityForwardingFilter 가 소유 노드로 넘긴다
+ * - 소유 노드에서는 로컬 락이 유일한 락 (redis 락 없음), 소유 노드가 바뀐 계좌만 handoff-ms 동안 기다린다
+ * - hot 계좌는 메모리 잔액 엔진의 소유 규칙을 따르므로 라우팅하지 않는다
+ */
+@Slf4j
+@Service
+@Lazy(false)
+@RequiredArgsConstructor
+@EnableConfigurationProperties(AffinityProperties.class)
+public class AffinityRouter {
+    private static final String MEMBERS_KEY = "AFFINITY:MEMBERS";
+
+    private final AffinityProperties properties;
+    private final HotAccountProperties hotAccountProperties;
+    @Lazy
+    private final RedissonClient redissonClient;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    private volatile View view = View.UNKNOWN;
+    private volatile long refreshedAt;
+    private volatile AffinityMember self;
+    private volatile boolean leaving;
+    private ScheduledExecutorService scheduler;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String url = StringUtils.hasText(properties.getAdvertiseUrl())
+            ? properties.getAdvertiseUrl() : "http://127.0.0.1:" + serverPort;
+        String nodeId = StringUtils.hasText(properties.getNodeId()) ? properties.getNodeId() : url;
+        long now = System.currentTimeMillis();
+        // 다른 노드가 모두 기록을 읽은 뒤에 링에 들어가도록 join-delay 뒤부터 유효
+        self = new AffinityMember(nodeId, url,
+            now + properties.getJoinDelayMs(), now + properties.getMemberTtlMs());
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "affinity-ring");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshSafely,
+            0, properties.getHeartbeatIntervalMs(), TimeUnit.MILLISECONDS);
+        log.info("Joining affinity ring as {} ({})", nodeId, url);
+    }
+
+    /**
+     * 웹 서버가 멈추기 전에 링에서 나간다
+     * - 만료 시각을 leave-delay 뒤로 당겨 두고 그때까지는 계속 처리, 이후 요청은 새 소유 노드로 넘긴다
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void leave() {
+        if (scheduler == null || leaving) {
+            return;
+        }
+        leaving = true;
+        try {
+            self = self.withExpiresAt(System.currentTimeMillis() + properties.getLeaveDelayMs());
+            members().fastPut(self.getNodeId(), self.toValue());
+            Thread.sleep(properties.getLeaveDelayMs() + properties.getHeartbeatIntervalMs());
+            members().fastRemove(self.getNodeId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to leave affinity ring", e);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * @return 소유 노드, 라우팅 대상이 아니거나 링을 모르면 (redis 갱신 실패 등) empty
+     */
+    public Optional<AffinityMember> ownerOf(String accountNumber) {
+        if (!covers(accountNumber)) {
+            return Optional.empty();
+        }
+        View current = currentView(System.currentTimeMillis());
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.members.get(current.ring.ownerOf(accountNumber)));
+    }
+
+    public String localNodeId() {
+        AffinityMember current = self;
+        return current == null ? null : current.getNodeId();
+    }
+
+    public boolean isSelf(AffinityMember member) {
+        AffinityMember current = self;
+        return current != null && current.getNodeId().equals(member.getNodeId());
+    }
+
+    /**
+     * hot 계좌를 뺀 모든 계좌가 라우팅 대상
+     */
+    public boolean covers(String accountNumber) {
+        if (!properties.isEnabled() || accountNumber == null) {
+            return false;
+        }
+        return !(hotAccountProperties.isEnabled()
+            && hotAccountProperties.getAccountNumbers().contains(accountNumber));
+    }
+
+    public boolean isLocalOwner(String accountNumber) {
+        return ownerOf(accountNumber).map(this::isSelf).orElse(false);
+    }
+
+    /**
+     * 이 노드가 소유하고 handoff 도 끝나서 로컬 상태(락, 잔액 캐시)를 믿어도 되는 계좌인지
+     */
+    public boolean isAuthoritative(String accountNumber) {
+        return isAuthoritativeAt(accountNumber, System.currentTimeMillis());
+    }
+
+    boolean isAuthoritativeAt(String accountNumber, long nowMillis) {
+        if (!covers(accountNumber)) {
+            return false;
+        }
+        View current = currentView(nowMillis);
+        if (current == null) {
+            return false;
+        }
+        AffinityMember owner = current.members.get(current.ring.ownerOf(accountNumber));
+        return owner != null && isSelf(owner) && handoffRemainingMs(accountNumber, nowMillis) <= 0;
+    }
+
+    /**
+     * handoff 중이면 max-handoff-wait-ms 안에서 기다린다
+     * @return 이 노드가 소유한 계좌를 로컬 락만으로 처리해도 되면 true
+     */
+    public boolean awaitAuthority(String accountNumber) {
+        long deadline = System.currentTimeMillis() + properties.getMaxHandoffWaitMs();
+        while (isLocalOwner(accountNumber)) {
+            long now = System.currentTimeMillis();
+            long remaining = handoffRemainingMs(accountNumber, now);
+            if (remaining <= 0) {
+                return true;
+            }
+            if (now + remaining > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 링이 바뀐 뒤 handoff-ms + max-clock-skew-ms 동안은 소유 노드가 바뀐 계좌만 기다린다
+     * - 처음 링을 만들었거나 handoff 중에 또 바뀌었으면 모든 계좌가 기다린다
+     */
+    long handoffRemainingMs(String accountNumber, long nowMillis) {
+        View current = view;
+        long remaining = current.changedAt + handoffWindowMs() - nowMillis;
+        if (remaining <= 0) {
+            return 0;
+        }
+        if (current.previous == null || current.unstable) {
+            return remaining;
+        }
+        return Objects.equals(current.previous.ownerOf(accountNumber), current.ring.ownerOf(accountNumber))
+            ? 0 : remaining;
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.warn("Failed to refresh affinity ring", e);
+        }
+    }
+
+    private void refresh(long nowMillis) {
+        RMap<String, String> members = members();
+        if (!leaving) {
+            self = self.withExpiresAt(nowMillis + properties.getMemberTtlMs());
+            members.fastPut(self.getNodeId(), self.toValue());
+        }
+
+        List<AffinityMember> known = new ArrayList<>();
+        for (Map.Entry<String, String> entry : members.readAllMap().entrySet()) {
+            AffinityMember member = AffinityMember.fromValue(entry.getKey(), entry.getValue());
+            if (member.getExpiresAt() + properties.getMemberTtlMs() < nowMillis) {
+                // 오래전에 만료된 노드 기록 정리 (어느 노드가 지워도 된다)
+                members.fastRemove(member.getNodeId());
+                continue;
+            }
+            known.add(member);
+        }
+        rebuild(known, nowMillis);
+    }
+
+    /**
+     * 지금 유효한 멤버로 링을 다시 만든다 (멤버 구성이 같으면 링은 그대로)
+     */
+    void rebuild(Collection<AffinityMember> members, long nowMillis) {
+        Map<String, AffinityMember> active = new HashMap<>();
+        for (AffinityMember member : members) {
+            if (member.isActiveAt(nowMillis)) {
+                active.put(member.getNodeId(), member);
+            }
+        }
+
+        View current = view;
+        if (current.ring != null && current.ring.getNodes().equals(active.keySet())) {
+            view = new View(current.ring, current.previous, active, current.changedAt, current.unstable);
+        } else {
+            boolean unstable = current.ring != null
+                && nowMillis < current.changedAt + handoffWindowMs();
+            view = new View(new ConsistentHashRing(active.keySet(), properties.getVirtualNodes()),
+                current.ring, active, nowMillis, unstable);
+            log.info("Affinity ring changed. nodes : {}", active.keySet());
+        }
+        refreshedAt = nowMillis;
+    }
+
+    private long handoffWindowMs() {
+        return properties.getHandoffMs() + properties.getMaxClockSkewMs();
+    }
+
+    private View currentView(long nowMillis) {
+        View current = view;
+        if (current.ring == null || nowMillis - refreshedAt > properties.getMemberTtlMs()) {
+            // 링을 오래 갱신하지 못했으면 다른 노드와 소유 노드가 어긋날 수 있어 모른다고 본다
+            return null;
+        }
+        return current;
+    }
+
+    private RMap<String, String> members() {
+        return redissonClient.getMap(MEMBERS_KEY, StringCodec.INSTANCE);
+    }
+
+    private static class View {
+        private static final View UNKNOWN = new View(null, null, Collections.emptyMap(), 0, false);
+
+        private final ConsistentHashRing ring;
+        private final ConsistentHashRing previous;
+        private final Map<String, AffinityMember> members;
+        private final long changedAt;
+        private final boolean unstable;
+
+        private View(ConsistentHashRing ring, ConsistentHashRing previous,
+                     Map<String, AffinityMember> members, long changedAt, boolean unstable) {
+            this.ring = ring;
+            this.previous = previous;
+            this.members = members;
+            this.changedAt = changedAt;
+            this.unstable = unstable;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.account.service;
+
+import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.config.AsyncDebitProperties;
+import com.example.account.dto.TransactionDto;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.exception.TransactionOutcomeUnknownException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.client.RedisException;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 비동기 잔액 사용
+ * - 접수 : 거래 ID 를 정하고 계좌번호 해시 파티션의 큐에 넣은 뒤 바로 반환 (락, DB 없음)
+ * - 반영 : 파티션마다 스레드 하나가 배치의 계좌 락을 한 번에 잡고 기존 useBalance 로 순서대로 반영, 실패는 같은 거래 ID 로 F 저장
+ * - 큐는 at-least-once 이므로 이미 기록된 거래 ID 는 건너뛴다
+ * - 같은 요청이 max-attempts 번 실패하면 dead letter 로 옮기고 다음 요청으로 넘어간다 (파티션이 막히지 않게)
+ * - 계좌 라우팅을 켜면 쓰지 않는다 (소유 노드가 아닌 파티션 소비자가 redis 락으로 반영하면 로컬 락과 겹친다)
+ */
+@Slf4j
+@Service
+@Lazy(false)
+@RequiredArgsConstructor
+@EnableConfigurationProperties(AsyncDebitProperties.class)
+public class AsyncDebitService {
+    private static final String DEAD_LETTER_METRIC = "account.debit.dead.letter";
+
+    private final AsyncDebitProperties properties;
+    private final DebitQueue debitQueue;
+    private final TransactionService transactionService;
+    private final LockService lockService;
+    private final HotAccountEngine hotAccountEngine;
+    private final AffinityRouter affinityRouter;
+    private final MeterRegistry meterRegistry;
+
+    private final List<Thread> consumers = new ArrayList<>();
+    // entry id -> 실패 횟수 (실패한 배치의 맨 앞 요청만 쌓인다)
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && !affinityRouter.isEnabled();
+    }
+
+    /**
+     * 큐로 접수되는 요청은 접수 시점에 계좌 락을 잡지 않는다 (LockAopAspect)
+     */
+    public boolean accepts(AccountLockIdInterface request) {
+        return isEnabled() && request instanceof UseBalance.Request;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws Exception {
+        if (!isEnabled()) {
+            if (properties.isEnabled()) {
+                log.warn("Async debit is disabled because affinity routing is enabled");
+            }
+            return;
+        }
+        debitQueue.start();
+        running = true;
+        for (int partition = 0; partition < properties.getPartitions(); partition++) {
+            int assigned = partition;
+            Thread consumer = new Thread(() -> consume(assigned), "async-debit-" + partition);
+            consumer.setDaemon(true);
+            consumer.start();
+            consumers.add(consumer);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread consumer : consumers) {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        debitQueue.stop();
+    }
+
+    public TransactionDto submit(Long userId, String accountNumber, Long amount) {
+        DebitRequest request = new DebitRequest(UUID.randomUUID().toString().replace("-", ""),
+            userId, accountNumber, amount, LocalDateTime.now());
+        try {
+            debitQueue.append(partitionOf(accountNumber), request);
+        } catch (Exception e) {
+            log.error("Failed to enqueue debit for account {}", accountNumber, e);
+            throw AccountException.of(ErrorCode.INTERNAL_SERVER_ERROR);
+        }
+        return request.toPendingDto();
+    }
+
+    public Optional<TransactionDto> findPending(String transactionId) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        return debitQueue.findPending(transactionId).map(DebitRequest::toPendingDto);
+    }
+
+    int partitionOf(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), properties.getPartitions());
+    }
+
+    private void consume(int partition) {
+        try {
+            while (running) {
+                if (!debitQueue.acquirePartition(partition)) {
+                    sleep(properties.getPollTimeoutMs());
+                    continue;
+                }
+                if (!applyBatch(partition)) {
+                    sleep(properties.getRetryBackoffMs());
+                }
+            }
+        } finally {
+            debitQueue.releasePartition(partition);
+        }
+    }
+
+    /**
+     * 앞에서부터 차례로 반영하다 실패하면 거기서 멈추고 반영한 만큼만 ack (계좌별 순서 유지)
+     * - 재시도 횟수를 다 쓴 요청은 dead letter 로 옮기고 ack 한 뒤 계속 진행
+     * - hot 계좌가 아닌 계좌의 락은 배치 전체에 한 번에 잡는다 (요청마다 redis 왕복하지 않는다)
+     * @return 배치를 모두 반영했으면 true
+     */
+    boolean applyBatch(int partition) {
+        List<DebitQueue.Entry> entries;
+        try {
+            entries = debitQueue.poll(partition, properties.getBatchSize(), properties.getPollTimeoutMs());
+        } catch (Exception e) {
+            log.warn("Failed to poll debit queue partition {}", partition, e);
+            return false;
+        }
+
+        Set<String> locked = coldAccountNumbers(entries);
+        try {
+            lockService.lockAll(locked);
+        } catch (AccountException e) {
+            log.warn("Failed to lock {} accounts for debit partition {}, retrying", locked.size(), partition);
+            return false;
+        }
+
+        List<DebitQueue.Entry> applied = new ArrayList<>(entries.size());
+        boolean completed = true;
+        try {
+            for (DebitQueue.Entry entry : entries) {
+                try {
+                    apply(entry.getRequest(), locked);
+                    attempts.remove(entry.getId());
+                    applied.add(entry);
+                } catch (Exception e) {
+                    if (!exhausted(entry, e)) {
+                        log.warn("Failed to apply debit {}, retrying", entry.getRequest().getTransactionId(), e);
+                        completed = false;
+                        break;
+                    }
+                    if (!deadLetter(partition, entry, e)) {
+                        completed = false;
+                        break;
+                    }
+                    applied.add(entry);
+                }
+            }
+        } finally {
+            unlockQuietly(locked);
+        }
+
+        try {
+            debitQueue.ack(partition, applied);
+        } catch (Exception e) {
+            // 다시 전달되어도 이미 기록된 거래 ID 는 건너뛴다
+            log.warn("Failed to ack debit queue partition {}", partition, e);
+            return false;
+        }
+        return completed;
+    }
+
+    /**
+     * 락을 못 잡거나 DB 오류, 결과 미확정이면 예외로 재시도, 검증 실패(AccountException)는 F 로 기록하고 끝
+     * - 이미 202 로 접수한 요청이므로 일시적인 실패를 F 로 남기면 안 된다
+     */
+    void apply(DebitRequest request, Set<String> locked) {
+        String accountNumber = request.getAccountNumber();
+        if (!locked.contains(accountNumber) && !hotAccountEngine.owns(accountNumber)) {
+            // 배치 락을 잡은 뒤에 hot 계좌 소유가 풀렸다
+            throw AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+        if (transactionService.isRecorded(accountNumber, request.getTransactionId())) {
+            return;
+        }
+        try {
+            transactionService.useBalance(request.getUserId(), accountNumber,
+                request.getAmount(), request.getTransactionId());
+        } catch (AccountException e) {
+            if (isRetryable(e)) {
+                throw e;
+            }
+            transactionService.saveFailedUseTransaction(accountNumber,
+                request.getAmount(), request.getTransactionId());
+        }
+    }
+
+    /**
+     * 검증 실패/락 경합(AccountException)과 일시적인 인프라 장애는 세지 않는다 (장애 중에 정상 요청을 버리지 않게)
+     */
+    private boolean exhausted(DebitQueue.Entry entry, Exception e) {
+        if (e instanceof AccountException || isTransient(e)) {
+            return false;
+        }
+        return attempts.merge(entry.getId(), 1, Integer::sum) >= properties.getMaxAttempts();
+    }
+
+    /**
+     * F 로 기록하지 않는다 (요청 자체가 잘못됐는지 반영 코드가 잘못됐는지 모르므로 운영자가 확인 후 다시 넣는다)
+     * @return 옮겼으면 true, 옮기지 못하면 다음 배치에서 다시 시도
+     */
+    private boolean deadLetter(int partition, DebitQueue.Entry entry, Exception cause) {
+        DebitRequest request = entry.getRequest();
+        try {
+            debitQueue.deadLetter(partition, entry);
+        } catch (Exception e) {
+            log.warn("Failed to move debit {} to the dead letter queue", request.getTransactionId(), e);
+            return false;
+        }
+        attempts.remove(entry.getId());
+        meterRegistry.counter(DEAD_LETTER_METRIC).increment();
+        log.error("Moved debit {} of account {} to the dead letter queue after {} attempts",
+            request.getTransactionId(), request.getAccountNumber(), properties.getMaxAttempts(), cause);
+        return true;
+    }
+
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                || cause instanceof RecoverableDataAccessException
+                || cause instanceof DataAccessResourceFailureException
+                || cause instanceof CannotCreateTransactionException
+                || cause instanceof RedisException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Set<String> coldAccountNumbers(List<DebitQueue.Entry> entries) {
+        Set<String> accountNumbers = new LinkedHashSet<>();
+        for (DebitQueue.Entry entry : entries) {
+            String accountNumber = entry.getRequest().getAccountNumber();
+            if (!hotAccountEngine.owns(accountNumber)) {
+                accountNumbers.add(accountNumber);
+            }
+        }
+        return accountNumbers;
+    }
+
+    private void unlockQuietly(Set<String> accountNumbers) {
+        try {
+            lockService.unlockAll(accountNumbers);
+        } catch (RuntimeException e) {
+            // 못 푼 락은 lease 가 끝나면 풀린다
+            log.warn("Failed to unlock {} accounts after debit batch", accountNumbers.size(), e);
+        }
+    }
+
+    /**
+     * 계좌 락 경합(미반영 hot 계좌, 소유권 확인 포함)은 곧 풀리고,
+     * 결과 미확정은 기록이 남아 있어 재시도하면 isRecorded 로 건너뛴다
+     */
+    private static boolean isRetryable(AccountException e) {
+        return e instanceof TransactionOutcomeUnknownException
+            || e.getErrorCode() == ErrorCode.ACCOUNT_TRANSACTION_LOCK;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
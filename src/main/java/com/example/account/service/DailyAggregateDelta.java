@@ -0,0 +1,66 @@
+package com.example.account.service;
+
+import com.example.account.domain.DailyAggregate;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * 아직 DB 에 반영되지 않은 계좌/일자별 증분
+ * - DailyAggregateService 의 ConcurrentHashMap.compute 안에서만 변경한다
+ */
+@Getter
+public class DailyAggregateDelta {
+    private final String accountNumber;
+    private final LocalDate aggregateDate;
+    @Setter
+    private Long userId;
+
+    private long useAmount;
+    private long useCount;
+    private long cancelAmount;
+    private long cancelCount;
+    private long failedCount;
+
+    public DailyAggregateDelta(String accountNumber, LocalDate aggregateDate) {
+        this.accountNumber = accountNumber;
+        this.aggregateDate = aggregateDate;
+    }
+
+    public void add(TransactionType type, TransactionResultType result, long amount, long count) {
+        if (result == TransactionResultType.F) {
+            failedCount += count;
+        } else if (type == TransactionType.USE) {
+            useAmount += amount;
+            useCount += count;
+        } else {
+            cancelAmount += amount;
+            cancelCount += count;
+        }
+    }
+
+    public DailyAggregateDelta merge(DailyAggregateDelta other) {
+        useAmount += other.useAmount;
+        useCount += other.useCount;
+        cancelAmount += other.cancelAmount;
+        cancelCount += other.cancelCount;
+        failedCount += other.failedCount;
+        return this;
+    }
+
+    public DailyAggregate toEntity(Long userId) {
+        return DailyAggregate.builder()
+            .accountNumber(accountNumber)
+            .userId(userId)
+            .aggregateDate(aggregateDate)
+            .useAmount(useAmount)
+            .useCount(useCount)
+            .cancelAmount(cancelAmount)
+            .cancelCount(cancelCount)
+            .failedCount(failedCount)
+            .build();
+    }
+}
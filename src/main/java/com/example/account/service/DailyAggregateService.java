@@ -0,0 +1,277 @@
+package com.example.account.service;
+
+import com.example.account.aop.ShardKey;
+import com.example.account.config.ShardContextHolder;
+import com.example.account.dto.DailySummary;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.DailyAggregateRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.example.account.aop.ShardKeyType.USER_ID;
+
+/**
+ * 계좌/일자별 거래 집계
+ * - 거래가 커밋되면 메모리의 증분 맵에 더하고, flush-interval-ms 마다 샤드별로 한 번에 반영
+ * - 장애로 잃은 증분은 매일 밤 backfill 이 전날 거래로 다시 계산해서 맞춘다
+ *   (한 노드만 redis 잡 락을 잡고 실행, 다시 계산한 날짜의 남은 증분은 모든 노드에서 버린다)
+ * - 집계 행은 계좌와 같은 샤드에 저장 (사용자의 계좌는 한 샤드에 모여 있음)
+ */
+@Slf4j
+@Service
+@Lazy(false)
+@RequiredArgsConstructor
+public class DailyAggregateService {
+    private static final String JOB_LOCK_KEY = "AGGREGATE_BACKFILL";
+    // 거래 테이블로 다시 계산한 마지막 날짜 (yyyy-MM-dd)
+    private static final String BACKFILLED_KEY = "AGGREGATE_BACKFILLED";
+
+    private final DailyAggregateRepository dailyAggregateRepository;
+    private final DailyAggregateWriter dailyAggregateWriter;
+    private final TransactionRepository transactionRepository;
+    private final ShardRouter shardRouter;
+    @Lazy
+    private final RedissonClient redissonClient;
+
+    @Value("${account.aggregate.enabled:true}")
+    private boolean enabled;
+
+    @Value("${account.aggregate.max-summary-days:366}")
+    private int maxSummaryDays;
+
+    private final Map<String, DailyAggregateDelta> pending = new ConcurrentHashMap<>();
+
+    public void record(TransactionDto transaction) {
+        record(transaction.getAccountNumber(), transaction.getTransactionType(),
+            transaction.getTransactionResult(), transaction.getAmount(), transaction.getTransactedAt());
+    }
+
+    public void record(String accountNumber, TransactionType type, TransactionResultType result,
+                       Long amount, LocalDateTime transactedAt) {
+        if (!enabled || accountNumber == null || amount == null || transactedAt == null) {
+            return;
+        }
+        afterCommit(() -> add(accountNumber, transactedAt.toLocalDate(), type, result, amount));
+    }
+
+    private void add(String accountNumber, LocalDate date, TransactionType type,
+                     TransactionResultType result, long amount) {
+        pending.compute(key(accountNumber, date), (key, delta) -> {
+            DailyAggregateDelta current = delta == null ? new DailyAggregateDelta(accountNumber, date) : delta;
+            current.add(type, result, amount, 1);
+            return current;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${account.aggregate.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<DailyAggregateDelta>> byShard = new HashMap<>();
+        LocalDate backfilled = null;
+        LocalDate today = LocalDate.now();
+        for (String key : pending.keySet()) {
+            DailyAggregateDelta delta = pending.remove(key);
+            if (delta != null && delta.getAggregateDate().isBefore(today)) {
+                // 지난 날짜 증분은 드물다, 있을 때만 backfill 여부를 확인
+                if (backfilled == null) {
+                    backfilled = backfilledThrough();
+                }
+                if (!delta.getAggregateDate().isAfter(backfilled)) {
+                    log.info("Dropping daily aggregate delta of backfilled date {} for {}",
+                        delta.getAggregateDate(), delta.getAccountNumber());
+                    continue;
+                }
+            }
+            if (delta != null) {
+                byShard.computeIfAbsent(shardRouter.shardOfAccountNumber(delta.getAccountNumber()),
+                    shard -> new ArrayList<>()).add(delta);
+            }
+        }
+
+        byShard.forEach((shard, deltas) -> {
+            ShardContextHolder.set(shard);
+            try {
+                dailyAggregateWriter.apply(deltas);
+            } catch (Exception e) {
+                // 다음 주기에 다시 시도 (다른 노드와 같은 행을 동시에 insert 한 경우 등)
+                log.warn("Failed to flush {} daily aggregates on shard {}", deltas.size(), shard, e);
+                deltas.forEach(delta -> pending.merge(
+                    key(delta.getAccountNumber(), delta.getAggregateDate()), delta, DailyAggregateDelta::merge));
+            } finally {
+                ShardContextHolder.clear();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    @Scheduled(cron = "${account.aggregate.backfill-cron:0 30 2 * * *}")
+    public void backfillYesterday() {
+        if (!enabled) {
+            return;
+        }
+        RLock jobLock = redissonClient.getLock(JOB_LOCK_KEY);
+        try {
+            if (!jobLock.tryLock(0, -1, TimeUnit.MILLISECONDS)) {
+                log.info("Daily aggregate backfill is already running on another node");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            LocalDate yesterday = LocalDate.now().minusDays(1);
+            backfill(yesterday, yesterday);
+        } catch (Exception e) {
+            log.error("Daily aggregate backfill failed", e);
+        } finally {
+            jobLock.unlock();
+        }
+    }
+
+    /**
+     * 지난 날짜의 집계를 거래 테이블에서 다시 계산
+     * - 오늘은 실시간 증분과 섞이므로 어제까지만 처리
+     * - 다시 세기 전에 날짜를 backfill 로 표시해 이후에 반영될 증분을 모든 노드가 버린다
+     *   (증분은 커밋 후에 쌓이므로 그 거래는 다시 센 값에 이미 들어 있다)
+     * - 한 샤드가 실패해도 나머지 샤드는 계속 처리
+     */
+    public void backfill(LocalDate from, LocalDate to) {
+        LocalDate last = to.isBefore(LocalDate.now()) ? to : LocalDate.now().minusDays(1);
+        if (last.isBefore(from)) {
+            return;
+        }
+        markBackfilled(last);
+        for (LocalDate date = from; !date.isAfter(last); date = date.plusDays(1)) {
+            dropPending(date);
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                ShardContextHolder.set(shard);
+                try {
+                    List<DailyAggregateDelta> deltas = sumDay(date);
+                    dailyAggregateWriter.replaceDay(date, deltas);
+                    log.info("Backfilled {} daily aggregates for {} on shard {}", deltas.size(), date, shard);
+                } catch (Exception e) {
+                    log.error("Failed to backfill daily aggregates for {} on shard {}", date, shard, e);
+                } finally {
+                    ShardContextHolder.clear();
+                }
+            }
+        }
+    }
+
+    private void dropPending(LocalDate date) {
+        pending.values().removeIf(delta -> delta.getAggregateDate().equals(date));
+    }
+
+    private void markBackfilled(LocalDate date) {
+        RBucket<String> bucket = backfilledBucket();
+        String current = bucket.get();
+        if (current == null || LocalDate.parse(current).isBefore(date)) {
+            bucket.set(date.toString());
+        }
+    }
+
+    /**
+     * redis 를 읽지 못하면 증분을 버리지 않는다
+     */
+    private LocalDate backfilledThrough() {
+        try {
+            String value = backfilledBucket().get();
+            return value == null ? LocalDate.MIN : LocalDate.parse(value);
+        } catch (RuntimeException e) {
+            log.warn("Failed to read daily aggregate backfill mark");
+            return LocalDate.MIN;
+        }
+    }
+
+    private RBucket<String> backfilledBucket() {
+        return redissonClient.getBucket(BACKFILLED_KEY, StringCodec.INSTANCE);
+    }
+
+    private List<DailyAggregateDelta> sumDay(LocalDate date) {
+        Map<String, DailyAggregateDelta> deltas = new LinkedHashMap<>();
+        for (Object[] row : transactionRepository.sumByAccountBetween(
+            date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+            String accountNumber = (String) row[0];
+            DailyAggregateDelta delta = deltas.computeIfAbsent(accountNumber,
+                key -> new DailyAggregateDelta(accountNumber, date));
+            delta.setUserId((Long) row[1]);
+            delta.add((TransactionType) row[2], (TransactionResultType) row[3], (Long) row[4], (Long) row[5]);
+        }
+        return new ArrayList<>(deltas.values());
+    }
+
+    public List<DailySummary> getAccountSummary(@ShardKey String accountNumber, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return dailyAggregateRepository
+            .findByAccountNumberAndAggregateDateBetweenOrderByAggregateDate(accountNumber, from, to)
+            .stream()
+            .map(DailySummary::fromEntity)
+            .collect(Collectors.toList());
+    }
+
+    public List<DailySummary> getUserSummary(@ShardKey(USER_ID) Long userId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return dailyAggregateRepository.sumByUserId(userId, from, to)
+            .stream()
+            .map(DailySummary::fromRow)
+            .collect(Collectors.toList());
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= maxSummaryDays) {
+            throw AccountException.of(ErrorCode.INVALID_REQUEST);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String key(String accountNumber, LocalDate date) {
+        return accountNumber + "|" + date;
+    }
+}
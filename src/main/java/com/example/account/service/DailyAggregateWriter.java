@@ -0,0 +1,66 @@
+package com.example.account.service;
+
+import com.example.account.domain.DailyAggregate;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.DailyAggregateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 일자별 집계 쓰기
+ * - 호출 전에 ShardContextHolder 에 샤드를 지정해야 한다
+ */
+@Service
+@RequiredArgsConstructor
+public class DailyAggregateWriter {
+    private final DailyAggregateRepository dailyAggregateRepository;
+    private final AccountRepository accountRepository;
+    private final AccountIndexService accountIndexService;
+
+    /**
+     * 증분을 기존 행에 더하고, 행이 없는 계좌/일자만 batch insert
+     */
+    @Transactional
+    public void apply(Collection<DailyAggregateDelta> deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        List<DailyAggregate> inserts = new ArrayList<>();
+        for (DailyAggregateDelta delta : deltas) {
+            int updated = dailyAggregateRepository.addDelta(delta.getAccountNumber(), delta.getAggregateDate(),
+                delta.getUseAmount(), delta.getUseCount(), delta.getCancelAmount(), delta.getCancelCount(),
+                delta.getFailedCount(), now);
+            if (updated == 0) {
+                inserts.add(delta.toEntity(ownerOf(delta.getAccountNumber())));
+            }
+        }
+        dailyAggregateRepository.saveAll(inserts);
+    }
+
+    /**
+     * backfill 용, 하루치 집계를 통째로 다시 쓴다
+     */
+    @Transactional
+    public void replaceDay(LocalDate aggregateDate, Collection<DailyAggregateDelta> deltas) {
+        dailyAggregateRepository.deleteByAggregateDate(aggregateDate);
+        dailyAggregateRepository.saveAll(deltas.stream()
+            .map(delta -> delta.toEntity(delta.getUserId()))
+            .collect(Collectors.toList()));
+    }
+
+    private Long ownerOf(String accountNumber) {
+        long packed = accountIndexService.lookup(accountNumber);
+        if (packed != AccountIndex.ABSENT) {
+            return AccountIndex.ownerOf(packed);
+        }
+        return accountRepository.findByAccountNumber(accountNumber)
+            .map(account -> account.getAccountUser().getId())
+            .orElse(null);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.account.service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 비동기 잔액 사용 요청 큐 (파티션별 순서 보장, at-least-once)
+ * - poll 은 ack 되지 않은 요청을 들어온 순서대로 다시 돌려준다
+ * - 파티션 하나는 한 번에 한 스레드만 소비한다 (acquirePartition)
+ */
+public interface DebitQueue {
+    void start() throws Exception;
+
+    void stop();
+
+    /**
+     * 반환되면 유실되지 않게 저장된 것
+     */
+    void append(int partition, DebitRequest request) throws Exception;
+
+    /**
+     * 호출한 스레드가 이 파티션을 소비해도 되는지 (여러 노드 중 하나만)
+     */
+    boolean acquirePartition(int partition);
+
+    void releasePartition(int partition);
+
+    List<Entry> poll(int partition, int maxCount, long timeoutMs) throws Exception;
+
+    void ack(int partition, List<Entry> entries) throws Exception;
+
+    /**
+     * 계속 반영에 실패하는 요청을 따로 보관 (호출한 쪽이 이어서 ack 한다)
+     */
+    void deadLetter(int partition, Entry entry) throws Exception;
+
+    Optional<DebitRequest> findPending(String transactionId);
+
+    class Entry {
+        private final String id;
+        private final DebitRequest request;
+
+        public Entry(String id, DebitRequest request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public DebitRequest getRequest() {
+            return request;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 큐에 들어간 잔액 사용 요청 (거래 ID 는 접수 시점에 정해진다)
+ */
+@Getter
+public class DebitRequest {
+    private final String transactionId;
+    private final Long userId;
+    private final String accountNumber;
+    private final Long amount;
+    private final LocalDateTime requestedAt;
+
+    public DebitRequest(String transactionId, Long userId, String accountNumber,
+                        Long amount, LocalDateTime requestedAt) {
+        this.transactionId = transactionId;
+        this.userId = userId;
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.requestedAt = requestedAt;
+    }
+
+    /**
+     * 아직 반영되지 않은 요청을 조회 응답으로 (결과 P)
+     */
+    public TransactionDto toPendingDto() {
+        return TransactionDto.builder()
+            .accountNumber(accountNumber)
+            .transactionType(TransactionType.USE)
+            .transactionResult(TransactionResultType.P)
+            .transactionId(transactionId)
+            .amount(amount)
+            .transactedAt(requestedAt)
+            .build();
+    }
+
+    public String toLine() {
+        return transactionId + "\t" + userId + "\t" + accountNumber + "\t" + amount + "\t" + requestedAt;
+    }
+
+    public static DebitRequest fromLine(String line) {
+        String[] fields = line.split("\t");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Malformed debit request : " + line);
+        }
+        return new DebitRequest(fields[0], Long.valueOf(fields[1]), fields[2],
+            Long.valueOf(fields[3]), LocalDateTime.parse(fields[4]));
+    }
+}
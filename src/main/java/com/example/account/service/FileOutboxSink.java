@@ -0,0 +1,66 @@
+package com.example.account.service;
+
+import com.example.account.config.OutboxProperties;
+import com.example.account.domain.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * outbox 이벤트를 로컬 파일에 JSON 한 줄씩 추가 (단일 노드, 개발용)
+ * - 배치마다 fsync 후 반환
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+    private final OutboxProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private FileChannel channel;
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (OutboxEvent event : events) {
+            lines.append(objectMapper.writeValueAsString(event.toFields())).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        FileChannel out = channel();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        out.force(false);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Path path = Paths.get(properties.getFilePath());
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+}
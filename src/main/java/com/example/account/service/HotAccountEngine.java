@@ -0,0 +1,632 @@
+package com.example.account.service;
+
+import com.example.account.config.HotAccountProperties;
+import com.example.account.config.ShardContextHolder;
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.exception.TransactionOutcomeUnknownException;
+import com.example.account.jfr.BalanceMutationEvent;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.TransactionResultType.F;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+
+/**
+ * hot 계좌 전용 메모리 잔액 엔진 (account.hot-accounts.enabled)
+ * - 설정된 계좌의 redis 계좌 락을 계속 잡아 한 노드만 소유하고, 소유한 계좌는 DB 대신 메모리에서 잔액을 바꾼다
+ * - 응답 전에 로컬 redo log 에 fsync 하고, DB 에는 주기적으로 거래 insert + 잔액 update 를 묶어서 반영
+ * - 소유하지 않은 계좌(cold)는 기존 경로 그대로
+ * - 소유하는 동안 redis 에 미반영 표시(노드 ID)를 남기고, 표시가 남아 있으면 다른 노드는 소유도 cold 경로도 막는다
+ *   (GC 정지, failover 로 락을 잃어도 redo 기록이 DB 에 반영되기 전에는 다른 곳에서 잔액을 바꾸지 않는다)
+ * - redo log 기록이 실패하면 이 노드는 더 이상 계좌를 소유하지 않는다 (남은 기록만 DB 에 반영하고 내려놓는다)
+ */
+@Slf4j
+@Service
+@Lazy(false)
+@RequiredArgsConstructor
+@EnableConfigurationProperties(HotAccountProperties.class)
+public class HotAccountEngine {
+    private static final String DIRTY_KEY_PREFIX = "HOTREDO:";
+    private static final String NODE_ID_FILE = "node-id";
+
+    private final HotAccountProperties properties;
+    private final AccountRepository accountRepository;
+    private final AccountUserRepository accountUserRepository;
+    private final TransactionRepository transactionRepository;
+    private final HotAccountWriter hotAccountWriter;
+    private final LockService lockService;
+    private final ShardRouter shardRouter;
+    private final LookupFilterService lookupFilterService;
+    private final SpendLimitService spendLimitService;
+    @Lazy
+    private final RedissonClient redissonClient;
+
+    private final Map<String, HotAccount> owned = new ConcurrentHashMap<>();
+    // DB 에 아직 쓰지 않은 거래 (거래 ID -> 기록), 취소/조회용
+    private final Map<String, HotAccountRecord> unflushed = new ConcurrentHashMap<>();
+
+    private final Object sequenceLock = new Object();
+    private final Deque<HotAccountRecord> pending = new ArrayDeque<>();
+    private long sequence;
+
+    private HotAccountRedoLog redoLog;
+    // redo log 디렉터리에 고정된 노드 ID (재시작해도 같은 값이어야 자기 미반영 표시를 알아본다)
+    private String nodeId;
+    // 락 소유, 해제, DB 반영을 모두 이 스레드 하나에서 처리 (redis 락은 스레드 단위)
+    private ScheduledExecutorService scheduler;
+    // redo log 기록이 한 번이라도 실패하면 true, 이후 이 노드의 메모리 잔액 변경을 모두 막는다
+    private volatile boolean redoFailed;
+
+    public boolean owns(String accountNumber) {
+        return !owned.isEmpty() && accountNumber != null && owned.containsKey(accountNumber);
+    }
+
+    /**
+     * hot 계좌를 DB 경로로 처리해도 되는지 (어느 노드의 redo 기록도 DB 에 남김없이 반영된 상태)
+     */
+    public void checkColdPath(String accountNumber) {
+        if (!properties.isEnabled() || !properties.getAccountNumbers().contains(accountNumber)) {
+            return;
+        }
+        String dirtyNode = dirtyMarker(accountNumber).get();
+        if (dirtyNode != null) {
+            log.warn("Hot account {} has unflushed redo records on node {}", accountNumber, dirtyNode);
+            throw AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!properties.isEnabled() || properties.getAccountNumbers().isEmpty()) {
+            return;
+        }
+        Path dir = Paths.get(properties.getRedoLogDir());
+        redoLog = new HotAccountRedoLog(dir, properties.getRedoSegmentBytes());
+        List<HotAccountRecord> recovered = redoLog.recover();
+        nodeId = loadNodeId(dir);
+        Set<String> replayed = new LinkedHashSet<>(properties.getAccountNumbers());
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} redo records to DB", recovered.size());
+            writeByShard(recovered, true);
+            sequence = recovered.get(recovered.size() - 1).getSeq();
+            recovered.forEach(record -> replayed.add(record.getAccountNumber()));
+        }
+        redoLog.start(sequence + 1);
+        // 재실행으로 모두 반영했으니 지난 실행에서 남긴 미반영 표시는 지운다
+        replayed.forEach(this::clearDirtyMarker);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-account-engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::claimAccounts,
+            0, properties.getClaimIntervalMs(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::flushSafely,
+            properties.getFlushIntervalMs(), properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        try {
+            scheduler.submit(() -> {
+                // 마지막까지 DB 에 반영한 뒤 소유권을 내려놓는다
+                boolean remaining;
+                do {
+                    remaining = flushSafely();
+                } while (remaining);
+                owned.keySet().forEach(this::releaseOwnership);
+                owned.clear();
+            }).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("Failed to stop hot account engine cleanly", e);
+        } finally {
+            scheduler.shutdown();
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            redoLog.close();
+        }
+    }
+
+    public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
+        return useBalance(userId, accountNumber, amount, null);
+    }
+
+    public TransactionDto useBalance(Long userId, String accountNumber, Long amount, String transactionId) {
+        HotAccount account = ownedAccount(accountNumber);
+        // 소유주는 바뀌지 않으므로 DB 조회는 계좌 모니터 밖에서 한다
+        if (!Objects.equals(account.ownerId, userId)) {
+            throw AccountException.of(accountUserRepository.existsById(userId)
+                ? ErrorCode.USER_ACCOUNT_UNMATCHED : ErrorCode.USER_NOT_FOUND);
+        }
+        Applied applied;
+        synchronized (account) {
+            checkOwnership(account);
+            if (account.status == AccountStatus.UNREGISTERED) {
+                throw AccountException.of(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+            }
+            if (account.balance < amount) {
+                BalanceMutationEvent.emit(accountNumber, "USE", amount, account.balance, "AMOUNT_EXCEED_BALANCE");
+                throw AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE);
+            }
+            account.balance -= amount;
+            applied = append(account, USE, S, amount, transactionId);
+        }
+        BalanceMutationEvent.emit(accountNumber, "USE", amount, applied.record.getBalanceSnapshot(), "SUCCESS");
+        return awaitDurable(applied);
+    }
+
+    public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
+        HotAccountRecord original = unflushed.get(transactionId);
+        String originalAccountNumber;
+        Long originalAmount;
+        LocalDateTime originalTransactedAt;
+        if (original != null) {
+            originalAccountNumber = original.getAccountNumber();
+            originalAmount = original.getAmount();
+            originalTransactedAt = original.getTransactedAt();
+        } else {
+            Transaction transaction = transactionRepository.findByTransactionId(transactionId)
+                .orElseThrow(() -> AccountException.of(ErrorCode.TRANSACTION_NOT_FOUND));
+            originalAccountNumber = transaction.getAccount().getAccountNumber();
+            originalAmount = transaction.getAmount();
+            originalTransactedAt = transaction.getTransactedAt();
+        }
+
+        if (!Objects.equals(originalAccountNumber, accountNumber)) {
+            throw AccountException.of(ErrorCode.TRANSACTION_ACCOUNT_UNMATCHED);
+        }
+        if (!Objects.equals(originalAmount, amount)) {
+            throw AccountException.of(ErrorCode.CANCEL_MUST_FULLY);
+        }
+        if (originalTransactedAt.isBefore(LocalDateTime.now().minusYears(1))) {
+            throw AccountException.of(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
+        }
+
+        HotAccount account = ownedAccount(accountNumber);
+        Applied applied;
+        synchronized (account) {
+            checkOwnership(account);
+            account.balance += amount;
+            applied = append(account, CANCEL, S, amount, null);
+        }
+        spendLimitService.release(accountNumber, amount, originalTransactedAt);
+        BalanceMutationEvent.emit(accountNumber, "CANCEL", amount, applied.record.getBalanceSnapshot(), "SUCCESS");
+        return awaitDurable(applied);
+    }
+
+    public void saveFailedTransaction(String accountNumber, TransactionType transactionType, Long amount) {
+        saveFailedTransaction(accountNumber, transactionType, amount, null);
+    }
+
+    public void saveFailedTransaction(String accountNumber, TransactionType transactionType, Long amount,
+                                      String transactionId) {
+        HotAccount account = ownedAccount(accountNumber);
+        Applied applied;
+        synchronized (account) {
+            checkOwnership(account);
+            applied = append(account, transactionType, F, amount, transactionId);
+        }
+        awaitDurable(applied);
+    }
+
+    /**
+     * 소유 중인 계좌 해지, DB 잔액은 반영 전일 수 있으므로 메모리 잔액으로 확인한다
+     * - 해지 후에는 사용을 거절하고, 해지 트랜잭션이 롤백되면 다시 사용 중으로 되돌린다
+     * - 소유주/상태의 DB 검증과 계좌 row 변경은 호출하는 쪽 트랜잭션에서 한다
+     */
+    public void unregister(String accountNumber) {
+        HotAccount account = ownedAccount(accountNumber);
+        synchronized (account) {
+            checkOwnership(account);
+            if (account.status == AccountStatus.UNREGISTERED) {
+                throw AccountException.of(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+            }
+            if (account.balance > 0) {
+                throw AccountException.of(ErrorCode.BALANCE_NOT_EMPTY);
+            }
+            account.status = AccountStatus.UNREGISTERED;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    synchronized (account) {
+                        account.status = AccountStatus.IN_USE;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 아직 DB 에 반영되지 않은 거래 조회
+     */
+    public Optional<TransactionDto> findUnflushed(String transactionId) {
+        if (unflushed.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(unflushed.get(transactionId)).map(HotAccountEngine::toDto);
+    }
+
+    private HotAccount ownedAccount(String accountNumber) {
+        HotAccount account = owned.get(accountNumber);
+        if (account == null) {
+            throw AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+        return account;
+    }
+
+    /**
+     * 락을 잃었거나 마지막 확인 후 ownership-lease-ms 가 지났으면 메모리 잔액을 바꾸지 않는다
+     */
+    private void checkOwnership(HotAccount account) {
+        if (redoFailed || account.fenced || System.currentTimeMillis() >= account.leaseUntil) {
+            throw AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+
+    private Applied append(HotAccount account, TransactionType transactionType,
+                           TransactionResultType resultType, Long amount, String requestedTransactionId) {
+        String transactionId = requestedTransactionId != null
+            ? requestedTransactionId : UUID.randomUUID().toString().replace("-", "");
+        shardRouter.registerTransaction(transactionId);
+        lookupFilterService.addTransaction(transactionId);
+        synchronized (sequenceLock) {
+            HotAccountRecord record = new HotAccountRecord(++sequence, transactionId, account.id,
+                account.accountNumber, transactionType, resultType, amount, account.balance, LocalDateTime.now());
+            pending.addLast(record);
+            unflushed.put(transactionId, record);
+            return new Applied(record, redoLog.append(record));
+        }
+    }
+
+    /**
+     * 메모리 잔액은 이미 바뀌었고 기록은 write-behind 로 DB 에 반영되므로,
+     * redo log 를 확인하지 못하면 실패가 아니라 결과 미확정으로 알린다
+     */
+    private TransactionDto awaitDurable(Applied applied) {
+        String transactionId = applied.record.getTransactionId();
+        try {
+            applied.durable.get(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransactionOutcomeUnknownException(transactionId);
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Redo log write failed for transaction {}, fencing all hot accounts", transactionId, e);
+            fenceAll();
+            throw new TransactionOutcomeUnknownException(transactionId);
+        }
+        return toDto(applied.record);
+    }
+
+    private void fenceAll() {
+        redoFailed = true;
+        for (HotAccount account : owned.values()) {
+            synchronized (account) {
+                account.fenced = true;
+            }
+        }
+    }
+
+    void claimAccounts() {
+        for (String accountNumber : properties.getAccountNumbers()) {
+            HotAccount current = owned.get(accountNumber);
+            if (current != null) {
+                verifyOwnership(current);
+                continue;
+            }
+            if (redoFailed) {
+                continue;
+            }
+            try {
+                if (!lockService.tryHold(accountNumber)) {
+                    continue;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to claim hot account {}", accountNumber);
+                continue;
+            }
+            try {
+                if (!markDirty(accountNumber)) {
+                    // 이전 소유 노드의 redo 기록이 아직 DB 에 없으면 DB 잔액을 믿을 수 없다
+                    log.warn("Hot account {} has unflushed redo records on node {}",
+                        accountNumber, dirtyMarker(accountNumber).get());
+                    releaseQuietly(accountNumber);
+                    continue;
+                }
+                ShardContextHolder.set(shardRouter.shardOfAccountNumber(accountNumber));
+                Optional<Account> account = accountRepository.findByAccountNumber(accountNumber);
+                if (!account.isPresent()) {
+                    log.warn("Hot account {} not found", accountNumber);
+                    releaseOwnership(accountNumber);
+                    continue;
+                }
+                owned.put(accountNumber, new HotAccount(account.get(),
+                    System.currentTimeMillis() + properties.getOwnershipLeaseMs()));
+                log.info("Hot account {} is now owned by this node", accountNumber);
+            } catch (RuntimeException e) {
+                log.error("Failed to load hot account {}", accountNumber, e);
+                releaseOwnership(accountNumber);
+            } finally {
+                ShardContextHolder.clear();
+            }
+        }
+    }
+
+    /**
+     * 소유 중인 계좌의 락을 다시 확인해 lease 를 연장한다
+     * - 락을 잃었으면 더 바꾸지 않고, 남은 기록을 모두 DB 에 반영한 뒤에 미반영 표시를 지우고 내려놓는다
+     * - redis 에 닿지 않으면 연장하지 않는다 (lease 가 끝나면 요청을 거절)
+     * - redo log 가 실패했으면 아직 잡고 있는 락도 반영이 끝난 뒤에 푼다
+     */
+    private void verifyOwnership(HotAccount account) {
+        if (redoFailed) {
+            if (!hasUnflushed(account.accountNumber)) {
+                owned.remove(account.accountNumber);
+                releaseOwnership(account.accountNumber);
+            }
+            return;
+        }
+        if (!account.fenced) {
+            boolean holding;
+            try {
+                holding = lockService.isHolding(account.accountNumber);
+            } catch (RuntimeException e) {
+                log.warn("Failed to verify hot account lock {}", account.accountNumber);
+                return;
+            }
+            if (holding) {
+                account.leaseUntil = System.currentTimeMillis() + properties.getOwnershipLeaseMs();
+                return;
+            }
+            synchronized (account) {
+                account.fenced = true;
+            }
+            log.error("Lost hot account lock {}, fencing until redo records are flushed", account.accountNumber);
+        }
+        if (hasUnflushed(account.accountNumber)) {
+            return;
+        }
+        owned.remove(account.accountNumber);
+        clearDirtyMarker(account.accountNumber);
+    }
+
+    /**
+     * @return 반영할 기록이 더 남아 있으면 true
+     */
+    boolean flushSafely() {
+        List<HotAccountRecord> batch = new ArrayList<>();
+        synchronized (sequenceLock) {
+            while (!pending.isEmpty() && batch.size() < properties.getMaxBatchSize()) {
+                batch.add(pending.pollFirst());
+            }
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+
+        // 미반영 표시가 이 노드 것이 아닌 계좌는 쓰지 않고 redo log 에 남겨 둔다
+        List<HotAccountRecord> failed = notMarkedRecords(batch);
+        List<HotAccountRecord> writable = new ArrayList<>(batch);
+        writable.removeAll(failed);
+        failed.addAll(writeByShard(writable, false));
+        failed.sort((a, b) -> Long.compare(a.getSeq(), b.getSeq()));
+        if (failed.isEmpty()) {
+            redoLog.checkpoint(batch.get(batch.size() - 1).getSeq());
+            batch.forEach(record -> unflushed.remove(record.getTransactionId()));
+            synchronized (sequenceLock) {
+                return !pending.isEmpty();
+            }
+        }
+
+        // 일부 샤드만 실패하면 성공한 기록은 빼고, 실패한 기록은 다음 주기에 다시 쓴다
+        batch.removeAll(failed);
+        batch.forEach(record -> unflushed.remove(record.getTransactionId()));
+        long checkpoint = failed.get(0).getSeq() - 1;
+        if (checkpoint > 0) {
+            redoLog.checkpoint(checkpoint);
+        }
+        synchronized (sequenceLock) {
+            for (int i = failed.size() - 1; i >= 0; i--) {
+                pending.addFirst(failed.get(i));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return DB 반영에 실패한 기록
+     */
+    private List<HotAccountRecord> writeByShard(List<HotAccountRecord> records, boolean skipExisting) {
+        Map<Integer, List<HotAccountRecord>> byShard = records.stream().collect(Collectors.groupingBy(
+            record -> shardRouter.shardOfAccountNumber(record.getAccountNumber()), TreeMap::new, Collectors.toList()));
+
+        List<HotAccountRecord> failed = new ArrayList<>();
+        byShard.forEach((shard, shardRecords) -> {
+            try {
+                ShardContextHolder.set(shard);
+                hotAccountWriter.write(shardRecords, skipExisting);
+            } catch (RuntimeException e) {
+                log.error("Write-behind failed for shard {} ({} records)", shard, shardRecords.size(), e);
+                if (skipExisting) {
+                    throw e;
+                }
+                failed.addAll(shardRecords);
+            } finally {
+                ShardContextHolder.clear();
+            }
+        });
+        failed.sort((a, b) -> Long.compare(a.getSeq(), b.getSeq()));
+        return failed;
+    }
+
+    private List<HotAccountRecord> notMarkedRecords(List<HotAccountRecord> records) {
+        Set<String> keys = new HashSet<>();
+        records.forEach(record -> keys.add(DIRTY_KEY_PREFIX + record.getAccountNumber()));
+        Map<String, String> markers;
+        try {
+            markers = redissonClient.getBuckets(StringCodec.INSTANCE).get(keys.toArray(new String[0]));
+        } catch (RuntimeException e) {
+            log.warn("Failed to read hot account markers, retrying flush later");
+            return new ArrayList<>(records);
+        }
+        List<HotAccountRecord> notMarked = new ArrayList<>();
+        for (HotAccountRecord record : records) {
+            if (!nodeId.equals(markers.get(DIRTY_KEY_PREFIX + record.getAccountNumber()))) {
+                log.error("Hot account {} is not marked by this node, holding transaction {}",
+                    record.getAccountNumber(), record.getTransactionId());
+                notMarked.add(record);
+            }
+        }
+        return notMarked;
+    }
+
+    private boolean hasUnflushed(String accountNumber) {
+        return unflushed.values().stream().anyMatch(record -> record.getAccountNumber().equals(accountNumber));
+    }
+
+    /**
+     * @return 표시가 없어서 새로 남겼거나 이미 이 노드의 표시면 true
+     */
+    private boolean markDirty(String accountNumber) {
+        RBucket<String> marker = dirtyMarker(accountNumber);
+        return marker.trySet(nodeId) || nodeId.equals(marker.get());
+    }
+
+    private void clearDirtyMarker(String accountNumber) {
+        try {
+            dirtyMarker(accountNumber).compareAndSet(nodeId, null);
+        } catch (RuntimeException e) {
+            log.warn("Failed to clear hot account marker {}", accountNumber);
+        }
+    }
+
+    private RBucket<String> dirtyMarker(String accountNumber) {
+        return redissonClient.getBucket(DIRTY_KEY_PREFIX + accountNumber, StringCodec.INSTANCE);
+    }
+
+    /**
+     * DB 에 다 반영한 계좌만 미반영 표시를 지우고 락을 푼다
+     */
+    private void releaseOwnership(String accountNumber) {
+        if (!hasUnflushed(accountNumber)) {
+            clearDirtyMarker(accountNumber);
+        }
+        releaseQuietly(accountNumber);
+    }
+
+    private static String loadNodeId(Path dir) throws IOException {
+        Path file = dir.resolve(NODE_ID_FILE);
+        if (Files.exists(file)) {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        }
+        String created = UUID.randomUUID().toString();
+        Files.write(file, created.getBytes(StandardCharsets.UTF_8));
+        return created;
+    }
+
+    private void releaseQuietly(String accountNumber) {
+        try {
+            lockService.releaseHold(accountNumber);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release hot account lock {}", accountNumber);
+        }
+    }
+
+    private static TransactionDto toDto(HotAccountRecord record) {
+        return TransactionDto.builder()
+            .accountNumber(record.getAccountNumber())
+            .transactionResult(record.getTransactionResultType())
+            .transactionType(record.getTransactionType())
+            .transactionId(record.getTransactionId())
+            .amount(record.getAmount())
+            .transactedAt(record.getTransactedAt())
+            .balanceSnapshot(record.getBalanceSnapshot())
+            .build();
+    }
+
+    private static class Applied {
+        private final HotAccountRecord record;
+        private final CompletableFuture<Void> durable;
+
+        private Applied(HotAccountRecord record, CompletableFuture<Void> durable) {
+            this.record = record;
+            this.durable = durable;
+        }
+    }
+
+    private static class HotAccount {
+        private final Long id;
+        private final String accountNumber;
+        private final Long ownerId;
+        private AccountStatus status;
+        private long balance;
+        private volatile long leaseUntil;
+        private volatile boolean fenced;
+
+        private HotAccount(Account account, long leaseUntil) {
+            this.id = account.getId();
+            this.accountNumber = account.getAccountNumber();
+            this.ownerId = account.getAccountUser().getId();
+            this.status = account.getAccountStatus();
+            this.balance = account.getBalance();
+            this.leaseUntil = leaseUntil;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.account.service;
+
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 메모리 잔액 엔진이 적용한 거래 한 건 (redo log 한 줄 = DB 에 쓸 Transaction 한 건)
+ */
+@Getter
+@AllArgsConstructor
+public class HotAccountRecord {
+    private final long seq;
+    private final String transactionId;
+    private final Long accountId;
+    private final String accountNumber;
+    private final TransactionType transactionType;
+    private final TransactionResultType transactionResultType;
+    private final Long amount;
+    private final Long balanceSnapshot;
+    private final LocalDateTime transactedAt;
+
+    public String toLine() {
+        return "T\t" + seq + "\t" + transactionId + "\t" + accountId + "\t" + accountNumber
+            + "\t" + transactionType + "\t" + transactionResultType + "\t" + amount
+            + "\t" + balanceSnapshot + "\t" + transactedAt;
+    }
+
+    public static HotAccountRecord fromLine(String line) {
+        String[] fields = line.split("\t");
+        return new HotAccountRecord(
+            Long.parseLong(fields[1]),
+            fields[2],
+            Long.parseLong(fields[3]),
+            fields[4],
+            TransactionType.valueOf(fields[5]),
+            TransactionResultType.valueOf(fields[6]),
+            Long.parseLong(fields[7]),
+            Long.parseLong(fields[8]),
+            LocalDateTime.parse(fields[9]));
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.account.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메모리 잔액 엔진의 로컬 redo log
+ * - 전용 스레드가 쌓인 기록을 한 번에 쓰고 fsync 한다 (group commit)
+ * - DB 반영이 끝난 seq 는 checkpoint 로 남기고, checkpoint 이전 기록만 있는 segment 는 삭제
+ * - 재기동 시 마지막 checkpoint 이후 기록을 DB 에 다시 반영한다
+ */
+@Slf4j
+public class HotAccountRedoLog implements Closeable {
+    private static final String SEGMENT_PREFIX = "redo-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "C";
+    private static final int MAX_GROUP = 1024;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Deque<Segment> closedSegments = new ArrayDeque<>();
+    private Thread writer;
+    private volatile boolean running;
+
+    private Segment current;
+
+    public HotAccountRedoLog(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * 마지막 checkpoint 이후에 남은 기록 (seq 순)
+     */
+    public List<HotAccountRecord> recover() throws IOException {
+        Files.createDirectories(directory);
+        long checkpoint = 0;
+        List<HotAccountRecord> records = new ArrayList<>();
+        for (Path segment : segments()) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    if (line.startsWith(CHECKPOINT)) {
+                        checkpoint = Math.max(checkpoint, Long.parseLong(line.substring(2).trim()));
+                    } else {
+                        try {
+                            records.add(HotAccountRecord.fromLine(line));
+                        } catch (RuntimeException e) {
+                            // fsync 전에 끊긴 마지막 줄
+                            log.warn("Skip broken redo line in {}", segment);
+                        }
+                    }
+                }
+            }
+        }
+        long lastCheckpoint = checkpoint;
+        records.removeIf(record -> record.getSeq() <= lastCheckpoint);
+        records.sort(Comparator.comparingLong(HotAccountRecord::getSeq));
+        return records;
+    }
+
+    /**
+     * 복구가 끝난 뒤 이전 segment 를 지우고 새 segment 로 기록 시작
+     */
+    public void start(long nextSeq) throws IOException {
+        for (Path segment : segments()) {
+            Files.delete(segment);
+        }
+        current = openSegment(nextSeq);
+        running = true;
+        writer = new Thread(this::writeLoop, "hot-account-redo");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public CompletableFuture<Void> append(HotAccountRecord record) {
+        Entry entry = new Entry(record.toLine(), record.getSeq(), false);
+        queue.add(entry);
+        return entry.future;
+    }
+
+    /**
+     * @return checkpoint 가 fsync 되면 완료
+     */
+    public CompletableFuture<Void> checkpoint(long seq) {
+        Entry entry = new Entry(CHECKPOINT + "\t" + seq, seq, true);
+        queue.add(entry);
+        return entry.future;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (current != null) {
+            try {
+                current.channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close redo log segment {}", current.path);
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> group = new ArrayList<>(MAX_GROUP);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, MAX_GROUP - 1);
+                write(group);
+            } catch (InterruptedException e) {
+                if (running) {
+                    Thread.currentThread().interrupt();
+                }
+            } catch (IOException | UncheckedIOException e) {
+                log.error("Failed to write redo log", e);
+                group.forEach(entry -> entry.future.completeExceptionally(e));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void write(List<Entry> group) throws IOException {
+        StringBuilder builder = new StringBuilder(group.size() * 96);
+        long checkpoint = -1;
+        for (Entry entry : group) {
+            builder.append(entry.line).append('\n');
+            if (entry.checkpoint) {
+                checkpoint = Math.max(checkpoint, entry.seq);
+            } else {
+                current.lastSeq = Math.max(current.lastSeq, entry.seq);
+            }
+        }
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(builder.toString());
+        while (buffer.hasRemaining()) {
+            current.channel.write(buffer);
+        }
+        current.channel.force(false);
+        group.forEach(entry -> entry.future.complete(null));
+
+        if (checkpoint >= 0) {
+            deleteCheckpointed(checkpoint);
+        }
+        if (current.channel.size() >= segmentBytes) {
+            current.channel.close();
+            closedSegments.addLast(current);
+            current = openSegment(current.lastSeq + 1);
+        }
+    }
+
+    private void deleteCheckpointed(long checkpoint) throws IOException {
+        while (!closedSegments.isEmpty() && closedSegments.peekFirst().lastSeq <= checkpoint) {
+            Files.deleteIfExists(closedSegments.pollFirst().path);
+        }
+    }
+
+    private Segment openSegment(long firstSeq) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new Segment(path, channel, firstSeq - 1);
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream =
+                 Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(Comparator.comparing(Path::getFileName));
+        return segments;
+    }
+
+    private static class Entry {
+        private final String line;
+        private final long seq;
+        private final boolean checkpoint;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Entry(String line, long seq, boolean checkpoint) {
+            this.line = line;
+            this.seq = seq;
+            this.checkpoint = checkpoint;
+        }
+    }
+
+    private static class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private long lastSeq;
+
+        private Segment(Path path, FileChannel channel, long lastSeq) {
+            this.path = path;
+            this.channel = channel;
+            this.lastSeq = lastSeq;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.account.service;
+
+import com.example.account.domain.Transaction;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 메모리 잔액 엔진의 write-behind
+ * - 거래는 batch insert, 계좌 잔액은 계좌별 증감분 합계로 한 번만 update
+ * - 이미 저장된 거래는 insert 도 증감분도 건너뛴다 (같은 트랜잭션에서 함께 반영됐으므로)
+ * - outbox 행도 같은 트랜잭션에서 함께 쓴다
+ * - 호출 전에 ShardContextHolder 에 샤드를 지정해야 한다
+ */
+@Service
+@RequiredArgsConstructor
+public class HotAccountWriter {
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final OutboxService outboxService;
+
+    /**
+     * @param skipExisting 재기동 복구처럼 이미 반영됐을 수 있는 기록이면 true
+     */
+    @Transactional
+    public void write(List<HotAccountRecord> records, boolean skipExisting) {
+        Set<String> existing = skipExisting
+            ? new HashSet<>(transactionRepository.findExistingTransactionIds(records.stream()
+                .map(HotAccountRecord::getTransactionId).collect(Collectors.toList())))
+            : Collections.emptySet();
+
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        List<Transaction> transactions = new ArrayList<>(records.size());
+        for (HotAccountRecord record : records) {
+            if (existing.contains(record.getTransactionId())) {
+                continue;
+            }
+            deltas.merge(record.getAccountId(), deltaOf(record), Long::sum);
+            transactions.add(Transaction.builder()
+                .account(accountRepository.getById(record.getAccountId()))
+                .transactionType(record.getTransactionType())
+                .transactionResultType(record.getTransactionResultType())
+                .amount(record.getAmount())
+                .balanceSnapshot(record.getBalanceSnapshot())
+                .transactionId(record.getTransactionId())
+                .transactedAt(record.getTransactedAt())
+                .build());
+        }
+        transactionRepository.saveAll(transactions);
+        outboxService.appendAll(transactions);
+
+        LocalDateTime now = LocalDateTime.now();
+        deltas.forEach((accountId, delta) -> {
+            if (delta != 0) {
+                accountRepository.addBalance(accountId, delta, now);
+            }
+        });
+    }
+
+    static long deltaOf(HotAccountRecord record) {
+        if (record.getTransactionResultType() != TransactionResultType.S) {
+            return 0;
+        }
+        return record.getTransactionType() == TransactionType.USE ? -record.getAmount() : record.getAmount();
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.account.service;
+
+import com.example.account.config.AsyncDebitProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 단일 노드용 파티션별 append log 큐
+ * - append 는 파일에 한 줄 쓰고 fsync 한 뒤 반환, 소비 전까지 메모리 deque 에도 들고 있는다
+ * - 파티션이 모두 ack 되면 파일을 비운다, 재기동 시 남은 줄을 다시 읽는다 (이미 반영된 요청은 소비 쪽에서 거른다)
+ * - 큐가 비지 않아도 앞쪽의 ack 된 줄이 compact-acked-lines 이상이고 남은 요청 수보다 많으면
+ *   남은 요청만 새 파일에 써서 바꾼다 (파일 크기와 재기동 시 다시 읽는 줄 수가 남은 요청의 두 배 안쪽)
+ * - dead letter 는 파티션 구분 없이 dead-letter.log 에 (파티션, 요청) 한 줄씩 남긴다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.async-debit.queue", havingValue = "local", matchIfMissing = true)
+public class LocalDebitQueue implements DebitQueue {
+    private final AsyncDebitProperties properties;
+
+    private final Map<String, DebitRequest> pending = new ConcurrentHashMap<>();
+    private Partition[] partitions;
+    private Path deadLetterPath;
+
+    @Override
+    public void start() throws IOException {
+        Path dir = Paths.get(properties.getLogDir());
+        Files.createDirectories(dir);
+        deadLetterPath = dir.resolve("dead-letter.log");
+        partitions = new Partition[properties.getPartitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(dir.resolve(String.format("debit-%03d.log", i)));
+        }
+        log.info("Local debit queue recovered {} pending requests", pending.size());
+    }
+
+    @Override
+    public void stop() {
+        if (partitions == null) {
+            return;
+        }
+        for (Partition partition : partitions) {
+            partition.close();
+        }
+    }
+
+    @Override
+    public void append(int partition, DebitRequest request) throws IOException {
+        partitions[partition].append(request);
+    }
+
+    @Override
+    public boolean acquirePartition(int partition) {
+        return true;
+    }
+
+    @Override
+    public void releasePartition(int partition) {
+    }
+
+    @Override
+    public List<Entry> poll(int partition, int maxCount, long timeoutMs) throws InterruptedException {
+        return partitions[partition].poll(maxCount, timeoutMs);
+    }
+
+    @Override
+    public void ack(int partition, List<Entry> entries) throws IOException {
+        partitions[partition].ack(entries.size());
+    }
+
+    @Override
+    public synchronized void deadLetter(int partition, Entry entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((partition + "\t" + entry.getRequest().toLine() + "\n")
+            .getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(deadLetterPath,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public Optional<DebitRequest> findPending(String transactionId) {
+        return Optional.ofNullable(pending.get(transactionId));
+    }
+
+    private class Partition {
+        private final Path path;
+        private final Deque<DebitRequest> queue = new ArrayDeque<>();
+        private FileChannel channel;
+        // 파일 앞쪽에 남아 있는 ack 된 줄 수
+        private int ackedLines;
+
+        private Partition(Path path) throws IOException {
+            this.path = path;
+            if (Files.exists(path)) {
+                for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                    try {
+                        DebitRequest request = DebitRequest.fromLine(line);
+                        queue.addLast(request);
+                        pending.put(request.getTransactionId(), request);
+                    } catch (RuntimeException e) {
+                        // 쓰다가 끊긴 마지막 줄 (append 가 반환되지 않았으므로 접수되지 않은 요청)
+                        log.warn("Skipping torn debit queue line in {}", path);
+                    }
+                }
+                // 끊긴 줄 뒤에 이어 쓰지 않도록 읽은 요청만 다시 쓴다
+                rewrite();
+            }
+            channel = open(path);
+        }
+
+        private synchronized void append(DebitRequest request) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap((request.toLine() + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            queue.addLast(request);
+            pending.put(request.getTransactionId(), request);
+            notifyAll();
+        }
+
+        private synchronized List<Entry> poll(int maxCount, long timeoutMs) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (queue.isEmpty()) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return new ArrayList<>();
+                }
+                wait(remaining);
+            }
+            List<Entry> entries = new ArrayList<>(Math.min(maxCount, queue.size()));
+            for (DebitRequest request : queue) {
+                if (entries.size() >= maxCount) {
+                    break;
+                }
+                entries.add(new Entry(request.getTransactionId(), request));
+            }
+            return entries;
+        }
+
+        private synchronized void ack(int count) throws IOException {
+            for (int i = 0; i < count && !queue.isEmpty(); i++) {
+                pending.remove(queue.pollFirst().getTransactionId());
+                ackedLines++;
+            }
+            if (queue.isEmpty()) {
+                channel.truncate(0);
+                ackedLines = 0;
+            } else if (ackedLines >= properties.getCompactAckedLines() && ackedLines >= queue.size()) {
+                compact();
+            }
+        }
+
+        private void compact() throws IOException {
+            rewrite();
+            FileChannel previous = channel;
+            channel = open(path);
+            previous.close();
+            ackedLines = 0;
+        }
+
+        /**
+         * 남은 요청을 임시 파일에 쓰고 fsync 한 뒤 원래 파일과 바꾼다 (중간에 죽어도 원래 파일이 남는다)
+         */
+        private void rewrite() throws IOException {
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (DebitRequest request : queue) {
+                    ByteBuffer buffer = ByteBuffer.wrap((request.toLine() + "\n").getBytes(StandardCharsets.UTF_8));
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                }
+                out.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private FileChannel open(Path path) throws IOException {
+            return FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        private synchronized void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Failed to close debit queue log", e);
+            }
+        }
+    }
+}
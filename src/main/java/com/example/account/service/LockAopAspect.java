@@ -1,6 +1,10 @@
 package com.example.account.service;
 
 import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.exception.AccountException;
+import com.example.account.trace.RequestTrace;
+import com.example.account.trace.TracePhase;
+import com.example.account.type.ErrorCode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -14,20 +18,58 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class LockAopAspect {
     private final LockService lockService;
+    private final HotAccountEngine hotAccountEngine;
+    private final AsyncDebitService asyncDebitService;
+    private final AffinityRouter affinityRouter;
 
     @Around("@annotation(com.example.account.aop.AccountLock) && args(request)")
     public Object aroundMethod(
         ProceedingJoinPoint pjp,
         AccountLockIdInterface request
     ) throws Throwable {
+        // 메모리 잔액 엔진이 소유한 계좌는 엔진 안에서 직렬화되므로 redis 락을 잡지 않는다
+        if (hotAccountEngine.owns(request.getAccountNumber())) {
+            return pjp.proceed();
+        }
+        // 큐로 접수만 하는 요청은 반영하는 쪽에서 락을 잡는다
+        if (asyncDebitService.accepts(request)) {
+            return pjp.proceed();
+        }
+
+        // 계좌 라우팅 대상이면 소유 노드의 로컬 락만 잡는다 (소유 노드가 아니면 다른 노드의 로컬 락과 겹치므로 거절)
+        boolean local = affinityRouter.covers(request.getAccountNumber());
+        if (local && !affinityRouter.awaitAuthority(request.getAccountNumber())) {
+            throw AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+
         // lock 취득 시도
-        lockService.lock(request.getAccountNumber());
+        long lockStart = System.nanoTime();
+        String lockOutcome = "FAILED";
+        try {
+            if (local) {
+                lockService.lockLocal(request.getAccountNumber());
+            } else {
+                lockService.lock(request.getAccountNumber());
+            }
+            lockOutcome = "OK";
+        } finally {
+            long lockEnd = System.nanoTime();
+            RequestTrace.recordPhase(TracePhase.LOCK, lockEnd - lockStart);
+            RequestTrace.recordSpan("lock.acquire", lockStart, lockEnd, lockOutcome);
+        }
+
+        long holdStart = System.nanoTime();
         try {
             // before
             return pjp.proceed();
         } finally {
             // lock 해제
-            lockService.unlock(request.getAccountNumber());
+            if (local) {
+                lockService.unlockLocal(request.getAccountNumber());
+            } else {
+                lockService.unlock(request.getAccountNumber());
+            }
+            RequestTrace.recordSpan("lock.hold", holdStart, System.nanoTime(), "OK");
         }
     }
 }
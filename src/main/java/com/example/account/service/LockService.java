@@ -1,40 +1,316 @@
 package com.example.account.service;
 
 import com.example.account.exception.AccountException;
+import com.example.account.jfr.LockAcquireEvent;
+import com.example.account.jfr.LockReleaseEvent;
 import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RFuture;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class LockService {
+    private static final int LOCAL_LOCK_STRIPES = 4096;
+    private static final String ACQUIRE_TIMER = "account.lock.acquire";
+    private static final String LOCAL_ACQUIRE_TIMER = "account.lock.acquire.local";
+    private static final String HOLD_TIMER = "account.lock.hold";
+    private static final String RELEASE_TIMER = "account.lock.release";
+    private static final String BATCH_ACQUIRE_TIMER = "account.lock.acquire.batch";
+    private static final String BATCH_SIZE_SUMMARY = "account.lock.batch.size";
+    private static final String BATCH_ATTEMPTS_SUMMARY = "account.lock.batch.attempts";
+
+    @Lazy
     private final RedissonClient redissonClient;
+    private final MeterRegistry meterRegistry;
+
+    // 스프링 밖(벤치마크)에서 만들면 setter 로 지정
+    @Setter
+    @Value("${account.lock.wait-ms:1000}")
+    private long waitMs;
+
+    @Setter
+    @Value("${account.lock.lease-ms:5000}")
+    private long leaseMs;
+
+    // 락 보유 시간 측정용 (계좌번호 -> 락 획득 시각)
+    private final Map<String, Long> lockedAt = new ConcurrentHashMap<>();
+
+    // 락마다 registry 에서 Timer 를 찾지 않도록 이름/결과 태그별로 한 번만 만든다
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> acquireTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> localAcquireTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> batchAcquireTimers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    // 계좌 라우팅으로 이 노드가 소유한 계좌의 락 (계좌번호 해시로 나눈 고정 개수)
+    private final ReentrantLock[] localLocks = newLocalLocks();
+
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gauge("account.lock.held", lockedAt, Map::size);
+    }
 
     public void lock(String accountNumber) {
         RLock lock = redissonClient.getLock(getLockKey(accountNumber));
         log.info("Trying lock for accountNumber : {}", accountNumber);
 
+        LockAcquireEvent event = new LockAcquireEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String result = "acquired";
         try {
-            boolean isLock = lock.tryLock(1, 5, TimeUnit.SECONDS);
+            boolean isLock = lock.tryLock(waitMs, leaseMs, TimeUnit.MILLISECONDS);
             if (!isLock) {
                 log.error("=========Lock acquisition failed=========");
-                throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+                result = "failed";
+                throw AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
             }
+            lockedAt.put(accountNumber, System.nanoTime());
         } catch (AccountException e) {
             throw e;
         } catch (Exception e) {
+            result = "error";
             log.error("Redis lock falied");
+        } finally {
+            acquireTimers.computeIfAbsent(result, tag -> meterRegistry.timer(ACQUIRE_TIMER, "result", tag))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setAccountNumber(accountNumber);
+                event.setOutcome(result);
+                event.commit();
+            }
         }
     }
 
     public void unlock(String accountNumber) {
         log.debug("Unlock for accountNumber : {}", accountNumber);
+        Long acquiredAt = lockedAt.remove(accountNumber);
+        if (acquiredAt != null) {
+            long holdNanos = System.nanoTime() - acquiredAt;
+            timer(HOLD_TIMER)
+                .record(holdNanos, TimeUnit.NANOSECONDS);
+            LockReleaseEvent.emit(accountNumber, holdNanos);
+        }
+        long start = System.nanoTime();
+        try {
+            redissonClient.getLock(getLockKey(accountNumber)).unlock();
+        } finally {
+            timer(RELEASE_TIMER)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 여러 계좌를 한 번에 잠근다 (전부 잡거나 하나도 잡지 않음, 비동기 사용 배치에서 사용)
+     * - 계좌별 tryLock 을 응답을 기다리지 않고 한꺼번에 보내 왕복 한 번에 처리 (redis 파이프라이닝)
+     *   RLock 은 RBatch 에 넣을 수 없어 async 명령을 이어 보낸다, lock() 과 같은 키라 서로 배타적이다
+     * - 하나라도 실패하면 잡은 락을 모두 풀고 잠깐 쉬었다가 재시도 (hold-and-wait 없음 -> 교착 없음)
+     * - 배치 처리 시간은 요청 수에 따라 lease-ms 를 넘을 수 있어 lease 없이 watchdog 이 연장한다 (unlockAll 필수)
+     * - 한 번에 잠근 계좌 수(account.lock.batch.size)와 전부 잡을 때까지 보낸 횟수(account.lock.batch.attempts)를 남긴다
+     */
+    public void lockAll(Collection<String> accountNumbers) {
+        List<String> sortedAccountNumbers = accountNumbers.stream()
+            .distinct().sorted().collect(Collectors.toList());
+        if (sortedAccountNumbers.isEmpty()) {
+            return;
+        }
+        long threadId = Thread.currentThread().getId();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        String result = "failed";
+        int attempts = 0;
+        try {
+            while (true) {
+                attempts++;
+                List<RLock> locks = new ArrayList<>(sortedAccountNumbers.size());
+                List<RFuture<Boolean>> futures = new ArrayList<>(sortedAccountNumbers.size());
+                for (String accountNumber : sortedAccountNumbers) {
+                    RLock lock = redissonClient.getLock(getLockKey(accountNumber));
+                    locks.add(lock);
+                    futures.add(lock.tryLockAsync(0, -1, TimeUnit.MILLISECONDS, threadId));
+                }
+
+                List<RLock> acquired = new ArrayList<>(locks.size());
+                for (int i = 0; i < futures.size(); i++) {
+                    if (Boolean.TRUE.equals(futures.get(i).toCompletableFuture().join())) {
+                        acquired.add(locks.get(i));
+                    }
+                }
+
+                if (acquired.size() == locks.size()) {
+                    long now = System.nanoTime();
+                    sortedAccountNumbers.forEach(accountNumber -> lockedAt.put(accountNumber, now));
+                    result = "acquired";
+                    return;
+                }
+                // 재시도 전에 해제가 끝나야 재진입 카운트가 쌓이지 않는다
+                unlockAsync(acquired, threadId).forEach(future -> future.toCompletableFuture().join());
+
+                if (System.nanoTime() >= deadline) {
+                    log.error("=========Batch lock acquisition failed=========");
+                    throw AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(
+                    1 + ThreadLocalRandom.current().nextInt(10)));
+            }
+        } catch (AccountException e) {
+            throw e;
+        } catch (Exception e) {
+            result = "error";
+            log.error("Redis batch lock failed");
+            throw AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        } finally {
+            batchAcquireTimers.computeIfAbsent(result,
+                    tag -> meterRegistry.timer(BATCH_ACQUIRE_TIMER, "result", tag))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            summary(BATCH_SIZE_SUMMARY).record(sortedAccountNumbers.size());
+            summary(BATCH_ATTEMPTS_SUMMARY).record(attempts);
+        }
+    }
+
+    /**
+     * lockAll 로 잡은 락을 같은 스레드에서 한 번에 푼다
+     */
+    public void unlockAll(Collection<String> accountNumbers) {
+        long threadId = Thread.currentThread().getId();
+        List<RLock> locks = new ArrayList<>(accountNumbers.size());
+        for (String accountNumber : accountNumbers) {
+            Long acquiredAt = lockedAt.remove(accountNumber);
+            if (acquiredAt != null) {
+                long holdNanos = System.nanoTime() - acquiredAt;
+                timer(HOLD_TIMER)
+                    .record(holdNanos, TimeUnit.NANOSECONDS);
+                LockReleaseEvent.emit(accountNumber, holdNanos);
+            }
+            locks.add(redissonClient.getLock(getLockKey(accountNumber)));
+        }
+
+        long start = System.nanoTime();
+        try {
+            unlockAsync(locks, threadId).forEach(future -> future.toCompletableFuture().join());
+        } finally {
+            timer(RELEASE_TIMER)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static List<RFuture<Void>> unlockAsync(List<RLock> locks, long threadId) {
+        List<RFuture<Void>> futures = new ArrayList<>(locks.size());
+        for (RLock lock : locks) {
+            futures.add(lock.unlockAsync(threadId));
+        }
+        return futures;
+    }
+
+    /**
+     * 이 노드만 처리하는 계좌용 로컬 락 (redis 왕복 없음)
+     * - 같은 stripe 의 다른 계좌와도 직렬화되지만 stripe 수가 동시 처리 수보다 훨씬 많다
+     */
+    public void lockLocal(String accountNumber) {
+        LockAcquireEvent event = new LockAcquireEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String result = "acquired";
+        try {
+            if (!localLock(accountNumber).tryLock(waitMs, TimeUnit.MILLISECONDS)) {
+                result = "failed";
+                throw AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+            }
+            lockedAt.put(accountNumber, System.nanoTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = "error";
+            throw AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        } finally {
+            localAcquireTimers.computeIfAbsent(result,
+                    tag -> meterRegistry.timer(LOCAL_ACQUIRE_TIMER, "result", tag))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setAccountNumber(accountNumber);
+                event.setOutcome(result);
+                event.commit();
+            }
+        }
+    }
+
+    public void unlockLocal(String accountNumber) {
+        Long acquiredAt = lockedAt.remove(accountNumber);
+        if (acquiredAt != null) {
+            long holdNanos = System.nanoTime() - acquiredAt;
+            timer(HOLD_TIMER)
+                .record(holdNanos, TimeUnit.NANOSECONDS);
+            LockReleaseEvent.emit(accountNumber, holdNanos);
+        }
+        localLock(accountNumber).unlock();
+    }
+
+    private Timer timer(String name) {
+        return timers.computeIfAbsent(name, key -> meterRegistry.timer(key));
+    }
+
+    private DistributionSummary summary(String name) {
+        return summaries.computeIfAbsent(name, key -> meterRegistry.summary(key));
+    }
+
+    private ReentrantLock localLock(String accountNumber) {
+        return localLocks[Math.floorMod(accountNumber.hashCode(), localLocks.length)];
+    }
+
+    private static ReentrantLock[] newLocalLocks() {
+        ReentrantLock[] locks = new ReentrantLock[LOCAL_LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * 한 노드가 계좌를 계속 소유할 때 사용 (lease 없이 watchdog 이 연장)
+     * - 같은 스레드에서 releaseHold 로 해제해야 한다
+     */
+    public boolean tryHold(String accountNumber) {
+        try {
+            return redissonClient.getLock(getLockKey(accountNumber))
+                .tryLock(0, -1, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * tryHold 로 잡은 락을 아직 이 스레드가 들고 있는지 (redis 왕복 한 번)
+     */
+    public boolean isHolding(String accountNumber) {
+        return redissonClient.getLock(getLockKey(accountNumber)).isHeldByCurrentThread();
+    }
+
+    public void releaseHold(String accountNumber) {
         redissonClient.getLock(getLockKey(accountNumber)).unlock();
     }
 
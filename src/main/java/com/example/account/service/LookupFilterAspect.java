@@ -0,0 +1,42 @@
+package com.example.account.service;
+
+import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.dto.CancelBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 없는 사용자/계좌/거래에 대한 요청을 락과 실패 거래 저장 없이 바로 거절
+ * - AdmissionControlAspect 다음, LockAopAspect 전에 실행
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Order(2)
+public class LookupFilterAspect {
+    private final LookupFilterService lookupFilterService;
+
+    @Around("@annotation(com.example.account.aop.AccountLock) && args(request)")
+    public Object aroundMethod(
+        ProceedingJoinPoint pjp,
+        AccountLockIdInterface request
+    ) throws Throwable {
+        if (lookupFilterService.isMissingUser(request.getUserId())) {
+            throw AccountException.of(ErrorCode.USER_NOT_FOUND);
+        }
+        if (lookupFilterService.isMissingAccount(request.getAccountNumber())) {
+            throw AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND);
+        }
+        if (request instanceof CancelBalance.Request
+            && lookupFilterService.isMissingTransaction(((CancelBalance.Request) request).getTransactionId())) {
+            throw AccountException.of(ErrorCode.TRANSACTION_NOT_FOUND);
+        }
+        return pjp.proceed();
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.account.service;
+
+import com.example.account.config.ShardContextHolder;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 존재하지 않는 계좌/거래/사용자 요청을 락과 DB 전에 거른다
+ * - 기본 : DB 에서 없다고 확인된 키만 짧은 TTL 로 기억해서 거른다 (negative cache, 노드마다 따로)
+ * - redis-sync 이면 계좌번호, 거래 ID 를 bloom filter 로도 거른다 (기동 시 DB 에서 다시 만들고 insert 시 추가)
+ *   다른 노드에서 추가된 키는 redis topic 으로 받아 반영, 그래야 bloom 에 없다는 답을 믿을 수 있다
+ *   (bloom 은 노드 로컬이라 sync 없이 여러 노드로 띄우면 다른 노드가 만든 계좌/거래를 없다고 판단한다)
+ * - 기동 후 bloom 을 다 만들기 전까지는 negative cache 만 쓴다
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LookupFilterService {
+    private static final String SYNC_TOPIC = "LKFILTER";
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ShardRouter shardRouter;
+    private final AccountIndexService accountIndexService;
+    @Lazy
+    private final RedissonClient redissonClient;
+
+    @Value("${account.lookup-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${account.lookup-filter.expected-accounts:1000000}")
+    private long expectedAccounts;
+
+    @Value("${account.lookup-filter.expected-transactions:10000000}")
+    private long expectedTransactions;
+
+    @Value("${account.lookup-filter.fpp:0.01}")
+    private double fpp;
+
+    @Value("${account.lookup-filter.negative-ttl-ms:5000}")
+    private long negativeTtlMs;
+
+    @Value("${account.lookup-filter.max-negative-entries:100000}")
+    private int maxNegativeEntries;
+
+    @Value("${account.lookup-filter.redis-sync:false}")
+    private boolean redisSync;
+
+    private final Map<String, Long> negativeCache = new ConcurrentHashMap<>();
+    private volatile BloomFilter accountFilter;
+    private volatile BloomFilter transactionFilter;
+    // 다시 만드는 동안 추가된 키 (새 filter 에 빠지지 않도록 끝난 뒤 다시 넣는다)
+    private volatile Set<String> addedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!redisSync) {
+            return;
+        }
+        syncTopic().addListener(String.class, (channel, message) -> applySync(message));
+        Thread rebuild = new Thread(this::rebuild, "lookup-filter-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    /**
+     * 모든 샤드의 계좌번호, 거래 ID 를 id 순 페이지로 읽어 bloom filter 를 새로 만든다
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        addedDuringRebuild = ConcurrentHashMap.newKeySet();
+        try {
+            BloomFilter accounts = BloomFilter.create(expectedAccounts, fpp);
+            BloomFilter transactions = BloomFilter.create(expectedTransactions, fpp);
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                ShardContextHolder.set(shard);
+                try {
+                    scan(accountRepository::findAccountNumbersAfter, accounts::put);
+                    scan(transactionRepository::findTransactionIdsAfter, transactions::put);
+                } finally {
+                    ShardContextHolder.clear();
+                }
+            }
+            accountFilter = accounts;
+            transactionFilter = transactions;
+            addedDuringRebuild.forEach(this::addToFilter);
+            log.info("Lookup filters rebuilt in {} ms",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild lookup filters, filtering stays disabled", e);
+        } finally {
+            addedDuringRebuild = null;
+        }
+    }
+
+    public boolean isMissingAccount(String accountNumber) {
+        return enabled && accountNumber != null
+            && !accountIndexService.contains(accountNumber)
+            && isMissing(accountFilter, "A", accountNumber);
+    }
+
+    public boolean isMissingTransaction(String transactionId) {
+        return enabled && transactionId != null
+            && isMissing(transactionFilter, "T", transactionId);
+    }
+
+    public boolean isMissingUser(Long userId) {
+        return enabled && userId != null && isNegative("U" + userId);
+    }
+
+    public void recordMissingAccount(String accountNumber) {
+        recordNegative("A" + accountNumber);
+    }
+
+    public void recordMissingTransaction(String transactionId) {
+        recordNegative("T" + transactionId);
+    }
+
+    public void recordMissingUser(Long userId) {
+        recordNegative("U" + userId);
+    }
+
+    public void addAccount(String accountNumber) {
+        addLocal("A" + accountNumber);
+        publish("A" + accountNumber);
+    }
+
+    public void addTransaction(String transactionId) {
+        addLocal("T" + transactionId);
+        publish("T" + transactionId);
+    }
+
+    private void scan(BiFunction<Long, PageRequest, List<Object[]>> page, Consumer<String> sink) {
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = page.apply(afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                if (row[1] != null) {
+                    sink.accept((String) row[1]);
+                }
+            }
+            if (rows.size() < REBUILD_PAGE_SIZE) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * bloom 에 없다는 답은 redis-sync 일 때만 믿고, 아니면 모른다고 보고 DB 조회로 넘긴다
+     */
+    private boolean isMissing(BloomFilter filter, String prefix, String key) {
+        if (isNegative(prefix + key)) {
+            return true;
+        }
+        return redisSync && filter != null && !filter.mightContain(key);
+    }
+
+    private boolean isNegative(String key) {
+        Long expiresAt = negativeCache.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt < System.nanoTime()) {
+            negativeCache.remove(key, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    private void recordNegative(String key) {
+        if (!enabled) {
+            return;
+        }
+        if (negativeCache.size() >= maxNegativeEntries) {
+            // 너무 많이 쌓이면 통째로 비운다 (잠깐 DB 조회가 늘어나는 것은 허용)
+            negativeCache.clear();
+        }
+        negativeCache.put(key, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(negativeTtlMs));
+    }
+
+    private void addLocal(String key) {
+        negativeCache.remove(key);
+        Set<String> added = addedDuringRebuild;
+        if (added != null) {
+            added.add(key);
+        }
+        addToFilter(key);
+    }
+
+    private void addToFilter(String key) {
+        BloomFilter filter = key.charAt(0) == 'A' ? accountFilter : transactionFilter;
+        if (filter != null) {
+            filter.put(key.substring(1));
+        }
+    }
+
+    private void applySync(String message) {
+        if (message != null && !message.isEmpty()) {
+            addLocal(message);
+        }
+    }
+
+    private void publish(String message) {
+        if (!redisSync) {
+            return;
+        }
+        try {
+            syncTopic().publishAsync(message);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish lookup filter update");
+        }
+    }
+
+    private RTopic syncTopic() {
+        return redissonClient.getTopic(SYNC_TOPIC, StringCodec.INSTANCE);
+    }
+}
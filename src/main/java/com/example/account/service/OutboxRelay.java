@@ -0,0 +1,126 @@
+package com.example.account.service;
+
+import com.example.account.config.OutboxProperties;
+import com.example.account.config.ShardContextHolder;
+import com.example.account.domain.OutboxEvent;
+import com.example.account.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * outbox 이벤트를 sink 로 보내고 지운다 (at-least-once)
+ * - 샤드별로 가장 오래된 이벤트부터 batch-size 씩, sink 가 성공한 뒤에만 지운다
+ * - 계좌의 거래는 락 안에서 차례로 커밋되므로 id 순으로 보내면 계좌별 순서가 지켜진다
+ * - 여러 노드 중 redis 락을 잡은 한 노드만 보낸다 (락은 스레드 단위라 스레드 하나에서 처리)
+ */
+@Slf4j
+@Service
+@Lazy(false)
+@RequiredArgsConstructor
+public class OutboxRelay {
+    private static final String RELAY_LOCK_KEY = "OUTBOX_RELAY";
+
+    private final OutboxProperties properties;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final ShardRouter shardRouter;
+    @Lazy
+    private final RedissonClient redissonClient;
+
+    private ScheduledExecutorService scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::relaySafely,
+            properties.getRelayIntervalMs(), properties.getRelayIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.submit(this::releaseLeadership);
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void relaySafely() {
+        try {
+            if (!acquireLeadership()) {
+                return;
+            }
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                relayShard(shard);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to relay outbox events, retrying next round", e);
+        }
+    }
+
+    /**
+     * 한 샤드의 남은 이벤트를 배치 단위로 모두 보낸다
+     * @return 보낸 이벤트 수
+     */
+    public int relayShard(int shard) throws Exception {
+        int relayed = 0;
+        ShardContextHolder.set(shard);
+        try {
+            while (true) {
+                List<OutboxEvent> events = outboxEventRepository.findOldest(
+                    PageRequest.of(0, properties.getBatchSize()));
+                if (events.isEmpty()) {
+                    return relayed;
+                }
+                outboxSink.publish(events);
+                outboxEventRepository.deleteAllByIdInBatch(events.stream()
+                    .map(OutboxEvent::getId)
+                    .collect(Collectors.toList()));
+                relayed += events.size();
+                if (events.size() < properties.getBatchSize()) {
+                    return relayed;
+                }
+            }
+        } finally {
+            ShardContextHolder.clear();
+        }
+    }
+
+    private boolean acquireLeadership() throws InterruptedException {
+        RLock lock = redissonClient.getLock(RELAY_LOCK_KEY);
+        return lock.isHeldByCurrentThread() || lock.tryLock(0, -1, TimeUnit.MILLISECONDS);
+    }
+
+    private void releaseLeadership() {
+        try {
+            RLock lock = redissonClient.getLock(RELAY_LOCK_KEY);
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to release outbox relay lock");
+        }
+    }
+}
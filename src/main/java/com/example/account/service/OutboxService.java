@@ -0,0 +1,37 @@
+package com.example.account.service;
+
+import com.example.account.config.OutboxProperties;
+import com.example.account.domain.OutboxEvent;
+import com.example.account.domain.Transaction;
+import com.example.account.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * 거래를 저장하는 트랜잭션 안에서 outbox 행을 함께 쓴다
+ */
+@Service
+@RequiredArgsConstructor
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxService {
+    private final OutboxProperties properties;
+    private final OutboxEventRepository outboxEventRepository;
+
+    public void append(Transaction transaction) {
+        if (properties.isEnabled()) {
+            outboxEventRepository.save(OutboxEvent.from(transaction));
+        }
+    }
+
+    public void appendAll(Collection<Transaction> transactions) {
+        if (properties.isEnabled() && !transactions.isEmpty()) {
+            outboxEventRepository.saveAll(transactions.stream()
+                .map(OutboxEvent::from)
+                .collect(Collectors.toList()));
+        }
+    }
+}
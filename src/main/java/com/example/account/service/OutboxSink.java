@@ -0,0 +1,14 @@
+package com.example.account.service;
+
+import com.example.account.domain.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * outbox 이벤트를 내보낼 곳
+ * - 정상 반환하면 모두 전달된 것으로 보고 outbox 에서 지운다 (예외면 다음 주기에 처음부터 다시)
+ * - 받은 순서를 지켜야 한다 (계좌별 순서 보장)
+ */
+public interface OutboxSink {
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,39 @@
+package com.example.account.service;
+
+import com.example.account.aop.AccountLockIdInterface;
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.UseBalance;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 락 없이 캐시된 소유자/상태/거래 정보로 확실히 실패할 요청을 먼저 거절
+ * - LookupFilterAspect 다음, LockAopAspect 전에 실행 (실패 거래 저장 없음)
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Order(3)
+public class PreValidationAspect {
+    private final PreValidationService preValidationService;
+
+    @Around("@annotation(com.example.account.aop.AccountLock) && args(request)")
+    public Object aroundMethod(
+        ProceedingJoinPoint pjp,
+        AccountLockIdInterface request
+    ) throws Throwable {
+        if (request instanceof UseBalance.Request) {
+            UseBalance.Request use = (UseBalance.Request) request;
+            preValidationService.validateUse(use.getUserId(), use.getAccountNumber(), use.getAmount());
+        } else if (request instanceof CancelBalance.Request) {
+            CancelBalance.Request cancel = (CancelBalance.Request) request;
+            preValidationService.validateCancel(
+                cancel.getTransactionId(), cancel.getAccountNumber(), cancel.getAmount());
+        }
+        return pjp.proceed();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+
+/**
+ * 락을 잡기 전에 캐시된 정보만으로 확실히 실패할 요청을 거른다
+ * - 소유자, 해지 여부 : AccountIndexService (바뀌지 않거나 되돌릴 수 없는 값)
+ * - 취소 대상 거래의 계좌/금액/거래일시 : 성공한 사용 거래 캐시 (변하지 않는 값)
+ * - 잔액 : 이 노드에서 커밋된 마지막 잔액, balance-check 를 켰거나 계좌 라우팅으로 이 노드만 바꾸는 계좌만
+ * - 여기서 통과해도 락 안에서 다시 검증한다
+ */
+@Service
+@RequiredArgsConstructor
+public class PreValidationService {
+    private final AccountIndexService accountIndexService;
+    private final AffinityRouter affinityRouter;
+
+    @Value("${account.prevalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${account.prevalidation.balance-check:false}")
+    private boolean balanceCheck;
+
+    @Value("${account.prevalidation.balance-ttl-ms:1000}")
+    private long balanceTtlMs;
+
+    @Value("${account.prevalidation.max-cached-transactions:100000}")
+    private int maxCachedTransactions;
+
+    private final Map<String, CachedTransaction> transactions = new ConcurrentHashMap<>();
+    private final Map<String, CachedBalance> balances = new ConcurrentHashMap<>();
+
+    public void validateUse(Long userId, String accountNumber, Long amount) {
+        if (!enabled) {
+            return;
+        }
+        long packed = accountIndexService.lookup(accountNumber);
+        if (packed != AccountIndex.ABSENT) {
+            if (userId != null && AccountIndex.ownerOf(packed) != userId) {
+                throw AccountException.of(ErrorCode.USER_ACCOUNT_UNMATCHED);
+            }
+            if (AccountIndex.statusOf(packed) == AccountIndex.STATUS_UNREGISTERED) {
+                throw AccountException.of(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+            }
+        }
+
+        if (amount != null && (balanceCheck || affinityRouter.isAuthoritative(accountNumber))) {
+            CachedBalance cached = balances.get(accountNumber);
+            if (cached != null && cached.expiresAt > System.nanoTime() && amount > cached.balance) {
+                throw AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE);
+            }
+        }
+    }
+
+    public void validateCancel(String transactionId, String accountNumber, Long amount) {
+        if (!enabled || transactionId == null) {
+            return;
+        }
+        CachedTransaction cached = transactions.get(transactionId);
+        if (cached == null) {
+            return;
+        }
+        if (!Objects.equals(cached.accountNumber, accountNumber)) {
+            throw AccountException.of(ErrorCode.TRANSACTION_ACCOUNT_UNMATCHED);
+        }
+        if (!Objects.equals(cached.amount, amount)) {
+            throw AccountException.of(ErrorCode.CANCEL_MUST_FULLY);
+        }
+        if (cached.transactedAt.isBefore(LocalDateTime.now().minusYears(1))) {
+            throw AccountException.of(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
+        }
+    }
+
+    /**
+     * 성공한 사용/취소 결과를 커밋 후 캐시에 반영
+     */
+    public void onCompleted(TransactionDto transaction) {
+        if (!enabled || transaction.getTransactionResult() != S) {
+            return;
+        }
+        afterCommit(() -> {
+            if (transaction.getTransactionType() == USE) {
+                if (transactions.size() >= maxCachedTransactions) {
+                    // 너무 많이 쌓이면 통째로 비운다 (잠깐 사전 검증이 느슨해지는 것은 허용)
+                    transactions.clear();
+                }
+                transactions.put(transaction.getTransactionId(), new CachedTransaction(
+                    transaction.getAccountNumber(), transaction.getAmount(), transaction.getTransactedAt()));
+            }
+            if (transaction.getBalanceSnapshot() != null
+                && (balanceCheck || affinityRouter.isAuthoritative(transaction.getAccountNumber()))) {
+                balances.put(transaction.getAccountNumber(), new CachedBalance(transaction.getBalanceSnapshot(),
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(balanceTtlMs)));
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class CachedTransaction {
+        private final String accountNumber;
+        private final Long amount;
+        private final LocalDateTime transactedAt;
+
+        private CachedTransaction(String accountNumber, Long amount, LocalDateTime transactedAt) {
+            this.accountNumber = accountNumber;
+            this.amount = amount;
+            this.transactedAt = transactedAt;
+        }
+    }
+
+    private static class CachedBalance {
+        private final long balance;
+        private final long expiresAt;
+
+        private CachedBalance(long balance, long expiresAt) {
+            this.balance = balance;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.account.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RFuture;
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateLimiterConfig;
+import org.redisson.api.RateIntervalUnit;
+import org.redisson.api.RateType;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 사용자/계좌 단위 요청 제한 (account.rate-limit.enabled, 기본 꺼짐)
+ * - 로컬 토큰 버킷으로 먼저 거르고, redis-enabled 이면 노드 전체 기준으로 redis 에서 한 번 더 확인
+ * - 제한은 키 하나 기준이라 켜면 hot 계좌, 부하 테스트처럼 한 계좌로 몰리는 트래픽은 account-permits-per-second 에서 막힌다
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RateLimitService {
+    @Lazy
+    private final RedissonClient redissonClient;
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Value("${account.rate-limit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${account.rate-limit.user-permits-per-second:50}")
+    private long userPermitsPerSecond;
+
+    @Value("${account.rate-limit.account-permits-per-second:20}")
+    private long accountPermitsPerSecond;
+
+    @Value("${account.rate-limit.redis-enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${account.rate-limit.max-local-buckets:100000}")
+    private int maxLocalBuckets;
+
+    private final Map<String, TokenBucket> localBuckets = new ConcurrentHashMap<>();
+    private final Set<String> initializedRedisLimiters = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+
+    /**
+     * 로컬 버킷을 모두 통과한 경우에만 redis 를 확인하고,
+     * 사용자/계좌 두 제한은 응답을 기다리지 않고 함께 보내 왕복 한 번으로 처리
+     */
+    public boolean tryAcquire(Long userId, String accountNumber) {
+        if (!enabled) {
+            return true;
+        }
+        String userKey = userId == null ? null : "RLUSR" + userId;
+        String accountKey = accountNumber == null ? null : "RLACC" + accountNumber;
+        if (userKey != null && !localBucket(userKey, userPermitsPerSecond).tryAcquire()) {
+            return false;
+        }
+        if (accountKey != null && !localBucket(accountKey, accountPermitsPerSecond).tryAcquire()) {
+            return false;
+        }
+        if (!redisEnabled) {
+            return true;
+        }
+
+        RFuture<Boolean> user = userKey == null ? null : tryAcquireRedisAsync(userKey, userPermitsPerSecond);
+        RFuture<Boolean> account = accountKey == null ? null : tryAcquireRedisAsync(accountKey, accountPermitsPerSecond);
+        return awaitRedis(user, userKey) && awaitRedis(account, accountKey);
+    }
+
+    private TokenBucket localBucket(String key, long permitsPerSecond) {
+        TokenBucket bucket = localBuckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (localBuckets.size() >= maxLocalBuckets) {
+            evictFullBuckets(System.nanoTime());
+        }
+        return localBuckets.computeIfAbsent(key,
+            k -> new TokenBucket(permitsPerSecond, permitsPerSecond));
+    }
+
+    /**
+     * 키가 max-local-buckets 만큼 쌓이면 가득 찬 (1초 넘게 쓰지 않은) 버킷만 지운다
+     * - 쓰고 있는 버킷은 남으므로 제한이 풀리지 않는다, 1초 안에 키가 그보다 많으면 잠시 max 를 넘는다
+     * - 넘친 상태에서 요청마다 전체를 훑지 않도록 1초에 한 번만 정리
+     * - 같은 키의 redis 제한 설정 확인 기록도 함께 지운다 (다시 쓰면 설정을 다시 확인)
+     */
+    void evictFullBuckets(long nowNanos) {
+        long last = lastSweepNanos.get();
+        if (nowNanos - last < SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(last, nowNanos)) {
+            return;
+        }
+        localBuckets.entrySet().removeIf(entry -> {
+            if (!entry.getValue().isFull(nowNanos)) {
+                return false;
+            }
+            initializedRedisLimiters.remove(entry.getKey());
+            return true;
+        });
+    }
+
+    /**
+     * 키를 이 노드에서 처음 쓸 때만 redis 의 제한 설정을 확인한다
+     * - setRate 는 다른 노드가 쓰던 남은 허용량까지 초기화하므로 재시작, 버킷 정리마다 부르지 않는다
+     */
+    private RFuture<Boolean> tryAcquireRedisAsync(String key, long permitsPerSecond) {
+        try {
+            RRateLimiter rateLimiter = redissonClient.getRateLimiter(key);
+            if (initializedRedisLimiters.add(key)) {
+                applyRate(rateLimiter, permitsPerSecond);
+            }
+            return rateLimiter.tryAcquireAsync();
+        } catch (Exception e) {
+            log.warn("Redis rate limiter failed for key : {}", key);
+            return null;
+        }
+    }
+
+    /**
+     * 설정이 없으면 trySetRate 로 만들고, 저장된 설정이 현재 설정과 다를 때만 setRate 로 바꾼다
+     * - permits 설정을 바꾼 뒤 처음 한 번만 허용량이 초기화된다
+     */
+    void applyRate(RRateLimiter rateLimiter, long permitsPerSecond) {
+        if (rateLimiter.trySetRate(RateType.OVERALL, permitsPerSecond, 1, RateIntervalUnit.SECONDS)) {
+            return;
+        }
+        RateLimiterConfig config = rateLimiter.getConfig();
+        if (config.getRateType() == RateType.OVERALL
+            && config.getRate() == permitsPerSecond
+            && config.getRateInterval() == TimeUnit.SECONDS.toMillis(1)) {
+            return;
+        }
+        log.info("Updating redis rate limiter {} to {} permits/s", rateLimiter.getName(), permitsPerSecond);
+        rateLimiter.setRate(RateType.OVERALL, permitsPerSecond, 1, RateIntervalUnit.SECONDS);
+    }
+
+    private boolean awaitRedis(RFuture<Boolean> future, String key) {
+        if (future == null) {
+            return true;
+        }
+        try {
+            return future.toCompletableFuture().join();
+        } catch (Exception e) {
+            // redis 장애 시에는 요청을 막지 않는다 (로컬 제한은 이미 통과)
+            log.warn("Redis rate limiter failed for key : {}", key);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.account.service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 대사 결과 파일 (탭 구분, 불일치 한 건당 한 줄)
+ * - shard, 계좌번호, 종류, 거래 ID, 기대값, 실제값
+ * - max-report-lines 이후의 불일치는 개수만 센다
+ */
+public class ReconciliationReport implements Closeable {
+    public enum Kind {
+        BALANCE_MISMATCH,
+        CHAIN_BROKEN,
+        NEGATIVE_SNAPSHOT
+    }
+
+    private final Path path;
+    private final BufferedWriter writer;
+    private final int maxLines;
+    private int lines;
+
+    private final AtomicLong accounts = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private final AtomicLong skippedLive = new AtomicLong();
+
+    private ReconciliationReport(Path path, BufferedWriter writer, int maxLines) {
+        this.path = path;
+        this.writer = writer;
+        this.maxLines = maxLines;
+    }
+
+    public static ReconciliationReport open(Path path, int maxLines) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        writer.write("#shard\taccountNumber\tkind\ttransactionId\texpected\tactual");
+        writer.newLine();
+        return new ReconciliationReport(path, writer, maxLines);
+    }
+
+    public synchronized void mismatch(int shard, String accountNumber, Kind kind,
+                                      String transactionId, long expected, long actual) {
+        mismatches.incrementAndGet();
+        if (lines >= maxLines) {
+            return;
+        }
+        lines++;
+        try {
+            writer.write(shard + "\t" + accountNumber + "\t" + kind + "\t"
+                + (transactionId == null ? "-" : transactionId) + "\t" + expected + "\t" + actual);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void addAccounts(long count) {
+        accounts.addAndGet(count);
+    }
+
+    public void addTransactions(long count) {
+        transactions.addAndGet(count);
+    }
+
+    public void skippedLive() {
+        skippedLive.incrementAndGet();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getAccounts() {
+        return accounts.get();
+    }
+
+    public long getTransactions() {
+        return transactions.get();
+    }
+
+    public long getMismatches() {
+        return mismatches.get();
+    }
+
+    public long getSkippedLive() {
+        return skippedLive.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            writer.write("#accounts=" + getAccounts() + " transactions=" + getTransactions()
+                + " mismatches=" + getMismatches() + " skippedLive=" + getSkippedLive());
+            writer.newLine();
+        } finally {
+            writer.close();
+        }
+    }
+}
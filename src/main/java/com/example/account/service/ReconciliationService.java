@@ -0,0 +1,308 @@
+package com.example.account.service;
+
+import com.example.account.config.ReconciliationProperties;
+import com.example.account.config.ShardContextHolder;
+import com.example.account.domain.Account;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.service.ReconciliationReport.Kind;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.example.account.type.TransactionResultType.S;
+
+/**
+ * 야간 잔액 대사
+ * - 샤드별 계좌 id 공간을 fork-join 으로 나누고, 각 범위의 성공 거래를 (계좌 id, 거래 id) keyset 페이지로 읽는다
+ * - 계좌별로 직전 스냅샷 -/+ 금액 = 현재 스냅샷 인지, 마지막 스냅샷 = 계좌 잔액 인지 확인
+ * - 메모리는 (작업 범위의 계좌 수 + 페이지 크기) 만큼, DB 커넥션은 max-db-connections 개까지만 사용
+ * - 시작 이후 변경된 계좌는 잔액 비교를 건너뛴다 (운영 트래픽과 함께 실행)
+ */
+@Slf4j
+@Service
+@Lazy(false)
+@RequiredArgsConstructor
+@EnableConfigurationProperties(ReconciliationProperties.class)
+public class ReconciliationService {
+    private static final String JOB_LOCK_KEY = "RECONCILE";
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ReconciliationProperties properties;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ShardRouter shardRouter;
+    @Lazy
+    private final RedissonClient redissonClient;
+
+    /**
+     * 여러 노드 중 redis 작업 락을 잡은 한 노드만 실행
+     */
+    @Scheduled(cron = "${account.reconciliation.cron:0 0 3 * * *}")
+    public void runNightly() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        RLock jobLock = redissonClient.getLock(JOB_LOCK_KEY);
+        try {
+            if (!jobLock.tryLock(0, -1, TimeUnit.MILLISECONDS)) {
+                log.info("Reconciliation is already running on another node");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Reconciliation failed", e);
+        } finally {
+            jobLock.unlock();
+        }
+    }
+
+    public ReconciliationReport reconcile() throws IOException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        Path path = Paths.get(properties.getReportDir())
+            .resolve("reconciliation-" + startedAt.format(FILE_NAME_FORMAT) + ".tsv");
+        Semaphore dbPermits = new Semaphore(properties.getMaxDbConnections());
+        ForkJoinPool pool = new ForkJoinPool(properties.getParallelism());
+        long start = System.nanoTime();
+
+        ReconciliationReport report = ReconciliationReport.open(path, properties.getMaxReportLines());
+        try {
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                Scan scan = new Scan(shard, startedAt, dbPermits, report);
+                Long maxAccountId = scan.query(accountRepository::findMaxId);
+                Long maxTransactionId = scan.query(transactionRepository::findMaxId);
+                if (maxAccountId == null || maxTransactionId == null) {
+                    continue;
+                }
+                scan.maxTransactionId = maxTransactionId;
+                pool.invoke(new RangeTask(scan, 0L, maxAccountId));
+            }
+        } finally {
+            pool.shutdown();
+            report.close();
+        }
+
+        log.info("Reconciliation finished in {} ms : accounts={}, transactions={}, mismatches={}, skippedLive={}, report={}",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), report.getAccounts(),
+            report.getTransactions(), report.getMismatches(), report.getSkippedLive(), path);
+        return report;
+    }
+
+    /**
+     * 샤드 하나에 대한 대사 상태 (작업들이 공유)
+     */
+    private class Scan {
+        private final int shard;
+        private final LocalDateTime startedAt;
+        private final Semaphore dbPermits;
+        private final ReconciliationReport report;
+        private long maxTransactionId;
+
+        private Scan(int shard, LocalDateTime startedAt, Semaphore dbPermits, ReconciliationReport report) {
+            this.shard = shard;
+            this.startedAt = startedAt;
+            this.dbPermits = dbPermits;
+            this.report = report;
+        }
+
+        private <T> T query(Supplier<T> query) {
+            dbPermits.acquireUninterruptibly();
+            ShardContextHolder.set(shard);
+            try {
+                return query.get();
+            } finally {
+                ShardContextHolder.clear();
+                dbPermits.release();
+            }
+        }
+    }
+
+    /**
+     * 계좌 id (fromExclusive, toInclusive] 범위를 반씩 나눠서 처리
+     */
+    private class RangeTask extends RecursiveAction {
+        private final Scan scan;
+        private final long fromExclusive;
+        private final long toInclusive;
+
+        private RangeTask(Scan scan, long fromExclusive, long toInclusive) {
+            this.scan = scan;
+            this.fromExclusive = fromExclusive;
+            this.toInclusive = toInclusive;
+        }
+
+        @Override
+        protected void compute() {
+            if (toInclusive - fromExclusive > properties.getAccountsPerTask()) {
+                long middle = fromExclusive + (toInclusive - fromExclusive) / 2;
+                invokeAll(new RangeTask(scan, fromExclusive, middle), new RangeTask(scan, middle, toInclusive));
+                return;
+            }
+            verifyRange();
+        }
+
+        private void verifyRange() {
+            Map<Long, AccountRow> accounts = loadAccounts();
+            if (accounts.isEmpty()) {
+                return;
+            }
+            scan.report.addAccounts(accounts.size());
+
+            long afterAccountId = fromExclusive;
+            long afterId = 0;
+            AccountRow current = null;
+            Long lastSnapshot = null;
+            while (true) {
+                long pageAccountId = afterAccountId;
+                long pageId = afterId;
+                List<Object[]> rows = scan.query(() -> transactionRepository.findChainsAfter(
+                    fromExclusive, toInclusive, pageAccountId, pageId, scan.maxTransactionId, S,
+                    PageRequest.of(0, properties.getPageSize())));
+                for (Object[] row : rows) {
+                    Long accountId = (Long) row[0];
+                    afterAccountId = accountId;
+                    afterId = (Long) row[1];
+                    if (current == null || !current.id.equals(accountId)) {
+                        finish(current, lastSnapshot);
+                        current = accounts.get(accountId);
+                        lastSnapshot = null;
+                    }
+                    if (current != null) {
+                        lastSnapshot = verifyLink(current, lastSnapshot, row);
+                    }
+                }
+                scan.report.addTransactions(rows.size());
+                if (rows.size() < properties.getPageSize()) {
+                    break;
+                }
+            }
+            finish(current, lastSnapshot);
+        }
+
+        private Map<Long, AccountRow> loadAccounts() {
+            Map<Long, AccountRow> accounts = new HashMap<>();
+            long afterId = fromExclusive;
+            while (true) {
+                long pageId = afterId;
+                List<Object[]> rows = scan.query(() -> accountRepository.findBalancesBetween(
+                    pageId, toInclusive, PageRequest.of(0, properties.getPageSize())));
+                for (Object[] row : rows) {
+                    AccountRow account = new AccountRow(
+                        (Long) row[0], (String) row[1], (Long) row[2], (LocalDateTime) row[3]);
+                    accounts.put(account.id, account);
+                    afterId = account.id;
+                }
+                if (rows.size() < properties.getPageSize()) {
+                    return accounts;
+                }
+            }
+        }
+
+        /**
+         * (계좌 id, 거래 id, 거래 종류, 금액, 스냅샷, 거래 ID) 한 건을 직전 스냅샷과 비교
+         */
+        private Long verifyLink(AccountRow account, Long previousSnapshot, Object[] row) {
+            TransactionType type = (TransactionType) row[2];
+            Long amount = (Long) row[3];
+            Long snapshot = (Long) row[4];
+            String transactionId = (String) row[5];
+            if (snapshot == null || amount == null) {
+                return previousSnapshot;
+            }
+            if (previousSnapshot != null) {
+                long expected = type == TransactionType.USE
+                    ? previousSnapshot - amount : previousSnapshot + amount;
+                if (expected != snapshot) {
+                    scan.report.mismatch(scan.shard, account.accountNumber, Kind.CHAIN_BROKEN,
+                        transactionId, expected, snapshot);
+                }
+            }
+            if (snapshot < 0) {
+                scan.report.mismatch(scan.shard, account.accountNumber, Kind.NEGATIVE_SNAPSHOT,
+                    transactionId, 0, snapshot);
+            }
+            return snapshot;
+        }
+
+        /**
+         * 마지막 스냅샷과 계좌 잔액 비교
+         * - 읽는 도중 커밋된 거래 때문일 수 있으므로 불일치면 한 번 더 읽어서 확인
+         * - 스냅샷을 먼저, 계좌를 나중에 읽는다: 두 읽기 사이에 커밋된 거래는 계좌의 updatedAt 에 보이므로 live 로 건너뛴다
+         */
+        private void finish(AccountRow account, Long lastSnapshot) {
+            if (account == null || lastSnapshot == null) {
+                return;
+            }
+            if (account.isLive(scan.startedAt)) {
+                scan.report.skippedLive();
+                return;
+            }
+            if (lastSnapshot.equals(account.balance)) {
+                return;
+            }
+
+            List<Long> latestSnapshot = scan.query(() ->
+                transactionRepository.findLatestSnapshots(account.id, S, PageRequest.of(0, 1)));
+            Optional<Account> latest = scan.query(() -> accountRepository.findById(account.id));
+            if (!latest.isPresent() || latestSnapshot.isEmpty()) {
+                return;
+            }
+            LocalDateTime updatedAt = latest.get().getUpdatedAt();
+            if (updatedAt != null && updatedAt.isAfter(scan.startedAt)) {
+                scan.report.skippedLive();
+                return;
+            }
+            Long balance = latest.get().getBalance();
+            Long snapshot = latestSnapshot.get(0);
+            if (balance != null && snapshot != null && !balance.equals(snapshot)) {
+                scan.report.mismatch(scan.shard, account.accountNumber, Kind.BALANCE_MISMATCH,
+                    null, snapshot, balance);
+            }
+        }
+    }
+
+    private static class AccountRow {
+        private final Long id;
+        private final String accountNumber;
+        private final Long balance;
+        private final LocalDateTime updatedAt;
+
+        private AccountRow(Long id, String accountNumber, Long balance, LocalDateTime updatedAt) {
+            this.id = id;
+            this.accountNumber = accountNumber;
+            this.balance = balance;
+            this.updatedAt = updatedAt;
+        }
+
+        private boolean isLive(LocalDateTime startedAt) {
+            return updatedAt != null && updatedAt.isAfter(startedAt);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.account.service;
+
+import com.example.account.config.AsyncDebitProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLock;
+import org.redisson.api.RMap;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 노드용 파티션별 redis stream 큐
+ * - 파티션마다 consumer group 하나, consumer 이름도 파티션 고정 (소유 노드가 바뀌어도 ack 안 된 요청을 이어받는다)
+ * - 파티션 소유는 redis 락으로, 락을 잡은 노드의 소비 스레드만 읽는다
+ * - 접수된 요청은 반영될 때까지 pending 맵에도 남겨 어느 노드에서든 PENDING 으로 조회된다
+ * - dead letter 는 {prefix}:DEAD stream 에 (파티션, 원래 entry id, 요청) 으로 남긴다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.async-debit.queue", havingValue = "redis")
+public class RedisDebitQueue implements DebitQueue {
+    private static final String GROUP = "appliers";
+
+    private final AsyncDebitProperties properties;
+    @Lazy
+    private final RedissonClient redissonClient;
+
+    @Override
+    public void start() {
+        for (int partition = 0; partition < properties.getPartitions(); partition++) {
+            try {
+                stream(partition).createGroup(GROUP, StreamMessageId.ALL);
+            } catch (RedisException e) {
+                // BUSYGROUP : 이미 만들어져 있음
+                log.debug("Debit queue group already exists for partition {}", partition);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void append(int partition, DebitRequest request) {
+        // pending 을 먼저 남겨 접수 직후 조회에서 없는 거래로 보이지 않게 한다
+        pendingMap().fastPut(request.getTransactionId(), request.toLine());
+        stream(partition).add(StreamAddArgs.entries(Collections.singletonMap("r", request.toLine())));
+    }
+
+    @Override
+    public boolean acquirePartition(int partition) {
+        RLock lock = partitionLock(partition);
+        try {
+            return lock.isHeldByCurrentThread() || lock.tryLock(0, -1, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void releasePartition(int partition) {
+        RLock lock = partitionLock(partition);
+        if (lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * ack 되지 않은 요청이 있으면 그것부터, 없으면 새 요청을 timeout 동안 기다린다
+     */
+    @Override
+    public List<Entry> poll(int partition, int maxCount, long timeoutMs) {
+        RStream<String, String> stream = stream(partition);
+        String consumer = consumerName(partition);
+        Map<StreamMessageId, Map<String, String>> messages =
+            stream.readGroup(GROUP, consumer, maxCount, StreamMessageId.ALL);
+        if (messages == null || messages.isEmpty()) {
+            messages = stream.readGroup(GROUP, consumer, maxCount, timeoutMs, TimeUnit.MILLISECONDS);
+        }
+        List<Entry> entries = new ArrayList<>();
+        if (messages == null) {
+            return entries;
+        }
+        messages.forEach((id, fields) ->
+            entries.add(new Entry(id.toString(), DebitRequest.fromLine(fields.get("r")))));
+        return entries;
+    }
+
+    @Override
+    public void ack(int partition, List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        StreamMessageId[] ids = new StreamMessageId[entries.size()];
+        String[] transactionIds = new String[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            String[] parts = entries.get(i).getId().split("-");
+            ids[i] = new StreamMessageId(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            transactionIds[i] = entries.get(i).getRequest().getTransactionId();
+        }
+        RStream<String, String> stream = stream(partition);
+        stream.ack(GROUP, ids);
+        stream.remove(ids);
+        pendingMap().fastRemove(transactionIds);
+    }
+
+    @Override
+    public void deadLetter(int partition, Entry entry) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("partition", String.valueOf(partition));
+        fields.put("id", entry.getId());
+        fields.put("r", entry.getRequest().toLine());
+        redissonClient.<String, String>getStream(properties.getStreamKeyPrefix() + ":DEAD", StringCodec.INSTANCE)
+            .add(StreamAddArgs.entries(fields));
+    }
+
+    @Override
+    public Optional<DebitRequest> findPending(String transactionId) {
+        return Optional.ofNullable(pendingMap().get(transactionId)).map(DebitRequest::fromLine);
+    }
+
+    private RStream<String, String> stream(int partition) {
+        return redissonClient.getStream(properties.getStreamKeyPrefix() + ":" + partition, StringCodec.INSTANCE);
+    }
+
+    private RMap<String, String> pendingMap() {
+        return redissonClient.getMap(properties.getStreamKeyPrefix() + ":PENDING", StringCodec.INSTANCE);
+    }
+
+    private RLock partitionLock(int partition) {
+        return redissonClient.getLock(properties.getStreamKeyPrefix() + ":OWNER:" + partition);
+    }
+
+    private String consumerName(int partition) {
+        return "p" + partition;
+    }
+}
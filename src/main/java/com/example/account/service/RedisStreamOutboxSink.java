@@ -0,0 +1,40 @@
+package com.example.account.service;
+
+import com.example.account.config.OutboxProperties;
+import com.example.account.domain.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RBatch;
+import org.redisson.api.RStreamAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.stream.StreamAddArgs;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * outbox 이벤트를 redis stream 에 XADD
+ * - 한 배치는 RBatch 하나로 파이프라이닝 (보낸 순서대로 추가됨)
+ * - stream 길이는 stream-max-length 근처로 잘라낸다
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.outbox.sink", havingValue = "redis", matchIfMissing = true)
+public class RedisStreamOutboxSink implements OutboxSink {
+    private final OutboxProperties properties;
+    @Lazy
+    private final RedissonClient redissonClient;
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        RBatch batch = redissonClient.createBatch();
+        RStreamAsync<String, String> stream = batch.getStream(properties.getStreamKey(), StringCodec.INSTANCE);
+        for (OutboxEvent event : events) {
+            stream.addAsync(StreamAddArgs.entries(event.toFields())
+                .trimNonStrict().maxLen(properties.getStreamMaxLength()).noLimit());
+        }
+        batch.execute();
+    }
+}
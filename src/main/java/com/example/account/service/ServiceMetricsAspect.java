@@ -0,0 +1,67 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import com.example.account.trace.RequestTrace;
+import com.example.account.trace.TracePhase;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AccountService / TransactionService 메서드별 처리 시간과 결과(에러코드) 기록
+ * - 트랜잭션 바깥에서 측정되도록 트랜잭션 advisor 보다 먼저 실행 (커밋 시간 포함)
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ServiceMetricsAspect {
+    private final MeterRegistry meterRegistry;
+
+    // 메서드/결과 태그별 Timer (호출마다 Timer.builder 로 registry 에서 찾지 않도록)
+    private final Map<Method, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    @Around("execution(public * com.example.account.service.AccountService.*(..))"
+        + " || execution(public * com.example.account.service.TransactionService.*(..))")
+    public Object aroundMethod(ProceedingJoinPoint pjp) throws Throwable {
+        long start = System.nanoTime();
+        String result = "SUCCESS";
+        try {
+            return pjp.proceed();
+        } catch (AccountException e) {
+            result = String.valueOf(e.getErrorCode());
+            throw e;
+        } catch (Throwable e) {
+            result = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            long end = System.nanoTime();
+            RequestTrace.recordPhase(TracePhase.SERVICE, end - start);
+            RequestTrace.recordSpan("service." + pjp.getSignature().getName(), start, end, result);
+
+            timer((MethodSignature) pjp.getSignature(), result)
+                .record(end - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(MethodSignature signature, String result) {
+        return timers.computeIfAbsent(signature.getMethod(), method -> new ConcurrentHashMap<>())
+            .computeIfAbsent(result, tag -> Timer.builder("account.service")
+                .tag("class", signature.getDeclaringType().getSimpleName())
+                .tag("method", signature.getName())
+                .tag("result", tag)
+                .register(meterRegistry));
+    }
+}
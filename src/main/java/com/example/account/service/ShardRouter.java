@@ -0,0 +1,161 @@
+package com.example.account.service;
+
+import com.example.account.config.ShardContextHolder;
+import com.example.account.config.ShardingProperties;
+import com.example.account.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.IntegerCodec;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 계좌번호 기준 샤드 라우팅
+ * - 계좌번호 % 샤드 수 = 샤드 번호 (계좌번호 발급 시 샤드 번호가 들어가도록 생성)
+ * - 사용자의 계좌는 userId % 샤드 수 샤드에 모여 있어 계좌 수/목록 조회는 단일 샤드에서 처리
+ * - 거래 ID -> 샤드 번호는 redis 의 전역 디렉토리로 관리
+ *   (거래 ID 마다 transaction-directory-ttl 동안 보관, 없으면 모든 샤드에서 찾아 다시 올린다)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShardRouter {
+    private static final String TRANSACTION_DIRECTORY_PREFIX = "TXSHARD:";
+
+    private final ShardingProperties shardingProperties;
+    @Lazy
+    private final RedissonClient redissonClient;
+    @Lazy
+    private final TransactionRepository transactionRepository;
+    @Lazy
+    private final LookupFilterService lookupFilterService;
+
+    public boolean isSharded() {
+        return getShardCount() > 1;
+    }
+
+    public int getShardCount() {
+        return shardingProperties.getShardCount();
+    }
+
+    public int currentShard() {
+        Integer shard = ShardContextHolder.get();
+        return shard == null ? 0 : shard;
+    }
+
+    public int shardOfAccountNumber(String accountNumber) {
+        if (!isSharded() || accountNumber == null) {
+            return 0;
+        }
+        try {
+            return (int) Math.floorMod(Long.parseLong(accountNumber), (long) getShardCount());
+        } catch (NumberFormatException e) {
+            return Math.floorMod(accountNumber.hashCode(), getShardCount());
+        }
+    }
+
+    public int shardOfUserId(Long userId) {
+        if (!isSharded() || userId == null) {
+            return 0;
+        }
+        return (int) Math.floorMod(userId, (long) getShardCount());
+    }
+
+    /**
+     * 디렉토리에 없으면 (올리기 실패, 보관 기간 만료) 모든 샤드에서 찾아 디렉토리를 고친다
+     * - 어느 샤드에도 없는 거래 ID 는 기본 샤드로 보낸다 (조회 시 TRANSACTION_NOT_FOUND)
+     */
+    public int shardOfTransactionId(String transactionId) {
+        if (!isSharded() || transactionId == null) {
+            return 0;
+        }
+        Integer shard = transactionDirectory(transactionId).get();
+        if (shard == null) {
+            shard = findTransactionShard(transactionId);
+        }
+        return shard == null ? 0 : shard;
+    }
+
+    /**
+     * 거래가 커밋된 뒤에 디렉토리에 올린다 (롤백된 거래 ID 가 다른 샤드 조회를 막지 않도록)
+     * - 커밋 후에는 샤드 문맥이 없을 수 있어 샤드 번호는 지금 정한다
+     * - 이미 커밋된 거래라 실패해도 예외를 던지지 않는다 (조회 시 샤드를 찾아 다시 올린다)
+     */
+    public void registerTransaction(String transactionId) {
+        if (!isSharded()) {
+            return;
+        }
+        int shard = currentShard();
+        afterCommit(() -> putDirectory(transactionId, shard));
+    }
+
+    /**
+     * 현재 샤드가 아닌 다른 샤드에 기록된 거래인지 확인
+     */
+    public boolean isTransactionOnOtherShard(String transactionId) {
+        if (!isSharded()) {
+            return false;
+        }
+        Integer shard = transactionDirectory(transactionId).get();
+        return shard != null && shard != currentShard();
+    }
+
+    /**
+     * 트랜잭션 안에서는 커넥션이 이미 한 샤드에 묶여 있으므로 찾지 않는다 (@ShardKey 라우팅은 트랜잭션 바깥)
+     * - 없다고 알려진 거래 ID 는 찾지 않고, 모든 샤드에 없으면 negative cache 에 남긴다
+     */
+    private Integer findTransactionShard(String transactionId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+            || lookupFilterService.isMissingTransaction(transactionId)) {
+            return null;
+        }
+        Integer previous = ShardContextHolder.get();
+        try {
+            for (int shard = 0; shard < getShardCount(); shard++) {
+                ShardContextHolder.set(shard);
+                if (transactionRepository.existsByTransactionId(transactionId)) {
+                    log.info("Repairing transaction directory for {} on shard {}", transactionId, shard);
+                    putDirectory(transactionId, shard);
+                    return shard;
+                }
+            }
+            lookupFilterService.recordMissingTransaction(transactionId);
+            return null;
+        } finally {
+            ShardContextHolder.set(previous);
+        }
+    }
+
+    private void putDirectory(String transactionId, int shard) {
+        try {
+            transactionDirectory(transactionId).set(shard,
+                shardingProperties.getTransactionDirectoryTtl().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            log.warn("Failed to register transaction {} in shard directory", transactionId);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // 전역 codec 설정과 무관하게 작은 정수로 저장
+    private RBucket<Integer> transactionDirectory(String transactionId) {
+        return redissonClient.getBucket(TRANSACTION_DIRECTORY_PREFIX + transactionId, IntegerCodec.INSTANCE);
+    }
+}
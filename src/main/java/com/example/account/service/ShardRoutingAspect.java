@@ -0,0 +1,70 @@
+package com.example.account.service;
+
+import com.example.account.aop.ShardKey;
+import com.example.account.config.ShardContextHolder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * @ShardKey 파라미터 값으로 샤드를 정한 뒤 서비스 메서드를 실행
+ * - 트랜잭션보다 바깥에서 실행되도록 가장 높은 우선순위로 둔다.
+ */
+@Aspect
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShardRoutingAspect {
+    private final ShardRouter shardRouter;
+
+    @Around("execution(* com.example.account.service..*(.., @com.example.account.aop.ShardKey (*), ..))")
+    public Object aroundMethod(ProceedingJoinPoint pjp) throws Throwable {
+        if (!shardRouter.isSharded()) {
+            return pjp.proceed();
+        }
+
+        Integer previous = ShardContextHolder.get();
+        ShardContextHolder.set(resolveShard(pjp));
+        try {
+            return pjp.proceed();
+        } finally {
+            ShardContextHolder.set(previous);
+        }
+    }
+
+    private Integer resolveShard(ProceedingJoinPoint pjp) {
+        MethodSignature signature = (MethodSignature) pjp.getSignature();
+        Annotation[][] parameterAnnotations = signature.getMethod().getParameterAnnotations();
+        Object[] args = pjp.getArgs();
+
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    return resolveShard((ShardKey) annotation, args[i]);
+                }
+            }
+        }
+        return null;
+    }
+
+    private int resolveShard(ShardKey shardKey, Object value) {
+        switch (shardKey.value()) {
+            case USER_ID:
+                return shardRouter.shardOfUserId((Long) value);
+            case TRANSACTION_ID:
+                return shardRouter.shardOfTransactionId((String) value);
+            case ACCOUNT_NUMBER:
+            default:
+                return shardRouter.shardOfAccountNumber((String) value);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.account.service;
+
+/**
+ * 고정 크기 ring 버킷으로 만든 sliding window 합계
+ * - 버킷 하나 = window / 버킷 수, 지나간 버킷은 다음 접근 때 합계에서 빼고 비운다
+ * - 확인/추가는 버킷 수와 무관한 O(1) (오래 쉬었다 접근하면 최대 버킷 수 만큼 정리)
+ */
+public class SlidingWindowCounter {
+    private final long[] buckets;
+    private final long bucketMillis;
+    private long headBucket;
+    private long total;
+
+    public SlidingWindowCounter(int bucketCount, long windowMillis) {
+        this.buckets = new long[bucketCount];
+        this.bucketMillis = Math.max(1, windowMillis / bucketCount);
+    }
+
+    /**
+     * 한도를 넘지 않을 때만 더한다
+     */
+    public synchronized boolean tryAdd(long amount, long limit, long nowMillis) {
+        advance(nowMillis);
+        if (total + amount > limit) {
+            return false;
+        }
+        buckets[index(headBucket)] += amount;
+        total += amount;
+        return true;
+    }
+
+    /**
+     * atMillis 시점의 버킷에 더한다 (음수면 되돌리기, window 밖이면 무시)
+     */
+    public synchronized void add(long amount, long atMillis, long nowMillis) {
+        advance(nowMillis);
+        long bucket = Math.min(atMillis / bucketMillis, headBucket);
+        if (bucket <= headBucket - buckets.length) {
+            return;
+        }
+        buckets[index(bucket)] += amount;
+        total += amount;
+    }
+
+    public synchronized long total(long nowMillis) {
+        advance(nowMillis);
+        return total;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    private void advance(long nowMillis) {
+        long bucket = nowMillis / bucketMillis;
+        if (bucket <= headBucket) {
+            return;
+        }
+        long steps = Math.min(bucket - headBucket, buckets.length);
+        for (long i = 1; i <= steps; i++) {
+            int index = index(headBucket + i);
+            total -= buckets[index];
+            buckets[index] = 0;
+        }
+        headBucket = bucket;
+    }
+
+    private int index(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets.length);
+    }
+}
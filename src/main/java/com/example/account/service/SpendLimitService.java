@@ -0,0 +1,361 @@
+package com.example.account.service;
+
+import com.example.account.config.ShardContextHolder;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.DailyAggregateRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 계좌/사용자별 24시간 사용 한도
+ * - 메모리의 SlidingWindowCounter 로 O(1) 확인, 사용이 롤백되거나 취소되면 되돌린다
+ * - redis-sync 이면 사용/되돌림을 redis topic 으로 다른 노드에 전파 (노드 간 동시 사용은 잠깐 한도를 넘을 수 있음)
+ * - 기동 시 어제 일자별 집계와 오늘 cutoff 전까지의 거래로 카운터를 다시 채운다 (해당 기간 버킷에 고르게 나눠 넣는다)
+ *   cutoff 이후의 사용은 consume/sync 가 세므로, 복구가 끝날 때까지 consume 은 거절한다 (fail closed)
+ */
+@Slf4j
+@Service
+@Lazy(false)
+@RequiredArgsConstructor
+public class SpendLimitService {
+    private static final String SYNC_TOPIC = "SPENDLIMIT";
+    private static final long WINDOW_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+
+    private final DailyAggregateRepository dailyAggregateRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final AccountIndexService accountIndexService;
+    private final ShardRouter shardRouter;
+    @Lazy
+    private final RedissonClient redissonClient;
+
+    @Value("${account.spend-limit.enabled:false}")
+    private boolean enabled;
+
+    // 0 이면 해당 한도 없음
+    @Value("${account.spend-limit.account-daily-limit:0}")
+    private long accountDailyLimit;
+
+    @Value("${account.spend-limit.user-daily-limit:0}")
+    private long userDailyLimit;
+
+    @Value("${account.spend-limit.bucket-count:24}")
+    private int bucketCount;
+
+    @Value("${account.spend-limit.redis-sync:false}")
+    private boolean redisSync;
+
+    @Value("${account.spend-limit.rebuild-retry-ms:10000}")
+    private long rebuildRetryMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, SlidingWindowCounter> accountCounters = new ConcurrentHashMap<>();
+    private final Map<Long, SlidingWindowCounter> userCounters = new ConcurrentHashMap<>();
+    private volatile boolean rebuilt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (redisSync) {
+            syncTopic().addListener(String.class, (channel, message) -> applySync(message));
+        }
+        // 이 시각 이후의 사용은 consume/sync 로 세므로 복구는 그 전까지만 읽는다
+        LocalDateTime cutoff = LocalDateTime.now();
+        Thread rebuild = new Thread(() -> rebuildUntilDone(cutoff), "spend-limit-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    /**
+     * 사용 전에 호출, 한도를 넘으면 DAILY_LIMIT_EXCEEDED
+     * - 이후 거래가 롤백되면 더한 금액을 되돌린다
+     * - 카운터 복구가 끝나기 전에는 한도를 확인할 수 없으므로 TOO_MANY_REQUESTS
+     */
+    public void consume(Long userId, String accountNumber, long amount) {
+        if (!enabled) {
+            return;
+        }
+        if (!rebuilt) {
+            throw AccountException.of(ErrorCode.TOO_MANY_REQUESTS);
+        }
+        long now = System.currentTimeMillis();
+        boolean userAdded = false;
+        if (userDailyLimit > 0 && userId != null) {
+            if (!userCounter(userId).tryAdd(amount, userDailyLimit, now)) {
+                throw AccountException.of(ErrorCode.DAILY_LIMIT_EXCEEDED);
+            }
+            userAdded = true;
+        }
+        if (accountDailyLimit > 0 && !accountCounter(accountNumber).tryAdd(amount, accountDailyLimit, now)) {
+            if (userAdded) {
+                userCounter(userId).add(-amount, now, now);
+            }
+            throw AccountException.of(ErrorCode.DAILY_LIMIT_EXCEEDED);
+        }
+
+        Long counted = userAdded ? userId : null;
+        onCompletion(committed -> {
+            if (committed) {
+                publish(counted, accountNumber, amount, now);
+            } else {
+                apply(counted, accountNumber, -amount, now);
+            }
+        });
+    }
+
+    /**
+     * 트랜잭션 밖에서 consume 한 금액을 거래가 거절됐을 때 되돌린다 (hot 계좌 경로)
+     */
+    public void refund(Long userId, String accountNumber, long amount) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long counted = userDailyLimit > 0 ? userId : null;
+        apply(counted, accountNumber, -amount, now);
+        publish(counted, accountNumber, -amount, now);
+    }
+
+    /**
+     * 취소된 사용 금액을 원래 사용 시점 버킷에서 뺀다 (커밋 후)
+     */
+    public void release(String accountNumber, long amount, LocalDateTime spentAt) {
+        if (!enabled) {
+            return;
+        }
+        long spentAtMillis = toMillis(spentAt);
+        // 커밋 후에는 샤드 문맥이 없으므로 소유자는 지금 찾는다
+        Long userId = userDailyLimit > 0 ? ownerOf(accountNumber) : null;
+        onCompletion(committed -> {
+            if (committed) {
+                apply(userId, accountNumber, -amount, spentAtMillis);
+                publish(userId, accountNumber, -amount, spentAtMillis);
+            }
+        });
+    }
+
+    /**
+     * 실패하면 읽은 내용을 버리고 다시 시도 (그동안 consume 은 계속 거절)
+     */
+    private void rebuildUntilDone(LocalDateTime cutoff) {
+        while (true) {
+            try {
+                rebuild(cutoff);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to rebuild spend limit counters, retrying in {} ms", rebuildRetryMs, e);
+            }
+            try {
+                Thread.sleep(rebuildRetryMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * cutoff 전까지의 사용 - 취소로 카운터를 채운다
+     * - 지난 날짜는 일자별 집계로 (cutoff 이후 거래가 들어 있지 않다)
+     * - cutoff 날짜의 집계 행에는 이후 사용도 flush 로 더해지므로 거래 테이블에서 cutoff 전까지만 다시 센다
+     * - 다 읽은 뒤에 한 번에 카운터에 넣는다
+     */
+    public void rebuild(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        LocalDate today = cutoff.toLocalDate();
+        List<DailyAggregateDelta> spends = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ShardContextHolder.set(shard);
+            try {
+                long afterId = 0;
+                while (true) {
+                    List<Object[]> rows = dailyAggregateRepository.findSpendBetween(
+                        today.minusDays(1), today, afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+                    for (Object[] row : rows) {
+                        afterId = (Long) row[0];
+                        DailyAggregateDelta spend = new DailyAggregateDelta((String) row[1], (LocalDate) row[3]);
+                        spend.setUserId((Long) row[2]);
+                        spend.add(TransactionType.USE, TransactionResultType.S, (Long) row[4], 0);
+                        spend.add(TransactionType.CANCEL, TransactionResultType.S, (Long) row[5], 0);
+                        spends.add(spend);
+                    }
+                    if (rows.size() < REBUILD_PAGE_SIZE) {
+                        break;
+                    }
+                }
+                spends.addAll(sumBefore(today, cutoff));
+            } finally {
+                ShardContextHolder.clear();
+            }
+        }
+
+        for (DailyAggregateDelta spend : spends) {
+            spread(spend.getAccountNumber(), spend.getUserId(), spend.getAggregateDate(),
+                spend.getUseAmount() - spend.getCancelAmount());
+        }
+        rebuilt = true;
+        log.info("Spend limit counters rebuilt in {} ms : accounts={}, users={}",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+            accountCounters.size(), userCounters.size());
+    }
+
+    private List<DailyAggregateDelta> sumBefore(LocalDate date, LocalDateTime cutoff) {
+        Map<String, DailyAggregateDelta> spends = new LinkedHashMap<>();
+        for (Object[] row : transactionRepository.sumByAccountBetween(date.atStartOfDay(), cutoff)) {
+            String accountNumber = (String) row[0];
+            DailyAggregateDelta spend = spends.computeIfAbsent(accountNumber,
+                key -> new DailyAggregateDelta(accountNumber, date));
+            spend.setUserId((Long) row[1]);
+            spend.add((TransactionType) row[2], (TransactionResultType) row[3], (Long) row[4], (Long) row[5]);
+        }
+        return new ArrayList<>(spends.values());
+    }
+
+    /**
+     * 하루치 합계를 그 날 중 이미 지난 버킷들에 고르게 나눠 넣는다
+     */
+    private void spread(String accountNumber, Long userId, LocalDate date, long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long dayStart = toMillis(date.atStartOfDay());
+        long dayEnd = Math.min(toMillis(date.plusDays(1).atStartOfDay()), now + 1);
+        long bucketMillis = Math.max(1, WINDOW_MILLIS / bucketCount);
+        long slots = Math.max(1, (dayEnd - dayStart + bucketMillis - 1) / bucketMillis);
+        long share = amount / slots;
+        long remainder = amount % slots;
+        for (long slot = 0; slot < slots; slot++) {
+            long at = Math.min(dayStart + slot * bucketMillis, now);
+            long part = share + (slot == slots - 1 ? remainder : 0);
+            if (part != 0) {
+                apply(userId, accountNumber, part, at);
+            }
+        }
+    }
+
+    /**
+     * 쓰이지 않는 카운터 정리 (window 가 지나 합계가 0 이 된 키)
+     */
+    @Scheduled(fixedDelayString = "${account.spend-limit.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        accountCounters.values().removeIf(counter -> counter.total(now) <= 0);
+        userCounters.values().removeIf(counter -> counter.total(now) <= 0);
+    }
+
+    private void apply(Long userId, String accountNumber, long amount, long atMillis) {
+        long now = System.currentTimeMillis();
+        if (userDailyLimit > 0 && userId != null) {
+            userCounter(userId).add(amount, atMillis, now);
+        }
+        if (accountDailyLimit > 0 && accountNumber != null) {
+            accountCounter(accountNumber).add(amount, atMillis, now);
+        }
+    }
+
+    private SlidingWindowCounter accountCounter(String accountNumber) {
+        return accountCounters.computeIfAbsent(accountNumber,
+            key -> new SlidingWindowCounter(bucketCount, WINDOW_MILLIS));
+    }
+
+    private SlidingWindowCounter userCounter(Long userId) {
+        return userCounters.computeIfAbsent(userId,
+            key -> new SlidingWindowCounter(bucketCount, WINDOW_MILLIS));
+    }
+
+    /**
+     * 인덱스는 이 노드가 아는 계좌만 있으므로 (다른 노드에서 만든 계좌 등) 없으면 DB 에서 찾는다
+     */
+    private Long ownerOf(String accountNumber) {
+        long packed = accountIndexService.lookup(accountNumber);
+        if (packed != AccountIndex.ABSENT) {
+            return AccountIndex.ownerOf(packed);
+        }
+        return accountRepository.findOwnerIdByAccountNumber(accountNumber).orElse(null);
+    }
+
+    private void onCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    /**
+     * 메시지 형식 : 노드 ID, 사용자 ID(없으면 빈 값), 계좌번호, 금액, 시각(ms) 을 탭으로 구분
+     */
+    private void publish(Long userId, String accountNumber, long amount, long atMillis) {
+        if (!redisSync) {
+            return;
+        }
+        try {
+            syncTopic().publishAsync(nodeId + "\t" + (userId == null ? "" : userId) + "\t"
+                + accountNumber + "\t" + amount + "\t" + atMillis);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish spend limit update");
+        }
+    }
+
+    private void applySync(String message) {
+        String[] fields = message.split("\t", -1);
+        if (fields.length != 5 || nodeId.equals(fields[0])) {
+            return;
+        }
+        try {
+            apply(fields[1].isEmpty() ? null : Long.valueOf(fields[1]), fields[2],
+                Long.parseLong(fields[3]), Long.parseLong(fields[4]));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed spend limit update : {}", message);
+        }
+    }
+
+    private RTopic syncTopic() {
+        return redissonClient.getTopic(SYNC_TOPIC, StringCodec.INSTANCE);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.account.service;
+
+/**
+ * 초당 refill 되는 토큰 버킷
+ * - capacity 만큼의 순간 트래픽(burst)을 허용
+ */
+public class TokenBucket {
+    private final long capacity;
+    private final double refillTokensPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long capacity, long refillTokensPerSecond) {
+        this(capacity, refillTokensPerSecond, System.nanoTime());
+    }
+
+    public TokenBucket(long capacity, long refillTokensPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.refillTokensPerNano = refillTokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    public synchronized boolean tryAcquire(long nowNanos) {
+        refill(nowNanos);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * 가득 찬 버킷은 새로 만든 버킷과 같으므로 지워도 제한이 느슨해지지 않는다
+     */
+    public synchronized boolean isFull(long nowNanos) {
+        refill(nowNanos);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed <= 0) {
+            return;
+        }
+        tokens = Math.min(capacity, tokens + elapsed * refillTokensPerNano);
+        lastRefillNanos = now;
+    }
+}
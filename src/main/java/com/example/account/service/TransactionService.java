@@ -1,10 +1,13 @@
 package com.example.account.service;
 
+import com.example.account.aop.ShardKey;
 import com.example.account.domain.Account;
 import com.example.account.domain.AccountUser;
 import com.example.account.domain.Transaction;
 import com.example.account.dto.TransactionDto;
 import com.example.account.exception.AccountException;
+import com.example.account.exception.TransactionOutcomeUnknownException;
+import com.example.account.jfr.BalanceMutationEvent;
 import com.example.account.repository.AccountRepository;
 import com.example.account.repository.AccountUserRepository;
 import com.example.account.repository.TransactionRepository;
@@ -16,11 +19,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
+import static com.example.account.aop.ShardKeyType.TRANSACTION_ID;
 import static com.example.account.type.TransactionResultType.F;
 import static com.example.account.type.TransactionResultType.S;
 import static com.example.account.type.TransactionType.CANCEL;
@@ -33,98 +40,259 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final AccountUserRepository accountUserRepository;
     private final AccountRepository accountRepository;
+    private final ShardRouter shardRouter;
+    private final HotAccountEngine hotAccountEngine;
+    private final LookupFilterService lookupFilterService;
+    private final PreValidationService preValidationService;
+    private final DailyAggregateService dailyAggregateService;
+    private final SpendLimitService spendLimitService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
-    public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
+    /**
+     * 조건부 update 한 번으로 소유주, 상태, 잔액을 검증하고 차감한다.
+     * - 갱신된 row 가 없을 때만 기존 검증 로직으로 에러코드를 판별
+     * - hot 계좌는 redo log fsync 를 기다리므로 DB 트랜잭션 밖에서 처리한다 (커넥션을 잡지 않는다)
+     */
+    public TransactionDto useBalance(Long userId, @ShardKey String accountNumber, Long amount) {
+        return useBalance(userId, accountNumber, amount, null);
+    }
+
+    /**
+     * @param transactionId 비동기 접수 시 미리 정한 거래 ID (null 이면 새로 만든다)
+     */
+    public TransactionDto useBalance(Long userId, @ShardKey String accountNumber, Long amount, String transactionId) {
+        if (hotAccountEngine.owns(accountNumber)) {
+            return useHotBalance(userId, accountNumber, amount, transactionId);
+        }
+        return transactionTemplate.execute(
+            status -> useColdBalance(userId, accountNumber, amount, transactionId));
+    }
+
+    /**
+     * 트랜잭션이 없으므로 한도 차감은 바로 반영되고, 거절되면 직접 되돌린다
+     * - 결과 미확정은 기록이 DB 에 반영되므로 되돌리지 않는다
+     */
+    private TransactionDto useHotBalance(Long userId, String accountNumber, Long amount, String transactionId) {
+        spendLimitService.consume(userId, accountNumber, amount);
+        try {
+            return completed(hotAccountEngine.useBalance(userId, accountNumber, amount, transactionId));
+        } catch (TransactionOutcomeUnknownException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            spendLimitService.refund(userId, accountNumber, amount);
+            throw e;
+        }
+    }
+
+    /**
+     * 소유주/상태/잔액 검증과 차감을 조건부 UPDATE 한 문장으로 하고, 실패하면 검증 경로로 원인을 찾는다
+     * - 성공 경로는 UPDATE, 차감 후 [id, 잔액] SELECT, 거래 INSERT
+     *   (JPQL update 는 갱신한 값을 돌려주지 않으므로 스냅샷용 잔액을 한 번 더 읽는다)
+     * - 거래 FK 는 getById 참조로 걸고 스냅샷은 읽은 잔액을 따로 넘긴다
+     *   (계좌번호를 읽는 시점에 참조가 PK 로 로딩된다)
+     */
+    private TransactionDto useColdBalance(Long userId, String accountNumber, Long amount, String transactionId) {
+        spendLimitService.consume(userId, accountNumber, amount);
+        hotAccountEngine.checkColdPath(accountNumber);
+
+        int debited = accountRepository.useBalanceIfAvailable(
+            userId, accountNumber, amount, AccountStatus.IN_USE, LocalDateTime.now());
+        if (debited == 0) {
+            return useBalanceWithValidation(userId, accountNumber, amount, transactionId);
+        }
+
+        Object[] row = accountRepository.findIdAndBalance(accountNumber).get(0);
+        Account account = accountRepository.getById(((Number) row[0]).longValue());
+        long balance = ((Number) row[1]).longValue();
+        BalanceMutationEvent.emit(accountNumber, "USE", amount, balance, "SUCCESS");
+
+        return completed(TransactionDto.fromEntity(
+            saveAndGetTransaction(amount, USE, S, account, balance, transactionId)));
+    }
+
+    private TransactionDto useBalanceWithValidation(Long userId, String accountNumber, Long amount,
+                                                    String transactionId) {
         AccountUser user = accountUserRepository.findById(userId)
-            .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+            .orElseThrow(() -> {
+                lookupFilterService.recordMissingUser(userId);
+                return AccountException.of(ErrorCode.USER_NOT_FOUND);
+            });
 
         Account account = accountRepository.findByAccountNumber(accountNumber)
-            .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+            .orElseThrow(() -> {
+                lookupFilterService.recordMissingAccount(accountNumber);
+                return AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND);
+            });
 
         validateUseBalance(user, account, amount);
 
         account.useBalance(amount);
 
-        return TransactionDto.fromEntity(saveAndGetTransaction(amount, USE, S, account));
+        return completed(TransactionDto.fromEntity(saveAndGetTransaction(amount, USE, S, account, transactionId)));
     }
 
     private void validateUseBalance(AccountUser user, Account account, Long amount) {
         if(!Objects.equals(user.getId(), account.getAccountUser().getId())) {
-            throw new AccountException(ErrorCode.USER_ACCOUNT_UNMATCHED);
+            throw AccountException.of(ErrorCode.USER_ACCOUNT_UNMATCHED);
         }
 
         // https://stackoverflow.com/questions/1750435/comparing-java-enum-members-or-equals
         if (account.getAccountStatus() == AccountStatus.UNREGISTERED) {
-            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+            throw AccountException.of(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
         }
 
         if (account.getBalance() < amount) {
-            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+            throw AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE);
         }
     }
 
-    @Transactional
-    public void saveFailedUseTransaction(String accountNumber, Long amount) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-            .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+    public void saveFailedUseTransaction(@ShardKey String accountNumber, Long amount) {
+        saveFailedUseTransaction(accountNumber, amount, null);
+    }
+
+    public void saveFailedUseTransaction(@ShardKey String accountNumber, Long amount, String transactionId) {
+        if (hotAccountEngine.owns(accountNumber)) {
+            hotAccountEngine.saveFailedTransaction(accountNumber, USE, amount, transactionId);
+            dailyAggregateService.record(accountNumber, USE, F, amount, LocalDateTime.now());
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
 
-        saveAndGetTransaction(amount, USE, F, account);
+            saveAndGetTransaction(amount, USE, F, account, transactionId);
+            dailyAggregateService.record(accountNumber, USE, F, amount, LocalDateTime.now());
+        });
+    }
+
+    /**
+     * 비동기 사용 요청이 이미 반영(성공/실패 기록)됐는지, 재전달된 요청을 거를 때 사용
+     */
+    @Transactional(readOnly = true)
+    public boolean isRecorded(@ShardKey String accountNumber, String transactionId) {
+        return hotAccountEngine.findUnflushed(transactionId).isPresent()
+            || transactionRepository.findByTransactionId(transactionId).isPresent();
     }
 
     private Transaction saveAndGetTransaction(Long amount, TransactionType transactionType, TransactionResultType transactionResultType, Account account) {
-        return transactionRepository.save(
+        return saveAndGetTransaction(amount, transactionType, transactionResultType, account, null);
+    }
+
+    private Transaction saveAndGetTransaction(Long amount, TransactionType transactionType, TransactionResultType transactionResultType, Account account,
+                                              String requestedTransactionId) {
+        return saveAndGetTransaction(amount, transactionType, transactionResultType, account,
+            account.getBalance(), requestedTransactionId);
+    }
+
+    private Transaction saveAndGetTransaction(Long amount, TransactionType transactionType, TransactionResultType transactionResultType, Account account,
+                                              Long balanceSnapshot, String requestedTransactionId) {
+        String transactionId = requestedTransactionId != null
+            ? requestedTransactionId : UUID.randomUUID().toString().replace("-", "");
+        shardRouter.registerTransaction(transactionId);
+        lookupFilterService.addTransaction(transactionId);
+
+        Transaction transaction = transactionRepository.save(
             Transaction.builder()
                 .transactionType(transactionType)
                 .transactionResultType(transactionResultType)
                 .account(account)
                 .amount(amount)
-                .balanceSnapshot(account.getBalance())
-                .transactionId(UUID.randomUUID().toString().replace("-", ""))
+                .balanceSnapshot(balanceSnapshot)
+                .transactionId(transactionId)
                 .transactedAt(LocalDateTime.now())
                 .build());
+        // 같은 트랜잭션에 outbox 행을 남긴다
+        outboxService.append(transaction);
+        return transaction;
+    }
+
+    public TransactionDto cancelBalance(String transactionId, @ShardKey String accountNumber, Long amount) {
+        if (hotAccountEngine.owns(accountNumber)) {
+            return completed(hotAccountEngine.cancelBalance(transactionId, accountNumber, amount));
+        }
+        return transactionTemplate.execute(status -> cancelColdBalance(transactionId, accountNumber, amount));
     }
 
-    @Transactional
-    public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
+    private TransactionDto cancelColdBalance(String transactionId, String accountNumber, Long amount) {
+        hotAccountEngine.checkColdPath(accountNumber);
+
         Transaction transaction = transactionRepository.findByTransactionId(transactionId).orElseThrow(
-            () -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
+            () -> {
+                if (shardRouter.isTransactionOnOtherShard(transactionId)) {
+                    return AccountException.of(ErrorCode.TRANSACTION_ACCOUNT_UNMATCHED);
+                }
+                // 샤딩이면 이 샤드에 없다는 뜻일 뿐이라 남기지 않는다
+                if (!shardRouter.isSharded()) {
+                    lookupFilterService.recordMissingTransaction(transactionId);
+                }
+                return AccountException.of(ErrorCode.TRANSACTION_NOT_FOUND);
+            });
 
         Account account = accountRepository.findByAccountNumber(accountNumber)
-            .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+            .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
 
         validateCancelBalance(transaction, account, amount);
 
         account.cancelBalance(amount);
+        spendLimitService.release(accountNumber, amount, transaction.getTransactedAt());
+
+        return completed(TransactionDto.fromEntity(saveAndGetTransaction(amount, CANCEL, S, account)));
+    }
 
-        return TransactionDto.fromEntity(saveAndGetTransaction(amount, CANCEL, S, account));
+    /**
+     * 성공한 거래를 사전 검증 캐시와 일자별 집계에 남긴다 (커밋 후 반영)
+     */
+    private TransactionDto completed(TransactionDto transaction) {
+        preValidationService.onCompleted(transaction);
+        dailyAggregateService.record(transaction);
+        return transaction;
     }
 
     private void validateCancelBalance(Transaction transaction, Account account, Long amount) {
         if (!Objects.equals(transaction.getAccount().getId(), account.getId())) {
-            throw new AccountException(ErrorCode.TRANSACTION_ACCOUNT_UNMATCHED);
+            throw AccountException.of(ErrorCode.TRANSACTION_ACCOUNT_UNMATCHED);
         }
 
         if (!Objects.equals(transaction.getAmount(), amount)) {
-            throw new AccountException(ErrorCode.CANCEL_MUST_FULLY);
+            throw AccountException.of(ErrorCode.CANCEL_MUST_FULLY);
         }
 
         if (transaction.getTransactedAt().isBefore(LocalDateTime.now().minusYears(1))) {
-            throw new AccountException(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
+            throw AccountException.of(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
         }
     }
 
-    public void saveFailedCancelTransaction(String accountNumber, Long amount) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-            .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+    public void saveFailedCancelTransaction(@ShardKey String accountNumber, Long amount) {
+        if (hotAccountEngine.owns(accountNumber)) {
+            hotAccountEngine.saveFailedTransaction(accountNumber, CANCEL, amount);
+            dailyAggregateService.record(accountNumber, CANCEL, F, amount, LocalDateTime.now());
+            return;
+        }
 
-        saveAndGetTransaction(amount, CANCEL, F, account);
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND));
+
+            saveAndGetTransaction(amount, CANCEL, F, account);
+            dailyAggregateService.record(accountNumber, CANCEL, F, amount, LocalDateTime.now());
+        });
     }
 
-    public TransactionDto queryTransaction(String transactionId) {
+    public TransactionDto queryTransaction(@ShardKey(TRANSACTION_ID) String transactionId) {
+        Optional<TransactionDto> unflushed = hotAccountEngine.findUnflushed(transactionId);
+        if (unflushed.isPresent()) {
+            return unflushed.get();
+        }
+        if (lookupFilterService.isMissingTransaction(transactionId)) {
+            throw AccountException.of(ErrorCode.TRANSACTION_NOT_FOUND);
+        }
+
         return TransactionDto.fromEntity(transactionRepository.findByTransactionId(transactionId)
-            .orElseThrow(
-            () -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND)
-        ));
+            .orElseThrow(() -> {
+                lookupFilterService.recordMissingTransaction(transactionId);
+                return AccountException.of(ErrorCode.TRANSACTION_NOT_FOUND);
+            }));
     }
 }
@@ -0,0 +1,190 @@
+package com.example.account.trace;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 요청 단위 경량 트레이스
+ * - 요청 스레드의 ThreadLocal 에 보관하며, 트레이스가 없으면 모든 기록은 무시된다.
+ * - span 은 OpenTelemetry span 과 같은 필드(traceId, spanId, parentSpanId, 시작/종료 시각)로 내보낸다.
+ */
+public final class RequestTrace {
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final int MAX_SPANS = 64;
+
+    private final String traceId;
+    private final String rootSpanId;
+    private final String name;
+    private final long startEpochNanos;
+    private final long startNanos;
+    private final long[] phaseNanos = new long[TracePhase.values().length];
+    private final int[] phaseCounts = new int[TracePhase.values().length];
+    private final List<SpanRecord> spans = new ArrayList<>();
+    private Map<String, Integer> statementCounts;
+    private long endNanos;
+
+    private RequestTrace(String name) {
+        this.traceId = randomHex(16);
+        this.rootSpanId = randomHex(8);
+        this.name = name;
+        this.startEpochNanos = System.currentTimeMillis() * 1_000_000L;
+        this.startNanos = System.nanoTime();
+    }
+
+    public static RequestTrace start(String name) {
+        RequestTrace trace = new RequestTrace(name);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.endNanos = System.nanoTime();
+            CURRENT.remove();
+        }
+    }
+
+    public static void recordPhase(TracePhase phase, long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.phaseNanos[phase.ordinal()] += nanos;
+            trace.phaseCounts[phase.ordinal()]++;
+        }
+    }
+
+    public static void recordSpan(String name, long startNanos, long endNanos, String outcome) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null && trace.spans.size() < MAX_SPANS) {
+            trace.spans.add(new SpanRecord(randomHex(8), name, startNanos, endNanos, outcome));
+        }
+    }
+
+    /**
+     * 요청 안에서 같은 SQL fingerprint 가 실행된 횟수 (N+1 탐지용)
+     */
+    public int countStatement(String fingerprint) {
+        if (statementCounts == null) {
+            statementCounts = new HashMap<>();
+        }
+        return statementCounts.merge(fingerprint, 1, Integer::sum);
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public long elapsedNanos() {
+        return (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    public long getPhaseNanos(TracePhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public int getPhaseCount(TracePhase phase) {
+        return phaseCounts[phase.ordinal()];
+    }
+
+    /**
+     * Server-Timing 헤더 값
+     * - lock;dur=1.20, service;dur=8.10, db;dur=3.50;desc="4", commit;dur=1.00, total;dur=12.30
+     */
+    public String toServerTiming() {
+        StringBuilder sb = new StringBuilder(128);
+        for (TracePhase phase : TracePhase.values()) {
+            if (phaseCounts[phase.ordinal()] == 0) {
+                continue;
+            }
+            sb.append(phase.getMetricName()).append(";dur=").append(millis(phaseNanos[phase.ordinal()]));
+            if (phase == TracePhase.DB) {
+                sb.append(";desc=\"").append(phaseCounts[phase.ordinal()]).append('"');
+            }
+            sb.append(", ");
+        }
+        return sb.append("total;dur=").append(millis(elapsedNanos())).toString();
+    }
+
+    /**
+     * 로그용 한 줄 요약
+     */
+    public String toSummary() {
+        StringBuilder sb = new StringBuilder(128)
+            .append("trace=").append(traceId)
+            .append(" name=\"").append(name).append('"')
+            .append(" total=").append(millis(elapsedNanos())).append("ms");
+        for (TracePhase phase : TracePhase.values()) {
+            sb.append(' ').append(phase.getMetricName()).append('=')
+                .append(millis(phaseNanos[phase.ordinal()])).append("ms");
+        }
+        return sb.append(" statements=").append(phaseCounts[TracePhase.DB.ordinal()]).toString();
+    }
+
+    /**
+     * OTLP JSON 과 같은 필드 이름을 쓰는 span 목록 (한 줄에 span 하나)
+     */
+    public List<String> toSpanJsonLines() {
+        List<String> lines = new ArrayList<>(spans.size() + 1);
+        lines.add(spanJson(rootSpanId, "", name, startNanos, startNanos + elapsedNanos(), "OK"));
+        for (SpanRecord span : spans) {
+            lines.add(spanJson(span.spanId, rootSpanId, span.name, span.startNanos, span.endNanos, span.outcome));
+        }
+        return lines;
+    }
+
+    private String spanJson(String spanId, String parentSpanId, String spanName,
+                            long spanStartNanos, long spanEndNanos, String outcome) {
+        return "{\"traceId\":\"" + traceId + "\""
+            + ",\"spanId\":\"" + spanId + "\""
+            + ",\"parentSpanId\":\"" + parentSpanId + "\""
+            + ",\"name\":\"" + spanName.replace("\"", "'") + "\""
+            + ",\"startTimeUnixNano\":" + toEpochNanos(spanStartNanos)
+            + ",\"endTimeUnixNano\":" + toEpochNanos(spanEndNanos)
+            + ",\"attributes\":{\"outcome\":\"" + outcome + "\"}}";
+    }
+
+    private long toEpochNanos(long nanoTime) {
+        return startEpochNanos + (nanoTime - startNanos);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000d);
+    }
+
+    private static String randomHex(int bytes) {
+        StringBuilder sb = new StringBuilder(bytes * 2);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < bytes; i++) {
+            String hex = Integer.toHexString(random.nextInt(256));
+            if (hex.length() == 1) {
+                sb.append('0');
+            }
+            sb.append(hex);
+        }
+        return sb.toString();
+    }
+
+    private static final class SpanRecord {
+        private final String spanId;
+        private final String name;
+        private final long startNanos;
+        private final long endNanos;
+        private final String outcome;
+
+        private SpanRecord(String spanId, String name, long startNanos, long endNanos, String outcome) {
+            this.spanId = spanId;
+            this.name = name;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.outcome = outcome;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.account.trace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * hibernate 가 실행하는 SQL 을 fingerprint 로 묶어 요청별 횟수, N+1, 느린 쿼리를 찾는다.
+ * - 실행 시간은 SqlTimingDataSource 가 statement 별로 recordExecution() 으로 알려준다.
+ * - show_sql 대신 sample-rate 비율만큼만 account.sql 로거로 남긴다.
+ */
+@Slf4j
+public class SqlStatementInspector implements StatementInspector {
+    private static final Logger SQL_LOG = LoggerFactory.getLogger("account.sql");
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_CACHED_FINGERPRINTS = 4096;
+
+    private final SqlStatistics sqlStatistics;
+    private final double sampleRate;
+    private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+    public SqlStatementInspector(SqlStatistics sqlStatistics, double sampleRate) {
+        this.sqlStatistics = sqlStatistics;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String fingerprint = fingerprint(sql);
+
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null && trace.countStatement(fingerprint) == sqlStatistics.getNPlusOneThreshold()) {
+            sqlStatistics.recordNPlusOne(fingerprint);
+            log.warn("Possible N+1 query. trace={} count={} fingerprint=\"{}\"",
+                trace.getTraceId(), sqlStatistics.getNPlusOneThreshold(), fingerprint);
+        }
+        return sql;
+    }
+
+    /**
+     * 실행된 statement 의 SQL 과 실행 시간 기록
+     */
+    public void recordExecution(String sql, long nanos) {
+        String fingerprint = fingerprint(sql);
+        sqlStatistics.recordExecution(fingerprint, nanos);
+
+        if (sqlStatistics.isSlow(nanos)) {
+            log.warn("Slow query. durationMs={} trace={} fingerprint=\"{}\"",
+                TimeUnit.NANOSECONDS.toMillis(nanos), traceId(), fingerprint);
+        } else if (sampleRate > 0 && SQL_LOG.isInfoEnabled()
+            && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            SQL_LOG.info("durationMicros={} trace={} fingerprint=\"{}\"",
+                TimeUnit.NANOSECONDS.toMicros(nanos), traceId(), fingerprint);
+        }
+    }
+
+    String fingerprint(String sql) {
+        String cached = fingerprints.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?)");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim().toLowerCase();
+
+        if (fingerprints.size() < MAX_CACHED_FINGERPRINTS) {
+            fingerprints.put(sql, normalized);
+        }
+        return normalized;
+    }
+
+    private static String traceId() {
+        RequestTrace trace = RequestTrace.current();
+        return trace == null ? "-" : trace.getTraceId();
+    }
+}
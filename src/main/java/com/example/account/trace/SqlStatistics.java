@@ -0,0 +1,106 @@
+package com.example.account.trace;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * SQL fingerprint 별 실행 통계 (횟수, 누적/최대 시간, 느린 실행, N+1 의심 횟수)
+ */
+@Component
+public class SqlStatistics {
+    private static final String OTHER_FINGERPRINT = "<other>";
+
+    private final long slowThresholdNanos;
+    private final int nPlusOneThreshold;
+    private final int maxFingerprints;
+    private final Map<String, StatementStats> stats = new ConcurrentHashMap<>();
+
+    public SqlStatistics(
+        @Value("${account.sql-inspection.slow-threshold-ms:100}") long slowThresholdMs,
+        @Value("${account.sql-inspection.n-plus-one-threshold:5}") int nPlusOneThreshold,
+        @Value("${account.sql-inspection.max-fingerprints:1000}") int maxFingerprints
+    ) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.maxFingerprints = maxFingerprints;
+    }
+
+    public boolean isSlow(long nanos) {
+        return nanos >= slowThresholdNanos;
+    }
+
+    public int getNPlusOneThreshold() {
+        return nPlusOneThreshold;
+    }
+
+    public void recordExecution(String fingerprint, long nanos) {
+        StatementStats statementStats = statsOf(fingerprint);
+        statementStats.count.increment();
+        statementStats.totalNanos.add(nanos);
+        statementStats.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (isSlow(nanos)) {
+            statementStats.slowCount.increment();
+        }
+    }
+
+    public void recordNPlusOne(String fingerprint) {
+        statsOf(fingerprint).nPlusOneCount.increment();
+    }
+
+    /**
+     * 누적 실행 시간 순 상위 fingerprint
+     */
+    public List<Map<String, Object>> top(int limit) {
+        return stats.entrySet().stream()
+            .sorted(Comparator.comparingLong(
+                (Map.Entry<String, StatementStats> e) -> e.getValue().totalNanos.sum()).reversed())
+            .limit(limit)
+            .map(e -> e.getValue().toMap(e.getKey()))
+            .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private StatementStats statsOf(String fingerprint) {
+        StatementStats statementStats = stats.get(fingerprint);
+        if (statementStats != null) {
+            return statementStats;
+        }
+        String key = stats.size() >= maxFingerprints ? OTHER_FINGERPRINT : fingerprint;
+        return stats.computeIfAbsent(key, k -> new StatementStats());
+    }
+
+    private static class StatementStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder slowCount = new LongAdder();
+        private final LongAdder nPlusOneCount = new LongAdder();
+
+        private Map<String, Object> toMap(String fingerprint) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            long executions = count.sum();
+            long total = totalNanos.sum();
+            map.put("fingerprint", fingerprint);
+            map.put("count", executions);
+            map.put("totalMs", TimeUnit.NANOSECONDS.toMillis(total));
+            map.put("avgMicros", executions == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(total / executions));
+            map.put("maxMs", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+            map.put("slowCount", slowCount.sum());
+            map.put("nPlusOneCount", nPlusOneCount.sum());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.account.trace;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/sqlstats : fingerprint 별 SQL 실행 통계 (읽기 전용, account.sql-inspection.enabled 일 때만 등록)
+ * 초기화는 인증 없는 HTTP 로 열지 않고 JMX 의 {@link SqlStatisticsResetEndpoint} 로만 한다
+ */
+@Component
+@ConditionalOnProperty(prefix = "account.sql-inspection", name = "enabled", havingValue = "true")
+@WebEndpoint(id = "sqlstats")
+@RequiredArgsConstructor
+public class SqlStatisticsEndpoint {
+    private final SqlStatistics sqlStatistics;
+
+    @ReadOperation
+    public List<Map<String, Object>> top(@Nullable Integer limit) {
+        return sqlStatistics.top(limit == null ? 20 : limit);
+    }
+}
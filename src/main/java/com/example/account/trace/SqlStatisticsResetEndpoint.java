@@ -0,0 +1,23 @@
+package com.example.account.trace;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * JMX 전용 SQL 실행 통계 초기화 (account.sql-inspection.enabled, spring.jmx.enabled 일 때만 노출)
+ */
+@Component
+@ConditionalOnProperty(prefix = "account.sql-inspection", name = "enabled", havingValue = "true")
+@JmxEndpoint(id = "sqlstatsreset")
+@RequiredArgsConstructor
+public class SqlStatisticsResetEndpoint {
+    private final SqlStatistics sqlStatistics;
+
+    @DeleteOperation
+    public void reset() {
+        sqlStatistics.reset();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.account.trace;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 커넥션과 statement 를 감싸 statement 마다 자기 SQL 로 실행 시간을 기록한다
+ * - SQL 을 statement 객체가 들고 있으므로 batch 나 중첩 실행에서도 SQL 과 실행 시간이 어긋나지 않는다
+ * - DelegatingDataSource 라 hikari 메트릭 등은 unwrap 으로 원래 데이터소스를 찾는다
+ */
+public class SqlTimingDataSource extends DelegatingDataSource {
+    private final SqlStatementInspector inspector;
+
+    public SqlTimingDataSource(DataSource targetDataSource, SqlStatementInspector inspector) {
+        super(targetDataSource);
+        this.inspector = inspector;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{Connection.class}, new TimedConnection(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 프록시끼리 비교할 때 대상 객체로 넘기지 않는다 (hibernate 가 statement 를 맵 키로 쓴다)
+     */
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return args != null && args.length == 1 ? proxy == args[0] : null;
+            case "hashCode":
+                return args == null ? System.identityHashCode(proxy) : null;
+            default:
+                return null;
+        }
+    }
+
+    private final class TimedConnection implements InvocationHandler {
+        private final Connection target;
+
+        private TimedConnection(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            Object result = SqlTimingDataSource.invoke(target, method, args);
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return timed(proxy, (Statement) result, PreparedStatement.class, (String) args[0]);
+                case "prepareCall":
+                    return timed(proxy, (Statement) result, CallableStatement.class, (String) args[0]);
+                case "createStatement":
+                    return timed(proxy, (Statement) result, Statement.class, null);
+                default:
+                    return result;
+            }
+        }
+
+        private Object timed(Object connection, Statement statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(SqlTimingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, new TimedStatement(connection, statement, sql));
+        }
+    }
+
+    private final class TimedStatement implements InvocationHandler {
+        private final Object connection;
+        private final Statement target;
+        // prepared statement 는 생성 시 SQL, 일반 statement 는 마지막 addBatch SQL
+        private String sql;
+
+        private TimedStatement(Object connection, Statement target, String sql) {
+            this.connection = connection;
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            String name = method.getName();
+            if ("getConnection".equals(name)) {
+                return connection;
+            }
+            if (!name.startsWith("execute")) {
+                if ("addBatch".equals(name) && args != null && args[0] instanceof String) {
+                    sql = (String) args[0];
+                }
+                return SqlTimingDataSource.invoke(target, method, args);
+            }
+
+            String executed = args != null && args[0] instanceof String ? (String) args[0] : sql;
+            long start = System.nanoTime();
+            try {
+                return SqlTimingDataSource.invoke(target, method, args);
+            } finally {
+                if (executed != null) {
+                    inspector.recordExecution(executed, System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.account.trace;
+
+/**
+ * 요청 처리 시간을 나누어 보는 구간 (Server-Timing 이름과 동일)
+ */
+public enum TracePhase {
+    LOCK("lock"),
+    SERVICE("service"),
+    DB("db"),
+    COMMIT("commit");
+
+    private final String metricName;
+
+    TracePhase(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
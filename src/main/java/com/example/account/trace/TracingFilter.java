@@ -0,0 +1,61 @@
+package com.example.account.trace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청마다 RequestTrace 를 열고 닫는다.
+ * - 느린 요청(slow-threshold-ms 이상)은 요약과 span 을 로그로 내보낸다.
+ * - span 로그는 account.trace.spans 로거로 분리되어 있어 파일로 따로 받을 수 있다.
+ */
+@Slf4j
+@Component
+public class TracingFilter extends OncePerRequestFilter {
+    private static final Logger SPAN_LOG = LoggerFactory.getLogger("account.trace.spans");
+
+    @Value("${account.tracing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${account.tracing.slow-threshold-ms:500}")
+    private long slowThresholdMs;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestTrace trace = RequestTrace.start(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTrace.end();
+            export(trace);
+        }
+    }
+
+    private void export(RequestTrace trace) {
+        if (trace.elapsedNanos() < TimeUnit.MILLISECONDS.toNanos(slowThresholdMs)) {
+            log.debug("{}", trace.toSummary());
+            return;
+        }
+
+        log.info("Slow request. {}", trace.toSummary());
+        if (SPAN_LOG.isInfoEnabled()) {
+            trace.toSpanJsonLines().forEach(SPAN_LOG::info);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.account.trace;
+
+import com.example.account.jfr.TransactionCommitEvent;
+import org.hibernate.BaseSessionEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * hibernate 세션 이벤트로 statement 실행 시간과 커밋 시간을 RequestTrace 에 기록
+ * - 커밋은 JFR TransactionCommitEvent 로도 남긴다.
+ * - hibernate.session.events.auto 로 등록되며 세션마다 새로 생성된다.
+ */
+public class TracingSessionEventListener extends BaseSessionEventListener {
+    private long statementStart;
+    private long batchStart;
+    private boolean commitTimingRegistered;
+    private int statements;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+        registerCommitTiming();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statements++;
+        long end = System.nanoTime();
+        RequestTrace.recordPhase(TracePhase.DB, end - statementStart);
+        RequestTrace.recordSpan("db.statement", statementStart, end, "OK");
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+        registerCommitTiming();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        statements++;
+        long end = System.nanoTime();
+        RequestTrace.recordPhase(TracePhase.DB, end - batchStart);
+        RequestTrace.recordSpan("db.batch", batchStart, end, "OK");
+    }
+
+    private void registerCommitTiming() {
+        if (commitTimingRegistered
+            || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionCommitEvent event = new TransactionCommitEvent();
+        if (RequestTrace.current() == null && !event.isEnabled()) {
+            return;
+        }
+        commitTimingRegistered = true;
+        TransactionSynchronizationManager.registerSynchronization(new CommitTiming(event));
+    }
+
+    /**
+     * beforeCommit ~ afterCompletion 구간 (flush + commit)
+     */
+    private class CommitTiming implements TransactionSynchronization {
+        private final TransactionCommitEvent event;
+        private long commitStart;
+
+        private CommitTiming(TransactionCommitEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commitStart = System.nanoTime();
+            event.begin();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (commitStart == 0) {
+                return;
+            }
+            long end = System.nanoTime();
+            String outcome = status == STATUS_COMMITTED ? "OK" : "ROLLED_BACK";
+            RequestTrace.recordPhase(TracePhase.COMMIT, end - commitStart);
+            RequestTrace.recordSpan("db.commit", commitStart, end, outcome);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.setStatements(statements);
+                event.setOutcome(outcome);
+                event.commit();
+            }
+        }
+    }
+}
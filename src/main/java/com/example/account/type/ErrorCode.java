@@ -12,8 +12,12 @@ public enum ErrorCode {
     USER_NOT_FOUND("사용자가 없습니다."),
     ACCOUNT_NOT_FOUND("해당 계좌가 없습니다."),
     ACCOUNT_TRANSACTION_LOCK("해당 계좌는 사용 중입니다."),
+    ACCOUNT_OWNER_UNAVAILABLE("계좌 처리 노드의 응답이 없습니다. 거래 결과를 확인한 뒤 다시 시도해주세요."),
+    TOO_MANY_REQUESTS("요청이 너무 많습니다. 잠시 후 다시 시도해주세요."),
     TRANSACTION_NOT_FOUND("해당 거래가 없습니다."),
+    TRANSACTION_OUTCOME_UNKNOWN("거래 결과를 확정하지 못했습니다. 거래 ID 로 결과를 확인한 뒤 다시 시도해주세요."),
     AMOUNT_EXCEED_BALANCE("거래 금액이 계좌 잔액보다 큽니다."),
+    DAILY_LIMIT_EXCEEDED("일일 사용 한도를 초과했습니다."),
     USER_ACCOUNT_UNMATCHED("사용자와 계좌의 소유주가 다릅니다."),
     TRANSACTION_ACCOUNT_UNMATCHED("이 거래는 해당 계좌에서 발생한 거래가 아닙니다."),
     CANCEL_MUST_FULLY("부분 취소는 허용되지 않습니다."),
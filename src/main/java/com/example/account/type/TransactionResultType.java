@@ -1,5 +1,7 @@
 package com.example.account.type;
 
 public enum TransactionResultType {
-    S, F
+    S, F,
+    // 비동기 사용 요청이 큐에서 아직 반영되지 않음 (DB 에는 저장하지 않는다)
+    P
 }
@@ -0,0 +1,77 @@
+-- 샤딩 모드(account.sharding.enabled=true)에서 각 샤드에 적용되는 스키마
+-- 엔티티 매핑을 변경하면 이 파일도 함께 수정해야 한다.
+create sequence if not exists hibernate_sequence start with 1 increment by 1;
+
+create table if not exists account_user (
+    id bigint not null,
+    created_at timestamp,
+    updated_at timestamp,
+    name varchar(255),
+    primary key (id)
+);
+
+create table if not exists account (
+    id bigint not null,
+    created_at timestamp,
+    updated_at timestamp,
+    account_number varchar(255),
+    account_status varchar(255),
+    balance bigint,
+    registered_at timestamp,
+    un_registered_at timestamp,
+    account_user_id bigint,
+    primary key (id),
+    constraint uk_account_account_number unique (account_number),
+    constraint fk_account_account_user foreign key (account_user_id) references account_user
+);
+
+create table if not exists transaction (
+    id bigint not null,
+    created_at timestamp,
+    updated_at timestamp,
+    amount bigint,
+    balance_snapshot bigint,
+    transacted_at timestamp,
+    transaction_id varchar(255),
+    transaction_result_type varchar(255),
+    transaction_type varchar(255),
+    account_id bigint,
+    primary key (id),
+    constraint fk_transaction_account foreign key (account_id) references account
+);
+
+create index if not exists idx_transaction_transaction_id on transaction (transaction_id);
+create index if not exists idx_transaction_account_id on transaction (account_id, id);
+create index if not exists idx_transaction_transacted_at on transaction (transacted_at);
+
+create table if not exists daily_aggregate (
+    id bigint not null,
+    created_at timestamp,
+    updated_at timestamp,
+    account_number varchar(255),
+    user_id bigint,
+    aggregate_date date,
+    use_amount bigint,
+    use_count bigint,
+    cancel_amount bigint,
+    cancel_count bigint,
+    failed_count bigint,
+    primary key (id),
+    constraint uk_daily_aggregate_account_date unique (account_number, aggregate_date)
+);
+
+create index if not exists idx_daily_aggregate_user_date on daily_aggregate (user_id, aggregate_date);
+
+create table if not exists outbox_event (
+    id bigint not null,
+    created_at timestamp,
+    updated_at timestamp,
+    account_number varchar(255),
+    transaction_id varchar(255),
+    transaction_type varchar(255),
+    transaction_result_type varchar(255),
+    amount bigint,
+    balance_snapshot bigint,
+    transacted_at timestamp,
+    primary key (id)
+);
@@ -3,6 +3,7 @@ package com.example.account.controller;
 import com.example.account.dto.CancelBalance;
 import com.example.account.dto.TransactionDto;
 import com.example.account.dto.UseBalance;
+import com.example.account.service.AsyncDebitService;
 import com.example.account.service.TransactionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -14,8 +15,10 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 
+import static com.example.account.type.TransactionResultType.P;
 import static com.example.account.type.TransactionResultType.S;
 import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
@@ -30,6 +33,9 @@ class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private AsyncDebitService asyncDebitService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -117,4 +123,31 @@ class TransactionControllerTest {
             .andExpect(jsonPath("$.transactedAt").value(transactionDto.getTransactedAt().toString()))
             .andDo(print());
     }
-}
\ No newline at end of file
+
+    @Test
+    void acceptUseBalanceAsync() throws Exception {
+        //given
+        given(asyncDebitService.isEnabled()).willReturn(true);
+        given(asyncDebitService.submit(anyLong(), anyString(), anyLong()))
+            .willReturn(TransactionDto.builder()
+                .accountNumber("1000000000")
+                .transactionType(USE)
+                .transactedAt(LocalDateTime.now())
+                .amount(12345L)
+                .transactionId("transactionId")
+                .transactionResult(P)
+                .build());
+
+        //when
+        //then
+        mockMvc.perform(post("/transaction/use")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                    new UseBalance.Request(1L, "1000000000", 12345L)
+                )))
+            .andDo(print())
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.transactionResult").value("P"))
+            .andExpect(jsonPath("$.transactionId").value("transactionId"));
+    }
+}
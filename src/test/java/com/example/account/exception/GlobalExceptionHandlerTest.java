@@ -0,0 +1,115 @@
+package com.example.account.exception;
+
+import com.example.account.dto.ErrorResponse;
+import com.example.account.type.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private GlobalExceptionHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        handler = new GlobalExceptionHandler(objectMapper, 60_000);
+    }
+
+    @Test
+    @DisplayName("같은 에러코드의 예외는 스택트레이스 없는 같은 인스턴스")
+    void cachedStacklessException() {
+        //given
+        //when
+        AccountException first = AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND);
+        AccountException second = AccountException.of(ErrorCode.ACCOUNT_NOT_FOUND);
+
+        //then
+        assertSame(first, second);
+        assertEquals(0, first.getStackTrace().length);
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND.getDescription(), first.getErrorMessage());
+        assertNotSame(first, AccountException.of(ErrorCode.USER_NOT_FOUND));
+    }
+
+    @Test
+    @DisplayName("기본 메시지면 미리 직렬화한 body 를 그대로 돌려준다")
+    void preSerializedBody() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        //when
+        ResponseEntity<byte[]> first = handler.handleAccountException(
+            AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE), request);
+        ResponseEntity<byte[]> second = handler.handleAccountException(
+            AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE), new MockHttpServletRequest());
+
+        //then
+        assertSame(first.getBody(), second.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, first.getHeaders().getContentType());
+        ErrorResponse body = objectMapper.readValue(first.getBody(), ErrorResponse.class);
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, body.getErrorCode());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE.getDescription(), body.getErrorMessage());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE,
+            request.getAttribute(GlobalExceptionHandler.ERROR_CODE_ATTRIBUTE));
+    }
+
+    @Test
+    @DisplayName("메시지를 바꾼 예외는 그 메시지로 직렬화한다")
+    void serializeCustomMessage() throws Exception {
+        //given
+        AccountException exception = new AccountException(ErrorCode.INVALID_REQUEST, "금액이 올바르지 않습니다.");
+
+        //when
+        ResponseEntity<byte[]> response = handler.handleAccountException(exception, new MockHttpServletRequest());
+
+        //then
+        ErrorResponse body = objectMapper.readValue(response.getBody(), ErrorResponse.class);
+        assertEquals(ErrorCode.INVALID_REQUEST, body.getErrorCode());
+        assertEquals("금액이 올바르지 않습니다.", body.getErrorMessage());
+    }
+
+    @Test
+    @DisplayName("알 수 없는 예외는 INTERNAL_SERVER_ERROR body")
+    void internalServerErrorBody() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        //when
+        ResponseEntity<byte[]> response = handler.handleException(new IllegalStateException("boom"), request);
+
+        //then
+        ErrorResponse body = objectMapper.readValue(response.getBody(), ErrorResponse.class);
+        assertEquals(ErrorCode.INTERNAL_SERVER_ERROR, body.getErrorCode());
+        assertEquals(ErrorCode.INTERNAL_SERVER_ERROR,
+            request.getAttribute(GlobalExceptionHandler.ERROR_CODE_ATTRIBUTE));
+    }
+
+    @Test
+    @DisplayName("같은 에러코드 로그는 interval 당 한 번만 남기고 나머지는 센다")
+    @SuppressWarnings("unchecked")
+    void sampleErrorLog() {
+        //given
+        Map<ErrorCode, LongAdder> suppressed =
+            (Map<ErrorCode, LongAdder>) ReflectionTestUtils.getField(handler, "suppressedCounts");
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            handler.handleAccountException(
+                AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK), new MockHttpServletRequest());
+        }
+
+        //then
+        assertEquals(2, suppressed.get(ErrorCode.ACCOUNT_TRANSACTION_LOCK).sum());
+        assertEquals(0, suppressed.get(ErrorCode.USER_NOT_FOUND).sum());
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.account.repository;
+
+import com.example.account.config.JpaAuditingConfig;
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.type.AccountStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * useBalanceIfAvailable 은 where 절로 검증하는 bulk update 라 실제 DB 로 확인
+ */
+@DataJpaTest
+@Import(JpaAuditingConfig.class)
+class AccountRepositoryTest {
+    private static final String ACCOUNT_NUMBER = "1000000012";
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountUserRepository accountUserRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private AccountUser owner;
+
+    private AccountUser other;
+
+    @BeforeEach
+    void setUp() {
+        // data.sql 의 기본 사용자
+        owner = accountUserRepository.findById(1L).get();
+        other = accountUserRepository.findById(2L).get();
+    }
+
+    @Test
+    @DisplayName("조건을 모두 만족하면 차감하고, 같은 트랜잭션에서 id 와 차감 후 잔액을 읽는다")
+    void useBalanceIfAvailable_success() {
+        //given
+        Account account = save(AccountStatus.IN_USE, 10000L);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        //when
+        int updated = accountRepository.useBalanceIfAvailable(
+            owner.getId(), ACCOUNT_NUMBER, 1000L, AccountStatus.IN_USE, now);
+        List<Object[]> rows = accountRepository.findIdAndBalance(ACCOUNT_NUMBER);
+
+        //then
+        assertEquals(1, updated);
+        assertEquals(1, rows.size());
+        assertEquals(account.getId(), ((Number) rows.get(0)[0]).longValue());
+        assertEquals(9000L, ((Number) rows.get(0)[1]).longValue());
+        Account reloaded = reload();
+        assertEquals(9000L, reloaded.getBalance());
+        assertEquals(now, reloaded.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("잔액이 부족하면 갱신하지 않는다")
+    void useBalanceIfAvailable_amountExceedBalance() {
+        //given
+        save(AccountStatus.IN_USE, 500L);
+
+        //when
+        int updated = accountRepository.useBalanceIfAvailable(
+            owner.getId(), ACCOUNT_NUMBER, 1000L, AccountStatus.IN_USE, LocalDateTime.now());
+
+        //then
+        assertEquals(0, updated);
+        assertEquals(500L, reload().getBalance());
+    }
+
+    @Test
+    @DisplayName("해지된 계좌면 갱신하지 않는다")
+    void useBalanceIfAvailable_unregistered() {
+        //given
+        save(AccountStatus.UNREGISTERED, 10000L);
+
+        //when
+        int updated = accountRepository.useBalanceIfAvailable(
+            owner.getId(), ACCOUNT_NUMBER, 1000L, AccountStatus.IN_USE, LocalDateTime.now());
+
+        //then
+        assertEquals(0, updated);
+        assertEquals(10000L, reload().getBalance());
+    }
+
+    @Test
+    @DisplayName("소유주가 다르면 갱신하지 않는다")
+    void useBalanceIfAvailable_userUnmatched() {
+        //given
+        save(AccountStatus.IN_USE, 10000L);
+
+        //when
+        int updated = accountRepository.useBalanceIfAvailable(
+            other.getId(), ACCOUNT_NUMBER, 1000L, AccountStatus.IN_USE, LocalDateTime.now());
+
+        //then
+        assertEquals(0, updated);
+        assertEquals(10000L, reload().getBalance());
+    }
+
+    private Account save(AccountStatus status, Long balance) {
+        Account account = accountRepository.save(Account.builder()
+            .accountUser(owner)
+            .accountNumber(ACCOUNT_NUMBER)
+            .accountStatus(status)
+            .balance(balance)
+            .registeredAt(LocalDateTime.now())
+            .build());
+        entityManager.flush();
+        entityManager.clear();
+        return account;
+    }
+
+    // bulk update 는 영속성 컨텍스트를 거치지 않으므로 비우고 다시 읽는다
+    private Account reload() {
+        entityManager.clear();
+        return accountRepository.findByAccountNumber(ACCOUNT_NUMBER).get();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountIndexTest {
+
+    @Test
+    void putAndLookup() {
+        //given
+        AccountIndex index = new AccountIndex(16, false);
+
+        //when
+        index.put(AccountIndex.toKey("1000000012"), 12L, 3L, AccountIndex.STATUS_IN_USE);
+        long packed = index.lookup(AccountIndex.toKey("1000000012"));
+
+        //then
+        assertEquals(3L, AccountIndex.ownerOf(packed));
+        assertEquals(AccountIndex.STATUS_IN_USE, AccountIndex.statusOf(packed));
+        assertEquals(AccountIndex.ABSENT, index.lookup(AccountIndex.toKey("1000000013")));
+    }
+
+    @Test
+    @DisplayName("용량을 넘겨도 off-heap 인덱스에서 모든 계좌를 찾는다")
+    void resizeOffHeap() {
+        //given
+        AccountIndex index = new AccountIndex(16, true);
+
+        //when
+        for (long id = 1; id <= 10_000; id++) {
+            index.put(1_000_000_000L + id, id, id % 7, AccountIndex.STATUS_IN_USE);
+        }
+        index.updateStatus(1_000_000_500L, AccountIndex.STATUS_UNREGISTERED);
+
+        //then
+        assertEquals(10_000, index.size());
+        for (long id = 1; id <= 10_000; id++) {
+            assertEquals(id % 7, AccountIndex.ownerOf(index.lookup(1_000_000_000L + id)));
+        }
+        assertEquals(AccountIndex.STATUS_UNREGISTERED,
+            AccountIndex.statusOf(index.lookup(1_000_000_500L)));
+    }
+
+    @Test
+    void notNumericAccountNumber() {
+        assertEquals(AccountIndex.ABSENT, AccountIndex.toKey("12345abcde"));
+        assertEquals(AccountIndex.ABSENT, AccountIndex.toKey(""));
+    }
+}
@@ -23,6 +23,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -34,6 +36,18 @@ class AccountServiceTest {
     @Mock
     private AccountUserRepository accountUserRepository;
 
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private LookupFilterService lookupFilterService;
+
+    @Mock
+    private AccountIndexService accountIndexService;
+
+    @Mock
+    private HotAccountEngine hotAccountEngine;
+
     @InjectMocks
     private AccountService accountService;
 
@@ -51,6 +65,8 @@ class AccountServiceTest {
             .willReturn(Optional.of(user));
         given(accountRepository.save(any()))
             .willReturn(account);
+        given(shardRouter.getShardCount())
+            .willReturn(1);
 
         //when
         AccountDto accountDto = accountService.createAccount(1L, 1000L);
@@ -203,6 +219,33 @@ class AccountServiceTest {
         assertEquals(ErrorCode.BALANCE_NOT_EMPTY, exception.getErrorCode());
     }
 
+    @Test
+    @DisplayName("소유 중인 hot 계좌는 DB 잔액이 아닌 엔진의 메모리 잔액으로 해지를 판단한다")
+    void deleteAccount_hotAccountBalanceNotEmpty() throws Exception {
+        //given
+        AccountUser pobi = AccountUser.builder()
+            .id(12L)
+            .name("Pobi").build();
+        given(accountUserRepository.findById(anyLong()))
+            .willReturn(Optional.of(pobi));
+        given(accountRepository.findByAccountNumber(anyString()))
+            .willReturn(Optional.of(Account.builder()
+                .accountUser(pobi)
+                .balance(0L)
+                .accountNumber("1000000001").build()));
+        given(hotAccountEngine.owns("1000000001")).willReturn(true);
+        willThrow(AccountException.of(ErrorCode.BALANCE_NOT_EMPTY))
+            .given(hotAccountEngine).unregister("1000000001");
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> accountService.deleteAccount(1L, "1000000001"));
+
+        //then
+        assertEquals(ErrorCode.BALANCE_NOT_EMPTY, exception.getErrorCode());
+        verify(accountRepository, never()).save(any());
+    }
+
     @Test
     @DisplayName("해지 계좌는 해지할 수 없다")
     void deleteAccount_accountAlreadyUnregistered() throws Exception {
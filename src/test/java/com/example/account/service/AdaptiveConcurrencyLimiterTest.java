@@ -0,0 +1,59 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("꺼져 있으면 limit 과 상관없이 모두 통과")
+    void admitAllWhenDisabled() {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 1, 1, 1, 200);
+
+        //when
+        //then
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("자리만 반납하면 limit 은 줄지 않는다")
+    void keepLimitWhenIgnored() {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 4, 200, 20, 200);
+
+        //when
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        for (int i = 0; i < 20; i++) {
+            limiter.onIgnored();
+        }
+
+        //then
+        assertEquals(20, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("목표 지연시간을 넘기면 limit 감소")
+    void decreaseWhenSlow() {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 4, 200, 20, 200);
+        assertTrue(limiter.tryAcquire());
+
+        //when
+        limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(500));
+
+        //then
+        assertEquals(18, limiter.getLimit());
+    }
+}
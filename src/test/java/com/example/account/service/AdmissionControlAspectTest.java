@@ -0,0 +1,114 @@
+package com.example.account.service;
+
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlAspectTest {
+    @Mock
+    private RateLimitService rateLimitService;
+
+    @Mock
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+
+    @InjectMocks
+    private AdmissionControlAspect admissionControlAspect;
+
+    @Test
+    void proceedWhenAdmitted() throws Throwable {
+        //given
+        UseBalance.Request request =
+            new UseBalance.Request(123L, "1234567890", 1234L);
+        given(rateLimitService.tryAcquire(123L, "1234567890"))
+            .willReturn(true);
+        given(concurrencyLimiter.tryAcquire())
+            .willReturn(true);
+
+        //when
+        admissionControlAspect.aroundMethod(proceedingJoinPoint, request);
+
+        //then
+        verify(proceedingJoinPoint, times(1)).proceed();
+        verify(concurrencyLimiter, times(1)).onSuccess(anyLong());
+    }
+
+    @Test
+    @DisplayName("요청 제한 초과 - 락 시도 없이 거절")
+    void rejectWhenRateLimited() throws Throwable {
+        //given
+        UseBalance.Request request =
+            new UseBalance.Request(123L, "1234567890", 1234L);
+        given(concurrencyLimiter.tryAcquire())
+            .willReturn(true);
+        given(rateLimitService.tryAcquire(123L, "1234567890"))
+            .willReturn(false);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> admissionControlAspect.aroundMethod(proceedingJoinPoint, request));
+
+        //then
+        assertEquals(ErrorCode.TOO_MANY_REQUESTS, exception.getErrorCode());
+        verify(proceedingJoinPoint, never()).proceed();
+        verify(concurrencyLimiter, times(1)).onIgnored();
+        verify(concurrencyLimiter, never()).onSuccess(anyLong());
+    }
+
+    @Test
+    @DisplayName("동시성 제한 초과 - 요청 제한 허용량을 쓰지 않고 거절")
+    void rejectWhenConcurrencyLimited() throws Throwable {
+        //given
+        UseBalance.Request request =
+            new UseBalance.Request(123L, "1234567890", 1234L);
+        given(concurrencyLimiter.tryAcquire())
+            .willReturn(false);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> admissionControlAspect.aroundMethod(proceedingJoinPoint, request));
+
+        //then
+        assertEquals(ErrorCode.TOO_MANY_REQUESTS, exception.getErrorCode());
+        verify(proceedingJoinPoint, never()).proceed();
+        verifyNoInteractions(rateLimitService);
+    }
+
+    @Test
+    @DisplayName("락 획득 실패는 과부하로 보지 않고 limit 을 그대로 둔다")
+    void ignoreLockFailure() throws Throwable {
+        //given
+        UseBalance.Request request =
+            new UseBalance.Request(123L, "1234567890", 1234L);
+        given(rateLimitService.tryAcquire(123L, "1234567890"))
+            .willReturn(true);
+        given(concurrencyLimiter.tryAcquire())
+            .willReturn(true);
+        given(proceedingJoinPoint.proceed())
+            .willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK));
+
+        //when
+        assertThrows(AccountException.class,
+            () -> admissionControlAspect.aroundMethod(proceedingJoinPoint, request));
+
+        //then
+        verify(concurrencyLimiter, times(1)).onIgnored();
+        verify(concurrencyLimiter, never()).onSuccess(anyLong());
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.account.service;
+
+import com.example.account.config.AffinityProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withException;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@ExtendWith(MockitoExtension.class)
+class AffinityForwardingFilterTest {
+    private static final String BODY = "{\"userId\":1,\"accountNumber\":\"1000000000\",\"amount\":1000}";
+
+    @Mock
+    private AffinityRouter affinityRouter;
+
+    private final AffinityMember nodeB = new AffinityMember("b", "http://b", 0, Long.MAX_VALUE);
+
+    private AffinityForwardingFilter filter;
+    private MockRestServiceServer owner;
+    private MockFilterChain chain;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        filter = new AffinityForwardingFilter(affinityRouter, new AffinityProperties(),
+            new ObjectMapper(), new RestTemplateBuilder());
+        owner = MockRestServiceServer.bindTo(
+            (RestTemplate) ReflectionTestUtils.getField(filter, "restTemplate")).build();
+        chain = new MockFilterChain();
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("소유 노드의 응답을 그대로 돌려준다")
+    void relayOwnerResponse() throws Exception {
+        //given
+        givenOwnedByOtherNode();
+        owner.expect(requestTo("http://b/transaction/use"))
+            .andExpect(method(HttpMethod.POST))
+            .andExpect(header(AffinityForwardingFilter.FORWARDED_BY_HEADER, "a"))
+            .andRespond(withSuccess("{\"transactionResult\":\"S\"}", MediaType.APPLICATION_JSON));
+
+        //when
+        filter.doFilter(useRequest(), response, chain);
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertEquals("b", response.getHeader(AffinityForwardingFilter.OWNER_HEADER));
+        assertEquals("{\"transactionResult\":\"S\"}", response.getContentAsString());
+        assertNull(chain.getRequest());
+        owner.verify();
+    }
+
+    @Test
+    @DisplayName("응답 시간이 지나면 이 노드에서 처리하지 않고 504 + 소유 노드 ID")
+    void gatewayTimeoutOnReadTimeout() throws Exception {
+        //given
+        givenOwnedByOtherNode();
+        owner.expect(requestTo("http://b/transaction/use"))
+            .andRespond(withException(new SocketTimeoutException("Read timed out")));
+
+        //when
+        filter.doFilter(useRequest(), response, chain);
+
+        //then
+        assertEquals(504, response.getStatus());
+        assertEquals("b", response.getHeader(AffinityForwardingFilter.OWNER_HEADER));
+        assertTrue(response.getContentAsString(StandardCharsets.UTF_8).contains("ACCOUNT_OWNER_UNAVAILABLE"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("소유 노드에 연결하지 못하면 502")
+    void badGatewayOnConnectFailure() throws Exception {
+        //given
+        givenOwnedByOtherNode();
+        owner.expect(requestTo("http://b/transaction/use"))
+            .andRespond(withException(new ConnectException("Connection refused")));
+
+        //when
+        filter.doFilter(useRequest(), response, chain);
+
+        //then
+        assertEquals(502, response.getStatus());
+        assertEquals("b", response.getHeader(AffinityForwardingFilter.OWNER_HEADER));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("이 노드가 소유 노드면 그대로 처리하고 body 를 다시 읽을 수 있다")
+    void proceedWhenSelfIsOwner() throws Exception {
+        //given
+        given(affinityRouter.ownerOf("1000000000")).willReturn(Optional.of(nodeB));
+        given(affinityRouter.isSelf(nodeB)).willReturn(true);
+
+        //when
+        filter.doFilter(useRequest(), response, chain);
+
+        //then
+        assertNotNull(chain.getRequest());
+        assertEquals(BODY, new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("비동기 서블릿 읽기도 캐시한 body 로 끝까지 읽는다")
+    void readCachedBodyWithReadListener() throws Exception {
+        //given
+        given(affinityRouter.ownerOf("1000000000")).willReturn(Optional.of(nodeB));
+        given(affinityRouter.isSelf(nodeB)).willReturn(true);
+        filter.doFilter(useRequest(), response, chain);
+        ServletInputStream input = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        ReadListener listener = mock(ReadListener.class);
+        willAnswer(invocation -> {
+            while (input.isReady() && !input.isFinished()) {
+                read.write(input.read());
+            }
+            return null;
+        }).given(listener).onDataAvailable();
+
+        //when
+        input.setReadListener(listener);
+
+        //then
+        assertEquals(BODY, read.toString(StandardCharsets.UTF_8));
+        verify(listener).onAllDataRead();
+        verify(listener, never()).onError(any());
+    }
+
+    @Test
+    @DisplayName("이미 넘겨받은 요청은 다시 넘기지 않는다")
+    void neverForwardTwice() throws Exception {
+        //given
+        MockHttpServletRequest request = useRequest();
+        request.addHeader(AffinityForwardingFilter.FORWARDED_BY_HEADER, "c");
+
+        //when
+        filter.doFilter(request, response, chain);
+
+        //then
+        assertNotNull(chain.getRequest());
+        verify(affinityRouter, never()).ownerOf(any());
+    }
+
+    private void givenOwnedByOtherNode() {
+        given(affinityRouter.ownerOf("1000000000")).willReturn(Optional.of(nodeB));
+        given(affinityRouter.isSelf(nodeB)).willReturn(false);
+        given(affinityRouter.localNodeId()).willReturn("a");
+    }
+
+    private static MockHttpServletRequest useRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/transaction/use");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.account.service;
+
+import com.example.account.config.AffinityProperties;
+import com.example.account.config.HotAccountProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class AffinityRouterTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    private AffinityProperties properties;
+    private AffinityRouter affinityRouter;
+    private AffinityRouter routerB;
+    private long now;
+
+    private final AffinityMember nodeA = new AffinityMember("a", "http://a", 0, Long.MAX_VALUE);
+    private final AffinityMember nodeB = new AffinityMember("b", "http://b", 0, Long.MAX_VALUE);
+
+    @BeforeEach
+    void setUp() {
+        properties = new AffinityProperties();
+        properties.setEnabled(true);
+        properties.setHandoffMs(2000);
+        properties.setMaxClockSkewMs(0);
+        affinityRouter = new AffinityRouter(properties, new HotAccountProperties(), redissonClient);
+        ReflectionTestUtils.setField(affinityRouter, "self", nodeA);
+        routerB = new AffinityRouter(properties, new HotAccountProperties(), redissonClient);
+        ReflectionTestUtils.setField(routerB, "self", nodeB);
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    @DisplayName("처음 링을 만들면 모든 계좌가 handoff 동안 기다린다")
+    void waitHandoffOnFirstRing() {
+        //given
+        affinityRouter.rebuild(Collections.singletonList(nodeA), now);
+
+        //when
+        //then
+        assertEquals(2000, affinityRouter.handoffRemainingMs("1000000000", now));
+        assertEquals(0, affinityRouter.handoffRemainingMs("1000000000", now + 2000));
+    }
+
+    @Test
+    @DisplayName("노드가 들어오면 소유 노드가 바뀐 계좌만 기다린다")
+    void waitHandoffOnlyForMovedAccounts() {
+        //given
+        ConsistentHashRing before = new ConsistentHashRing(Collections.singletonList("a"), 160);
+        ConsistentHashRing after = new ConsistentHashRing(Arrays.asList("a", "b"), 160);
+        affinityRouter.rebuild(Collections.singletonList(nodeA), now - 5000);
+        long joinedAt = now;
+
+        //when
+        affinityRouter.rebuild(Arrays.asList(nodeA, nodeB), joinedAt);
+
+        //then
+        for (int i = 0; i < 100; i++) {
+            String accountNumber = String.valueOf(1_000_000_000L + i);
+            boolean moved = !before.ownerOf(accountNumber).equals(after.ownerOf(accountNumber));
+            assertEquals(moved ? 2000 : 0, affinityRouter.handoffRemainingMs(accountNumber, joinedAt));
+            assertEquals(!moved && "a".equals(after.ownerOf(accountNumber)),
+                affinityRouter.isAuthoritative(accountNumber));
+        }
+    }
+
+    @Test
+    @DisplayName("유효 시작 전이거나 만료된 멤버는 링에 넣지 않는다")
+    void ignoreInactiveMembers() {
+        //given
+        AffinityMember joining = new AffinityMember("b", "http://b", now + 1000, Long.MAX_VALUE);
+        AffinityMember expired = new AffinityMember("c", "http://c", 0, now);
+
+        //when
+        affinityRouter.rebuild(Arrays.asList(nodeA, joining, expired), now);
+
+        //then
+        assertEquals("a", affinityRouter.ownerOf("1000000000").get().getNodeId());
+        assertTrue(affinityRouter.isLocalOwner("1000000000"));
+    }
+
+    @Test
+    @DisplayName("handoff 는 최대 시계 오차만큼 더 기다린다")
+    void extendHandoffByClockSkew() {
+        //given
+        properties.setMaxClockSkewMs(500);
+
+        //when
+        affinityRouter.rebuild(Collections.singletonList(nodeA), now);
+
+        //then
+        assertEquals(2500, affinityRouter.handoffRemainingMs("1000000000", now));
+        assertEquals(0, affinityRouter.handoffRemainingMs("1000000000", now + 2500));
+    }
+
+    @Test
+    @DisplayName("이전 소유 노드의 시계가 늦어도 시계 오차 상한 안이면 두 노드가 같은 계좌를 함께 소유하지 않는다")
+    void noDoubleOwnershipUnderClockSkew() {
+        //given
+        long joinAt = now;
+        List<AffinityMember> members = Arrays.asList(nodeA, new AffinityMember("b", "http://b", joinAt, Long.MAX_VALUE));
+        properties.setMaxClockSkewMs(2500);
+
+        //when
+        // 노드 a 의 시계가 2초 늦다 (a 는 b 가 들어온 것을 2초 늦게 본다)
+        int overlaps = simulate(members, -2000, 0, joinAt - 10_000, joinAt + 10_000);
+
+        //then
+        assertEquals(0, overlaps);
+        assertTrue(ownedBy(routerB, joinAt + 10_000) > 0);
+        assertTrue(ownedBy(affinityRouter, joinAt + 10_000 - 2000) > 0);
+    }
+
+    @Test
+    @DisplayName("시계 오차를 handoff 에 넣지 않으면 늦은 노드와 새 노드가 같은 계좌를 함께 소유하는 구간이 생긴다")
+    void doubleOwnershipWithoutSkewAllowance() {
+        //given
+        long joinAt = now;
+        List<AffinityMember> members = Arrays.asList(nodeA, new AffinityMember("b", "http://b", joinAt, Long.MAX_VALUE));
+
+        //when
+        int overlaps = simulate(members, -2000, 0, joinAt - 10_000, joinAt + 10_000);
+
+        //then
+        assertTrue(overlaps > 0);
+    }
+
+    @Test
+    @DisplayName("노드가 나가면 남은 노드는 이전 노드 만료 후 handoff 동안 기다렸다가 넘겨받는다")
+    void takeOverAfterHandoffWindow() {
+        //given
+        long leaveAt = now;
+        AffinityMember leavingA = new AffinityMember("a", "http://a", 0, leaveAt);
+        List<AffinityMember> members = Arrays.asList(leavingA, nodeB);
+        properties.setMaxClockSkewMs(500);
+
+        //when
+        // 노드 b 의 시계가 0.4초 빠르다 (b 는 a 가 나간 것을 먼저 본다)
+        int overlaps = simulate(members, 0, 400, leaveAt - 10_000, leaveAt + 10_000);
+
+        //then
+        assertEquals(0, overlaps);
+        assertEquals(0, ownedBy(affinityRouter, leaveAt + 10_000));
+        assertEquals(100, ownedBy(routerB, leaveAt + 10_000 + 400));
+    }
+
+    /**
+     * 실제 시각을 10ms 씩 움직이며 두 노드가 각자의 시계로 heartbeat 마다 링을 갱신한다
+     * - 노드 a 는 주기의 중간, 노드 b 는 주기의 시작에 갱신
+     * @return 두 노드가 동시에 소유한 (시각, 계좌) 수
+     */
+    private int simulate(List<AffinityMember> members, long skewA, long skewB, long from, long to) {
+        int overlaps = 0;
+        for (long t = from; t <= to; t += 10) {
+            long localA = t + skewA;
+            long localB = t + skewB;
+            if ((t - from) % 500 == 250) {
+                affinityRouter.rebuild(members, localA);
+            }
+            if ((t - from) % 500 == 0) {
+                routerB.rebuild(members, localB);
+            }
+            for (int i = 0; i < 100; i++) {
+                String accountNumber = String.valueOf(1_000_000_000L + i);
+                if (affinityRouter.isAuthoritativeAt(accountNumber, localA)
+                    && routerB.isAuthoritativeAt(accountNumber, localB)) {
+                    overlaps++;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    private int ownedBy(AffinityRouter router, long localMillis) {
+        int owned = 0;
+        for (int i = 0; i < 100; i++) {
+            if (router.isAuthoritativeAt(String.valueOf(1_000_000_000L + i), localMillis)) {
+                owned++;
+            }
+        }
+        return owned;
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.account.service;
+
+import com.example.account.config.AsyncDebitProperties;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncDebitServiceTest {
+    @Mock
+    private DebitQueue debitQueue;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private LockService lockService;
+
+    @Mock
+    private HotAccountEngine hotAccountEngine;
+
+    @Mock
+    private AffinityRouter affinityRouter;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AsyncDebitProperties properties;
+
+    private AsyncDebitService asyncDebitService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AsyncDebitProperties();
+        properties.setEnabled(true);
+        asyncDebitService = new AsyncDebitService(properties, debitQueue, transactionService,
+            lockService, hotAccountEngine, affinityRouter, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("검증 실패는 같은 거래 ID 로 F 저장 후 ack")
+    void saveFailedWithSameTransactionId() throws Exception {
+        //given
+        DebitQueue.Entry entry = entry("tx1", 1000L);
+        given(debitQueue.poll(anyInt(), anyInt(), anyLong()))
+            .willReturn(Collections.singletonList(entry));
+        given(transactionService.useBalance(1L, "1000000000", 1000L, "tx1"))
+            .willThrow(AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE));
+
+        //when
+        boolean completed = asyncDebitService.applyBatch(0);
+
+        //then
+        assertTrue(completed);
+        verify(transactionService).saveFailedUseTransaction("1000000000", 1000L, "tx1");
+        verify(lockService).unlockAll(Collections.singleton("1000000000"));
+        verify(debitQueue).ack(0, Collections.singletonList(entry));
+    }
+
+    @Test
+    @DisplayName("DB 오류면 거기서 멈추고 앞의 요청만 ack (계좌별 순서 유지)")
+    void stopAtRetryableFailure() throws Exception {
+        //given
+        DebitQueue.Entry first = entry("tx1", 1000L);
+        DebitQueue.Entry second = entry("tx2", 2000L);
+        DebitQueue.Entry third = entry("tx3", 3000L);
+        given(debitQueue.poll(anyInt(), anyInt(), anyLong()))
+            .willReturn(Arrays.asList(first, second, third));
+        given(transactionService.useBalance(anyLong(), any(), anyLong(), any()))
+            .willAnswer(invocation -> {
+                if ("tx2".equals(invocation.getArgument(3))) {
+                    throw new IllegalStateException("db down");
+                }
+                return null;
+            });
+
+        //when
+        boolean completed = asyncDebitService.applyBatch(0);
+
+        //then
+        assertFalse(completed);
+        verify(transactionService, times(2)).useBalance(anyLong(), any(), anyLong(), any());
+        verify(lockService).unlockAll(Collections.singleton("1000000000"));
+        verify(debitQueue).ack(0, Collections.singletonList(first));
+    }
+
+    @Test
+    @DisplayName("배치의 계좌 락은 hot 계좌를 빼고 한 번에 잡는다")
+    void lockBatchAccountsOnce() throws Exception {
+        //given
+        given(debitQueue.poll(anyInt(), anyInt(), anyLong())).willReturn(Arrays.asList(
+            entry("tx1", "1000000000", 1000L),
+            entry("tx2", "2000000000", 1000L),
+            entry("tx3", "1000000000", 1000L),
+            entry("tx4", "3000000000", 1000L)));
+        given(hotAccountEngine.owns(anyString()))
+            .willAnswer(invocation -> "3000000000".equals(invocation.getArgument(0)));
+
+        //when
+        boolean completed = asyncDebitService.applyBatch(0);
+
+        //then
+        assertTrue(completed);
+        Set<String> expected = new HashSet<>(Arrays.asList("1000000000", "2000000000"));
+        verify(lockService, times(1)).lockAll(expected);
+        verify(lockService, times(1)).unlockAll(expected);
+        verify(lockService, never()).lock(any());
+        verify(transactionService, times(4)).useBalance(anyLong(), any(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("배치 락을 못 잡으면 하나도 반영하지 않고 재시도")
+    void retryWhenBatchLockFailed() throws Exception {
+        //given
+        given(debitQueue.poll(anyInt(), anyInt(), anyLong()))
+            .willReturn(Collections.singletonList(entry("tx1", 1000L)));
+        willThrow(AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+            .given(lockService).lockAll(any());
+
+        //when
+        boolean completed = asyncDebitService.applyBatch(0);
+
+        //then
+        assertFalse(completed);
+        verify(transactionService, never()).useBalance(anyLong(), any(), anyLong(), any());
+        verify(lockService, never()).unlockAll(any());
+        verify(debitQueue, never()).ack(anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("처리 중 계좌 락 경합이면 F 로 남기지 않고 재시도")
+    void retryTransientLockFailure() throws Exception {
+        //given
+        DebitQueue.Entry entry = entry("tx1", 1000L);
+        given(debitQueue.poll(anyInt(), anyInt(), anyLong()))
+            .willReturn(Collections.singletonList(entry));
+        given(transactionService.useBalance(1L, "1000000000", 1000L, "tx1"))
+            .willThrow(AccountException.of(ErrorCode.ACCOUNT_TRANSACTION_LOCK));
+
+        //when
+        boolean completed = asyncDebitService.applyBatch(0);
+
+        //then
+        assertFalse(completed);
+        verify(transactionService, never()).saveFailedUseTransaction(any(), anyLong(), any());
+        verify(lockService).unlockAll(Collections.singleton("1000000000"));
+        verify(debitQueue).ack(0, Collections.emptyList());
+    }
+
+    @Test
+    @DisplayName("이미 기록된 거래 ID 는 다시 반영하지 않는다")
+    void skipRedelivered() throws Exception {
+        //given
+        DebitQueue.Entry entry = entry("tx1", 1000L);
+        given(debitQueue.poll(anyInt(), anyInt(), anyLong()))
+            .willReturn(Collections.singletonList(entry));
+        given(transactionService.isRecorded("1000000000", "tx1"))
+            .willReturn(true);
+
+        //when
+        asyncDebitService.applyBatch(0);
+
+        //then
+        verify(transactionService, never()).useBalance(anyLong(), any(), anyLong(), any());
+        verify(debitQueue).ack(0, Collections.singletonList(entry));
+    }
+
+    @Test
+    @DisplayName("같은 요청이 max-attempts 번 실패하면 dead letter 로 옮기고 뒤 요청을 반영한다")
+    void deadLetterPoisonEntry() throws Exception {
+        //given
+        properties.setMaxAttempts(2);
+        DebitQueue.Entry poison = entry("tx1", 1000L);
+        DebitQueue.Entry next = entry("tx2", 2000L);
+        given(debitQueue.poll(anyInt(), anyInt(), anyLong()))
+            .willReturn(Arrays.asList(poison, next));
+        given(transactionService.useBalance(anyLong(), any(), anyLong(), any()))
+            .willAnswer(invocation -> {
+                if ("tx1".equals(invocation.getArgument(3))) {
+                    throw new DataIntegrityViolationException("constraint");
+                }
+                return null;
+            });
+
+        //when
+        boolean first = asyncDebitService.applyBatch(0);
+        boolean second = asyncDebitService.applyBatch(0);
+
+        //then
+        assertFalse(first);
+        assertTrue(second);
+        verify(debitQueue).deadLetter(0, poison);
+        verify(debitQueue).ack(0, Arrays.asList(poison, next));
+        verify(transactionService).useBalance(1L, "1000000000", 2000L, "tx2");
+        verify(transactionService, never()).saveFailedUseTransaction(any(), anyLong(), any());
+        assertEquals(1.0, meterRegistry.counter("account.debit.dead.letter").count());
+    }
+
+    @Test
+    @DisplayName("일시적인 장애는 재시도 횟수에 세지 않는다")
+    void keepRetryingTransientFailure() throws Exception {
+        //given
+        properties.setMaxAttempts(1);
+        given(debitQueue.poll(anyInt(), anyInt(), anyLong()))
+            .willReturn(Collections.singletonList(entry("tx1", 1000L)));
+        given(transactionService.useBalance(1L, "1000000000", 1000L, "tx1"))
+            .willThrow(new TransientDataAccessResourceException("db down"));
+
+        //when
+        boolean first = asyncDebitService.applyBatch(0);
+        boolean second = asyncDebitService.applyBatch(0);
+
+        //then
+        assertFalse(first);
+        assertFalse(second);
+        verify(debitQueue, never()).deadLetter(anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("dead letter 로 옮기지 못하면 ack 하지 않고 다음 배치에서 다시 시도")
+    void retryWhenDeadLetterFailed() throws Exception {
+        //given
+        properties.setMaxAttempts(1);
+        DebitQueue.Entry poison = entry("tx1", 1000L);
+        given(debitQueue.poll(anyInt(), anyInt(), anyLong()))
+            .willReturn(Collections.singletonList(poison));
+        given(transactionService.useBalance(1L, "1000000000", 1000L, "tx1"))
+            .willThrow(new IllegalStateException("mapping"));
+        willThrow(new IllegalStateException("disk full"))
+            .given(debitQueue).deadLetter(0, poison);
+
+        //when
+        boolean completed = asyncDebitService.applyBatch(0);
+
+        //then
+        assertFalse(completed);
+        verify(debitQueue).ack(0, Collections.emptyList());
+        assertEquals(0.0, meterRegistry.counter("account.debit.dead.letter").count());
+    }
+
+    private static DebitQueue.Entry entry(String transactionId, Long amount) {
+        return entry(transactionId, "1000000000", amount);
+    }
+
+    private static DebitQueue.Entry entry(String transactionId, String accountNumber, Long amount) {
+        return new DebitQueue.Entry(transactionId,
+            new DebitRequest(transactionId, 1L, accountNumber, amount, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+    private static final int KEYS = 30000;
+
+    @Test
+    @DisplayName("가상 노드로 계좌가 노드마다 고르게 나뉜다")
+    void distributeEvenly() {
+        //given
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("a", "b", "c"), 160);
+
+        //when
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.ownerOf(accountNumber(i)), 1, Integer::sum);
+        }
+
+        //then
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > KEYS / 3 * 0.75 && count < KEYS / 3 * 1.25));
+    }
+
+    @Test
+    @DisplayName("노드가 들어오면 새 노드 몫의 계좌만 옮겨간다")
+    void moveOnlyToJoinedNode() {
+        //given
+        ConsistentHashRing before = new ConsistentHashRing(Arrays.asList("a", "b", "c"), 160);
+        ConsistentHashRing after = new ConsistentHashRing(Arrays.asList("a", "b", "c", "d"), 160);
+
+        //when
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String owner = after.ownerOf(accountNumber(i));
+            if (!owner.equals(before.ownerOf(accountNumber(i)))) {
+                assertEquals("d", owner);
+                moved++;
+            }
+        }
+
+        //then
+        assertTrue(moved > KEYS / 4 * 0.7 && moved < KEYS / 4 * 1.3);
+    }
+
+    @Test
+    void emptyRing() {
+        //given
+        ConsistentHashRing ring = new ConsistentHashRing(Collections.emptyList(), 160);
+
+        //when
+        //then
+        assertNull(ring.ownerOf("1000000000"));
+    }
+
+    private String accountNumber(int i) {
+        return String.valueOf(1_000_000_000L + i);
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.DailyAggregateRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.account.type.TransactionResultType.F;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailyAggregateServiceTest {
+    @Mock
+    private DailyAggregateRepository dailyAggregateRepository;
+
+    @Mock
+    private DailyAggregateWriter dailyAggregateWriter;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RLock jobLock;
+
+    @Mock
+    private RBucket<String> backfilled;
+
+    @InjectMocks
+    private DailyAggregateService dailyAggregateService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dailyAggregateService, "enabled", true);
+        ReflectionTestUtils.setField(dailyAggregateService, "maxSummaryDays", 366);
+    }
+
+    @Test
+    @DisplayName("같은 계좌/일자의 거래는 증분 하나로 합쳐서 반영")
+    @SuppressWarnings("unchecked")
+    void flushMergedDelta() {
+        //given
+        LocalDateTime now = LocalDateTime.now();
+        dailyAggregateService.record(transaction(USE, S, 1000L, now));
+        dailyAggregateService.record(transaction(USE, S, 2000L, now));
+        dailyAggregateService.record(transaction(CANCEL, S, 1000L, now));
+        dailyAggregateService.record("1000000000", USE, F, 500L, now);
+        ArgumentCaptor<Collection<DailyAggregateDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+
+        //when
+        dailyAggregateService.flush();
+        dailyAggregateService.flush();
+
+        //then
+        verify(dailyAggregateWriter, times(1)).apply(captor.capture());
+        List<DailyAggregateDelta> deltas = new ArrayList<>(captor.getValue());
+        assertEquals(1, deltas.size());
+        assertEquals(3000L, deltas.get(0).getUseAmount());
+        assertEquals(2L, deltas.get(0).getUseCount());
+        assertEquals(1000L, deltas.get(0).getCancelAmount());
+        assertEquals(1L, deltas.get(0).getFailedCount());
+        assertEquals(now.toLocalDate(), deltas.get(0).getAggregateDate());
+    }
+
+    @Test
+    @DisplayName("반영에 실패한 증분은 다음 주기에 다시 시도")
+    void requeueFailedDelta() {
+        //given
+        dailyAggregateService.record(transaction(USE, S, 1000L, LocalDateTime.now()));
+        willThrow(new IllegalStateException("db down"))
+            .willDoNothing()
+            .given(dailyAggregateWriter).apply(any());
+
+        //when
+        dailyAggregateService.flush();
+        dailyAggregateService.flush();
+
+        //then
+        verify(dailyAggregateWriter, times(2)).apply(any());
+    }
+
+    @Test
+    @DisplayName("다른 노드가 backfill 중이면 건너뛴다")
+    void skipBackfillWhenLocked() throws Exception {
+        //given
+        given(redissonClient.getLock("AGGREGATE_BACKFILL")).willReturn(jobLock);
+        given(jobLock.tryLock(0, -1, TimeUnit.MILLISECONDS)).willReturn(false);
+
+        //when
+        dailyAggregateService.backfillYesterday();
+
+        //then
+        verify(dailyAggregateWriter, never()).replaceDay(any(), any());
+        verify(jobLock, never()).unlock();
+    }
+
+    @Test
+    @DisplayName("backfill 하는 날짜의 남은 증분은 버리고 거래 테이블로 다시 센다")
+    void dropPendingBeforeBackfill() throws Exception {
+        //given
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        dailyAggregateService.record(transaction(USE, S, 1000L, yesterday.atTime(23, 59)));
+        given(redissonClient.getLock("AGGREGATE_BACKFILL")).willReturn(jobLock);
+        given(jobLock.tryLock(0, -1, TimeUnit.MILLISECONDS)).willReturn(true);
+        given(redissonClient.<String>getBucket("AGGREGATE_BACKFILLED", StringCodec.INSTANCE)).willReturn(backfilled);
+        given(shardRouter.getShardCount()).willReturn(2);
+
+        //when
+        dailyAggregateService.backfillYesterday();
+        dailyAggregateService.flush();
+
+        //then
+        verify(backfilled).set(yesterday.toString());
+        verify(dailyAggregateWriter, times(2)).replaceDay(eq(yesterday), any());
+        verify(dailyAggregateWriter, never()).apply(any());
+        verify(jobLock).unlock();
+    }
+
+    @Test
+    @DisplayName("다른 노드가 이미 backfill 한 날짜의 증분은 반영하지 않는다")
+    @SuppressWarnings("unchecked")
+    void dropDeltaOfBackfilledDate() {
+        //given
+        LocalDateTime now = LocalDateTime.now();
+        dailyAggregateService.record(transaction(USE, S, 1000L, now.minusDays(1)));
+        dailyAggregateService.record(transaction(USE, S, 2000L, now));
+        given(redissonClient.<String>getBucket("AGGREGATE_BACKFILLED", StringCodec.INSTANCE)).willReturn(backfilled);
+        given(backfilled.get()).willReturn(now.minusDays(1).toLocalDate().toString());
+        ArgumentCaptor<Collection<DailyAggregateDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+
+        //when
+        dailyAggregateService.flush();
+
+        //then
+        verify(dailyAggregateWriter, times(1)).apply(captor.capture());
+        List<DailyAggregateDelta> deltas = new ArrayList<>(captor.getValue());
+        assertEquals(1, deltas.size());
+        assertEquals(now.toLocalDate(), deltas.get(0).getAggregateDate());
+    }
+
+    @Test
+    void failSummary_invalidRange() {
+        //given
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> dailyAggregateService.getAccountSummary("1000000000",
+                LocalDate.of(2022, 6, 2), LocalDate.of(2022, 6, 1)));
+
+        //then
+        assertEquals(ErrorCode.INVALID_REQUEST, exception.getErrorCode());
+    }
+
+    private static TransactionDto transaction(TransactionType type, TransactionResultType result,
+                                              Long amount, LocalDateTime transactedAt) {
+        return TransactionDto.builder()
+            .accountNumber("1000000000")
+            .transactionType(type)
+            .transactionResult(result)
+            .transactionId("transactionId")
+            .amount(amount)
+            .transactedAt(transactedAt)
+            .build();
+    }
+}
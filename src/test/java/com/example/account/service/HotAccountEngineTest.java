@@ -0,0 +1,299 @@
+package com.example.account.service;
+
+import com.example.account.config.HotAccountProperties;
+import com.example.account.domain.Account;
+import com.example.account.domain.AccountUser;
+import com.example.account.exception.AccountException;
+import com.example.account.exception.TransactionOutcomeUnknownException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.AccountUserRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.AccountStatus;
+import com.example.account.type.ErrorCode;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RBuckets;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotAccountEngineTest {
+    private static final String ACCOUNT_A = "1000000000";
+    private static final String ACCOUNT_B = "2000000000";
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private HotAccountWriter hotAccountWriter;
+
+    @Mock
+    private LockService lockService;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private LookupFilterService lookupFilterService;
+
+    @Mock
+    private SpendLimitService spendLimitService;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RBuckets buckets;
+
+    @Mock
+    private RBucket<String> marker;
+
+    @Mock
+    private HotAccountRedoLog redoLog;
+
+    private HotAccountEngine hotAccountEngine;
+
+    @BeforeEach
+    void setUp() {
+        HotAccountProperties properties = new HotAccountProperties();
+        properties.setEnabled(true);
+        properties.setAccountNumbers(Collections.singletonList(ACCOUNT_A));
+        hotAccountEngine = new HotAccountEngine(properties, accountRepository, accountUserRepository,
+            transactionRepository, hotAccountWriter, lockService, shardRouter, lookupFilterService,
+            spendLimitService, redissonClient);
+        ReflectionTestUtils.setField(hotAccountEngine, "redoLog", redoLog);
+        ReflectionTestUtils.setField(hotAccountEngine, "nodeId", "node-a");
+    }
+
+    @Test
+    @DisplayName("일부 샤드만 실패하면 실패한 첫 기록 직전까지 checkpoint 하고 실패 기록은 다시 쓴다")
+    void checkpointBeforeFirstFailedShard() {
+        //given
+        pending(record(1, "tx1", ACCOUNT_A), record(2, "tx2", ACCOUNT_B), record(3, "tx3", ACCOUNT_A));
+        markers("node-a", ACCOUNT_A, ACCOUNT_B);
+        given(shardRouter.shardOfAccountNumber(ACCOUNT_A)).willReturn(0);
+        given(shardRouter.shardOfAccountNumber(ACCOUNT_B)).willReturn(1);
+        willAnswer(invocation -> {
+            List<HotAccountRecord> records = invocation.getArgument(0);
+            if (ACCOUNT_B.equals(records.get(0).getAccountNumber())) {
+                throw new IllegalStateException("shard down");
+            }
+            return null;
+        }).given(hotAccountWriter).write(anyList(), eq(false));
+
+        //when
+        boolean remaining = hotAccountEngine.flushSafely();
+
+        //then
+        assertFalse(remaining);
+        verify(redoLog).checkpoint(1L);
+        Deque<HotAccountRecord> pending = pendingQueue();
+        assertEquals(1, pending.size());
+        assertEquals("tx2", pending.peekFirst().getTransactionId());
+        assertTrue(hotAccountEngine.findUnflushed("tx2").isPresent());
+        assertFalse(hotAccountEngine.findUnflushed("tx1").isPresent());
+        assertFalse(hotAccountEngine.findUnflushed("tx3").isPresent());
+    }
+
+    @Test
+    @DisplayName("미반영 표시가 다른 노드 것이면 DB 에 쓰지 않고 checkpoint 도 하지 않는다")
+    void holdRecordsWhenMarkerIsNotOwn() {
+        //given
+        pending(record(1, "tx1", ACCOUNT_A));
+        markers("node-b", ACCOUNT_A);
+
+        //when
+        hotAccountEngine.flushSafely();
+
+        //then
+        verify(hotAccountWriter, never()).write(anyList(), anyBoolean());
+        verify(redoLog, never()).checkpoint(anyLong());
+        assertEquals(1, pendingQueue().size());
+    }
+
+    @Test
+    @DisplayName("다른 노드의 redo 기록이 반영되지 않은 계좌는 락을 잡아도 소유하지 않는다")
+    void refuseClaimWhileOtherNodeIsDirty() {
+        //given
+        given(lockService.tryHold(ACCOUNT_A)).willReturn(true);
+        given(redissonClient.<String>getBucket("HOTREDO:" + ACCOUNT_A, StringCodec.INSTANCE)).willReturn(marker);
+        given(marker.trySet("node-a")).willReturn(false);
+        given(marker.get()).willReturn("node-b");
+
+        //when
+        hotAccountEngine.claimAccounts();
+
+        //then
+        verify(lockService).releaseHold(ACCOUNT_A);
+        verify(accountRepository, never()).findByAccountNumber(any());
+        assertFalse(hotAccountEngine.owns(ACCOUNT_A));
+    }
+
+    @Test
+    @DisplayName("락을 잃으면 잔액 변경을 거절하고, 남은 기록을 반영한 뒤에 표시를 지우고 내려놓는다")
+    void fenceAfterLostLock() {
+        //given
+        claimAccountA();
+        given(redoLog.append(any())).willReturn(CompletableFuture.completedFuture(null));
+        hotAccountEngine.useBalance(1L, ACCOUNT_A, 1000L);
+
+        //when
+        given(lockService.isHolding(ACCOUNT_A)).willReturn(false);
+        hotAccountEngine.claimAccounts();
+
+        //then
+        AccountException exception = assertThrows(AccountException.class,
+            () -> hotAccountEngine.useBalance(1L, ACCOUNT_A, 1000L));
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        assertTrue(hotAccountEngine.owns(ACCOUNT_A));
+        verify(marker, never()).compareAndSet("node-a", null);
+
+        markers("node-a", ACCOUNT_A);
+        hotAccountEngine.flushSafely();
+        hotAccountEngine.claimAccounts();
+        assertFalse(hotAccountEngine.owns(ACCOUNT_A));
+        verify(marker).compareAndSet("node-a", null);
+        verify(lockService).tryHold(ACCOUNT_A);
+    }
+
+    @Test
+    @DisplayName("redo log 기록이 실패하면 결과 미확정으로 알리고, 모든 변경을 막은 뒤 반영이 끝나면 내려놓는다")
+    void fenceEngineAfterRedoFailure() {
+        //given
+        claimAccountA();
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException("disk full"));
+        given(redoLog.append(any())).willReturn(failed);
+
+        //when
+        TransactionOutcomeUnknownException exception = assertThrows(TransactionOutcomeUnknownException.class,
+            () -> hotAccountEngine.useBalance(1L, ACCOUNT_A, 1000L, "tx1"));
+
+        //then
+        assertEquals(ErrorCode.TRANSACTION_OUTCOME_UNKNOWN, exception.getErrorCode());
+        assertEquals("tx1", exception.getTransactionId());
+        assertTrue(exception.getErrorMessage().contains("tx1"));
+        assertEquals(9000L, hotAccountEngine.findUnflushed("tx1").get().getBalanceSnapshot());
+
+        AccountException rejected = assertThrows(AccountException.class,
+            () -> hotAccountEngine.useBalance(1L, ACCOUNT_A, 1000L, "tx2"));
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, rejected.getErrorCode());
+        verify(redoLog, times(1)).append(any());
+
+        // 아직 반영 전이면 락을 잡고 있다
+        hotAccountEngine.claimAccounts();
+        assertTrue(hotAccountEngine.owns(ACCOUNT_A));
+        verify(lockService, never()).releaseHold(ACCOUNT_A);
+
+        markers("node-a", ACCOUNT_A);
+        hotAccountEngine.flushSafely();
+        verify(hotAccountWriter).write(anyList(), eq(false));
+        hotAccountEngine.claimAccounts();
+        assertFalse(hotAccountEngine.owns(ACCOUNT_A));
+        verify(marker).compareAndSet("node-a", null);
+        verify(lockService).releaseHold(ACCOUNT_A);
+
+        // 다시 소유하지 않는다
+        hotAccountEngine.claimAccounts();
+        assertFalse(hotAccountEngine.owns(ACCOUNT_A));
+        verify(lockService, times(1)).tryHold(ACCOUNT_A);
+    }
+
+    @Test
+    @DisplayName("해지는 메모리 잔액으로 확인하고, 해지된 계좌의 사용은 거절한다")
+    void unregisterChecksMemoryBalance() {
+        //given
+        claimAccountA();
+        given(redoLog.append(any())).willReturn(CompletableFuture.completedFuture(null));
+
+        //when
+        AccountException notEmpty = assertThrows(AccountException.class,
+            () -> hotAccountEngine.unregister(ACCOUNT_A));
+        hotAccountEngine.useBalance(1L, ACCOUNT_A, 10000L);
+        hotAccountEngine.unregister(ACCOUNT_A);
+
+        //then
+        assertEquals(ErrorCode.BALANCE_NOT_EMPTY, notEmpty.getErrorCode());
+        AccountException rejected = assertThrows(AccountException.class,
+            () -> hotAccountEngine.useBalance(1L, ACCOUNT_A, 0L));
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, rejected.getErrorCode());
+        verify(redoLog, times(1)).append(any());
+    }
+
+    private void claimAccountA() {
+        given(lockService.tryHold(ACCOUNT_A)).willReturn(true);
+        given(redissonClient.<String>getBucket("HOTREDO:" + ACCOUNT_A, StringCodec.INSTANCE)).willReturn(marker);
+        given(marker.trySet("node-a")).willReturn(true);
+        given(shardRouter.shardOfAccountNumber(ACCOUNT_A)).willReturn(0);
+        given(accountRepository.findByAccountNumber(ACCOUNT_A)).willReturn(Optional.of(Account.builder()
+            .id(1L)
+            .accountNumber(ACCOUNT_A)
+            .accountUser(AccountUser.builder().id(1L).build())
+            .accountStatus(AccountStatus.IN_USE)
+            .balance(10000L)
+            .build()));
+        hotAccountEngine.claimAccounts();
+    }
+
+    private void markers(String nodeId, String... accountNumbers) {
+        Map<String, Object> values = new HashMap<>();
+        Arrays.stream(accountNumbers).forEach(accountNumber -> values.put("HOTREDO:" + accountNumber, nodeId));
+        given(redissonClient.getBuckets(StringCodec.INSTANCE)).willReturn(buckets);
+        given(buckets.get(any(String[].class))).willReturn(values);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pending(HotAccountRecord... records) {
+        Deque<HotAccountRecord> pending = pendingQueue();
+        Map<String, HotAccountRecord> unflushed =
+            (Map<String, HotAccountRecord>) ReflectionTestUtils.getField(hotAccountEngine, "unflushed");
+        for (HotAccountRecord record : records) {
+            pending.addLast(record);
+            unflushed.put(record.getTransactionId(), record);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Deque<HotAccountRecord> pendingQueue() {
+        return (Deque<HotAccountRecord>) ReflectionTestUtils.getField(hotAccountEngine, "pending");
+    }
+
+    private static HotAccountRecord record(long seq, String transactionId, String accountNumber) {
+        return new HotAccountRecord(seq, transactionId, seq, accountNumber,
+            TransactionType.USE, TransactionResultType.S, 1000L, 9000L, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.account.service;
+
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotAccountRedoLogTest {
+    @TempDir
+    Path redoDir;
+
+    private HotAccountRedoLog redoLog;
+
+    @AfterEach
+    void tearDown() {
+        if (redoLog != null) {
+            redoLog.close();
+        }
+    }
+
+    @Test
+    @DisplayName("재기동하면 마지막 checkpoint 이후 기록만 복구한다")
+    void recoverAfterCheckpoint() throws Exception {
+        //given
+        redoLog = open(64L * 1024 * 1024);
+        redoLog.start(1);
+        redoLog.append(record(1, "tx1")).get();
+        redoLog.append(record(2, "tx2")).get();
+        redoLog.checkpoint(1).get();
+        redoLog.append(record(3, "tx3")).get();
+        redoLog.close();
+
+        //when
+        redoLog = open(64L * 1024 * 1024);
+        List<HotAccountRecord> recovered = redoLog.recover();
+
+        //then
+        assertEquals(2, recovered.size());
+        assertEquals("tx2", recovered.get(0).getTransactionId());
+        assertEquals(3, recovered.get(1).getSeq());
+        assertEquals(TransactionType.USE, recovered.get(1).getTransactionType());
+    }
+
+    @Test
+    @DisplayName("fsync 전에 끊긴 마지막 줄은 건너뛴다")
+    void skipBrokenLine() throws Exception {
+        //given
+        redoLog = open(64L * 1024 * 1024);
+        redoLog.start(1);
+        redoLog.append(record(1, "tx1")).get();
+        redoLog.close();
+        try (Stream<Path> files = Files.list(redoDir)) {
+            Path segment = files.findFirst().orElseThrow(IllegalStateException::new);
+            Files.write(segment, "T\t2\ttx2\t1".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        }
+
+        //when
+        redoLog = open(64L * 1024 * 1024);
+        List<HotAccountRecord> recovered = redoLog.recover();
+
+        //then
+        assertEquals(1, recovered.size());
+        assertEquals("tx1", recovered.get(0).getTransactionId());
+    }
+
+    @Test
+    @DisplayName("checkpoint 이전 기록만 있는 segment 는 지우고 이후 segment 는 남긴다")
+    void deleteCheckpointedSegments() throws Exception {
+        //given
+        redoLog = open(1);
+        redoLog.start(1);
+        redoLog.append(record(1, "tx1")).get();
+        redoLog.append(record(2, "tx2")).get();
+
+        //when
+        redoLog.checkpoint(1).get();
+        redoLog.close();
+
+        //then
+        assertFalse(Files.exists(redoDir.resolve(String.format("redo-%020d.log", 1))));
+        assertTrue(Files.exists(redoDir.resolve(String.format("redo-%020d.log", 2))));
+        redoLog = open(1);
+        List<HotAccountRecord> recovered = redoLog.recover();
+        assertEquals(1, recovered.size());
+        assertEquals("tx2", recovered.get(0).getTransactionId());
+    }
+
+    private HotAccountRedoLog open(long segmentBytes) throws Exception {
+        HotAccountRedoLog log = new HotAccountRedoLog(redoDir, segmentBytes);
+        log.recover();
+        return log;
+    }
+
+    private static HotAccountRecord record(long seq, String transactionId) {
+        return new HotAccountRecord(seq, transactionId, 1L, "1000000000",
+            TransactionType.USE, TransactionResultType.S, 1000L, 9000L, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.account.service;
+
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.TransactionResultType;
+import com.example.account.type.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotAccountWriterTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @InjectMocks
+    private HotAccountWriter hotAccountWriter;
+
+    @Test
+    @DisplayName("잔액은 계좌별 증감분 합계로 반영하고 실패 거래는 잔액을 바꾸지 않는다")
+    void addBalanceDeltas() {
+        //given
+        given(accountRepository.getById(1L)).willReturn(Account.builder().id(1L).build());
+
+        //when
+        hotAccountWriter.write(Arrays.asList(
+            record(1, "tx1", TransactionType.USE, TransactionResultType.S, 1000L),
+            record(2, "tx2", TransactionType.CANCEL, TransactionResultType.S, 300L),
+            record(3, "tx3", TransactionType.USE, TransactionResultType.F, 5000L)), false);
+
+        //then
+        verify(transactionRepository, never()).findExistingTransactionIds(any());
+        verify(accountRepository).addBalance(eq(1L), eq(-700L), any());
+    }
+
+    @Test
+    @DisplayName("재실행 시 이미 저장된 거래는 insert 도 증감분도 건너뛴다")
+    void skipExistingOnReplay() {
+        //given
+        given(transactionRepository.findExistingTransactionIds(Arrays.asList("tx1", "tx2")))
+            .willReturn(Collections.singletonList("tx1"));
+        given(accountRepository.getById(1L)).willReturn(Account.builder().id(1L).build());
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+
+        //when
+        hotAccountWriter.write(Arrays.asList(
+            record(1, "tx1", TransactionType.USE, TransactionResultType.S, 1000L),
+            record(2, "tx2", TransactionType.USE, TransactionResultType.S, 200L)), true);
+
+        //then
+        verify(transactionRepository).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals("tx2", captor.getValue().get(0).getTransactionId());
+        verify(accountRepository).addBalance(eq(1L), eq(-200L), any());
+    }
+
+    @Test
+    @DisplayName("모두 이미 저장된 기록이면 잔액을 건드리지 않는다")
+    void noBalanceUpdateWhenAllExisting() {
+        //given
+        given(transactionRepository.findExistingTransactionIds(Collections.singletonList("tx1")))
+            .willReturn(Collections.singletonList("tx1"));
+
+        //when
+        hotAccountWriter.write(Collections.singletonList(
+            record(1, "tx1", TransactionType.USE, TransactionResultType.S, 1000L)), true);
+
+        //then
+        verify(accountRepository, never()).addBalance(anyLong(), anyLong(), any());
+    }
+
+    private static HotAccountRecord record(long seq, String transactionId, TransactionType type,
+                                           TransactionResultType result, Long amount) {
+        return new HotAccountRecord(seq, transactionId, 1L, "1000000000",
+            type, result, amount, 0L, LocalDateTime.now());
+    }
+}
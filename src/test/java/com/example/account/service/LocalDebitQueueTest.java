@@ -0,0 +1,170 @@
+package com.example.account.service;
+
+import com.example.account.config.AsyncDebitProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalDebitQueueTest {
+    @TempDir
+    Path logDir;
+
+    private AsyncDebitProperties properties;
+    private LocalDebitQueue queue;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new AsyncDebitProperties();
+        properties.setPartitions(1);
+        properties.setLogDir(logDir.toString());
+        queue = start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.stop();
+    }
+
+    @Test
+    @DisplayName("재기동하면 ack 되지 않은 요청을 들어온 순서대로 다시 읽는다")
+    void replayAfterRestart() throws Exception {
+        //given
+        queue.append(0, request("tx1", 1000L));
+        queue.append(0, request("tx2", 2000L));
+        queue.stop();
+
+        //when
+        queue = start();
+        List<DebitQueue.Entry> entries = queue.poll(0, 10, 0);
+
+        //then
+        assertEquals(2, entries.size());
+        assertEquals("tx1", entries.get(0).getRequest().getTransactionId());
+        assertEquals("tx2", entries.get(1).getRequest().getTransactionId());
+        assertEquals(2000L, entries.get(1).getRequest().getAmount());
+        assertTrue(queue.findPending("tx1").isPresent());
+    }
+
+    @Test
+    @DisplayName("모두 ack 되면 파일을 비우고 재기동해도 다시 읽지 않는다")
+    void truncateWhenFullyAcked() throws Exception {
+        //given
+        queue.append(0, request("tx1", 1000L));
+        queue.append(0, request("tx2", 2000L));
+
+        //when
+        queue.ack(0, queue.poll(0, 10, 0));
+
+        //then
+        assertEquals(0, Files.size(logFile()));
+        assertFalse(queue.findPending("tx1").isPresent());
+        queue.stop();
+        queue = start();
+        assertTrue(queue.poll(0, 10, 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("일부만 ack 되면 파일은 남기고 남은 요청만 다시 돌려준다")
+    void keepFileWhenPartiallyAcked() throws Exception {
+        //given
+        queue.append(0, request("tx1", 1000L));
+        queue.append(0, request("tx2", 2000L));
+        List<DebitQueue.Entry> entries = queue.poll(0, 10, 0);
+
+        //when
+        queue.ack(0, entries.subList(0, 1));
+
+        //then
+        assertTrue(Files.size(logFile()) > 0);
+        List<DebitQueue.Entry> remaining = queue.poll(0, 10, 0);
+        assertEquals(1, remaining.size());
+        assertEquals("tx2", remaining.get(0).getRequest().getTransactionId());
+    }
+
+    @Test
+    @DisplayName("큐가 비지 않아도 ack 된 줄이 쌓이면 남은 요청만 남기고 파일을 줄인다")
+    void compactAckedLines() throws Exception {
+        //given
+        properties.setCompactAckedLines(2);
+        queue.append(0, request("tx1", 1000L));
+        queue.append(0, request("tx2", 2000L));
+        queue.append(0, request("tx3", 3000L));
+        List<DebitQueue.Entry> entries = queue.poll(0, 10, 0);
+
+        //when
+        queue.ack(0, entries.subList(0, 2));
+        queue.append(0, request("tx4", 4000L));
+
+        //then
+        List<String> lines = Files.readAllLines(logFile(), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("tx3"));
+        queue.stop();
+        queue = start();
+        List<DebitQueue.Entry> replayed = queue.poll(0, 10, 0);
+        assertEquals(2, replayed.size());
+        assertEquals("tx3", replayed.get(0).getRequest().getTransactionId());
+        assertEquals("tx4", replayed.get(1).getRequest().getTransactionId());
+    }
+
+    @Test
+    @DisplayName("쓰다 끊긴 마지막 줄은 건너뛴다 (append 가 반환되지 않은 요청)")
+    void skipTornLine() throws Exception {
+        //given
+        queue.stop();
+        Files.write(logFile(), (request("tx1", 1000L).toLine() + "\ntx2\t1\t100")
+            .getBytes(StandardCharsets.UTF_8));
+
+        //when
+        queue = start();
+
+        //then
+        List<DebitQueue.Entry> entries = queue.poll(0, 10, 0);
+        assertEquals(1, entries.size());
+        assertEquals("tx1", entries.get(0).getRequest().getTransactionId());
+    }
+
+    @Test
+    @DisplayName("dead letter 는 파티션과 함께 별도 파일에 남고 ack 하면 큐에서 빠진다")
+    void deadLetterToSeparateFile() throws Exception {
+        //given
+        queue.append(0, request("tx1", 1000L));
+        queue.append(0, request("tx2", 2000L));
+        List<DebitQueue.Entry> entries = queue.poll(0, 10, 0);
+
+        //when
+        queue.deadLetter(0, entries.get(0));
+        queue.ack(0, entries.subList(0, 1));
+
+        //then
+        List<String> lines = Files.readAllLines(logDir.resolve("dead-letter.log"), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertEquals("0\t" + entries.get(0).getRequest().toLine(), lines.get(0));
+        assertFalse(queue.findPending("tx1").isPresent());
+        assertEquals("tx2", queue.poll(0, 10, 0).get(0).getRequest().getTransactionId());
+    }
+
+    private LocalDebitQueue start() throws Exception {
+        LocalDebitQueue started = new LocalDebitQueue(properties);
+        started.start();
+        return started;
+    }
+
+    private Path logFile() {
+        return logDir.resolve("debit-000.log");
+    }
+
+    private DebitRequest request(String transactionId, Long amount) {
+        return new DebitRequest(transactionId, 1L, "1000000000", amount, LocalDateTime.now());
+    }
+}
@@ -4,6 +4,7 @@ import com.example.account.dto.UseBalance;
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -13,6 +14,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -21,6 +24,15 @@ class LockAopAspectTest {
     @Mock
     private LockService lockService;
 
+    @Mock
+    private HotAccountEngine hotAccountEngine;
+
+    @Mock
+    private AsyncDebitService asyncDebitService;
+
+    @Mock
+    private AffinityRouter affinityRouter;
+
     @Mock
     private ProceedingJoinPoint proceedingJoinPoint;
 
@@ -74,4 +86,40 @@ class LockAopAspectTest {
         assertEquals("54321", unlockArgumentCaptor.getValue());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("계좌 라우팅으로 소유한 계좌는 로컬 락만 잡는다")
+    void lockLocal_whenAffinityOwner() throws Throwable {
+        //given
+        UseBalance.Request request =
+            new UseBalance.Request(123L, "1000000000", 1234L);
+        given(affinityRouter.covers("1000000000")).willReturn(true);
+        given(affinityRouter.awaitAuthority("1000000000")).willReturn(true);
+
+        //when
+        lockAopAspect.aroundMethod(proceedingJoinPoint, request);
+
+        //then
+        verify(lockService, times(1)).lockLocal("1000000000");
+        verify(lockService, times(1)).unlockLocal("1000000000");
+        verify(lockService, never()).lock(anyString());
+    }
+
+    @Test
+    @DisplayName("소유 노드가 아니면 (전달 실패 등) 락 없이 거절")
+    void rejectWhenNotAffinityOwner() throws Throwable {
+        //given
+        UseBalance.Request request =
+            new UseBalance.Request(123L, "1000000000", 1234L);
+        given(affinityRouter.covers("1000000000")).willReturn(true);
+        given(affinityRouter.awaitAuthority("1000000000")).willReturn(false);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> lockAopAspect.aroundMethod(proceedingJoinPoint, request));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        verify(lockService, never()).lockLocal(anyString());
+        verify(proceedingJoinPoint, never()).proceed();
+    }
+}
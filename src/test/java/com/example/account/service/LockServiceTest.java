@@ -2,17 +2,27 @@ package com.example.account.service;
 
 import com.example.account.exception.AccountException;
 import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RFuture;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class LockServiceTest {
@@ -22,6 +32,12 @@ class LockServiceTest {
     @Mock
     private RLock rLock;
 
+    @Mock
+    private RLock otherLock;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private LockService lockService;
 
@@ -53,4 +69,139 @@ class LockServiceTest {
         //then
         assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("설정한 대기/lease 시간으로 락을 잡는다")
+    void lockWithConfiguredWaitAndLease() throws Exception {
+        //given
+        lockService.setWaitMs(200);
+        lockService.setLeaseMs(3000);
+        given(redissonClient.getLock("ACLK123")).willReturn(rLock);
+        given(rLock.tryLock(200L, 3000L, TimeUnit.MILLISECONDS)).willReturn(true);
+
+        //when
+        lockService.lock("123");
+
+        //then
+        verify(rLock).tryLock(200L, 3000L, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    @DisplayName("Timer 는 결과 태그별로 한 번만 만들고 이후에는 재사용")
+    void reuseTimersPerTag() throws Exception {
+        //given
+        given(redissonClient.getLock(anyString()))
+            .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any()))
+            .willReturn(true, true, false);
+
+        //when
+        for (int i = 0; i < 2; i++) {
+            lockService.lock("123");
+            lockService.unlock("123");
+        }
+        assertThrows(AccountException.class, () -> lockService.lock("123"));
+
+        //then
+        verify(meterRegistry, times(1)).timer("account.lock.acquire", "result", "acquired");
+        verify(meterRegistry, times(1)).timer("account.lock.acquire", "result", "failed");
+        verify(meterRegistry, times(1)).timer("account.lock.hold");
+        verify(meterRegistry, times(1)).timer("account.lock.release");
+        assertEquals(2, meterRegistry.get("account.lock.acquire").tag("result", "acquired").timer().count());
+        assertEquals(1, meterRegistry.get("account.lock.acquire").tag("result", "failed").timer().count());
+        assertEquals(2, meterRegistry.get("account.lock.hold").timer().count());
+    }
+
+    @Test
+    @DisplayName("로컬 락도 결과 태그별 Timer 를 재사용")
+    void reuseLocalTimers() {
+        //given
+        lockService.setWaitMs(10);
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            lockService.lockLocal("123");
+            lockService.unlockLocal("123");
+        }
+
+        //then
+        verify(meterRegistry, times(1)).timer("account.lock.acquire.local", "result", "acquired");
+        assertEquals(3, meterRegistry.get("account.lock.acquire.local").tag("result", "acquired").timer().count());
+        assertEquals(3, meterRegistry.get("account.lock.hold").timer().count());
+    }
+
+    @Test
+    @DisplayName("여러 계좌의 락을 중복 없이 한 번에 보내 모두 잡는다")
+    void successLockAll() {
+        //given
+        given(redissonClient.getLock("ACLK1000000000")).willReturn(rLock);
+        given(redissonClient.getLock("ACLK1000000001")).willReturn(otherLock);
+        RFuture<Boolean> acquired = completed(true);
+        given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong())).willReturn(acquired);
+        given(otherLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong())).willReturn(acquired);
+
+        //when
+        //then
+        assertDoesNotThrow(() -> lockService.lockAll(
+            Arrays.asList("1000000001", "1000000000", "1000000001")));
+        verify(rLock, times(1)).tryLockAsync(eq(0L), eq(-1L), any(), anyLong());
+        verify(otherLock, times(1)).tryLockAsync(anyLong(), anyLong(), any(), anyLong());
+        verify(rLock, never()).unlockAsync(anyLong());
+    }
+
+    @Test
+    @DisplayName("일부 계좌만 잠기면 잡은 락을 풀고 실패")
+    void failLockAll_releaseAcquired() {
+        //given
+        given(redissonClient.getLock("ACLK1000000000")).willReturn(rLock);
+        given(redissonClient.getLock("ACLK1000000001")).willReturn(otherLock);
+        RFuture<Boolean> acquired = completed(true);
+        RFuture<Boolean> rejected = completed(false);
+        RFuture<Void> released = completed(null);
+        given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong())).willReturn(acquired);
+        given(otherLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong())).willReturn(rejected);
+        given(rLock.unlockAsync(anyLong())).willReturn(released);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> lockService.lockAll(Arrays.asList("1000000000", "1000000001")));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        verify(rLock, times(1)).unlockAsync(anyLong());
+        verify(otherLock, never()).unlockAsync(anyLong());
+    }
+
+    @Test
+    @DisplayName("lockAll 로 잡은 락은 unlockAll 로 한 번에 풀고 보유 시간을 남긴다")
+    void unlockAll() {
+        //given
+        given(redissonClient.getLock("ACLK1000000000")).willReturn(rLock);
+        given(redissonClient.getLock("ACLK1000000001")).willReturn(otherLock);
+        RFuture<Boolean> acquired = completed(true);
+        RFuture<Void> released = completed(null);
+        given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong())).willReturn(acquired);
+        given(otherLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong())).willReturn(acquired);
+        given(rLock.unlockAsync(anyLong())).willReturn(released);
+        given(otherLock.unlockAsync(anyLong())).willReturn(released);
+        lockService.lockAll(Arrays.asList("1000000000", "1000000001"));
+
+        //when
+        lockService.unlockAll(Arrays.asList("1000000000", "1000000001"));
+
+        //then
+        verify(rLock, times(1)).unlockAsync(anyLong());
+        verify(otherLock, times(1)).unlockAsync(anyLong());
+        assertEquals(2, meterRegistry.get("account.lock.hold").timer().count());
+        assertEquals(1, meterRegistry.get("account.lock.acquire.batch").tag("result", "acquired").timer().count());
+        assertEquals(2.0, meterRegistry.get("account.lock.batch.size").summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get("account.lock.batch.attempts").summary().totalAmount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> RFuture<T> completed(T value) {
+        RFuture<T> future = mock(RFuture.class);
+        given(future.toCompletableFuture()).willReturn(CompletableFuture.completedFuture(value));
+        return future;
+    }
+}
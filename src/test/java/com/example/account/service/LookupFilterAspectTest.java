@@ -0,0 +1,79 @@
+package com.example.account.service;
+
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LookupFilterAspectTest {
+    @Mock
+    private LookupFilterService lookupFilterService;
+
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+
+    @InjectMocks
+    private LookupFilterAspect lookupFilterAspect;
+
+    @Test
+    void proceedWhenMightExist() throws Throwable {
+        //given
+        UseBalance.Request request =
+            new UseBalance.Request(123L, "1234567890", 1234L);
+
+        //when
+        lookupFilterAspect.aroundMethod(proceedingJoinPoint, request);
+
+        //then
+        verify(proceedingJoinPoint, times(1)).proceed();
+    }
+
+    @Test
+    @DisplayName("없는 계좌 - 락 시도 없이 거절")
+    void rejectMissingAccount() throws Throwable {
+        //given
+        UseBalance.Request request =
+            new UseBalance.Request(123L, "1234567890", 1234L);
+        given(lookupFilterService.isMissingAccount("1234567890"))
+            .willReturn(true);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> lookupFilterAspect.aroundMethod(proceedingJoinPoint, request));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, exception.getErrorCode());
+        verify(proceedingJoinPoint, never()).proceed();
+    }
+
+    @Test
+    @DisplayName("없는 거래 취소 - 락 시도 없이 거절")
+    void rejectMissingTransaction() throws Throwable {
+        //given
+        CancelBalance.Request request =
+            new CancelBalance.Request("transactionId", "1234567890", 1234L);
+        given(lookupFilterService.isMissingTransaction("transactionId"))
+            .willReturn(true);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> lookupFilterAspect.aroundMethod(proceedingJoinPoint, request));
+
+        //then
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, exception.getErrorCode());
+        verify(proceedingJoinPoint, never()).proceed();
+    }
+}
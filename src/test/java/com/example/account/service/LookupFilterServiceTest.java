@@ -0,0 +1,139 @@
+package com.example.account.service;
+
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LookupFilterServiceTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private AccountIndexService accountIndexService;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RTopic topic;
+
+    @InjectMocks
+    private LookupFilterService lookupFilterService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(lookupFilterService, "enabled", true);
+        ReflectionTestUtils.setField(lookupFilterService, "expectedAccounts", 1000L);
+        ReflectionTestUtils.setField(lookupFilterService, "expectedTransactions", 1000L);
+        ReflectionTestUtils.setField(lookupFilterService, "fpp", 0.01);
+        ReflectionTestUtils.setField(lookupFilterService, "negativeTtlMs", 60_000L);
+        ReflectionTestUtils.setField(lookupFilterService, "maxNegativeEntries", 100);
+    }
+
+    @Test
+    @DisplayName("redis-sync 가 꺼져 있으면 bloom 에 없어도 모른다고 보고 DB 조회로 넘긴다")
+    void bloomMissIsUnknownWithoutSync() {
+        //given
+        rebuildWith(Collections.singletonList(new Object[]{1L, "1000000000"}));
+
+        //when
+        //then
+        assertFalse(lookupFilterService.isMissingAccount("2000000000"));
+        assertFalse(lookupFilterService.isMissingTransaction("transactionId"));
+    }
+
+    @Test
+    @DisplayName("DB 에서 없다고 확인된 키는 negative cache 로 거르고, 추가되면 바로 풀린다")
+    void negativeCacheUntilAdded() {
+        //given
+        lookupFilterService.recordMissingAccount("2000000000");
+        lookupFilterService.recordMissingTransaction("transactionId");
+
+        //when
+        boolean missingBeforeAdd = lookupFilterService.isMissingAccount("2000000000");
+        lookupFilterService.addAccount("2000000000");
+
+        //then
+        assertTrue(missingBeforeAdd);
+        assertFalse(lookupFilterService.isMissingAccount("2000000000"));
+        assertTrue(lookupFilterService.isMissingTransaction("transactionId"));
+    }
+
+    @Test
+    @DisplayName("redis-sync 면 bloom 에 없는 계좌를 DB 조회 없이 거르고, 다른 노드에서 받은 키는 통과")
+    void bloomMissIsTrustedWithSync() {
+        //given
+        ReflectionTestUtils.setField(lookupFilterService, "redisSync", true);
+        rebuildWith(Collections.singletonList(new Object[]{1L, "1000000000"}));
+        given(redissonClient.getTopic("LKFILTER", StringCodec.INSTANCE)).willReturn(topic);
+
+        //when
+        lookupFilterService.addAccount("3000000000");
+
+        //then
+        assertFalse(lookupFilterService.isMissingAccount("1000000000"));
+        assertFalse(lookupFilterService.isMissingAccount("3000000000"));
+        assertTrue(lookupFilterService.isMissingAccount("2000000000"));
+        verify(topic).publishAsync("A3000000000");
+    }
+
+    @Test
+    @DisplayName("이 노드의 계좌 인덱스에 있는 계좌는 거르지 않는다")
+    void skipIndexedAccount() {
+        //given
+        lookupFilterService.recordMissingAccount("1000000000");
+        given(accountIndexService.contains("1000000000")).willReturn(true);
+
+        //when
+        //then
+        assertFalse(lookupFilterService.isMissingAccount("1000000000"));
+    }
+
+    @Test
+    @DisplayName("꺼져 있으면 거르지 않는다")
+    void passWhenDisabled() {
+        //given
+        lookupFilterService.recordMissingAccount("1000000000");
+        ReflectionTestUtils.setField(lookupFilterService, "enabled", false);
+
+        //when
+        //then
+        assertFalse(lookupFilterService.isMissingAccount("1000000000"));
+        verify(accountIndexService, never()).contains(any());
+    }
+
+    private void rebuildWith(List<Object[]> accountRows) {
+        given(shardRouter.getShardCount()).willReturn(1);
+        given(accountRepository.findAccountNumbersAfter(0L, PageRequest.of(0, 10_000))).willReturn(accountRows);
+        given(transactionRepository.findTransactionIdsAfter(0L, PageRequest.of(0, 10_000)))
+            .willReturn(Collections.emptyList());
+        lookupFilterService.rebuild();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.account.service;
+
+import com.example.account.config.OutboxProperties;
+import com.example.account.domain.OutboxEvent;
+import com.example.account.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxSink outboxSink;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        OutboxProperties properties = new OutboxProperties();
+        properties.setBatchSize(2);
+        outboxRelay = new OutboxRelay(properties, outboxEventRepository, outboxSink, shardRouter, redissonClient);
+    }
+
+    @Test
+    void relayInOrderAndDelete() throws Exception {
+        //given
+        List<OutboxEvent> first = Arrays.asList(event(1L), event(2L));
+        List<OutboxEvent> second = Arrays.asList(event(3L));
+        given(outboxEventRepository.findOldest(any()))
+            .willReturn(first)
+            .willReturn(second);
+
+        //when
+        int relayed = outboxRelay.relayShard(0);
+
+        //then
+        assertEquals(3, relayed);
+        verify(outboxSink).publish(first);
+        verify(outboxSink).publish(second);
+        verify(outboxEventRepository).deleteAllByIdInBatch(Arrays.asList(1L, 2L));
+        verify(outboxEventRepository).deleteAllByIdInBatch(Arrays.asList(3L));
+    }
+
+    @Test
+    @DisplayName("sink 전송에 실패하면 지우지 않고 다음 주기에 다시 보낸다")
+    void keepEventsWhenSinkFails() throws Exception {
+        //given
+        given(outboxEventRepository.findOldest(any()))
+            .willReturn(Arrays.asList(event(1L)));
+        willThrow(new IllegalStateException("redis down"))
+            .given(outboxSink).publish(anyList());
+
+        //when
+        assertThrows(IllegalStateException.class, () -> outboxRelay.relayShard(0));
+
+        //then
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    private static OutboxEvent event(Long id) {
+        return OutboxEvent.builder()
+            .id(id)
+            .accountNumber("1000000000")
+            .transactionId("transaction" + id)
+            .amount(1000L)
+            .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.account.service;
+
+import com.example.account.dto.TransactionDto;
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class PreValidationServiceTest {
+    @Mock
+    private AccountIndexService accountIndexService;
+
+    @Mock
+    private AffinityRouter affinityRouter;
+
+    @InjectMocks
+    private PreValidationService preValidationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(preValidationService, "enabled", true);
+        ReflectionTestUtils.setField(preValidationService, "balanceTtlMs", 1000L);
+        ReflectionTestUtils.setField(preValidationService, "maxCachedTransactions", 100);
+    }
+
+    @Test
+    void passWhenAccountUnknown() {
+        //given
+        given(accountIndexService.lookup("1000000000"))
+            .willReturn(AccountIndex.ABSENT);
+
+        //when
+        //then
+        assertDoesNotThrow(() -> preValidationService.validateUse(1L, "1000000000", 1000L));
+    }
+
+    @Test
+    @DisplayName("소유주가 다른 계좌 - 락 없이 거절")
+    void rejectUserAccountUnmatched() {
+        //given
+        given(accountIndexService.lookup("1000000000"))
+            .willReturn(packed(AccountIndex.STATUS_IN_USE, 2L));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> preValidationService.validateUse(1L, "1000000000", 1000L));
+
+        //then
+        assertEquals(ErrorCode.USER_ACCOUNT_UNMATCHED, exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("해지된 계좌 - 락 없이 거절")
+    void rejectUnregisteredAccount() {
+        //given
+        given(accountIndexService.lookup("1000000000"))
+            .willReturn(packed(AccountIndex.STATUS_UNREGISTERED, 1L));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> preValidationService.validateUse(1L, "1000000000", 1000L));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED, exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("잔액 검사는 balance-check 를 켠 경우에만")
+    void rejectAmountExceedBalanceWhenEnabled() {
+        //given
+        given(accountIndexService.lookup("1000000000"))
+            .willReturn(packed(AccountIndex.STATUS_IN_USE, 1L));
+        preValidationService.onCompleted(useTransaction("transactionId", 1000L, 100L));
+        assertDoesNotThrow(() -> preValidationService.validateUse(1L, "1000000000", 5000L));
+        ReflectionTestUtils.setField(preValidationService, "balanceCheck", true);
+        preValidationService.onCompleted(useTransaction("transactionId", 1000L, 100L));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> preValidationService.validateUse(1L, "1000000000", 5000L));
+
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        assertDoesNotThrow(() -> preValidationService.validateUse(1L, "1000000000", 100L));
+    }
+
+    @Test
+    @DisplayName("다른 계좌의 거래 취소 - 락 없이 거절")
+    void rejectTransactionAccountUnmatched() {
+        //given
+        preValidationService.onCompleted(useTransaction("transactionId", 1000L, 100L));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> preValidationService.validateCancel("transactionId", "2000000000", 1000L));
+
+        //then
+        assertEquals(ErrorCode.TRANSACTION_ACCOUNT_UNMATCHED, exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("부분 취소 - 락 없이 거절")
+    void rejectPartialCancel() {
+        //given
+        preValidationService.onCompleted(useTransaction("transactionId", 1000L, 100L));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> preValidationService.validateCancel("transactionId", "1000000000", 500L));
+
+        //then
+        assertEquals(ErrorCode.CANCEL_MUST_FULLY, exception.getErrorCode());
+        assertDoesNotThrow(() -> preValidationService.validateCancel("transactionId", "1000000000", 1000L));
+        assertDoesNotThrow(() -> preValidationService.validateCancel("unknown", "2000000000", 500L));
+    }
+
+    private static long packed(int status, long ownerId) {
+        return ((long) status << 56) | ownerId;
+    }
+
+    private static TransactionDto useTransaction(String transactionId, Long amount, Long balanceSnapshot) {
+        return TransactionDto.builder()
+            .accountNumber("1000000000")
+            .transactionResult(S)
+            .transactionType(USE)
+            .transactionId(transactionId)
+            .amount(amount)
+            .balanceSnapshot(balanceSnapshot)
+            .transactedAt(LocalDateTime.now())
+            .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.config.ScheduledTask;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.ClassUtils;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * prod 프로파일(lazy-initialization)에서도 요청 없이 스케줄 작업이 등록되는지
+ */
+@ActiveProfiles("prod")
+@SpringBootTest(properties = {
+    // prod 는 외부 redis 를 쓰므로 테스트에서만 embedded redis 를 띄운다
+    "account.embedded-redis.enabled=true",
+    "logging.level.com.example.account=WARN"
+})
+class ProdProfileSchedulingTest {
+    @Autowired
+    private ScheduledTaskHolder scheduledTaskHolder;
+
+    @Test
+    @DisplayName("lazy-initialization 이어도 야간 대사, 집계, 한도 정리 작업이 스케줄된다")
+    void scheduledUnderLazyInitialization() {
+        //given
+        //when
+        Set<String> scheduled = scheduledTaskHolder.getScheduledTasks().stream()
+            .map(ScheduledTask::getTask)
+            .filter(task -> task.getRunnable() instanceof ScheduledMethodRunnable)
+            .map(task -> {
+                ScheduledMethodRunnable runnable = (ScheduledMethodRunnable) task.getRunnable();
+                return ClassUtils.getUserClass(runnable.getMethod().getDeclaringClass()).getSimpleName()
+                    + "." + runnable.getMethod().getName();
+            })
+            .collect(Collectors.toSet());
+
+        //then
+        assertTrue(scheduled.contains("ReconciliationService.runNightly"), scheduled.toString());
+        assertTrue(scheduled.contains("DailyAggregateService.flush"), scheduled.toString());
+        assertTrue(scheduled.contains("DailyAggregateService.backfillYesterday"), scheduled.toString());
+        assertTrue(scheduled.contains("SpendLimitService.cleanup"), scheduled.toString());
+    }
+}
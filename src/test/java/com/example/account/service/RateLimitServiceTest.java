@@ -0,0 +1,135 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RFuture;
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateLimiterConfig;
+import org.redisson.api.RateIntervalUnit;
+import org.redisson.api.RateType;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitServiceTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @InjectMocks
+    private RateLimitService rateLimitService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rateLimitService, "enabled", true);
+        ReflectionTestUtils.setField(rateLimitService, "userPermitsPerSecond", 50L);
+        ReflectionTestUtils.setField(rateLimitService, "accountPermitsPerSecond", 1L);
+        ReflectionTestUtils.setField(rateLimitService, "maxLocalBuckets", 100);
+    }
+
+    @Test
+    @DisplayName("꺼져 있으면 모두 통과")
+    void passWhenDisabled() {
+        //given
+        ReflectionTestUtils.setField(rateLimitService, "enabled", false);
+
+        //when
+        //then
+        assertTrue(rateLimitService.tryAcquire(1L, "1000000000"));
+        assertTrue(rateLimitService.tryAcquire(1L, "1000000000"));
+        verifyNoInteractions(redissonClient);
+    }
+
+    @Test
+    @DisplayName("계좌 제한을 넘으면 거절")
+    void rejectOverAccountLimit() {
+        //given
+        //when
+        //then
+        assertTrue(rateLimitService.tryAcquire(1L, "1000000000"));
+        assertFalse(rateLimitService.tryAcquire(1L, "1000000000"));
+        assertTrue(rateLimitService.tryAcquire(1L, "1000000001"));
+        verifyNoInteractions(redissonClient);
+    }
+
+    @Test
+    @DisplayName("버킷이 max 만큼 쌓여도 쓰고 있는 버킷은 지우지 않는다")
+    void keepActiveBucketsOnEviction() {
+        //given
+        ReflectionTestUtils.setField(rateLimitService, "maxLocalBuckets", 1);
+        assertTrue(rateLimitService.tryAcquire(null, "1000000000"));
+
+        //when
+        assertTrue(rateLimitService.tryAcquire(null, "1000000001"));
+
+        //then
+        assertFalse(rateLimitService.tryAcquire(null, "1000000000"));
+        assertFalse(rateLimitService.tryAcquire(null, "1000000001"));
+    }
+
+    @Test
+    @DisplayName("가득 찬 (쓰지 않는) 버킷은 정리된다")
+    void evictFullBuckets() {
+        //given
+        ReflectionTestUtils.setField(rateLimitService, "maxLocalBuckets", 1);
+        assertTrue(rateLimitService.tryAcquire(null, "1000000000"));
+
+        //when
+        rateLimitService.evictFullBuckets(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+
+        //then
+        assertTrue(rateLimitService.tryAcquire(null, "1000000000"));
+    }
+
+    @Test
+    @DisplayName("redis 제한은 없을 때만 만들고, 버킷이 정리된 뒤 다시 써도 허용량을 초기화하지 않는다")
+    void keepRedisRateAcrossEviction() {
+        //given
+        ReflectionTestUtils.setField(rateLimitService, "redisEnabled", true);
+        ReflectionTestUtils.setField(rateLimitService, "maxLocalBuckets", 1);
+        RRateLimiter rateLimiter = mock(RRateLimiter.class);
+        RFuture<Boolean> acquired = mock(RFuture.class);
+        given(acquired.toCompletableFuture()).willReturn(CompletableFuture.completedFuture(true));
+        given(redissonClient.getRateLimiter(anyString())).willReturn(rateLimiter);
+        given(rateLimiter.tryAcquireAsync()).willReturn(acquired);
+        given(rateLimiter.trySetRate(RateType.OVERALL, 1L, 1L, RateIntervalUnit.SECONDS)).willReturn(true, false);
+        given(rateLimiter.getConfig()).willReturn(new RateLimiterConfig(RateType.OVERALL, 1000L, 1L));
+        assertTrue(rateLimitService.tryAcquire(null, "1000000000"));
+
+        //when
+        rateLimitService.evictFullBuckets(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+        assertTrue(rateLimitService.tryAcquire(null, "1000000000"));
+
+        //then
+        verify(rateLimiter, times(2)).trySetRate(RateType.OVERALL, 1L, 1L, RateIntervalUnit.SECONDS);
+        verify(rateLimiter, never()).setRate(any(), anyLong(), anyLong(), any());
+        assertEquals(1, ((Set<?>) ReflectionTestUtils.getField(rateLimitService, "initializedRedisLimiters")).size());
+    }
+
+    @Test
+    @DisplayName("redis 에 저장된 제한이 현재 설정과 다를 때만 setRate 로 바꾼다")
+    void updateChangedRedisRate() {
+        //given
+        RRateLimiter rateLimiter = mock(RRateLimiter.class);
+        given(rateLimiter.trySetRate(RateType.OVERALL, 20L, 1L, RateIntervalUnit.SECONDS)).willReturn(false);
+        given(rateLimiter.getConfig()).willReturn(new RateLimiterConfig(RateType.OVERALL, 1000L, 10L));
+
+        //when
+        rateLimitService.applyRate(rateLimiter, 20L);
+
+        //then
+        verify(rateLimiter).setRate(RateType.OVERALL, 20L, 1L, RateIntervalUnit.SECONDS);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.account.service;
+
+import com.example.account.config.ReconciliationProperties;
+import com.example.account.domain.Account;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ReconciliationServiceTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @TempDir
+    Path reportDir;
+
+    private ReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        ReconciliationProperties properties = new ReconciliationProperties();
+        properties.setReportDir(reportDir.toString());
+        reconciliationService = new ReconciliationService(
+            properties, accountRepository, transactionRepository, shardRouter, redissonClient);
+        given(shardRouter.getShardCount()).willReturn(1);
+        given(accountRepository.findMaxId()).willReturn(2L);
+        given(transactionRepository.findMaxId()).willReturn(100L);
+        given(accountRepository.findBalancesBetween(anyLong(), anyLong(), any()))
+            .willReturn(Arrays.asList(
+                new Object[]{1L, "1000000000", 7000L, LocalDateTime.now().minusDays(1)},
+                new Object[]{2L, "1000000001", 500L, LocalDateTime.now().minusDays(1)}));
+    }
+
+    @Test
+    void successReconcile() throws Exception {
+        //given
+        given(transactionRepository.findChainsAfter(anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), any(), any()))
+            .willReturn(Arrays.asList(
+                new Object[]{1L, 10L, USE, 1000L, 9000L, "tx1"},
+                new Object[]{1L, 11L, USE, 3000L, 6000L, "tx2"},
+                new Object[]{1L, 12L, CANCEL, 1000L, 7000L, "tx3"},
+                new Object[]{2L, 13L, USE, 500L, 500L, "tx4"}));
+
+        //when
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        //then
+        assertEquals(2, report.getAccounts());
+        assertEquals(4, report.getTransactions());
+        assertEquals(0, report.getMismatches());
+    }
+
+    @Test
+    @DisplayName("스냅샷 체인이 끊기고 잔액이 다르면 리포트에 기록")
+    void reportMismatches() throws Exception {
+        //given
+        given(transactionRepository.findChainsAfter(anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), any(), any()))
+            .willReturn(Arrays.asList(
+                new Object[]{1L, 10L, USE, 1000L, 9000L, "tx1"},
+                new Object[]{1L, 11L, USE, 3000L, 5000L, "tx2"},
+                new Object[]{1L, 12L, CANCEL, 1000L, 6000L, "tx3"},
+                new Object[]{2L, 13L, USE, 500L, 500L, "tx4"}));
+        given(accountRepository.findById(1L))
+            .willReturn(Optional.of(Account.builder().id(1L).balance(7000L).build()));
+        given(transactionRepository.findLatestSnapshots(eq(1L), any(), any()))
+            .willReturn(Collections.singletonList(6000L));
+
+        //when
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        //then
+        assertEquals(2, report.getMismatches());
+        List<String> lines = Files.readAllLines(report.getPath());
+        assertTrue(lines.contains("0\t1000000000\tCHAIN_BROKEN\ttx2\t6000\t5000"));
+        assertTrue(lines.contains("0\t1000000000\tBALANCE_MISMATCH\t-\t6000\t7000"));
+    }
+
+    @Test
+    @DisplayName("재확인 읽기 사이에 커밋된 거래는 불일치가 아니라 live 로 건너뛴다")
+    void skipCommitBetweenRecheckReads() throws Exception {
+        //given
+        given(transactionRepository.findChainsAfter(anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), any(), any()))
+            .willReturn(Arrays.asList(
+                new Object[]{1L, 10L, USE, 1000L, 9000L, "tx1"},
+                new Object[]{1L, 11L, USE, 3000L, 6000L, "tx2"},
+                new Object[]{2L, 13L, USE, 500L, 500L, "tx4"}));
+        // 재확인의 첫 번째 읽기 직후 1000원 사용이 커밋된다 (잔액/스냅샷 6000 -> 5000)
+        AtomicBoolean committed = new AtomicBoolean();
+        given(transactionRepository.findLatestSnapshots(eq(1L), any(), any()))
+            .willAnswer(invocation -> Collections.singletonList(committed.getAndSet(true) ? 5000L : 6000L));
+        given(accountRepository.findById(1L)).willAnswer(invocation -> {
+            boolean afterCommit = committed.getAndSet(true);
+            Account account = Account.builder().id(1L).balance(afterCommit ? 5000L : 6000L).build();
+            account.setUpdatedAt(afterCommit ? LocalDateTime.now() : LocalDateTime.now().minusDays(1));
+            return Optional.of(account);
+        });
+
+        //when
+        ReconciliationReport report = reconciliationService.reconcile();
+
+        //then
+        assertEquals(0, report.getMismatches());
+        assertEquals(1, report.getSkippedLive());
+    }
+}
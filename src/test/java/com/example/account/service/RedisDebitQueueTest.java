@@ -0,0 +1,88 @@
+package com.example.account.service;
+
+import com.example.account.config.AsyncDebitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RMap;
+import org.redisson.api.RStream;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.StreamMessageId;
+import org.redisson.client.codec.StringCodec;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RedisDebitQueueTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RStream<String, String> stream;
+
+    @Mock
+    private RMap<String, String> pendingMap;
+
+    private RedisDebitQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        AsyncDebitProperties properties = new AsyncDebitProperties();
+        queue = new RedisDebitQueue(properties, redissonClient);
+        given(redissonClient.<String, String>getStream("DEBITQ:0", StringCodec.INSTANCE)).willReturn(stream);
+    }
+
+    @Test
+    @DisplayName("새 소유 노드는 같은 consumer 이름으로 ack 안 된 요청부터 이어받는다")
+    void resumeUnackedEntries() {
+        //given
+        Map<StreamMessageId, Map<String, String>> unacked = new LinkedHashMap<>();
+        unacked.put(new StreamMessageId(1, 0), Collections.singletonMap("r", request("tx1").toLine()));
+        unacked.put(new StreamMessageId(2, 0), Collections.singletonMap("r", request("tx2").toLine()));
+        given(stream.readGroup("appliers", "p0", 10, StreamMessageId.ALL)).willReturn(unacked);
+
+        //when
+        List<DebitQueue.Entry> entries = queue.poll(0, 10, 500);
+
+        //then
+        assertEquals(2, entries.size());
+        assertEquals("1-0", entries.get(0).getId());
+        assertEquals("tx1", entries.get(0).getRequest().getTransactionId());
+        assertEquals("tx2", entries.get(1).getRequest().getTransactionId());
+    }
+
+    @Test
+    @DisplayName("ack 하면 stream 에서 지우고 PENDING 조회에서도 뺀다")
+    void ackAndRemove() {
+        //given
+        given(redissonClient.<String, String>getMap("DEBITQ:PENDING", StringCodec.INSTANCE)).willReturn(pendingMap);
+        DebitQueue.Entry entry = new DebitQueue.Entry("1-0", request("tx1"));
+
+        //when
+        queue.ack(0, Collections.singletonList(entry));
+
+        //then
+        StreamMessageId id = new StreamMessageId(1, 0);
+        InOrder order = inOrder(stream);
+        order.verify(stream).ack("appliers", id);
+        order.verify(stream).remove(id);
+        verify(pendingMap).fastRemove("tx1");
+    }
+
+    private DebitRequest request(String transactionId) {
+        return new DebitRequest(transactionId, 1L, "1000000000", 1000L, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import com.example.account.type.ErrorCode;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsAspectTest {
+    @Mock
+    private ProceedingJoinPoint proceedingJoinPoint;
+
+    @Mock
+    private MethodSignature signature;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private ServiceMetricsAspect serviceMetricsAspect;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // registry 에서 meter 를 찾을 때마다 filter 를 거친다
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                lookups.incrementAndGet();
+                return id;
+            }
+        });
+        serviceMetricsAspect = new ServiceMetricsAspect(meterRegistry);
+        given(proceedingJoinPoint.getSignature())
+            .willReturn(signature);
+        given(signature.getMethod())
+            .willReturn(TransactionService.class.getMethod("useBalance", Long.class, String.class, Long.class));
+        given(signature.getDeclaringType())
+            .willReturn(TransactionService.class);
+        given(signature.getName())
+            .willReturn("useBalance");
+    }
+
+    @Test
+    @DisplayName("메서드/결과별 Timer 를 한 번만 만들고 재사용")
+    void reuseTimerPerMethodAndResult() throws Throwable {
+        //given
+        given(proceedingJoinPoint.proceed())
+            .willReturn(null, null, null)
+            .willThrow(AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE));
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            serviceMetricsAspect.aroundMethod(proceedingJoinPoint);
+        }
+        assertThrows(AccountException.class, () -> serviceMetricsAspect.aroundMethod(proceedingJoinPoint));
+
+        //then
+        assertEquals(2, lookups.get());
+        assertEquals(3, meterRegistry.get("account.service")
+            .tags("class", "TransactionService", "method", "useBalance", "result", "SUCCESS")
+            .timer().count());
+        assertEquals(1, meterRegistry.get("account.service")
+            .tags("result", "AMOUNT_EXCEED_BALANCE")
+            .timer().count());
+    }
+}
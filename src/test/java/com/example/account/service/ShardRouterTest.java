@@ -0,0 +1,287 @@
+package com.example.account.service;
+
+import com.example.account.config.ShardContextHolder;
+import com.example.account.config.ShardingProperties;
+import com.example.account.domain.Account;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ShardRouterTest {
+    private static final int SHARDS = 4;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private LookupFilterService lookupFilterService;
+
+    @Mock
+    private RBucket<Integer> directory;
+
+    @Mock
+    private RBucket<Integer> missing;
+
+    private ShardingProperties shardingProperties;
+    private ShardRouter shardRouter;
+
+    @BeforeEach
+    void setUp() {
+        shardingProperties = new ShardingProperties();
+        shardingProperties.setEnabled(true);
+        List<ShardingProperties.Shard> shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            shards.add(new ShardingProperties.Shard());
+        }
+        shardingProperties.setShards(shards);
+        shardingProperties.setTransactionDirectoryTtl(Duration.ofDays(400));
+        shardRouter = new ShardRouter(shardingProperties, redissonClient, transactionRepository, lookupFilterService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ShardContextHolder.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("샤드마다 발급한 계좌번호는 발급한 샤드로 다시 라우팅된다")
+    void allocatedAccountNumberRoutesBack() {
+        //given
+        //when
+        //then
+        for (int shard = 0; shard < SHARDS; shard++) {
+            for (long id = 1; id <= 100; id++) {
+                Account account = Account.builder().id(id).build();
+                account.initAccountNumber(SHARDS, shard);
+
+                assertEquals(10, account.getAccountNumber().length());
+                assertEquals(shard, shardRouter.shardOfAccountNumber(account.getAccountNumber()));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("샤드별 id 가 같아도 계좌번호는 겹치지 않는다")
+    void allocatedAccountNumbersDoNotCollide() {
+        //given
+        Account first = Account.builder().id(7L).build();
+        Account second = Account.builder().id(7L).build();
+
+        //when
+        first.initAccountNumber(SHARDS, 0);
+        second.initAccountNumber(SHARDS, 1);
+
+        //then
+        assertEquals("0000000028", first.getAccountNumber());
+        assertEquals("0000000029", second.getAccountNumber());
+    }
+
+    @Test
+    @DisplayName("10자리를 넘는 계좌번호는 발급하지 않는다")
+    void rejectAccountNumberOverTenDigits() {
+        //given
+        long maxId = (9_999_999_999L - 3) / SHARDS;
+        Account last = Account.builder().id(maxId).build();
+        Account over = Account.builder().id(maxId + 1).build();
+
+        //when
+        last.initAccountNumber(SHARDS, 3);
+        AccountException exception = assertThrows(AccountException.class,
+            () -> over.initAccountNumber(SHARDS, 3));
+
+        //then
+        assertEquals(10, last.getAccountNumber().length());
+        assertEquals(3, shardRouter.shardOfAccountNumber(last.getAccountNumber()));
+        assertEquals(ErrorCode.SYSTEM_MAX_ACCOUNT, exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("사용자는 userId % 샤드 수, 샤딩하지 않으면 모두 0번 샤드")
+    void routeUsers() {
+        //given
+        //when
+        //then
+        assertEquals(2, shardRouter.shardOfUserId(6L));
+        assertEquals(0, shardRouter.shardOfUserId(null));
+
+        shardingProperties.setEnabled(false);
+        assertEquals(0, shardRouter.shardOfUserId(6L));
+        assertEquals(0, shardRouter.shardOfAccountNumber("0000000029"));
+    }
+
+    @Test
+    @DisplayName("거래 ID 는 커밋된 뒤에 지정한 샤드로 디렉토리에 올린다")
+    void registerTransactionAfterCommit() {
+        //given
+        given(redissonClient.<Integer>getBucket(eq("TXSHARD:tx1"), any(Codec.class)))
+            .willReturn(directory);
+        TransactionSynchronizationManager.initSynchronization();
+        ShardContextHolder.set(2);
+
+        //when
+        shardRouter.registerTransaction("tx1");
+        ShardContextHolder.clear();
+
+        //then
+        verifyNoInteractions(redissonClient);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        verify(directory).set(2, TimeUnit.DAYS.toMillis(400), TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    @DisplayName("롤백된 거래 ID 는 디렉토리에 올리지 않는다")
+    void skipRolledBackTransaction() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        ShardContextHolder.set(1);
+
+        //when
+        shardRouter.registerTransaction("tx1");
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        //then
+        verifyNoInteractions(redissonClient);
+    }
+
+    @Test
+    @DisplayName("디렉토리에 올리지 못해도 커밋된 거래에는 예외를 던지지 않는다")
+    void ignoreDirectoryWriteFailure() {
+        //given
+        given(redissonClient.<Integer>getBucket(eq("TXSHARD:tx1"), any(Codec.class)))
+            .willReturn(directory);
+        willThrow(new IllegalStateException("redis down"))
+            .given(directory).set(anyInt(), anyLong(), any());
+        ShardContextHolder.set(2);
+
+        //when
+        //then
+        assertDoesNotThrow(() -> shardRouter.registerTransaction("tx1"));
+    }
+
+    @Test
+    @DisplayName("디렉토리에 없는 거래는 모든 샤드에서 찾아 디렉토리를 고친다")
+    void repairMissingDirectoryEntry() {
+        //given
+        given(redissonClient.<Integer>getBucket(eq("TXSHARD:tx1"), any(Codec.class)))
+            .willReturn(missing);
+        given(transactionRepository.existsByTransactionId("tx1"))
+            .willAnswer(invocation -> ShardContextHolder.get() == 2);
+        ShardContextHolder.set(1);
+
+        //when
+        int shard = shardRouter.shardOfTransactionId("tx1");
+
+        //then
+        assertEquals(2, shard);
+        verify(transactionRepository, times(3)).existsByTransactionId("tx1");
+        verify(missing).set(2, TimeUnit.DAYS.toMillis(400), TimeUnit.MILLISECONDS);
+        assertEquals(1, ShardContextHolder.get());
+    }
+
+    @Test
+    @DisplayName("모든 샤드에 없는 거래는 negative cache 에 남기고, 남은 동안은 다시 찾지 않는다")
+    void recordScanMiss() {
+        //given
+        given(redissonClient.<Integer>getBucket(eq("TXSHARD:tx1"), any(Codec.class)))
+            .willReturn(missing);
+        given(lookupFilterService.isMissingTransaction("tx1"))
+            .willReturn(false, true);
+
+        //when
+        assertEquals(0, shardRouter.shardOfTransactionId("tx1"));
+        assertEquals(0, shardRouter.shardOfTransactionId("tx1"));
+
+        //then
+        verify(transactionRepository, times(SHARDS)).existsByTransactionId("tx1");
+        verify(lookupFilterService).recordMissingTransaction("tx1");
+    }
+
+    @Test
+    @DisplayName("디렉토리 보관 기간은 취소 가능 기간보다 짧게 설정할 수 없다")
+    void directoryTtlCoversCancelWindow() {
+        //given
+        shardingProperties.setTransactionDirectoryTtl(Duration.ofDays(31));
+
+        //when
+        //then
+        assertEquals(ShardingProperties.MIN_TRANSACTION_DIRECTORY_TTL, shardingProperties.getTransactionDirectoryTtl());
+    }
+
+    @Test
+    @DisplayName("트랜잭션 안에서는 다른 샤드를 찾지 않는다")
+    void skipScanInsideTransaction() {
+        //given
+        given(redissonClient.<Integer>getBucket(eq("TXSHARD:tx1"), any(Codec.class)))
+            .willReturn(missing);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        //when
+        try {
+            assertEquals(0, shardRouter.shardOfTransactionId("tx1"));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        //then
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @DisplayName("어느 샤드에도 없는 거래는 0번 샤드, 다른 샤드 거래는 구분")
+    void routeTransactions() {
+        //given
+        given(redissonClient.<Integer>getBucket(eq("TXSHARD:tx1"), any(Codec.class)))
+            .willReturn(directory);
+        given(redissonClient.<Integer>getBucket(eq("TXSHARD:unknown"), any(Codec.class)))
+            .willReturn(missing);
+        given(directory.get())
+            .willReturn(3);
+        ShardContextHolder.set(1);
+
+        //when
+        //then
+        assertEquals(3, shardRouter.shardOfTransactionId("tx1"));
+        assertEquals(0, shardRouter.shardOfTransactionId("unknown"));
+        assertTrue(shardRouter.isTransactionOnOtherShard("tx1"));
+        assertFalse(shardRouter.isTransactionOnOtherShard("unknown"));
+    }
+}
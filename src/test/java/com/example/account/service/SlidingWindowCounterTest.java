@@ -0,0 +1,61 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Test
+    void rejectOverLimit() {
+        //given
+        SlidingWindowCounter counter = new SlidingWindowCounter(24, DAY);
+        long now = 1000 * DAY;
+
+        //when
+        //then
+        assertTrue(counter.tryAdd(7000, 10000, now));
+        assertFalse(counter.tryAdd(4000, 10000, now + HOUR));
+        assertTrue(counter.tryAdd(3000, 10000, now + HOUR));
+        assertEquals(10000, counter.total(now + HOUR));
+    }
+
+    @Test
+    @DisplayName("window 가 지난 버킷은 합계에서 빠진다")
+    void expireOldBuckets() {
+        //given
+        SlidingWindowCounter counter = new SlidingWindowCounter(24, DAY);
+        long now = 1000 * DAY;
+        counter.tryAdd(7000, 10000, now);
+        counter.tryAdd(3000, 10000, now + 5 * HOUR);
+
+        //when
+        //then
+        assertEquals(3000, counter.total(now + DAY));
+        assertTrue(counter.tryAdd(7000, 10000, now + DAY));
+        assertEquals(0, counter.total(now + 3 * DAY));
+    }
+
+    @Test
+    @DisplayName("취소는 원래 사용 시점 버킷에서 빼고, window 밖이면 무시")
+    void releaseAtOriginalBucket() {
+        //given
+        SlidingWindowCounter counter = new SlidingWindowCounter(24, DAY);
+        long now = 1000 * DAY;
+        counter.tryAdd(7000, 10000, now);
+        counter.tryAdd(3000, 10000, now + 5 * HOUR);
+
+        //when
+        counter.add(-3000, now + 5 * HOUR, now + 6 * HOUR);
+        counter.add(-7000, now, now + DAY + HOUR);
+
+        //then
+        assertEquals(0, counter.total(now + DAY + HOUR));
+        assertEquals(0, counter.total(now + 2 * DAY));
+    }
+}
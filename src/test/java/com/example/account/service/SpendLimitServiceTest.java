@@ -0,0 +1,235 @@
+package com.example.account.service;
+
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.DailyAggregateRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.type.ErrorCode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static com.example.account.type.TransactionResultType.F;
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.CANCEL;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SpendLimitServiceTest {
+    private static final String ACCOUNT = "1000000000";
+
+    @Mock
+    private DailyAggregateRepository dailyAggregateRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountIndexService accountIndexService;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private RedissonClient redissonClient;
+
+    @InjectMocks
+    private SpendLimitService spendLimitService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(spendLimitService, "enabled", true);
+        ReflectionTestUtils.setField(spendLimitService, "accountDailyLimit", 10000L);
+        ReflectionTestUtils.setField(spendLimitService, "bucketCount", 24);
+        ReflectionTestUtils.setField(spendLimitService, "rebuilt", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("거래가 롤백되면 더한 금액을 되돌린다")
+    void refundOnRollback() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        spendLimitService.consume(1L, ACCOUNT, 7000L);
+
+        //when
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        //then
+        spendLimitService.consume(1L, ACCOUNT, 10000L);
+    }
+
+    @Test
+    @DisplayName("커밋된 사용은 한도에 남는다")
+    void keepOnCommit() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        spendLimitService.consume(1L, ACCOUNT, 7000L);
+
+        //when
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        //then
+        AccountException exception = assertThrows(AccountException.class,
+            () -> spendLimitService.consume(1L, ACCOUNT, 4000L));
+        assertEquals(ErrorCode.DAILY_LIMIT_EXCEEDED, exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("취소 금액은 원래 사용 시점 버킷에서 빼고, window 밖의 사용이면 무시")
+    void releaseIntoOriginalBucket() {
+        //given
+        spendLimitService.consume(1L, ACCOUNT, 7000L);
+
+        //when
+        spendLimitService.release(ACCOUNT, 7000L, LocalDateTime.now().minusDays(2));
+
+        //then
+        assertThrows(AccountException.class, () -> spendLimitService.consume(1L, ACCOUNT, 4000L));
+        spendLimitService.release(ACCOUNT, 7000L, LocalDateTime.now());
+        spendLimitService.consume(1L, ACCOUNT, 10000L);
+    }
+
+    @Test
+    @DisplayName("인덱스에 없는 계좌는 DB 에서 소유자를 찾아 사용자 한도도 되돌린다")
+    void releaseUserLimitWithOwnerFromDb() {
+        //given
+        ReflectionTestUtils.setField(spendLimitService, "accountDailyLimit", 0L);
+        ReflectionTestUtils.setField(spendLimitService, "userDailyLimit", 10000L);
+        given(accountIndexService.lookup(ACCOUNT))
+            .willReturn(AccountIndex.ABSENT);
+        given(accountRepository.findOwnerIdByAccountNumber(ACCOUNT))
+            .willReturn(Optional.of(1L));
+        spendLimitService.consume(1L, ACCOUNT, 7000L);
+
+        //when
+        spendLimitService.release(ACCOUNT, 7000L, LocalDateTime.now());
+
+        //then
+        spendLimitService.consume(1L, ACCOUNT, 10000L);
+    }
+
+    @Test
+    @DisplayName("계좌 한도만 있으면 소유자를 찾지 않는다")
+    void releaseWithoutOwnerLookup() {
+        //given
+        spendLimitService.consume(1L, ACCOUNT, 7000L);
+
+        //when
+        spendLimitService.release(ACCOUNT, 7000L, LocalDateTime.now());
+
+        //then
+        verify(accountIndexService, never()).lookup(any());
+        verify(accountRepository, never()).findOwnerIdByAccountNumber(any());
+    }
+
+    @Test
+    @DisplayName("카운터 복구가 끝나기 전에는 사용을 거절한다")
+    void rejectUntilRebuilt() {
+        //given
+        ReflectionTestUtils.setField(spendLimitService, "rebuilt", false);
+        LocalDateTime cutoff = LocalDateTime.now();
+        given(shardRouter.getShardCount())
+            .willReturn(1);
+        given(dailyAggregateRepository.findSpendBetween(any(), any(), anyLong(), any()))
+            .willReturn(Collections.emptyList());
+        given(transactionRepository.sumByAccountBetween(any(), any()))
+            .willReturn(Collections.emptyList());
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> spendLimitService.consume(1L, ACCOUNT, 1000L));
+        spendLimitService.rebuild(cutoff);
+
+        //then
+        assertEquals(ErrorCode.TOO_MANY_REQUESTS, exception.getErrorCode());
+        spendLimitService.consume(1L, ACCOUNT, 10000L);
+    }
+
+    @Test
+    @DisplayName("기동 시 오늘 cutoff 전까지의 거래(사용 - 취소)로 카운터를 채운다")
+    void rebuildFromTransactionsBeforeCutoff() {
+        //given
+        ReflectionTestUtils.setField(spendLimitService, "rebuilt", false);
+        LocalDateTime cutoff = LocalDateTime.now();
+        LocalDate today = cutoff.toLocalDate();
+        given(shardRouter.getShardCount())
+            .willReturn(1);
+        given(dailyAggregateRepository.findSpendBetween(eq(today.minusDays(1)), eq(today), anyLong(), any()))
+            .willReturn(Collections.emptyList());
+        given(transactionRepository.sumByAccountBetween(today.atStartOfDay(), cutoff))
+            .willReturn(Arrays.asList(
+                new Object[]{ACCOUNT, 1L, USE, S, 9000L, 2L},
+                new Object[]{ACCOUNT, 1L, CANCEL, S, 1000L, 1L},
+                new Object[]{ACCOUNT, 1L, USE, F, 5000L, 1L}));
+
+        //when
+        spendLimitService.rebuild(cutoff);
+
+        //then
+        assertThrows(AccountException.class, () -> spendLimitService.consume(1L, ACCOUNT, 3000L));
+        spendLimitService.consume(1L, ACCOUNT, 2000L);
+    }
+
+    @Test
+    @DisplayName("cutoff 날짜의 집계 행은 읽지 않아 cutoff 이후 사용을 두 번 세지 않는다")
+    void skipAggregateOfCutoffDate() {
+        //given
+        ReflectionTestUtils.setField(spendLimitService, "rebuilt", false);
+        LocalDateTime cutoff = LocalDateTime.now();
+        LocalDate today = cutoff.toLocalDate();
+        given(shardRouter.getShardCount())
+            .willReturn(1);
+        given(dailyAggregateRepository.findSpendBetween(any(), any(), anyLong(), any()))
+            .willReturn(Collections.emptyList());
+        given(transactionRepository.sumByAccountBetween(today.atStartOfDay(), cutoff))
+            .willReturn(Collections.singletonList(new Object[]{ACCOUNT, 1L, USE, S, 4000L, 1L}));
+
+        //when
+        spendLimitService.rebuild(cutoff);
+        // cutoff 이후 사용, flush 로 오늘 집계 행에도 더해진다
+        spendLimitService.consume(1L, ACCOUNT, 6000L);
+
+        //then
+        verify(dailyAggregateRepository).findSpendBetween(eq(today.minusDays(1)), eq(today), anyLong(), any());
+        assertThrows(AccountException.class, () -> spendLimitService.consume(1L, ACCOUNT, 1L));
+    }
+
+    private void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
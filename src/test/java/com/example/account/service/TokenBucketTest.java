@@ -0,0 +1,80 @@
+package com.example.account.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("capacity 만큼 한 번에 통과시키고 그 뒤는 거절")
+    void burstUpToCapacity() {
+        //given
+        long now = 1000 * MILLI;
+        TokenBucket bucket = new TokenBucket(3, 3, now);
+
+        //when
+        //then
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now));
+        assertFalse(bucket.tryAcquire(now));
+    }
+
+    @Test
+    @DisplayName("지난 시간만큼 토큰이 다시 찬다")
+    void refillOverTime() {
+        //given
+        long now = 1000 * MILLI;
+        TokenBucket bucket = new TokenBucket(10, 10, now);
+        for (int i = 0; i < 10; i++) {
+            bucket.tryAcquire(now);
+        }
+
+        //when
+        //then
+        assertFalse(bucket.tryAcquire(now + 50 * MILLI));
+        assertTrue(bucket.tryAcquire(now + 100 * MILLI));
+        assertFalse(bucket.tryAcquire(now + 100 * MILLI));
+        assertTrue(bucket.tryAcquire(now + 300 * MILLI));
+        assertTrue(bucket.tryAcquire(now + 300 * MILLI));
+        assertFalse(bucket.tryAcquire(now + 300 * MILLI));
+    }
+
+    @Test
+    @DisplayName("오래 쉬어도 capacity 이상 쌓이지 않는다")
+    void capAtCapacity() {
+        //given
+        long now = 1000 * MILLI;
+        TokenBucket bucket = new TokenBucket(2, 2, now);
+        bucket.tryAcquire(now);
+
+        //when
+        long later = now + 10_000 * MILLI;
+
+        //then
+        assertTrue(bucket.isFull(later));
+        assertTrue(bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later));
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    @DisplayName("시계가 뒤로 가도 토큰이 줄거나 늘지 않는다")
+    void ignoreClockGoingBack() {
+        //given
+        long now = 1000 * MILLI;
+        TokenBucket bucket = new TokenBucket(1, 1, now);
+        bucket.tryAcquire(now);
+
+        //when
+        //then
+        assertFalse(bucket.tryAcquire(now - 5000 * MILLI));
+        assertFalse(bucket.isFull(now));
+        assertTrue(bucket.tryAcquire(now + 1000 * MILLI));
+    }
+}
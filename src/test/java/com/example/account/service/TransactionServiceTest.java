@@ -15,9 +15,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Optional;
 
 import static com.example.account.type.AccountStatus.IN_USE;
@@ -26,9 +30,12 @@ import static com.example.account.type.TransactionResultType.S;
 import static com.example.account.type.TransactionType.CANCEL;
 import static com.example.account.type.TransactionType.USE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -43,6 +50,30 @@ class TransactionServiceTest {
     @Mock
     private AccountUserRepository accountUserRepository;
 
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private HotAccountEngine hotAccountEngine;
+
+    @Mock
+    private LookupFilterService lookupFilterService;
+
+    @Mock
+    private PreValidationService preValidationService;
+
+    @Mock
+    private DailyAggregateService dailyAggregateService;
+
+    @Mock
+    private SpendLimitService spendLimitService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -56,12 +87,14 @@ class TransactionServiceTest {
         Account account = Account.builder()
             .accountUser(user)
             .accountStatus(IN_USE)
-            .balance(10000L)
+            .balance(9800L)
             .accountNumber("1000000012").build();
-        given(accountUserRepository.findById(anyLong()))
-            .willReturn(Optional.of(user));
-        given(accountRepository.findByAccountNumber(anyString()))
-            .willReturn(Optional.of(account));
+        given(accountRepository.useBalanceIfAvailable(anyLong(), anyString(), anyLong(), any(), any()))
+            .willReturn(1);
+        given(accountRepository.findIdAndBalance(anyString()))
+            .willReturn(Collections.singletonList(new Object[]{7L, 9800L}));
+        given(accountRepository.getById(7L))
+            .willReturn(account);
         given(transactionRepository.save(any()))
             .willReturn(Transaction.builder()
                 .transactionType(USE)
@@ -79,9 +112,12 @@ class TransactionServiceTest {
                     "1000000012", 200L);
 
         //then
+        verify(accountUserRepository, never()).findById(anyLong());
+        verify(accountRepository, never()).findByAccountNumber(anyString());
         verify(transactionRepository, times(1)).save(captor.capture());
         assertEquals(200L, captor.getValue().getAmount());
         assertEquals(9800L,captor.getValue().getBalanceSnapshot());
+        assertSame(account, captor.getValue().getAccount());
 
         assertEquals(S, transactionDto.getTransactionResult());
         assertEquals(USE, transactionDto.getTransactionType());
@@ -475,4 +511,23 @@ class TransactionServiceTest {
         //then
         assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, accountException.getErrorCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("hot 계좌 사용은 DB 트랜잭션 밖에서 처리하고, 거절되면 한도 차감을 되돌린다")
+    void useHotBalance_refundOnReject() {
+        //given
+        given(hotAccountEngine.owns("1000000000")).willReturn(true);
+        given(hotAccountEngine.useBalance(1L, "1000000000", 1000L, null))
+            .willThrow(AccountException.of(ErrorCode.AMOUNT_EXCEED_BALANCE));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+            () -> transactionService.useBalance(1L, "1000000000", 1000L));
+
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        verify(transactionTemplate, never()).execute(any());
+        verify(spendLimitService).consume(1L, "1000000000", 1000L);
+        verify(spendLimitService).refund(1L, "1000000000", 1000L);
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.account.stress;
+
+import com.example.account.controller.TransactionController;
+import com.example.account.domain.Account;
+import com.example.account.domain.Transaction;
+import com.example.account.dto.CancelBalance;
+import com.example.account.dto.UseBalance;
+import com.example.account.exception.AccountException;
+import com.example.account.repository.AccountRepository;
+import com.example.account.repository.TransactionRepository;
+import com.example.account.service.AccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static com.example.account.type.TransactionResultType.S;
+import static com.example.account.type.TransactionType.USE;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 실제 락 경로(@AccountLock -> redis 락 -> TransactionService)로 사용/취소를 동시에 보내고
+ * 잔액 불변식을 검증한다.
+ * - redis 락, DB statement 실행 앞에 임의 지연을 넣어 경합을 키운다
+ * - ./gradlew stressTest -Pstress.operations=5000 -Pstress.threads=64
+ */
+@Slf4j
+@Tag("stress")
+@SpringBootTest(properties = {
+    "account.rate-limit.enabled=false",
+    "account.admission.enabled=false",
+    "account.tracing.enabled=false",
+    "logging.level.com.example.account=WARN"
+})
+class BalanceConcurrencyStressTest {
+    private static final int THREADS = Integer.getInteger("stress.threads", 32);
+    private static final int OPERATIONS = Integer.getInteger("stress.operations", 2000);
+    private static final int ACCOUNTS = Integer.getInteger("stress.accounts", 4);
+    private static final long REDIS_DELAY_MICROS = Long.getLong("stress.redisDelayMicros", 2000);
+    private static final long DB_DELAY_MICROS = Long.getLong("stress.dbDelayMicros", 1000);
+    private static final long INITIAL_BALANCE = 100_000L;
+
+    @Autowired
+    private TransactionController transactionController;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    @DisplayName("동시 사용/취소 후 잔액 = 초기 잔액 - 성공한 사용 + 성공한 취소, 음수 잔액 없음, 스냅샷 순서 일치")
+    void balanceInvariantsHoldUnderContention() throws InterruptedException {
+        //given
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers.add(accountService.createAccount(1L, INITIAL_BALANCE).getAccountNumber());
+        }
+        Map<String, LongAdder> usedAmounts = new ConcurrentHashMap<>();
+        Map<String, LongAdder> cancelledAmounts = new ConcurrentHashMap<>();
+        Map<String, ConcurrentLinkedQueue<UseBalance.Response>> cancellable = new ConcurrentHashMap<>();
+        for (String accountNumber : accountNumbers) {
+            usedAmounts.put(accountNumber, new LongAdder());
+            cancelledAmounts.put(accountNumber, new LongAdder());
+            cancellable.put(accountNumber, new ConcurrentLinkedQueue<>());
+        }
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+        //when
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                String accountNumber = accountNumbers.get(random.nextInt(accountNumbers.size()));
+                UseBalance.Response toCancel = random.nextInt(10) < 3
+                    ? cancellable.get(accountNumber).poll() : null;
+                try {
+                    if (toCancel == null) {
+                        long amount = 10 + random.nextInt(5000);
+                        UseBalance.Response response = transactionController.useBalance(
+                            new UseBalance.Request(1L, accountNumber, amount)).getBody();
+                        usedAmounts.get(accountNumber).add(amount);
+                        cancellable.get(accountNumber).add(response);
+                        count(outcomes, "USE_OK");
+                    } else {
+                        transactionController.cancelBalance(new CancelBalance.Request(
+                            toCancel.getTransactionId(), accountNumber, toCancel.getAmount()));
+                        cancelledAmounts.get(accountNumber).add(toCancel.getAmount());
+                        count(outcomes, "CANCEL_OK");
+                    }
+                } catch (AccountException e) {
+                    if (toCancel != null) {
+                        cancellable.get(accountNumber).add(toCancel);
+                    }
+                    count(outcomes, e.getErrorCode().name());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        //then
+        log.info("stress: {} ops in {}s ({} ops/s), outcomes={}",
+            OPERATIONS, String.format("%.2f", seconds), String.format("%.1f", OPERATIONS / seconds),
+            new TreeMap<>(outcomes));
+
+        List<Transaction> transactions = transactionRepository.findAll();
+        for (String accountNumber : accountNumbers) {
+            Account account = accountRepository.findByAccountNumber(accountNumber).get();
+            long expected = INITIAL_BALANCE
+                - usedAmounts.get(accountNumber).sum()
+                + cancelledAmounts.get(accountNumber).sum();
+            assertEquals(expected, account.getBalance(), "balance of " + accountNumber);
+            assertTrue(account.getBalance() >= 0, "negative balance of " + accountNumber);
+
+            verifySnapshotChain(accountNumber, account.getBalance(), transactions);
+        }
+    }
+
+    /**
+     * 성공 거래를 id(기록) 순서로 재생했을 때 각 balanceSnapshot 과 최종 잔액이 일치해야 한다
+     */
+    private void verifySnapshotChain(String accountNumber, long finalBalance, List<Transaction> transactions) {
+        List<Transaction> succeeded = transactions.stream()
+            .filter(t -> accountNumber.equals(t.getAccount().getAccountNumber()))
+            .filter(t -> t.getTransactionResultType() == S)
+            .sorted(Comparator.comparing(Transaction::getId))
+            .collect(Collectors.toList());
+
+        long balance = INITIAL_BALANCE;
+        for (Transaction transaction : succeeded) {
+            balance += transaction.getTransactionType() == USE
+                ? -transaction.getAmount() : transaction.getAmount();
+            assertTrue(balance >= 0, "negative snapshot at " + transaction.getTransactionId());
+            assertEquals(balance, transaction.getBalanceSnapshot(),
+                "snapshot out of order at " + transaction.getTransactionId());
+        }
+        assertEquals(finalBalance, balance, "snapshot chain end of " + accountNumber);
+    }
+
+    private static void count(Map<String, LongAdder> outcomes, String outcome) {
+        outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+    }
+
+    private static void randomDelay(long maxMicros) {
+        if (maxMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(
+                ThreadLocalRandom.current().nextLong(maxMicros + 1)));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T delaying(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * redis 락 획득/해제, DB statement 실행 앞에 지연 주입
+     */
+    @TestConfiguration
+    static class DelayInjectionConfig {
+
+        @Bean
+        static BeanPostProcessor delayInjectingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof RedissonClient) {
+                        return delayingRedisson((RedissonClient) bean);
+                    }
+                    if (bean instanceof DataSource) {
+                        return delayingDataSource((DataSource) bean);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static RedissonClient delayingRedisson(RedissonClient client) {
+            return delaying(RedissonClient.class, (proxy, method, args) -> {
+                Object result = invoke(client, method, args);
+                if (result instanceof RLock) {
+                    RLock lock = (RLock) result;
+                    return delaying(RLock.class, (lockProxy, lockMethod, lockArgs) -> {
+                        if (lockMethod.getName().equals("tryLock") || lockMethod.getName().equals("unlock")) {
+                            randomDelay(REDIS_DELAY_MICROS);
+                        }
+                        return invoke(lock, lockMethod, lockArgs);
+                    });
+                }
+                return result;
+            });
+        }
+
+        private static DataSource delayingDataSource(DataSource dataSource) {
+            return delaying(DataSource.class, (proxy, method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                if (!(result instanceof Connection)) {
+                    return result;
+                }
+                Connection connection = (Connection) result;
+                return delaying(Connection.class, (connectionProxy, connectionMethod, connectionArgs) -> {
+                    Object created = invoke(connection, connectionMethod, connectionArgs);
+                    if (!(created instanceof PreparedStatement)) {
+                        return created;
+                    }
+                    PreparedStatement statement = (PreparedStatement) created;
+                    return delaying(PreparedStatement.class, (statementProxy, statementMethod, statementArgs) -> {
+                        if (statementMethod.getName().startsWith("execute")) {
+                            randomDelay(DB_DELAY_MICROS);
+                        }
+                        return invoke(statement, statementMethod, statementArgs);
+                    });
+                });
+            });
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.account.trace;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementInspectorTest {
+    private final SqlStatistics sqlStatistics = new SqlStatistics(100, 3, 1000);
+    private final SqlStatementInspector inspector = new SqlStatementInspector(sqlStatistics, 0);
+
+    @AfterEach
+    void tearDown() {
+        RequestTrace.end();
+    }
+
+    @Test
+    @DisplayName("리터럴, in 목록, 공백, 대소문자를 정규화한다")
+    void normalizeFingerprint() {
+        //given
+        //when
+        String fingerprint = inspector.fingerprint(
+            "SELECT *  FROM account\n WHERE name = 'O''Brien' AND id IN (?, ?,?) AND balance > 1000");
+
+        //then
+        assertEquals("select * from account where name = ? and id in (?) and balance > ?", fingerprint);
+    }
+
+    @Test
+    @DisplayName("식별자 안의 숫자는 남긴다")
+    void keepDigitsInIdentifiers() {
+        //given
+        //when
+        String fingerprint = inspector.fingerprint("select col_1 from shard2_account where id = 7");
+
+        //then
+        assertEquals("select col_1 from shard2_account where id = ?", fingerprint);
+    }
+
+    @Test
+    @DisplayName("리터럴만 다른 SQL 은 같은 fingerprint 로 모인다")
+    void aggregateByFingerprint() {
+        //given
+        //when
+        inspector.recordExecution("select * from account where id = 1", 1_000_000);
+        inspector.recordExecution("select * from account where id = 2", 3_000_000);
+        inspector.recordExecution("select * from transaction where id = 'tx'", 500_000);
+
+        //then
+        List<Map<String, Object>> top = sqlStatistics.top(10);
+        assertEquals(2, top.size());
+        assertEquals("select * from account where id = ?", top.get(0).get("fingerprint"));
+        assertEquals(2L, top.get(0).get("count"));
+        assertEquals(4L, top.get(0).get("totalMs"));
+        assertEquals(3L, top.get(0).get("maxMs"));
+    }
+
+    @Test
+    @DisplayName("한 요청에서 같은 fingerprint 가 threshold 번 나오면 N+1 로 한 번 기록")
+    void detectNPlusOne() {
+        //given
+        RequestTrace.start("test");
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            inspector.inspect("select * from account_user where id = " + i);
+        }
+        inspector.recordExecution("select * from account_user where id = 1", 1000);
+
+        //then
+        assertEquals(1L, sqlStatistics.top(1).get(0).get("nPlusOneCount"));
+    }
+}
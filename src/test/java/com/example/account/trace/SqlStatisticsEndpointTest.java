@@ -0,0 +1,39 @@
+package com.example.account.trace;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatisticsEndpointTest {
+    private final SqlStatistics sqlStatistics = new SqlStatistics(100, 5, 1000);
+    private final SqlStatisticsEndpoint endpoint = new SqlStatisticsEndpoint(sqlStatistics);
+    private final SqlStatisticsResetEndpoint resetEndpoint = new SqlStatisticsResetEndpoint(sqlStatistics);
+
+    @Test
+    @DisplayName("limit 이 없으면 상위 20개")
+    void defaultLimit() {
+        //given
+        for (int i = 0; i < 30; i++) {
+            sqlStatistics.recordExecution("select " + i, 1000);
+        }
+
+        //when
+        //then
+        assertEquals(20, endpoint.top(null).size());
+        assertEquals(5, endpoint.top(5).size());
+    }
+
+    @Test
+    @DisplayName("JMX reset 으로 통계를 비운다")
+    void reset() {
+        //given
+        sqlStatistics.recordExecution("select ?", 1000);
+
+        //when
+        resetEndpoint.reset();
+
+        //then
+        assertTrue(endpoint.top(null).isEmpty());
+    }
+}
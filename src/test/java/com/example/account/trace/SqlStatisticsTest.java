@@ -0,0 +1,88 @@
+package com.example.account.trace;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatisticsTest {
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("fingerprint 별 횟수, 누적/평균/최대 시간, 느린 실행 횟수")
+    void aggregateExecutions() {
+        //given
+        SqlStatistics sqlStatistics = new SqlStatistics(100, 5, 1000);
+
+        //when
+        sqlStatistics.recordExecution("select ?", 10 * MILLI);
+        sqlStatistics.recordExecution("select ?", 150 * MILLI);
+        sqlStatistics.recordExecution("select ?", 20 * MILLI);
+
+        //then
+        Map<String, Object> stats = sqlStatistics.top(1).get(0);
+        assertEquals("select ?", stats.get("fingerprint"));
+        assertEquals(3L, stats.get("count"));
+        assertEquals(180L, stats.get("totalMs"));
+        assertEquals(60_000L, stats.get("avgMicros"));
+        assertEquals(150L, stats.get("maxMs"));
+        assertEquals(1L, stats.get("slowCount"));
+        assertEquals(0L, stats.get("nPlusOneCount"));
+    }
+
+    @Test
+    @DisplayName("누적 시간 순으로 limit 개만")
+    void topByTotalTime() {
+        //given
+        SqlStatistics sqlStatistics = new SqlStatistics(100, 5, 1000);
+        sqlStatistics.recordExecution("a", 1 * MILLI);
+        sqlStatistics.recordExecution("b", 30 * MILLI);
+        sqlStatistics.recordExecution("c", 20 * MILLI);
+        sqlStatistics.recordExecution("c", 20 * MILLI);
+
+        //when
+        List<Map<String, Object>> top = sqlStatistics.top(2);
+
+        //then
+        assertEquals(2, top.size());
+        assertEquals("c", top.get(0).get("fingerprint"));
+        assertEquals("b", top.get(1).get("fingerprint"));
+    }
+
+    @Test
+    @DisplayName("max-fingerprints 를 넘는 fingerprint 는 <other> 로 모은다")
+    void overflowToOther() {
+        //given
+        SqlStatistics sqlStatistics = new SqlStatistics(100, 5, 2);
+        sqlStatistics.recordExecution("a", MILLI);
+        sqlStatistics.recordExecution("b", MILLI);
+
+        //when
+        sqlStatistics.recordExecution("c", 10 * MILLI);
+        sqlStatistics.recordExecution("d", 10 * MILLI);
+        sqlStatistics.recordExecution("a", MILLI);
+
+        //then
+        Map<String, Object> other = sqlStatistics.top(1).get(0);
+        assertEquals("<other>", other.get("fingerprint"));
+        assertEquals(2L, other.get("count"));
+        assertEquals(3, sqlStatistics.top(10).size());
+    }
+
+    @Test
+    void reset() {
+        //given
+        SqlStatistics sqlStatistics = new SqlStatistics(100, 5, 1000);
+        sqlStatistics.recordExecution("a", MILLI);
+
+        //when
+        sqlStatistics.reset();
+
+        //then
+        assertTrue(sqlStatistics.top(10).isEmpty());
+    }
+}
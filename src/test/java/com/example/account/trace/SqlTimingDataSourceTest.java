@@ -0,0 +1,121 @@
+package com.example.account.trace;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SqlTimingDataSourceTest {
+    private static final String SELECT = "select * from account where id = 1";
+    private static final String INSERT = "insert into transaction (id) values (2)";
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement select;
+
+    @Mock
+    private PreparedStatement insert;
+
+    @Mock
+    private Statement statement;
+
+    private SqlStatistics sqlStatistics;
+    private SqlTimingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sqlStatistics = new SqlStatistics(100, 5, 1000);
+        dataSource = new SqlTimingDataSource(target, new SqlStatementInspector(sqlStatistics, 0));
+        given(target.getConnection())
+            .willReturn(connection);
+    }
+
+    @Test
+    @DisplayName("중첩/batch 실행도 statement 를 만든 SQL 로 기록")
+    void recordByStatement() throws Exception {
+        //given
+        given(connection.prepareStatement(SELECT))
+            .willReturn(select);
+        given(connection.prepareStatement(INSERT))
+            .willReturn(insert);
+        Connection timed = dataSource.getConnection();
+        PreparedStatement outer = timed.prepareStatement(SELECT);
+        PreparedStatement inner = timed.prepareStatement(INSERT);
+
+        //when
+        inner.addBatch();
+        inner.addBatch();
+        outer.executeQuery();
+        inner.executeBatch();
+        outer.executeQuery();
+
+        //then
+        Map<Object, Object> counts = counts();
+        assertEquals(2L, counts.get("select * from account where id = ?"));
+        assertEquals(1L, counts.get("insert into transaction (id) values (?)"));
+        verify(insert).executeBatch();
+        assertSame(timed, outer.getConnection());
+    }
+
+    @Test
+    @DisplayName("일반 statement 는 실행한 SQL 로 기록")
+    void recordPlainStatement() throws Exception {
+        //given
+        given(connection.createStatement())
+            .willReturn(statement);
+        Statement timed = dataSource.getConnection().createStatement();
+
+        //when
+        timed.execute(SELECT);
+        timed.addBatch(INSERT);
+        timed.executeBatch();
+
+        //then
+        Map<Object, Object> counts = counts();
+        assertEquals(1L, counts.get("select * from account where id = ?"));
+        assertEquals(1L, counts.get("insert into transaction (id) values (?)"));
+    }
+
+    @Test
+    @DisplayName("프록시는 자기 자신과만 같다 (맵 키로 쓸 수 있다)")
+    void identityEquality() throws Exception {
+        //given
+        given(connection.prepareStatement(SELECT))
+            .willReturn(select);
+        PreparedStatement timed = dataSource.getConnection().prepareStatement(SELECT);
+
+        //when
+        Map<Statement, String> registry = new HashMap<>();
+        registry.put(timed, SELECT);
+
+        //then
+        assertEquals(timed, timed);
+        assertEquals(SELECT, registry.remove(timed));
+    }
+
+    private Map<Object, Object> counts() {
+        List<Map<String, Object>> top = sqlStatistics.top(10);
+        return top.stream().collect(Collectors.toMap(stats -> stats.get("fingerprint"), stats -> stats.get("count")));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.account.workload;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 부하/벤치마크 대상 키(계좌) 선택 분포 (부하 생성기와 jmh 벤치마크가 같이 쓴다)
+ * - UNIFORM : 모든 계좌가 같은 확률
+ * - ZIPFIAN : 소수의 hot 계좌에 요청이 몰림 (rank k 의 확률 ~ 1 / k^exponent)
+ */
+public final class KeyDistribution {
+    private final int keyCount;
+    private final double[] cumulative;
+
+    private KeyDistribution(int keyCount, double[] cumulative) {
+        this.keyCount = keyCount;
+        this.cumulative = cumulative;
+    }
+
+    public static KeyDistribution uniform(int keyCount) {
+        return new KeyDistribution(keyCount, null);
+    }
+
+    public static KeyDistribution zipfian(int keyCount, double exponent) {
+        double[] cumulative = new double[keyCount];
+        double sum = 0;
+        for (int rank = 1; rank <= keyCount; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < keyCount; i++) {
+            cumulative[i] /= sum;
+        }
+        return new KeyDistribution(keyCount, cumulative);
+    }
+
+    public static KeyDistribution of(String name, int keyCount, double exponent) {
+        return "zipfian".equalsIgnoreCase(name)
+            ? zipfian(keyCount, exponent) : uniform(keyCount);
+    }
+
+    /**
+     * 0 ~ keyCount-1 사이의 키 index
+     */
+    public int next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (cumulative == null) {
+            return random.nextInt(keyCount);
+        }
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, keyCount - 1);
+    }
+
+    public int getKeyCount() {
+        return keyCount;
+    }
+}